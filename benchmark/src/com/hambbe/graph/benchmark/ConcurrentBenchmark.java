@@ -0,0 +1,100 @@
+package com.hambbe.graph.benchmark;
+
+import com.hambbe.graph.ConcurrentGraph;
+import com.hambbe.graph.Edge;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.Vertex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search throughput of a {@link ConcurrentGraph} while other threads keep connecting and disconnecting vertexes.
+ * Readers and writers run in one group, so JMH reports the throughput of both sides under contention.
+ *
+ * Scale the readers with <tt>-tg 4,1</tt>, <tt>-tg 8,1</tt> and so on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentBenchmark {
+
+    /**
+     * Graph shared by readers and writers.
+     */
+    @State(Scope.Group)
+    public static class SharedGraph {
+
+        /** Shape of the generated graph. */
+        @Param({"GRID", "RANDOM"})
+        public GraphGenerator.Shape shape;
+
+        /** Number of vertexes. */
+        @Param({"10000"})
+        public int size;
+
+        /** Generated graph. */
+        public ConcurrentGraph<Integer, Integer> graph;
+
+        /** Vertexes of {@link #graph} by value. */
+        public Vertex[] vertexes;
+
+        /**
+         * Generate the graph.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = new ConcurrentGraph<>(Integer::doubleValue);
+            vertexes = GraphGenerator.generate(graph, shape, size, 42);
+        }
+    }
+
+    /**
+     * Random generator per thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+
+        /** Random with a seed per thread. */
+        public final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public List<Graphs.Link> search(final SharedGraph shared, final ThreadRandom thread) {
+        final Vertex from = shared.vertexes[thread.random.nextInt(shared.size)];
+        final Vertex to = shared.vertexes[thread.random.nextInt(shared.size)];
+        return Graphs.dijkstra(shared.graph, from, to);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public boolean update(final SharedGraph shared, final ThreadRandom thread) {
+        final Vertex from = shared.vertexes[thread.random.nextInt(shared.size)];
+        final Vertex to = shared.vertexes[thread.random.nextInt(shared.size)];
+        final Edge edge = shared.graph.connect(from, to, 1 + thread.random.nextInt(10));
+        shared.graph.disconnect(edge);
+        return shared.graph.adjacent(from, to);
+    }
+
+}
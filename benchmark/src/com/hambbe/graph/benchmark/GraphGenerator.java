@@ -0,0 +1,109 @@
+package com.hambbe.graph.benchmark;
+
+import com.hambbe.graph.Graph;
+import com.hambbe.graph.UndirectedGraph;
+import com.hambbe.graph.Vertex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates benchmark graphs with integer vertex values (0 .. n - 1) and integer edge weights.
+ */
+@SuppressWarnings("deprecation")
+public final class GraphGenerator {
+
+    /** Largest generated edge weight. */
+    private static final int MAX_WEIGHT = 100;
+
+    /**
+     * Shape of a generated graph.
+     */
+    public enum Shape {
+        /** Square grid, every vertex is connected to its (up to) four neighbours in both directions. */
+        GRID,
+        /** Random G(n, m) graph with m = 4n edges. */
+        RANDOM,
+        /** Preferential attachment (Barabási–Albert), every new vertex connects to 4 existing ones in both directions. */
+        SCALE_FREE,
+        /** Tree with 26 children per vertex, like the ABC graph of the tests. */
+        ABC
+    }
+
+    private GraphGenerator() { }
+
+    /**
+     * Fill graph with vertexes and edges.
+     *
+     * @param graph Empty graph to fill.
+     * @param shape Shape of the graph.
+     * @param n Number of vertexes.
+     * @param seed Random seed, the same seed always generates the same graph.
+     * @return Vertexes by value.
+     */
+    public static Vertex[] generate(final Graph<Integer, Integer> graph, final Shape shape, final int n, final long seed) {
+        final Random random = new Random(seed);
+        final Vertex[] vertexes = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            vertexes[i] = graph.addVertex(i);
+        }
+        switch (shape) {
+            case GRID:
+                final int width = (int) Math.ceil(Math.sqrt(n));
+                for (int i = 0; i < n; i++) {
+                    if ((i + 1) % width != 0 && i + 1 < n) connectBoth(graph, vertexes[i], vertexes[i + 1], random);
+                    if (i + width < n) connectBoth(graph, vertexes[i], vertexes[i + width], random);
+                }
+                break;
+            case RANDOM:
+                for (int m = 0; m < 4 * n; m++) {
+                    graph.connect(vertexes[random.nextInt(n)], vertexes[random.nextInt(n)], weight(random));
+                }
+                break;
+            case SCALE_FREE:
+                // Every edge end is added to targets, so picking a random element prefers vertexes with high degree.
+                final List<Integer> targets = new ArrayList<>();
+                for (int i = 1; i < n; i++) {
+                    final int edges = Math.min(i, 4);
+                    for (int k = 0; k < edges; k++) {
+                        final int j = targets.isEmpty() ? 0 : targets.get(random.nextInt(targets.size()));
+                        connectBoth(graph, vertexes[i], vertexes[j], random);
+                        targets.add(i);
+                        targets.add(j);
+                    }
+                }
+                break;
+            case ABC:
+                for (int i = 1; i < n; i++) {
+                    graph.connect(vertexes[(i - 1) / 26], vertexes[i], 1);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+        return vertexes;
+    }
+
+    /**
+     * @param graph Graph to connect in.
+     * @param a First vertex.
+     * @param b Second vertex.
+     * @param random Random for the weight.
+     */
+    private static void connectBoth(final Graph<Integer, Integer> graph, final Vertex a, final Vertex b, final Random random) {
+        final int weight = weight(random);
+        graph.connect(a, b, weight);
+        // UndirectedGraph already connects both directions.
+        if (!(graph instanceof UndirectedGraph)) graph.connect(b, a, weight);
+    }
+
+    /**
+     * @param random Random to use.
+     * @return Random edge weight.
+     */
+    private static int weight(final Random random) {
+        return 1 + random.nextInt(MAX_WEIGHT);
+    }
+
+}
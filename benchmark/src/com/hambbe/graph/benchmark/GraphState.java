@@ -0,0 +1,95 @@
+package com.hambbe.graph.benchmark;
+
+import com.hambbe.graph.ConcurrentGraph;
+import com.hambbe.graph.DirectedGraph;
+import com.hambbe.graph.Graph;
+import com.hambbe.graph.IntGraph;
+import com.hambbe.graph.UndirectedGraph;
+import com.hambbe.graph.UnweightedGraph;
+import com.hambbe.graph.Vertex;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.function.Supplier;
+
+/**
+ * Generated graph shared by all benchmark methods, for every combination of graph implementation, shape and size.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+
+    /**
+     * Graph implementations under test.
+     */
+    public enum GraphType {
+        /** {@link IntGraph}. */
+        INT(IntGraph::new),
+        /** {@link IntGraph} with array storage. */
+        INT_ARRAY(() -> new IntGraph<>(true, UnweightedGraph.Storage.ARRAY)),
+        /** {@link DirectedGraph} with boxed weights. */
+        DIRECTED(() -> new DirectedGraph<>(Integer::doubleValue)),
+        /** {@link ConcurrentGraph} with copy on write adjacency. */
+        CONCURRENT(() -> new ConcurrentGraph<>(Integer::doubleValue)),
+        /** {@link UndirectedGraph} on top of a {@link DirectedGraph}. */
+        @SuppressWarnings("deprecation")
+        UNDIRECTED(() -> new UndirectedGraph<>(Integer::doubleValue));
+
+        /** Creates an empty graph. */
+        private final Supplier<Graph<Integer, Integer>> factory;
+
+        /**
+         * @param factory Field value.
+         */
+        GraphType(final Supplier<Graph<Integer, Integer>> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * @return New empty graph.
+         */
+        public Graph<Integer, Integer> create() {
+            return factory.get();
+        }
+    }
+
+    /** Graph implementation. */
+    @Param({"INT", "INT_ARRAY", "DIRECTED", "CONCURRENT", "UNDIRECTED"})
+    public GraphType graphType;
+
+    /** Shape of the generated graph. */
+    @Param({"GRID", "RANDOM", "SCALE_FREE", "ABC"})
+    public GraphGenerator.Shape shape;
+
+    /** Number of vertexes. */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    /** Generated graph. */
+    public Graph<Integer, Integer> graph;
+
+    /** Vertexes of {@link #graph} by value. */
+    public Vertex[] vertexes;
+
+    /** Start vertex for searches. */
+    public Vertex from;
+
+    /** Goal vertex for searches. */
+    public Vertex to;
+
+    /**
+     * Generate the graph. Start and goal are the first and the last vertex,
+     * which are far apart in the grid and the ABC tree.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = graphType.create();
+        vertexes = GraphGenerator.generate(graph, shape, size, 42);
+        from = vertexes[0];
+        to = vertexes[size - 1];
+    }
+
+}
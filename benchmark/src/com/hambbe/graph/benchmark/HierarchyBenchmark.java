@@ -0,0 +1,134 @@
+package com.hambbe.graph.benchmark;
+
+import com.hambbe.graph.ContractionHierarchy;
+import com.hambbe.graph.DijkstraEngine;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.IntGraph;
+import com.hambbe.graph.Vertex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point to point queries of a {@link ContractionHierarchy} against Dijkstra on the same graph.
+ * The preprocessing runs once per trial and is not measured, it takes about 10 seconds for the grid of 10<sup>5</sup>
+ * vertexes.
+ *
+ * Every call answers the next of a fixed list of random queries, so the results don't depend on one lucky pair.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HierarchyBenchmark {
+
+    /** Number of prepared queries. */
+    private static final int QUERIES = 1024;
+
+    /**
+     * Graph, its hierarchy and the queries.
+     */
+    @State(Scope.Benchmark)
+    public static class Hierarchy {
+
+        /** Shape of the generated graph. Only road-like grids, random graphs take minutes to contract. */
+        @Param({"GRID"})
+        public GraphGenerator.Shape shape;
+
+        /** Number of vertexes. */
+        @Param({"10000", "100000"})
+        public int size;
+
+        /** Generated graph. */
+        public IntGraph<Integer> graph;
+
+        /** Engine for the Dijkstra baseline. */
+        public DijkstraEngine engine;
+
+        /** Hierarchy of {@link #graph}. */
+        public ContractionHierarchy hierarchy;
+
+        /** Start vertex of each query. */
+        public Vertex[] from;
+
+        /** Goal vertex of each query. */
+        public Vertex[] to;
+
+        /**
+         * Generate the graph, contract it and pick the queries.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = new IntGraph<>();
+            final Vertex[] vertexes = GraphGenerator.generate(graph, shape, size, 42);
+            engine = new DijkstraEngine(graph);
+            hierarchy = new ContractionHierarchy(graph);
+            final Random random = new Random(7);
+            from = new Vertex[QUERIES];
+            to = new Vertex[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                from[i] = vertexes[random.nextInt(size)];
+                to[i] = vertexes[random.nextInt(size)];
+            }
+        }
+    }
+
+    /**
+     * Position in the queries of a thread.
+     */
+    @State(Scope.Thread)
+    public static class NextQuery {
+
+        /** Next query. */
+        private int next = 0;
+
+        /**
+         * @return Position of the query to run, moving on to the next one.
+         */
+        public int take() {
+            final int result = next;
+            next = (next + 1) & (QUERIES - 1);
+            return result;
+        }
+    }
+
+    @Benchmark
+    public List<Graphs.Link> dijkstra(final Hierarchy state, final NextQuery query) {
+        final int i = query.take();
+        return Graphs.dijkstra(state.graph, state.from[i], state.to[i]);
+    }
+
+    @Benchmark
+    public List<Graphs.Link> dijkstraEngine(final Hierarchy state, final NextQuery query) {
+        final int i = query.take();
+        return state.engine.shortestPath(state.from[i], state.to[i]);
+    }
+
+    @Benchmark
+    public double hierarchyDistance(final Hierarchy state, final NextQuery query) {
+        final int i = query.take();
+        return state.hierarchy.distance(state.from[i], state.to[i]);
+    }
+
+    @Benchmark
+    public List<Graphs.Link> hierarchyPath(final Hierarchy state, final NextQuery query) {
+        final int i = query.take();
+        return state.hierarchy.shortestPath(state.from[i], state.to[i]);
+    }
+
+}
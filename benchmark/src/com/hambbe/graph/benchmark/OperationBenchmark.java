@@ -0,0 +1,116 @@
+package com.hambbe.graph.benchmark;
+
+import com.hambbe.graph.Edge;
+import com.hambbe.graph.Graph;
+import com.hambbe.graph.Vertex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the basic {@link Graph} operations.
+ *
+ * Run with the gc profiler to see the allocation rate as well:
+ * <pre>java -jar benchmarks.jar OperationBenchmark -prof gc</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperationBenchmark {
+
+    /**
+     * Random vertex picked before each call, so the benchmarks don't always hit the same vertex.
+     */
+    @State(Scope.Thread)
+    public static class RandomVertex {
+
+        /** Random with fixed seed. */
+        private final Random random = new Random(7);
+
+        /** Picked vertex. */
+        public Vertex vertex;
+
+        /** Second picked vertex. */
+        public Vertex other;
+
+        /**
+         * @param state Graph to pick from.
+         */
+        @Setup(Level.Invocation)
+        public void pick(final GraphState state) {
+            vertex = state.vertexes[random.nextInt(state.size)];
+            other = state.vertexes[random.nextInt(state.size)];
+        }
+    }
+
+    /**
+     * Freshly generated graph per invocation, because removing vertexes destroys it.
+     * Only sizes up to 10000 are used, generating the graph would dominate otherwise.
+     */
+    @State(Scope.Thread)
+    public static class FreshGraph {
+
+        /** Generated graph. */
+        public Graph<Integer, Integer> graph;
+
+        /** Vertex to remove. */
+        public Vertex vertex;
+
+        /**
+         * @param state Parameters of the graph to generate.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(final GraphState state) {
+            graph = state.graphType.create();
+            final Vertex[] vertexes = GraphGenerator.generate(graph, state.shape, Math.min(state.size, 10000), 42);
+            vertex = vertexes[vertexes.length / 2];
+        }
+    }
+
+    @Benchmark
+    public void connect(final GraphState state, final RandomVertex pick) {
+        // Disconnect again, so the graph doesn't grow over the iterations.
+        final Edge edge = state.graph.connect(pick.vertex, pick.other, 1);
+        if (edge != null) {
+            state.graph.disconnect(edge);
+        } else {
+            // UndirectedGraph doesn't return the edges it created.
+            state.graph.disconnect(pick.vertex, pick.other);
+        }
+    }
+
+    @Benchmark
+    public void removeVertex(final FreshGraph fresh) {
+        fresh.graph.removeVertex(fresh.vertex);
+    }
+
+    @Benchmark
+    public void getEdges(final GraphState state, final Blackhole blackhole) {
+        if (state.graphType == GraphState.GraphType.UNDIRECTED) return; // not supported by UndirectedGraph.
+        for (Edge edge : state.graph.getEdges()) {
+            blackhole.consume(edge);
+        }
+    }
+
+    @Benchmark
+    public List<Vertex> neighbors(final GraphState state, final RandomVertex pick) {
+        return state.graph.neighbors(pick.vertex);
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.hambbe.graph.benchmark;
+
+import com.hambbe.graph.Graph;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.Vertex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the search algorithms in {@link Graphs}.
+ *
+ * Run with the gc profiler to see the allocation rate as well:
+ * <pre>java -jar benchmarks.jar SearchBenchmark -prof gc</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    /**
+     * Smaller graphs for Bellman-Ford, which runs in O(|V| |E|) and would take minutes per call on 10<sup>5</sup>
+     * vertexes.
+     */
+    @State(Scope.Benchmark)
+    public static class SmallGraphState {
+
+        /** Graph implementation. */
+        @Param({"INT", "INT_ARRAY", "DIRECTED", "CONCURRENT", "UNDIRECTED"})
+        public GraphState.GraphType graphType;
+
+        /** Shape of the generated graph. */
+        @Param({"GRID", "RANDOM", "SCALE_FREE", "ABC"})
+        public GraphGenerator.Shape shape;
+
+        /** Number of vertexes. */
+        @Param({"1000", "10000"})
+        public int size;
+
+        /** Generated graph. */
+        public Graph<Integer, Integer> graph;
+
+        /** Start vertex for searches. */
+        public Vertex from;
+
+        /**
+         * Generate the graph.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = graphType.create();
+            from = GraphGenerator.generate(graph, shape, size, 42)[0];
+        }
+    }
+
+    @Benchmark
+    public List<Graphs.Link> dijkstra(final GraphState state) {
+        return Graphs.dijkstra(state.graph, state.from, state.to);
+    }
+
+    @Benchmark
+    public HashMap<?, LinkedList<Graphs.Link>> dijkstraAll(final GraphState state) {
+        return Graphs.dijkstra(state.graph, state.from);
+    }
+
+    @Benchmark
+    public List<Graphs.Link> aStar(final GraphState state) {
+        // Zero is an admissible heuristic for every shape.
+        return Graphs.aStar(state.graph, state.from, state.to, (Integer value) -> 0d);
+    }
+
+    @Benchmark
+    public List<Graphs.Link> bestFirstSearch(final GraphState state) {
+        final int goal = state.size - 1;
+        return Graphs.bestFirstSearch(state.graph, state.from, state.to, (Integer value) -> (double) Math.abs(goal - value));
+    }
+
+    @Benchmark
+    public HashMap<?, LinkedList<Graphs.Link>> bellmanFord(final SmallGraphState state) {
+        return Graphs.bellmanFord(state.graph, state.from);
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.hambbe.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs many searches on the same graph in parallel.
+ *
+ * The queries are split into chunks which are executed on an {@link ExecutorService}.
+ * Every worker thread reuses its own {@link SearchContext} for all queries of its chunks, and every chunk reuses
+ * one priority queue, or one {@link DijkstraEngine.Workspace} of distance and predecessor arrays and heap,
+ * for all of its queries. Results are returned in the order of the queries.
+ *
+ * The graph must not be modified while a batch is running.
+ */
+public class BatchSearch {
+
+    /** Number of chunks per thread, so threads finishing early can take over work. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Executor running the chunks. */
+    private final ExecutorService executor;
+
+    /** Number of threads of {@link #executor}. */
+    private final int parallelism;
+
+    /**
+     * Batch search on the common fork join pool.
+     */
+    public BatchSearch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Executor to run the searches on.
+     */
+    public BatchSearch(final ExecutorService executor) {
+        this(executor, (executor instanceof ForkJoinPool)
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param executor Executor to run the searches on.
+     * @param parallelism Number of threads the executor runs. Used for splitting the queries.
+     */
+    public BatchSearch(final ExecutorService executor, final int parallelism) {
+        if (executor == null) throw new IllegalArgumentException("executor can't be null");
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Run {@link Graphs#dijkstra(Graph, Vertex, Vertex)} for every query.
+     *
+     * @param graph Graph to search in.
+     * @param queries Start and goal vertexes.
+     * @param <V> Value type of vertex in graph.
+     * @param <E> Value type of edge in graph.
+     * @return Route for each query, in the order of the queries. Null for queries without a route.
+     */
+    public <V, E> List<List<Graphs.Link>> dijkstra(final Graph<V, E> graph, final List<Query> queries) {
+        final Object[] results = new Object[queries.size()];
+        run(queries.size(), Graphs::costQueue, (i, pq) -> {
+            final Query query = queries.get(i);
+            results[i] = Graphs.dijkstra(graph, query.from, query.to, pq);
+        });
+        return asList(results);
+    }
+
+    /**
+     * Find the shortest paths from every source to all vertexes.
+     * The graph is indexed once by a {@link DijkstraEngine} which is shared by all workers.
+     *
+     * @param graph Graph to search in.
+     * @param sources Start vertexes.
+     * @param <V> Value type of vertex in graph.
+     * @param <E> Value type of edge in graph.
+     * @return Routes for each source, in the order of the sources. Unreachable vertexes have no route.
+     */
+    public <V, E> List<HashMap<Vertex, LinkedList<Graphs.Link>>> dijkstraAll(final Graph<V, E> graph, final List<? extends Vertex> sources) {
+        final DijkstraEngine engine = new DijkstraEngine(graph);
+        final Object[] results = new Object[sources.size()];
+        run(sources.size(), engine::newWorkspace, (i, workspace) -> results[i] = engine.shortestPaths(sources.get(i), workspace).toRoutes());
+        return asList(results);
+    }
+
+    /**
+     * @param results Results array filled by the workers.
+     * @param <T> Type of results.
+     * @return Results as list.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(final Object[] results) {
+        return (List<T>) Arrays.asList(results);
+    }
+
+    /**
+     * Run task for the indexes <tt>0 .. count - 1</tt> in chunks on the executor and wait for all of them.
+     * @param count Number of indexes.
+     * @param scratch Creates the scratch state of a chunk, passed to all of its tasks.
+     * @param task Task to run per index.
+     * @param <S> Type of scratch state.
+     */
+    private <S> void run(final int count, final Supplier<S> scratch, final IndexTask<S> task) {
+        final int chunkSize = Math.max(1, (count + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD));
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int start = 0; start < count; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, count);
+            futures.add(executor.submit((Callable<Void>) () -> {
+                final S state = scratch.get();
+                for (int i = from; i < to; i++) {
+                    task.run(i, state);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch search.", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Batch search failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Work for a single index of a batch.
+     * @param <S> Type of scratch state.
+     */
+    private interface IndexTask<S> {
+        /**
+         * @param i Index of the query.
+         * @param scratch Scratch state of the chunk.
+         */
+        void run(int i, S scratch);
+    }
+
+    /**
+     * Point to point query of a batch.
+     */
+    public static class Query {
+
+        /** Start vertex. */
+        private final Vertex from;
+
+        /** Goal vertex. */
+        private final Vertex to;
+
+        /**
+         * @param from Field value.
+         * @param to Field value.
+         */
+        public Query(final Vertex from, final Vertex to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return Start vertex.
+         */
+        public Vertex getFrom() {
+            return from;
+        }
+
+        /**
+         * @return Goal vertex.
+         */
+        public Vertex getTo() {
+            return to;
+        }
+    }
+
+}
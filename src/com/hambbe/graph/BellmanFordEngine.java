@@ -0,0 +1,146 @@
+package com.hambbe.graph;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Queue based Bellman Ford implementation (SPFA) on primitive arrays.
+ *
+ * Instead of relaxing every edge |V| - 1 times, only the edges of vertexes whose distance changed are relaxed again.
+ * Changed vertexes wait in a FIFO queue, each vertex at most once, and the search ends as soon as the queue is empty.
+ * Distances and predecessors are kept in arrays indexed by vertex id, so relaxing an edge allocates nothing.
+ *
+ * Negative edge weights are allowed. A cycle with negative total costs reachable from the source is detected
+ * as soon as a shortest path would need |V| edges, and reported by {@link ShortestPathTree#getNegativeCycle()}.
+ *
+ * The engine works on the state of the graph at construction time.
+ */
+public class BellmanFordEngine {
+
+    /** Indexed graph. */
+    private final GraphIndex index;
+
+    /**
+     * @param graph Graph to search in.
+     */
+    public BellmanFordEngine(final Graph<?, ?> graph) {
+        this.index = GraphIndex.of(graph);
+    }
+
+    /**
+     * Find the shortest paths from <tt>from</tt> to all vertexes.
+     * @param from Start vertex.
+     * @return Shortest path tree rooted at from. Holds the negative cycle instead of paths, if one was found.
+     */
+    public ShortestPathTree shortestPaths(final Vertex from) {
+        final int n = index.size();
+        final int source = index.indexOf(from);
+        final double[] distances = new double[n];
+        final int[] predVertex = new int[n];
+        final int[] predEdge = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predVertex, -1);
+        Arrays.fill(predEdge, -1);
+        distances[source] = 0;
+        final ShortestPathTree tree = new ShortestPathTree(index, source, distances, predVertex, predEdge);
+        search(tree);
+        return tree;
+    }
+
+    /**
+     * Run the queue based Bellman Ford and write the result into tree.
+     * @param tree Initialized tree.
+     */
+    private void search(final ShortestPathTree tree) {
+        final int n = index.size();
+        final IntBuffer offsets = index.offsets;
+        final IntBuffer targets = index.targets;
+        final DoubleBuffer weights = index.weights;
+        final double[] distances = tree.distances;
+        final int[] predVertex = tree.predVertex;
+        final int[] predEdge = tree.predEdge;
+        // Number of edges of the current path to each vertex.
+        final int[] length = new int[n];
+        // Circular FIFO queue. Every vertex is at most once in the queue, so n slots are enough.
+        final int[] queue = new int[n];
+        final boolean[] queued = new boolean[n];
+        final SearchListener listener = Graphs.getSearchListener().searchStarted("bellmanFordEngine");
+        int head = 0;
+        int size = 1;
+        queue[0] = tree.source;
+        queued[tree.source] = true;
+        listener.stepsQueued(1, 1);
+        while (size > 0) {
+            final int u = queue[head];
+            head = (head + 1 == n) ? 0 : head + 1;
+            size--;
+            queued[u] = false;
+            listener.vertexesSettled(1);
+            final double du = distances[u];
+            for (int e = offsets.get(u); e < offsets.get(u + 1); e++) {
+                final int v = targets.get(e);
+                final double dv = du + weights.get(e);
+                if (dv < distances[v]) {
+                    distances[v] = dv;
+                    predVertex[v] = u;
+                    predEdge[v] = e;
+                    length[v] = length[u] + 1;
+                    if (length[v] >= n) {
+                        // A shortest path can't have n edges, so the predecessors contain a negative cycle.
+                        final List<Edge> cycle = findCycle(index, predVertex, predEdge);
+                        if (cycle != null) {
+                            tree.negativeCycle = cycle;
+                            listener.searchFinished(false);
+                            return;
+                        }
+                    }
+                    if (!queued[v]) {
+                        queued[v] = true;
+                        final int tail = head + size;
+                        queue[(tail >= n) ? tail - n : tail] = v;
+                        size++;
+                        listener.stepsQueued(1, size);
+                    }
+                }
+            }
+        }
+        listener.searchFinished(true);
+    }
+
+    /**
+     * Search a cycle in the predecessor graph. Every cycle there has negative total costs.
+     * @param index Index the ids refer to.
+     * @param predVertex Predecessor vertex id for each vertex id.
+     * @param predEdge Edge id used to reach each vertex id.
+     * @return Edges of the cycle in walking order. Null, if there is no cycle.
+     */
+    static List<Edge> findCycle(final GraphIndex index, final int[] predVertex, final int[] predEdge) {
+        final int n = predVertex.length;
+        // 0: not seen, otherwise the number of the walk which first saw the vertex.
+        final int[] walk = new int[n];
+        for (int start = 0; start < n; start++) {
+            if (walk[start] != 0) continue;
+            final int current = start + 1;
+            int v = start;
+            while (v >= 0 && walk[v] == 0) {
+                walk[v] = current;
+                v = predVertex[v];
+            }
+            if (v >= 0 && walk[v] == current) {
+                // Walked into a vertex of this walk: v is on a cycle.
+                final LinkedList<Edge> cycle = new LinkedList<>();
+                int w = v;
+                do {
+                    cycle.addFirst(index.edge(predVertex[w], predEdge[w]));
+                    w = predVertex[w];
+                } while (w != v);
+                return cycle;
+            }
+        }
+        return null;
+    }
+
+}
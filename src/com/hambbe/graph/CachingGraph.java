@@ -0,0 +1,633 @@
+package com.hambbe.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Decorator caching the results of {@link Graphs#dijkstra(Graph, Vertex, Vertex)} and
+ * {@link Graphs#dijkstraTree(Graph, Vertex)} for skewed query mixes.
+ *
+ * The cache is bounded by an estimate of its size in bytes and evicts the least recently used results first.
+ * All changes have to be made through this decorator. A change only drops the results it can affect:
+ * <ul>
+ * <li>{@link #connect(Vertex, Vertex, Object)} of an edge u -&gt; v with weight w drops a route whose search settled
+ * u with <tt>d(u) + w</tt> below the route costs and a tree with <tt>d(u) + w &lt; d(v)</tt>.
+ * <li>{@link #disconnect(Edge)} and {@link #disconnect(Vertex, Vertex)} drop the routes using the edge and the trees
+ * reaching a vertex over it, removing an edge nobody uses makes no path shorter.
+ * <li>{@link #removeVertex(Vertex)} drops the routes through the vertex and the trees reaching it.
+ * <li>{@link #addVertex(Object)} drops the trees, their index doesn't know the new vertex. Isolated vertexes
+ * don't change any path, so the routes are kept.
+ * <li>{@link #setValue(Vertex, Object)} doesn't change any path either, but vertexes of an {@link UnweightedGraph}
+ * hash by their value. Routes referencing the vertex are keyed anew, trees whose index holds the vertex are dropped.
+ * </ul>
+ * To find the routes a connect can affect, every vertex settled by a route search points back to the route.
+ *
+ * Cached routes are shared between callers and read only. Searches run outside the lock of the cache,
+ * results of searches overlapping a change are returned but not cached.
+ *
+ * Rules to work:
+ * <ul>
+ * <li>All step costs have to be positive.
+ * </ul>
+ *
+ * @param <V> Type of value in vertex.
+ * @param <E> Type for edges.
+ */
+public class CachingGraph<V, E> extends GraphDecorator<V, E> {
+
+    /** Estimated bytes of a cached entry without its data. */
+    private static final long ENTRY_BYTES = 96;
+
+    /** Estimated bytes per vertex settled by a route search, for its distance and its back reference. */
+    private static final long SETTLED_BYTES = 112;
+
+    /** Estimated bytes per link of a route. */
+    private static final long LINK_BYTES = 48;
+
+    /** Maximum estimated size of all cached results. */
+    private final long maxBytes;
+
+    /** Cached results in access order. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Cached routes by the vertexes their searches settled. */
+    private final HashMap<Vertex, Set<RouteEntry>> settledBy = new HashMap<>();
+
+    /** Cached trees. */
+    private final Set<TreeEntry> trees = new HashSet<>();
+
+    /** Estimated size of all cached results. */
+    private long bytes = 0;
+
+    /** Number of changes started or finished, searches overlapping a change are not cached. */
+    private long modifications = 0;
+
+    /** Number of results found in the cache. */
+    private long hits = 0;
+
+    /** Number of results not found in the cache. */
+    private long misses = 0;
+
+    /** Number of results dropped for space. */
+    private long evictions = 0;
+
+    /** Number of results dropped by changes. */
+    private long invalidations = 0;
+
+    /**
+     * @param graph Graph to decorate.
+     * @param maxBytes Maximum estimated size of all cached results.
+     */
+    public CachingGraph(final Graph<V, E> graph, final long maxBytes) {
+        super(graph);
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be positive");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Cached {@link Graphs#dijkstra(Graph, Vertex, Vertex)}. Answered from a cached tree of <tt>from</tt> as well.
+     * @param from Start item.
+     * @param to Goal item.
+     * @return Read only route to item, if exists. Empty, if to == from. Null, otherwise.
+     */
+    public List<Graphs.Link> dijkstra(final Vertex from, final Vertex to) {
+        final Key key = new Key(from, to);
+        final long started;
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return ((RouteEntry) entry).route;
+            }
+            final Entry tree = entries.get(new Key(from, null));
+            if (tree != null) {
+                final int id = treeId(((TreeEntry) tree).tree, to);
+                hits++;
+                return (id < 0) ? null : ((TreeEntry) tree).tree.route(id);
+            }
+            misses++;
+            started = modifications;
+        }
+        final RouteEntry entry = search(key);
+        synchronized (this) {
+            if (started == modifications) put(entry);
+        }
+        return entry.route;
+    }
+
+    /**
+     * Cached {@link Graphs#dijkstraTree(Graph, Vertex)}.
+     * @param from Vertex to search from.
+     * @return Distances and lazy routes to all vertexes.
+     */
+    public ShortestPathTree dijkstraTree(final Vertex from) {
+        final Key key = new Key(from, null);
+        final long started;
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return ((TreeEntry) entry).tree;
+            }
+            misses++;
+            started = modifications;
+        }
+        final TreeEntry entry = new TreeEntry(key, new DijkstraEngine(graph).shortestPaths(from));
+        synchronized (this) {
+            if (started == modifications) put(entry);
+        }
+        return entry.tree;
+    }
+
+    /**
+     * @return Number of results found in the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Number of results not found in the cache.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Number of results dropped for space.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return Number of results dropped by changes of the graph.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return Estimated size of all cached results in bytes.
+     */
+    public synchronized long getSizeInBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Number of cached results.
+     */
+    public synchronized int getCachedCount() {
+        return entries.size();
+    }
+
+    /**
+     * Drop all cached results. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        settledBy.clear();
+        trees.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public Edge connect(final Vertex from, final Vertex to, final E edgeValue) {
+        modified();
+        final Edge edge;
+        try {
+            edge = graph.connect(from, to, edgeValue);
+        } finally {
+            modified();
+        }
+        synchronized (this) {
+            if (edge != null) {
+                connected(edge.getFrom(), edge.getTo(), edge.getWeight());
+            } else {
+                // Decorators like UndirectedGraph don't return the edge, zero is a lower bound of its weight.
+                connected(from, to, 0);
+                connected(to, from, 0);
+            }
+        }
+        return edge;
+    }
+
+    @Override
+    public void disconnect(final Edge edge) {
+        synchronized (this) {
+            modifications++;
+            final Vertex to = edge.getTo();
+            for (RouteEntry entry : routesSettling(edge.getFrom())) {
+                if (entry.uses(link -> link.getEdge().equals(edge))) invalidate(entry);
+            }
+            for (TreeEntry entry : new ArrayList<>(trees)) {
+                final ShortestPathTree tree = entry.tree;
+                final int id = treeId(tree, to);
+                if (id >= 0 && tree.predEdge[id] >= 0 && tree.index.edge(tree.predVertex[id], tree.predEdge[id]).equals(edge)) invalidate(entry);
+            }
+        }
+        try {
+            graph.disconnect(edge);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public boolean disconnect(final Vertex from, final Vertex to) {
+        synchronized (this) {
+            modifications++;
+            for (RouteEntry entry : routesSettling(from)) {
+                if (entry.uses(link -> link.getFrom().equals(from) && link.getTo().equals(to))) invalidate(entry);
+            }
+            for (TreeEntry entry : new ArrayList<>(trees)) {
+                final int id = treeId(entry.tree, to);
+                if (id >= 0 && entry.tree.predVertex[id] >= 0 && entry.tree.predVertex[id] == treeId(entry.tree, from)) invalidate(entry);
+            }
+        }
+        try {
+            return graph.disconnect(from, to);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public Vertex addVertex(final V value) {
+        synchronized (this) {
+            modifications++;
+            for (TreeEntry entry : new ArrayList<>(trees)) {
+                invalidate(entry);
+            }
+        }
+        try {
+            return graph.addVertex(value);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public void setValue(final Vertex vertex, final V newValue) {
+        synchronized (this) {
+            modifications++;
+            final List<RouteEntry> routes = routesSettling(vertex);
+            final double[] distances = new double[routes.size()];
+            for (int i = 0; i < distances.length; i++) {
+                final RouteEntry entry = routes.get(i);
+                entries.remove(entry.key);
+                forget(entry);
+                distances[i] = entry.settled.remove(vertex);
+            }
+            for (TreeEntry entry : new ArrayList<>(trees)) {
+                if (treeId(entry.tree, vertex) >= 0) invalidate(entry);
+            }
+            try {
+                graph.setValue(vertex, newValue);
+            } finally {
+                for (int i = 0; i < distances.length; i++) {
+                    final RouteEntry entry = routes.get(i);
+                    entry.settled.put(vertex, distances[i]);
+                    entries.put(entry.key, entry);
+                    remember(entry);
+                }
+                modifications++;
+            }
+        }
+    }
+
+    @Override
+    public void removeVertex(final Vertex vertex) {
+        synchronized (this) {
+            modifications++;
+            for (RouteEntry entry : routesSettling(vertex)) {
+                if (entry.key.from.equals(vertex) || entry.key.to.equals(vertex) || entry.uses(link -> link.getTo().equals(vertex))) invalidate(entry);
+            }
+            for (TreeEntry entry : new ArrayList<>(trees)) {
+                final int id = treeId(entry.tree, vertex);
+                if (id >= 0 && entry.tree.distances[id] != Double.POSITIVE_INFINITY) invalidate(entry);
+            }
+        }
+        try {
+            graph.removeVertex(vertex);
+        } finally {
+            modified();
+        }
+    }
+
+    /**
+     * Count a change, so searches overlapping it are not cached.
+     */
+    private synchronized void modified() {
+        modifications++;
+    }
+
+    /**
+     * Drop the results an edge from <tt>from</tt> to <tt>to</tt> can make shorter.
+     * @param from Vertex the new edge starts at.
+     * @param to Vertex the new edge points to.
+     * @param weight Weight of the new edge.
+     */
+    private void connected(final Vertex from, final Vertex to, final double weight) {
+        for (RouteEntry entry : routesSettling(from)) {
+            if (entry.settled.get(from) + weight < entry.costs) invalidate(entry);
+        }
+        for (TreeEntry entry : new ArrayList<>(trees)) {
+            final ShortestPathTree tree = entry.tree;
+            final int fromId = treeId(tree, from);
+            if (fromId < 0 || tree.distances[fromId] == Double.POSITIVE_INFINITY) continue;
+            final int toId = treeId(tree, to);
+            final double toDistance = (toId < 0) ? Double.POSITIVE_INFINITY : tree.distances[toId];
+            if (tree.distances[fromId] + weight < toDistance) invalidate(entry);
+        }
+    }
+
+    /**
+     * @param vertex Vertex of the graph.
+     * @return Copy of the cached routes whose search settled vertex.
+     */
+    private List<RouteEntry> routesSettling(final Vertex vertex) {
+        final Set<RouteEntry> routes = settledBy.get(vertex);
+        return (routes == null) ? Collections.emptyList() : new ArrayList<>(routes);
+    }
+
+    /**
+     * Cache a result and evict the least recently used results, until the cache fits into {@link #maxBytes}.
+     * Results bigger than the whole cache are not cached.
+     * @param entry Result to cache.
+     */
+    private void put(final Entry entry) {
+        if (entry.bytes > maxBytes || entries.containsKey(entry.key)) return;
+        entries.put(entry.key, entry);
+        remember(entry);
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            final Entry evicted = eldest.next();
+            eldest.remove();
+            forget(evicted);
+            evictions++;
+        }
+    }
+
+    /**
+     * Drop a result made invalid by a change.
+     * @param entry Cached result.
+     */
+    private void invalidate(final Entry entry) {
+        if (entries.remove(entry.key) == null) return;
+        forget(entry);
+        invalidations++;
+    }
+
+    /**
+     * Add the references to a result added to {@link #entries}.
+     * @param entry Added result.
+     */
+    private void remember(final Entry entry) {
+        bytes += entry.bytes;
+        if (entry instanceof TreeEntry) {
+            trees.add((TreeEntry) entry);
+            return;
+        }
+        for (Vertex vertex : ((RouteEntry) entry).settled.keySet()) {
+            settledBy.computeIfAbsent(vertex, v -> new HashSet<>()).add((RouteEntry) entry);
+        }
+    }
+
+    /**
+     * Remove the references to a result dropped from {@link #entries}.
+     * @param entry Dropped result.
+     */
+    private void forget(final Entry entry) {
+        bytes -= entry.bytes;
+        if (entry instanceof TreeEntry) {
+            trees.remove(entry);
+            return;
+        }
+        for (Vertex vertex : ((RouteEntry) entry).settled.keySet()) {
+            final Set<RouteEntry> routes = settledBy.get(vertex);
+            routes.remove(entry);
+            if (routes.isEmpty()) settledBy.remove(vertex);
+        }
+    }
+
+    /**
+     * Dijkstra from <tt>key.from</tt> to <tt>key.to</tt>, remembering the distances of all settled vertexes.
+     * @param key Start and goal.
+     * @return Result to cache.
+     */
+    private RouteEntry search(final Key key) {
+        final HashMap<Vertex, Double> settled = new HashMap<>();
+        if (key.from.equals(key.to)) {
+            settled.put(key.from, 0d);
+            return new RouteEntry(key, Collections.emptyList(), 0, settled);
+        }
+        final HashMap<Vertex, Label> labels = new HashMap<>();
+        final PriorityQueue<Label> queue = new PriorityQueue<>((l1, l2) -> Double.compare(l1.distance, l2.distance));
+        final Label start = new Label(key.from, null, null, 0);
+        labels.put(key.from, start);
+        queue.add(start);
+        Label goal = null;
+        while (!queue.isEmpty()) {
+            final Label current = queue.poll();
+            if (settled.containsKey(current.vertex)) continue;
+            settled.put(current.vertex, current.distance);
+            if (current.vertex.equals(key.to)) {
+                goal = current;
+                break;
+            }
+            for (Edge edge : current.vertex.getEdges()) {
+                final Vertex next = edge.getTo();
+                final double distance = current.distance + edge.getWeight();
+                final Label old = labels.get(next);
+                if (old == null || distance < old.distance) {
+                    final Label label = new Label(next, current, edge, distance);
+                    labels.put(next, label);
+                    queue.add(label);
+                }
+            }
+        }
+        if (goal == null) {
+            // Remember the unreachable goal as well, so changes of it find the result.
+            settled.put(key.to, Double.POSITIVE_INFINITY);
+            return new RouteEntry(key, null, Double.POSITIVE_INFINITY, settled);
+        }
+        final LinkedList<Graphs.Link> route = new LinkedList<>();
+        for (Label label = goal; label.edge != null; label = label.prev) {
+            route.addFirst(new Graphs.Link(label.edge, label.distance));
+        }
+        return new RouteEntry(key, Collections.unmodifiableList(route), goal.distance, settled);
+    }
+
+    /**
+     * @param tree Cached tree.
+     * @param vertex Vertex of the graph.
+     * @return Id of vertex in the tree. -1, if the vertex was added after the tree was searched.
+     */
+    private static int treeId(final ShortestPathTree tree, final Vertex vertex) {
+        final int id;
+        try {
+            id = tree.index.indexOf(vertex);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        return (id < tree.distances.length) ? id : -1;
+    }
+
+    /**
+     * Start and goal of a cached search. The goal is null for trees.
+     */
+    private static final class Key {
+
+        /** Start vertex. */
+        private final Vertex from;
+
+        /** Goal vertex. Null, for trees. */
+        private final Vertex to;
+
+        /**
+         * @param from Field value.
+         * @param to Field value.
+         */
+        private Key(final Vertex from, final Vertex to) {
+            if (from == null) throw new IllegalArgumentException("from can't be null");
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) return false;
+            final Key other = (Key) obj;
+            return from.equals(other.from) && Objects.equals(to, other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * from.hashCode() + Objects.hashCode(to);
+        }
+    }
+
+    /**
+     * Cached result.
+     */
+    private abstract static class Entry {
+
+        /** Key of the result. */
+        final Key key;
+
+        /** Estimated size in bytes. */
+        final long bytes;
+
+        /**
+         * @param key Field value.
+         * @param bytes Field value.
+         */
+        Entry(final Key key, final long bytes) {
+            this.key = key;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Cached route with the distances of the vertexes settled while searching it.
+     * Every vertex with a distance below the route costs is settled, and so are the start and the goal.
+     * An unreachable goal has an infinite distance.
+     */
+    private static final class RouteEntry extends Entry {
+
+        /** Read only route. Null, if there is none. */
+        final List<Graphs.Link> route;
+
+        /** Costs of the route. {@link Double#POSITIVE_INFINITY}, if there is none. */
+        final double costs;
+
+        /** Distances of the settled vertexes. */
+        final HashMap<Vertex, Double> settled;
+
+        /**
+         * @param key Field value.
+         * @param route Field value.
+         * @param costs Field value.
+         * @param settled Field value.
+         */
+        RouteEntry(final Key key, final List<Graphs.Link> route, final double costs, final HashMap<Vertex, Double> settled) {
+            super(key, ENTRY_BYTES + SETTLED_BYTES * settled.size() + ((route == null) ? 0 : LINK_BYTES * route.size()));
+            this.route = route;
+            this.costs = costs;
+            this.settled = settled;
+        }
+
+        /**
+         * @param test Test for a link.
+         * @return True, if a link of the route passes the test.
+         */
+        boolean uses(final Predicate<Graphs.Link> test) {
+            if (route == null) return false;
+            for (Graphs.Link link : route) {
+                if (test.test(link)) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Cached shortest path tree.
+     */
+    private static final class TreeEntry extends Entry {
+
+        /** Cached tree. */
+        final ShortestPathTree tree;
+
+        /**
+         * @param key Field value.
+         * @param tree Field value.
+         */
+        TreeEntry(final Key key, final ShortestPathTree tree) {
+            super(key, ENTRY_BYTES + 16L * tree.distances.length + 4L * tree.index.size() + 12L * tree.index.edgeCount());
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * Tentative distance of a vertex in a route search.
+     */
+    private static final class Label {
+
+        /** Labeled vertex. */
+        final Vertex vertex;
+
+        /** Label of the previous vertex. Null, for the start. */
+        final Label prev;
+
+        /** Edge from the previous vertex. Null, for the start. */
+        final Edge edge;
+
+        /** Distance from the start. */
+        final double distance;
+
+        /**
+         * @param vertex Field value.
+         * @param prev Field value.
+         * @param edge Field value.
+         * @param distance Field value.
+         */
+        Label(final Vertex vertex, final Label prev, final Edge edge, final double distance) {
+            this.vertex = vertex;
+            this.prev = prev;
+            this.edge = edge;
+            this.distance = distance;
+        }
+    }
+
+}
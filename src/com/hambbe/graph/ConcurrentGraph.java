@@ -0,0 +1,1270 @@
+package com.hambbe.graph;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Directed graph for concurrent readers and writers.
+ *
+ * Every vertex points to an immutable {@link State} holding its value and arrays of its outgoing and incoming edges.
+ * Writers never change a state, they build a new one and swap the volatile reference (copy on write), so readers
+ * never block and never see a half done modification: iterating the edges of a vertex iterates the arrays of one
+ * state. Writers take the striped locks of the vertexes they change, always in ascending stripe order, so writers
+ * on different vertexes proceed in parallel. Edges are immutable, their weight is calculated once on connect.
+ *
+ * Reads are consistent per vertex, not across vertexes: a search running during updates sees every vertex as it was
+ * at the moment it looked at it. {@link #getVertexes()} and {@link #getEdges()} are weakly consistent and never throw
+ * a {@link java.util.ConcurrentModificationException}. Removed vertexes keep their id.
+ *
+ * Connecting costs O(degree) for copying the arrays, which suits graphs with moderate degrees and many more reads
+ * than writes.
+ *
+ * {@link #snapshot()} gives a consistent version of the whole graph in O(1) (multi version concurrency control).
+ * Every state is tagged with the graph version it was written in and keeps a link to the state it replaced, so a
+ * snapshot of version v reads the newest state of each vertex not newer than v. Writers hold the shared side of a
+ * read write lock striped by thread, taking a snapshot briefly holds the exclusive side of all stripes to start a new
+ * version, so no write is half visible in a snapshot. Old states are cut off the chains by the next write to a vertex, once no snapshot needs
+ * them anymore. Snapshots are released by {@link Snapshot#close()} or when they are garbage collected.
+ *
+ * @param <V> Type of value in vertex.
+ * @param <E> Type for edges.
+ */
+public class ConcurrentGraph<V, E> implements Graph<V, E>, IndexedGraph {
+
+    /** Number of locks guarding the vertexes. Power of two. */
+    private static final int LOCK_STRIPES = 1024;
+
+    /** Number of stripes of the {@link #gate}. Power of two. */
+    private static final int GATE_STRIPES = 64;
+
+    /** Shared empty edge array. */
+    private static final Object[] NO_EDGES = new Object[0];
+
+    /** User defined function for getting weight of an edge. */
+    private final ToDoubleFunction<E> edgeToWeight;
+
+    /** Striped locks, lock of vertex v is <tt>locks[v.id &amp; (LOCK_STRIPES - 1)]</tt>. */
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /** Guards adding vertexes. */
+    private final Object vertexLock = new Object();
+
+    /** Vertexes by id, replaced by a bigger copy when full. */
+    private volatile AtomicReferenceArray<ConcurrentVertex> vertexes = new AtomicReferenceArray<>(16);
+
+    /** Number of vertex ids handed out. */
+    private volatile int vertexIds = 0;
+
+    /** Number of vertexes in the graph. */
+    private final AtomicInteger vertexCount = new AtomicInteger();
+
+    /**
+     * Shared by writers, exclusive for starting a new version. Striped by thread, so writers on different threads
+     * don't contend on one lock word, starting a version takes the exclusive side of all stripes.
+     */
+    private final ReentrantReadWriteLock[] gate = new ReentrantReadWriteLock[GATE_STRIPES];
+
+    /** Version written by the writers. Only changed while holding the exclusive side of {@link #gate}. */
+    private volatile long version = 0;
+
+    /** Number of open snapshots by version. */
+    private final ConcurrentSkipListMap<Long, Integer> openVersions = new ConcurrentSkipListMap<>();
+
+    /** Trackers of the open snapshots, keeps them reachable until their snapshot is released. */
+    private final Map<SnapshotTracker, Boolean> trackers = new ConcurrentHashMap<>();
+
+    /** Trackers of snapshots collected without being closed. */
+    private final ReferenceQueue<Snapshot> collected = new ReferenceQueue<>();
+
+    /**
+     * @param edgeToWeight Field value.
+     */
+    public ConcurrentGraph(final ToDoubleFunction<E> edgeToWeight) {
+        if (edgeToWeight == null) throw new IllegalArgumentException("edgeToWeight can't be null");
+        this.edgeToWeight = edgeToWeight;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        for (int i = 0; i < GATE_STRIPES; i++) {
+            gate[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public Vertex addVertex(final V value) {
+        final Lock shared = sharedGate();
+        shared.lock();
+        try {
+            return addVertexShared(value);
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Add a vertex, while holding the shared side of {@link #gate}.
+     * @param value Value of the new vertex.
+     * @return New vertex.
+     */
+    private Vertex addVertexShared(final V value) {
+        synchronized (vertexLock) {
+            final int id = vertexIds;
+            AtomicReferenceArray<ConcurrentVertex> current = vertexes;
+            if (id == current.length()) {
+                final AtomicReferenceArray<ConcurrentVertex> bigger = new AtomicReferenceArray<>(id * 2);
+                for (int i = 0; i < id; i++) {
+                    bigger.set(i, current.get(i));
+                }
+                vertexes = bigger;
+                current = bigger;
+            }
+            final ConcurrentVertex vertex = new ConcurrentVertex(id, new State(value, NO_EDGES, NO_EDGES, true, version));
+            current.set(id, vertex);
+            vertexIds = id + 1;
+            vertexCount.incrementAndGet();
+            return vertex;
+        }
+    }
+
+    @Override
+    public Edge connect(final Vertex pFrom, final Vertex pTo, final E edgeValue) {
+        final ConcurrentVertex from = toConcurrentVertex(pFrom);
+        final ConcurrentVertex to = toConcurrentVertex(pTo);
+        final ConcurrentEdge edge = new ConcurrentEdge(from, to, edgeValue, edgeToWeight.applyAsDouble(edgeValue));
+        final Lock shared = sharedGate();
+        shared.lock();
+        try {
+            synchronized (firstLock(from, to)) {
+                synchronized (secondLock(from, to)) {
+                    if (!from.state.alive || !to.state.alive) throw new IllegalArgumentException("Supplied ConcurrentVertex not part of ConcurrentGraph");
+                    publish(from, from.state.withOut(append(from.state.out, edge), version));
+                    publish(to, to.state.withIn(append(to.state.in, edge), version));
+                }
+            }
+        } finally {
+            shared.unlock();
+        }
+        return edge;
+    }
+
+    @Override
+    public void disconnect(final Edge pEdge) {
+        final ConcurrentEdge edge = toConcurrentEdge(pEdge);
+        final Lock shared = sharedGate();
+        shared.lock();
+        try {
+            synchronized (firstLock(edge.from, edge.to)) {
+                synchronized (secondLock(edge.from, edge.to)) {
+                    final Object[] out = without(edge.from.state.out, edge);
+                    if (out != null) publish(edge.from, edge.from.state.withOut(out, version));
+                    final Object[] in = without(edge.to.state.in, edge);
+                    if (in != null) publish(edge.to, edge.to.state.withIn(in, version));
+                }
+            }
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public boolean disconnect(final Vertex pFrom, final Vertex pTo) {
+        if (pFrom == null || pTo == null) return false;
+        final ConcurrentVertex from = toConcurrentVertex(pFrom);
+        final ConcurrentVertex to = toConcurrentVertex(pTo);
+        final Lock shared = sharedGate();
+        shared.lock();
+        try {
+            synchronized (firstLock(from, to)) {
+                synchronized (secondLock(from, to)) {
+                    final Object[] out = withoutTarget(from.state.out, to);
+                    if (out == null) return false;
+                    publish(from, from.state.withOut(out, version));
+                    final List<Object> in = new ArrayList<>();
+                    for (Object edge : to.state.in) {
+                        if (((ConcurrentEdge) edge).from != from) in.add(edge);
+                    }
+                    publish(to, to.state.withIn(in.toArray(), version));
+                    return true;
+                }
+            }
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public void removeVertex(final Vertex pVertex) {
+        final ConcurrentVertex vertex = toConcurrentVertex(pVertex);
+        final Lock shared = sharedGate();
+        shared.lock();
+        try {
+            final State removed;
+            synchronized (lock(vertex)) {
+                removed = vertex.state;
+                if (!removed.alive) return;
+                // No edge can be connected to a dead vertex, so the arrays of this state hold all its edges.
+                publish(vertex, new State(null, NO_EDGES, NO_EDGES, false, version));
+            }
+            vertexCount.decrementAndGet();
+            for (Object o : removed.in) {
+                final ConcurrentEdge edge = (ConcurrentEdge) o;
+                if (edge.from == vertex) continue;
+                synchronized (lock(edge.from)) {
+                    final Object[] out = without(edge.from.state.out, edge);
+                    if (out != null) publish(edge.from, edge.from.state.withOut(out, version));
+                }
+            }
+            for (Object o : removed.out) {
+                final ConcurrentEdge edge = (ConcurrentEdge) o;
+                if (edge.to == vertex) continue;
+                synchronized (lock(edge.to)) {
+                    final Object[] in = without(edge.to.state.in, edge);
+                    if (in != null) publish(edge.to, edge.to.state.withIn(in, version));
+                }
+            }
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public void setValue(final Vertex pVertex, final V newValue) {
+        final ConcurrentVertex vertex = toConcurrentVertex(pVertex);
+        final Lock shared = sharedGate();
+        shared.lock();
+        try {
+            synchronized (lock(vertex)) {
+                final State state = vertex.state;
+                if (!state.alive) throw new IllegalArgumentException("Supplied ConcurrentVertex not part of ConcurrentGraph");
+                publish(vertex, new State(newValue, state.out, state.in, true, version));
+            }
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public boolean adjacent(final Vertex pFrom, final Vertex pTo) {
+        final ConcurrentVertex to = toConcurrentVertex(pTo);
+        for (Object edge : liveState(pFrom).out) {
+            if (((ConcurrentEdge) edge).to == to) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<Vertex> neighbors(final Vertex pFrom) {
+        final Object[] out = liveState(pFrom).out;
+        final List<Vertex> result = new ArrayList<>(out.length);
+        for (Object edge : out) {
+            result.add(((ConcurrentEdge) edge).to);
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(final Vertex vertex) {
+        return (V) liveState(vertex).value;
+    }
+
+    @Override
+    public E getEdgeValue(final Edge edge) {
+        return toConcurrentEdge(edge).value;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount.get();
+    }
+
+    @Override
+    public int degree(final Vertex vertex) {
+        return liveState(vertex).out.length;
+    }
+
+    @Override
+    public Iterable<? extends Vertex> getVertexes() {
+        return () -> new Iterator<Vertex>() {
+            private final AtomicReferenceArray<ConcurrentVertex> all = vertexes;
+            private final int end = Math.min(vertexIds, all.length());
+            private int next = advance(0);
+
+            private int advance(final int from) {
+                int id = from;
+                while (id < end && !all.get(id).state.alive) id++;
+                return id;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public Vertex next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                final Vertex vertex = all.get(next);
+                next = advance(next + 1);
+                return vertex;
+            }
+        };
+    }
+
+    @Override
+    public Iterable<? extends Edge> getEdges() {
+        return () -> vertexStream().flatMap(v -> Arrays.stream(((ConcurrentVertex) v).state.out).map(Edge.class::cast)).iterator();
+    }
+
+    @Override
+    public Vertex getVertex(final int index) {
+        if (index < 0 || index >= vertexIds) throw new IndexOutOfBoundsException("No vertex " + index);
+        return vertexes.get(index);
+    }
+
+    @Override
+    public int indexOf(final Vertex vertex) {
+        return toConcurrentVertex(vertex).id;
+    }
+
+    @Override
+    public Edge edgeAt(final int from, final int edge) {
+        return (Edge) vertexes.get(from).state.out[edge];
+    }
+
+    /**
+     * Take a consistent, immutable view of the current version in O(1). The snapshot shares all unchanged states
+     * with this graph. Later writes are not visible in it. Use {@link Snapshot#vertexOf(Vertex)} to find the
+     * vertexes of this graph in the snapshot.
+     * @return Snapshot of the current version.
+     */
+    @Override
+    public Snapshot snapshot() {
+        releaseCollected();
+        for (ReentrantReadWriteLock stripe : gate) {
+            stripe.writeLock().lock();
+        }
+        try {
+            final long snapshotVersion = version;
+            final Snapshot snapshot = new Snapshot(snapshotVersion, vertexIds, vertexCount.get());
+            openVersions.merge(snapshotVersion, 1, Integer::sum);
+            trackers.put(snapshot.tracker, Boolean.TRUE);
+            version = snapshotVersion + 1;
+            return snapshot;
+        } finally {
+            for (int i = GATE_STRIPES - 1; i >= 0; i--) {
+                gate[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @return Shared side of the {@link #gate} stripe of the current thread.
+     */
+    private Lock sharedGate() {
+        return gate[(int) Thread.currentThread().getId() & (GATE_STRIPES - 1)].readLock();
+    }
+
+    /**
+     * @return Number of snapshots not yet released.
+     */
+    public int openSnapshots() {
+        releaseCollected();
+        return trackers.size();
+    }
+
+    /**
+     * Replace the state of a vertex, while holding its lock and the shared side of {@link #gate}.
+     * The chain keeps only the states open snapshots read: states replaced within the same version and states
+     * of released versions are cut out, so its length is bounded by the number of open versions.
+     * No snapshot is started meanwhile, released versions only make the chain keep more than needed.
+     * @param vertex Vertex to change.
+     * @param next New state of the vertex.
+     */
+    private void publish(final ConcurrentVertex vertex, final State next) {
+        releaseCollected();
+        next.previous = vertex.state;
+        // Newer than every open version, so next is never read by a snapshot and only heads the chain.
+        State last = next;
+        for (final long open : openVersions.descendingKeySet()) {
+            if (last != next && last.version <= open) continue;
+            State state = last.previous;
+            while (state != null && state.version > open) {
+                state = state.previous;
+            }
+            if (state == null) break;
+            if (last.previous != state) last.previous = state;
+            last = state;
+        }
+        if (last.previous != null) last.previous = null;
+        vertex.state = next;
+    }
+
+    /**
+     * @param vertex Vertex of this graph.
+     * @return Number of states on the version chain of the vertex.
+     */
+    int chainLength(final Vertex vertex) {
+        int length = 0;
+        for (State state = toConcurrentVertex(vertex).state; state != null; state = state.previous) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Enqueue the tracker of a snapshot as if the snapshot was garbage collected, to test the release without the collector.
+     * @param snapshot Snapshot of this graph.
+     */
+    void collected(final Snapshot snapshot) {
+        snapshot.tracker.enqueue();
+    }
+
+    /**
+     * Release the snapshots that were garbage collected without being closed.
+     */
+    private void releaseCollected() {
+        Reference<? extends Snapshot> reference;
+        while ((reference = collected.poll()) != null) {
+            ((SnapshotTracker) reference).release();
+        }
+    }
+
+    /**
+     * Copy the topology into CSR arrays for the primitive search engines. The state of each vertex is read once,
+     * so the index is consistent per vertex even while writers are active.
+     * @return Index of this graph.
+     */
+    GraphIndex index() {
+        final AtomicReferenceArray<ConcurrentVertex> all = vertexes;
+        final int n = Math.min(vertexIds, all.length());
+        final Object[][] adjacency = new Object[n][];
+        final int[] offsets = new int[n + 1];
+        int edgeCount = 0;
+        for (int id = 0; id < n; id++) {
+            final State state = all.get(id).state;
+            adjacency[id] = state.out;
+            offsets[id] = edgeCount;
+            edgeCount += state.out.length;
+        }
+        offsets[n] = edgeCount;
+        final int[] targets = new int[edgeCount];
+        final double[] weights = new double[edgeCount];
+        final Edge[] edges = new Edge[edgeCount];
+        int position = 0;
+        for (Object[] out : adjacency) {
+            for (Object o : out) {
+                final ConcurrentEdge edge = (ConcurrentEdge) o;
+                targets[position] = edge.to.id;
+                weights[position] = edge.weight;
+                edges[position++] = edge;
+            }
+        }
+        return new GraphIndex(this, offsets, targets, weights, null, edges);
+    }
+
+    /**
+     * @param vertex Vertex of this graph.
+     * @return Lock of the vertex.
+     */
+    private Object lock(final ConcurrentVertex vertex) {
+        return locks[vertex.id & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * @param a Vertex of this graph.
+     * @param b Vertex of this graph.
+     * @return Lock to take first, when locking both vertexes.
+     */
+    private Object firstLock(final ConcurrentVertex a, final ConcurrentVertex b) {
+        return locks[Math.min(a.id & (LOCK_STRIPES - 1), b.id & (LOCK_STRIPES - 1))];
+    }
+
+    /**
+     * @param a Vertex of this graph.
+     * @param b Vertex of this graph.
+     * @return Lock to take second, when locking both vertexes. Same as the first one, if both share a stripe.
+     */
+    private Object secondLock(final ConcurrentVertex a, final ConcurrentVertex b) {
+        return locks[Math.max(a.id & (LOCK_STRIPES - 1), b.id & (LOCK_STRIPES - 1))];
+    }
+
+    /**
+     * @param edges Edge array.
+     * @param edge Edge to append.
+     * @return Copy of edges with edge appended.
+     */
+    private static Object[] append(final Object[] edges, final Object edge) {
+        final Object[] result = Arrays.copyOf(edges, edges.length + 1);
+        result[edges.length] = edge;
+        return result;
+    }
+
+    /**
+     * @param edges Edge array.
+     * @param edge Edge to remove.
+     * @return Copy of edges without edge. Null, if edge is not in edges.
+     */
+    private static Object[] without(final Object[] edges, final Object edge) {
+        for (int i = 0; i < edges.length; i++) {
+            if (edges[i] == edge) {
+                final Object[] result = new Object[edges.length - 1];
+                System.arraycopy(edges, 0, result, 0, i);
+                System.arraycopy(edges, i + 1, result, i, edges.length - i - 1);
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param edges Outgoing edges.
+     * @param to Target vertex.
+     * @return Copy of edges without the edges to target. Null, if there are none.
+     */
+    private Object[] withoutTarget(final Object[] edges, final Vertex to) {
+        final List<Object> result = new ArrayList<>(edges.length);
+        for (Object edge : edges) {
+            if (((ConcurrentEdge) edge).to != to) result.add(edge);
+        }
+        return (result.size() == edges.length) ? null : result.toArray();
+    }
+
+    /**
+     * Check if vertex is element of this graph and cast it. Throws an {@link IllegalArgumentException} if not.
+     * @param pVertex Vertex to check
+     * @return Checked vertex.
+     */
+    private ConcurrentVertex toConcurrentVertex(final Vertex pVertex) {
+        if (pVertex == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pVertex instanceof ConcurrentGraph.ConcurrentVertex)) throw new IllegalArgumentException("Supplied Vertex is not a ConcurrentVertex");
+        final ConcurrentVertex vertex = (ConcurrentVertex) pVertex;
+        if (vertex.graph() != this) throw new IllegalArgumentException("Supplied ConcurrentVertex not part of ConcurrentGraph");
+        return vertex;
+    }
+
+    /**
+     * @param pVertex Vertex to check.
+     * @return Current state of the vertex. Throws an {@link IllegalArgumentException} if it is removed.
+     */
+    private State liveState(final Vertex pVertex) {
+        final State state = toConcurrentVertex(pVertex).state;
+        if (!state.alive) throw new IllegalArgumentException("Supplied ConcurrentVertex not part of ConcurrentGraph");
+        return state;
+    }
+
+    /**
+     * Check if edge is element of this graph and cast it. Throws an {@link IllegalArgumentException} if not.
+     * @param pEdge Edge to check
+     * @return Checked edge.
+     */
+    private ConcurrentEdge toConcurrentEdge(final Edge pEdge) {
+        if (pEdge == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pEdge instanceof ConcurrentGraph.ConcurrentEdge)) throw new IllegalArgumentException("Supplied Edge is not a ConcurrentEdge");
+        final ConcurrentEdge edge = (ConcurrentEdge) pEdge;
+        if (edge.from.graph() != this) throw new IllegalArgumentException("Supplied ConcurrentEdge not part of ConcurrentGraph");
+        return edge;
+    }
+
+    /**
+     * Immutable state of a vertex. Edge arrays are never modified after the state is published.
+     * Only the link to the replaced state changes, when it is not needed anymore.
+     */
+    protected static final class State {
+
+        /** Value of the vertex. */
+        final Object value;
+
+        /** Outgoing edges. */
+        final Object[] out;
+
+        /** Incoming edges. */
+        final Object[] in;
+
+        /** False, if the vertex is removed. */
+        final boolean alive;
+
+        /** Graph version this state was written in. */
+        final long version;
+
+        /** State replaced by this one. Null, if no open snapshot can read it. */
+        volatile State previous;
+
+        /**
+         * @param value Field value.
+         * @param out Field value.
+         * @param in Field value.
+         * @param alive Field value.
+         * @param version Field value.
+         */
+        State(final Object value, final Object[] out, final Object[] in, final boolean alive, final long version) {
+            this.value = value;
+            this.out = out;
+            this.in = in;
+            this.alive = alive;
+            this.version = version;
+        }
+
+        /**
+         * @param newOut Outgoing edges.
+         * @param newVersion Version of the new state.
+         * @return Copy of this state with other outgoing edges.
+         */
+        State withOut(final Object[] newOut, final long newVersion) {
+            return new State(value, newOut, in, alive, newVersion);
+        }
+
+        /**
+         * @param newIn Incoming edges.
+         * @param newVersion Version of the new state.
+         * @return Copy of this state with other incoming edges.
+         */
+        State withIn(final Object[] newIn, final long newVersion) {
+            return new State(value, out, newIn, alive, newVersion);
+        }
+
+        /**
+         * @param snapshotVersion Version of a snapshot.
+         * @return State a snapshot of the given version reads. Null, if the vertex didn't exist yet.
+         */
+        State at(final long snapshotVersion) {
+            State state = this;
+            while (state != null && state.version > snapshotVersion) {
+                state = state.previous;
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Releases the version of a snapshot, when it is closed or garbage collected.
+     */
+    private final class SnapshotTracker extends WeakReference<Snapshot> {
+
+        /** Version of the snapshot. */
+        private final long snapshotVersion;
+
+        /** True, once the version is released. */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /**
+         * @param snapshot Tracked snapshot.
+         * @param snapshotVersion Field value.
+         */
+        private SnapshotTracker(final Snapshot snapshot, final long snapshotVersion) {
+            super(snapshot, collected);
+            this.snapshotVersion = snapshotVersion;
+        }
+
+        /**
+         * Release the version. Only the first call has an effect.
+         */
+        private void release() {
+            if (!released.compareAndSet(false, true)) return;
+            trackers.remove(this);
+            openVersions.computeIfPresent(snapshotVersion, (key, count) -> (count == 1) ? null : count - 1);
+        }
+    }
+
+    /**
+     * Immutable view of one version of a {@link ConcurrentGraph}.
+     *
+     * Vertexes and edges of a snapshot are light weight handles of its own, reading the states of the version.
+     * All modifying methods throw an {@link UnsupportedOperationException}.
+     */
+    public class Snapshot implements Graph<V, E>, IndexedGraph, AutoCloseable {
+
+        /** Version this snapshot reads. */
+        private final long snapshotVersion;
+
+        /** Vertexes by id, at the time the snapshot was taken. */
+        private final AtomicReferenceArray<ConcurrentVertex> all;
+
+        /** Number of vertex ids at the time the snapshot was taken. */
+        private final int ids;
+
+        /** Number of vertexes at the time the snapshot was taken. */
+        private final int count;
+
+        /** Releases the version. */
+        private final SnapshotTracker tracker;
+
+        /** Marks of the vertexes, created on first use. */
+        private volatile byte[] marks;
+
+        /**
+         * @param snapshotVersion Field value.
+         * @param ids Field value.
+         * @param count Field value.
+         */
+        private Snapshot(final long snapshotVersion, final int ids, final int count) {
+            this.snapshotVersion = snapshotVersion;
+            this.all = vertexes;
+            this.ids = ids;
+            this.count = count;
+            this.tracker = new SnapshotTracker(this, snapshotVersion);
+        }
+
+        /**
+         * @return Version this snapshot reads.
+         */
+        public long getVersion() {
+            return snapshotVersion;
+        }
+
+        /**
+         * @param liveVertex Vertex of the live graph.
+         * @return Same vertex in this snapshot. Throws an {@link IllegalArgumentException} if it didn't exist in this version.
+         */
+        public Vertex vertexOf(final Vertex liveVertex) {
+            final int id = toConcurrentVertex(liveVertex).id;
+            if (id >= ids || state(id) == null) throw new IllegalArgumentException("Supplied ConcurrentVertex not part of Snapshot");
+            return new SnapshotVertex(id);
+        }
+
+        /**
+         * Release the version, so writers can drop the states only this snapshot needs.
+         * The snapshot must not be used afterwards.
+         */
+        @Override
+        public void close() {
+            tracker.release();
+        }
+
+        @Override
+        public Snapshot snapshot() {
+            return this;
+        }
+
+        @Override
+        public Edge connect(final Vertex from, final Vertex to, final E edgeValue) {
+            throw new UnsupportedOperationException("Snapshot is immutable.");
+        }
+
+        @Override
+        public void disconnect(final Edge edge) {
+            throw new UnsupportedOperationException("Snapshot is immutable.");
+        }
+
+        @Override
+        public boolean disconnect(final Vertex from, final Vertex to) {
+            throw new UnsupportedOperationException("Snapshot is immutable.");
+        }
+
+        @Override
+        public Vertex addVertex(final V value) {
+            throw new UnsupportedOperationException("Snapshot is immutable.");
+        }
+
+        @Override
+        public void removeVertex(final Vertex vertex) {
+            throw new UnsupportedOperationException("Snapshot is immutable.");
+        }
+
+        @Override
+        public void setValue(final Vertex vertex, final V newValue) {
+            throw new UnsupportedOperationException("Snapshot is immutable.");
+        }
+
+        @Override
+        public boolean adjacent(final Vertex pFrom, final Vertex pTo) {
+            final int to = toSnapshotVertex(pTo).id;
+            for (Object edge : state(toSnapshotVertex(pFrom).id).out) {
+                if (((ConcurrentEdge) edge).to.id == to) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public List<Vertex> neighbors(final Vertex pFrom) {
+            final Object[] out = state(toSnapshotVertex(pFrom).id).out;
+            final List<Vertex> result = new ArrayList<>(out.length);
+            for (Object edge : out) {
+                result.add(new SnapshotVertex(((ConcurrentEdge) edge).to.id));
+            }
+            return result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue(final Vertex vertex) {
+            return (V) state(toSnapshotVertex(vertex).id).value;
+        }
+
+        @Override
+        public E getEdgeValue(final Edge pEdge) {
+            return toSnapshotEdge(pEdge).edge.value;
+        }
+
+        @Override
+        public int getVertexCount() {
+            return count;
+        }
+
+        @Override
+        public int degree(final Vertex vertex) {
+            return state(toSnapshotVertex(vertex).id).out.length;
+        }
+
+        @Override
+        public Iterable<? extends Vertex> getVertexes() {
+            return () -> new Iterator<Vertex>() {
+                private int next = advance(0);
+
+                private int advance(final int from) {
+                    int id = from;
+                    while (id < ids && state(id) == null) id++;
+                    return id;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < ids;
+                }
+
+                @Override
+                public Vertex next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    final Vertex vertex = new SnapshotVertex(next);
+                    next = advance(next + 1);
+                    return vertex;
+                }
+            };
+        }
+
+        @Override
+        public Iterable<? extends Edge> getEdges() {
+            return () -> edgeStream().iterator();
+        }
+
+        @Override
+        public Vertex getVertex(final int index) {
+            if (index < 0 || index >= ids) throw new IndexOutOfBoundsException("No vertex " + index);
+            return new SnapshotVertex(index);
+        }
+
+        @Override
+        public int indexOf(final Vertex vertex) {
+            return toSnapshotVertex(vertex).id;
+        }
+
+        @Override
+        public Edge edgeAt(final int from, final int edge) {
+            return new SnapshotEdge((ConcurrentEdge) state(from).out[edge]);
+        }
+
+        /**
+         * Copy the topology of this version into CSR arrays for the primitive search engines.
+         * Edge ids are the positions in the outgoing edges of each vertex.
+         * @return Index of this snapshot.
+         */
+        GraphIndex index() {
+            final Object[][] adjacency = new Object[ids][];
+            final int[] offsets = new int[ids + 1];
+            int edgeCount = 0;
+            for (int id = 0; id < ids; id++) {
+                final State state = state(id);
+                adjacency[id] = (state == null) ? NO_EDGES : state.out;
+                offsets[id] = edgeCount;
+                edgeCount += adjacency[id].length;
+            }
+            offsets[ids] = edgeCount;
+            final int[] targets = new int[edgeCount];
+            final double[] weights = new double[edgeCount];
+            final int[] edgeIds = new int[edgeCount];
+            int position = 0;
+            for (Object[] out : adjacency) {
+                for (int i = 0; i < out.length; i++) {
+                    final ConcurrentEdge edge = (ConcurrentEdge) out[i];
+                    targets[position] = edge.to.id;
+                    weights[position] = edge.weight;
+                    edgeIds[position++] = i;
+                }
+            }
+            return new GraphIndex(this, offsets, targets, weights, edgeIds, null);
+        }
+
+        /**
+         * @param id Vertex id.
+         * @return State of the vertex in this version. Null, if it didn't exist or was removed.
+         */
+        private State state(final int id) {
+            final State state = all.get(id).state.at(snapshotVersion);
+            return (state == null || !state.alive) ? null : state;
+        }
+
+        /**
+         * @return Marks of the vertexes.
+         */
+        private byte[] marks() {
+            byte[] result = marks;
+            if (result == null) {
+                synchronized (this) {
+                    result = marks;
+                    if (result == null) {
+                        result = new byte[ids];
+                        marks = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Check if vertex is element of this snapshot and cast it. Throws an {@link IllegalArgumentException} if not.
+         * @param pVertex Vertex to check
+         * @return Checked vertex.
+         */
+        private SnapshotVertex toSnapshotVertex(final Vertex pVertex) {
+            if (pVertex == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+            if (!(pVertex instanceof ConcurrentGraph.Snapshot.SnapshotVertex)) throw new IllegalArgumentException("Supplied Vertex is not a SnapshotVertex");
+            final SnapshotVertex vertex = (SnapshotVertex) pVertex;
+            if (vertex.snapshot() != this) throw new IllegalArgumentException("Supplied SnapshotVertex not part of Snapshot");
+            if (state(vertex.id) == null) throw new IllegalArgumentException("Supplied SnapshotVertex not part of Snapshot");
+            return vertex;
+        }
+
+        /**
+         * Check if edge is element of this snapshot and cast it. Throws an {@link IllegalArgumentException} if not.
+         * @param pEdge Edge to check
+         * @return Checked edge.
+         */
+        private SnapshotEdge toSnapshotEdge(final Edge pEdge) {
+            if (pEdge == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+            if (!(pEdge instanceof ConcurrentGraph.Snapshot.SnapshotEdge)) throw new IllegalArgumentException("Supplied Edge is not a SnapshotEdge");
+            final SnapshotEdge edge = (SnapshotEdge) pEdge;
+            if (edge.snapshot() != this) throw new IllegalArgumentException("Supplied SnapshotEdge not part of Snapshot");
+            return edge;
+        }
+
+        /**
+         * Iterates over an edge array of a state, handing out snapshot edges.
+         */
+        private final class SnapshotEdgeIterator implements Iterator<Edge> {
+
+            /** Edges to iterate. */
+            private final Object[] edges;
+
+            /** Position of the next edge. */
+            private int next = 0;
+
+            /**
+             * @param edges Field value.
+             */
+            private SnapshotEdgeIterator(final Object[] edges) {
+                this.edges = edges;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < edges.length;
+            }
+
+            @Override
+            public Edge next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return new SnapshotEdge((ConcurrentEdge) edges[next++]);
+            }
+        }
+
+        /**
+         * Vertex handle of a snapshot.
+         */
+        protected class SnapshotVertex implements IndexedVertex {
+
+            /** Id of the vertex. */
+            protected final int id;
+
+            /**
+             * @param id Field value.
+             */
+            protected SnapshotVertex(final int id) {
+                this.id = id;
+            }
+
+            /**
+             * @return Snapshot this vertex belongs to.
+             */
+            protected Snapshot snapshot() {
+                return Snapshot.this;
+            }
+
+            @Override
+            public int index() {
+                return id;
+            }
+
+            @Override
+            public Iterable<? extends Edge> getEdges() {
+                final State state = state(id);
+                return () -> new SnapshotEdgeIterator((state == null) ? NO_EDGES : state.out);
+            }
+
+            @Override
+            public Iterable<? extends Edge> getIncomingEdges() {
+                final State state = state(id);
+                return () -> new SnapshotEdgeIterator((state == null) ? NO_EDGES : state.in);
+            }
+
+            @Override
+            public boolean isMarked() {
+                return marks()[id] != 0;
+            }
+
+            @Override
+            public byte getMarkedValue() {
+                return marks()[id];
+            }
+
+            @Override
+            public void demark() {
+                marks()[id] = 0;
+            }
+
+            @Override
+            public void mark() {
+                marks()[id] = 1;
+            }
+
+            @Override
+            public boolean equals(final Object obj) {
+                if (!(obj instanceof ConcurrentGraph.Snapshot.SnapshotVertex)) return false;
+                final SnapshotVertex other = (SnapshotVertex) obj;
+                return other.id == this.id && other.snapshot() == this.snapshot();
+            }
+
+            @Override
+            public int hashCode() {
+                return id;
+            }
+
+            @Override
+            public String toString() {
+                return "SnapshotVertex(" + id + ")";
+            }
+        }
+
+        /**
+         * Edge handle of a snapshot.
+         */
+        protected class SnapshotEdge implements Edge {
+
+            /** Shared edge of the graph. */
+            protected final ConcurrentEdge edge;
+
+            /**
+             * @param edge Field value.
+             */
+            protected SnapshotEdge(final ConcurrentEdge edge) {
+                this.edge = edge;
+            }
+
+            /**
+             * @return Snapshot this edge belongs to.
+             */
+            protected Snapshot snapshot() {
+                return Snapshot.this;
+            }
+
+            @Override
+            public Vertex getFrom() {
+                return new SnapshotVertex(edge.from.id);
+            }
+
+            @Override
+            public Vertex getTo() {
+                return new SnapshotVertex(edge.to.id);
+            }
+
+            @Override
+            public double getWeight() {
+                return edge.weight;
+            }
+
+            @Override
+            public boolean equals(final Object obj) {
+                if (!(obj instanceof ConcurrentGraph.Snapshot.SnapshotEdge)) return false;
+                final SnapshotEdge other = (SnapshotEdge) obj;
+                return other.edge == this.edge && other.snapshot() == this.snapshot();
+            }
+
+            @Override
+            public int hashCode() {
+                return edge.hashCode();
+            }
+
+            @Override
+            public String toString() {
+                return "SnapshotEdge(" + edge.from.id + " -> " + edge.to.id + ", " + edge.weight + ")";
+            }
+        }
+    }
+
+    /**
+     * Iterates over an edge array of a state.
+     */
+    private static final class EdgeArrayIterator implements Iterator<Edge> {
+
+        /** Edges to iterate. */
+        private final Object[] edges;
+
+        /** Position of the next edge. */
+        private int next = 0;
+
+        /**
+         * @param edges Field value.
+         */
+        private EdgeArrayIterator(final Object[] edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < edges.length;
+        }
+
+        @Override
+        public Edge next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return (Edge) edges[next++];
+        }
+    }
+
+    /**
+     * Vertex of a concurrent graph.
+     */
+    protected class ConcurrentVertex implements IndexedVertex {
+
+        /** Id of this vertex. */
+        protected final int id;
+
+        /** Current state, replaced by writers holding the lock of this vertex. */
+        protected volatile State state;
+
+        /** Marked value. */
+        private volatile byte mark = 0;
+
+        /**
+         * @param id Field value.
+         * @param state Field value.
+         */
+        protected ConcurrentVertex(final int id, final State state) {
+            this.id = id;
+            this.state = state;
+        }
+
+        /**
+         * @return Graph this vertex belongs to.
+         */
+        protected ConcurrentGraph<V, E> graph() {
+            return ConcurrentGraph.this;
+        }
+
+        @Override
+        public int index() {
+            return id;
+        }
+
+        @Override
+        public Iterable<? extends Edge> getEdges() {
+            return () -> new EdgeArrayIterator(state.out);
+        }
+
+        @Override
+        public Iterable<? extends Edge> getIncomingEdges() {
+            return () -> new EdgeArrayIterator(state.in);
+        }
+
+        @Override
+        public boolean isMarked() {
+            return mark != 0;
+        }
+
+        @Override
+        public byte getMarkedValue() {
+            return mark;
+        }
+
+        @Override
+        public void demark() {
+            mark = 0;
+        }
+
+        @Override
+        public void mark() {
+            mark = 1;
+        }
+
+        @Override
+        public String toString() {
+            return "ConcurrentVertex(" + id + ", " + state.value + ")";
+        }
+    }
+
+    /**
+     * Immutable edge of a concurrent graph.
+     */
+    protected class ConcurrentEdge implements Edge {
+
+        /** Vertex the edge starts at. */
+        protected final ConcurrentVertex from;
+
+        /** Vertex the edge points to. */
+        protected final ConcurrentVertex to;
+
+        /** Value of the edge. */
+        protected final E value;
+
+        /** Weight calculated on connect. */
+        protected final double weight;
+
+        /**
+         * @param from Field value.
+         * @param to Field value.
+         * @param value Field value.
+         * @param weight Field value.
+         */
+        protected ConcurrentEdge(final ConcurrentVertex from, final ConcurrentVertex to, final E value, final double weight) {
+            this.from = from;
+            this.to = to;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        @Override
+        public Vertex getFrom() {
+            return from;
+        }
+
+        @Override
+        public Vertex getTo() {
+            return to;
+        }
+
+        @Override
+        public double getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return "ConcurrentEdge(" + from.id + " -> " + to.id + ", " + weight + ")";
+        }
+    }
+
+}
@@ -0,0 +1,598 @@
+package com.hambbe.graph;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Contraction Hierarchies for fast point to point queries on static graphs.
+ *
+ * Preprocessing (constructor) orders the vertexes by importance and contracts them one after another:
+ * A contracted vertex is removed from the remaining graph and every shortest path leading through it is replaced
+ * by a shortcut edge, unless a witness search finds a path of the same costs around it.
+ * A query then runs a bidirectional Dijkstra which only ever goes upwards in the order:
+ * forward along edges to more important vertexes, backward against edges from more important vertexes.
+ * Both searches settle only a tiny part of the graph.
+ * Shortcuts remember the two edges they replace, so routes are unpacked to the edges of the original graph.
+ *
+ * The hierarchy works on the state of the graph at construction time.
+ * Queries can be run from several threads at the same time.
+ *
+ * Rules to work:
+ * <ul>
+ * <li>All step costs have to be positive.
+ * </ul>
+ */
+public class ContractionHierarchy {
+
+    /** Maximum number of vertexes a witness search settles before giving up (and adding the shortcut). */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    /** Witness search limit when only estimating the priority of a vertex. */
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+    /** Indexed original graph. */
+    private final GraphIndex index;
+
+    /** Number of arcs (original edges and shortcuts). */
+    private int arcCount = 0;
+
+    /** Start vertex of each arc. */
+    private int[] arcFrom;
+
+    /** End vertex of each arc. */
+    private int[] arcTo;
+
+    /** Weight of each arc. */
+    private double[] arcWeight;
+
+    /** Original edge id of each arc. -1 for shortcuts. */
+    private int[] arcEdge;
+
+    /** First replaced arc (from -> via) of each shortcut. -1 for original edges. */
+    private int[] arcFirst;
+
+    /** Second replaced arc (via -> to) of each shortcut. -1 for original edges. */
+    private int[] arcSecond;
+
+    /** Position of each vertex in the contraction order. Higher rank means more important. */
+    private final int[] rank;
+
+    /** Start of the upward outgoing arcs of each vertex in {@link #upArcs}. */
+    private final int[] upOffsets;
+
+    /** Arcs to vertexes with higher rank, grouped by start vertex. */
+    private final int[] upArcs;
+
+    /** Start of the upward incoming arcs of each vertex in {@link #downArcs}. */
+    private final int[] downOffsets;
+
+    /** Arcs from vertexes with higher rank, grouped by end vertex. */
+    private final int[] downArcs;
+
+    /** Query buffers of each thread. */
+    private final ThreadLocal<Query> queries;
+
+    /**
+     * Index and contract the graph.
+     * @param graph Graph to build the hierarchy for.
+     */
+    public ContractionHierarchy(final Graph<?, ?> graph) {
+        this.index = GraphIndex.of(graph);
+        final int n = index.size();
+        final int m = index.edgeCount();
+        this.arcFrom = new int[m * 2 + 16];
+        this.arcTo = new int[arcFrom.length];
+        this.arcWeight = new double[arcFrom.length];
+        this.arcEdge = new int[arcFrom.length];
+        this.arcFirst = new int[arcFrom.length];
+        this.arcSecond = new int[arcFrom.length];
+        final Contraction contraction = new Contraction(n);
+        for (int u = 0; u < n; u++) {
+            for (int e = index.offsets.get(u); e < index.offsets.get(u + 1); e++) {
+                final int v = index.targets.get(e);
+                if (v != u) contraction.link(addArc(u, v, index.weights.get(e), e, -1, -1));
+            }
+        }
+        this.rank = contraction.contractAll();
+
+        // Split arcs into the upward and downward search graphs.
+        this.upOffsets = new int[n + 1];
+        this.downOffsets = new int[n + 1];
+        for (int a = 0; a < arcCount; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                upOffsets[arcFrom[a] + 1]++;
+            } else {
+                downOffsets[arcTo[a] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        this.upArcs = new int[upOffsets[n]];
+        this.downArcs = new int[downOffsets[n]];
+        final int[] upNext = Arrays.copyOf(upOffsets, n);
+        final int[] downNext = Arrays.copyOf(downOffsets, n);
+        for (int a = 0; a < arcCount; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                upArcs[upNext[arcFrom[a]]++] = a;
+            } else {
+                downArcs[downNext[arcTo[a]]++] = a;
+            }
+        }
+        this.queries = ThreadLocal.withInitial(() -> new Query(n));
+    }
+
+    /**
+     * @return Number of shortcuts added by the preprocessing.
+     */
+    public int getShortcutCount() {
+        int count = 0;
+        for (int a = 0; a < arcCount; a++) {
+            if (arcEdge[a] < 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param from Start vertex.
+     * @param to Goal vertex.
+     * @return Costs of the shortest path. {@link Double#POSITIVE_INFINITY}, if there is none.
+     */
+    public double distance(final Vertex from, final Vertex to) {
+        final Query query = queries.get();
+        try {
+            final int meeting = query.run(index.indexOf(from), index.indexOf(to));
+            return (meeting < 0) ? Double.POSITIVE_INFINITY : query.forward.distances[meeting] + query.backward.distances[meeting];
+        } finally {
+            query.reset();
+        }
+    }
+
+    /**
+     * Find the shortest path from <tt>from</tt> to <tt>to</tt>.
+     * @param from Start vertex.
+     * @param to Goal vertex.
+     * @return Route to item, if exists. Empty, if to == from. Null, otherwise.
+     */
+    public List<Graphs.Link> shortestPath(final Vertex from, final Vertex to) {
+        final int source = index.indexOf(from);
+        final int target = index.indexOf(to);
+        final Query query = queries.get();
+        try {
+            final int meeting = query.run(source, target);
+            if (meeting < 0) return null; // Nothing found.
+
+            // Arcs from source up to the meeting vertex and from there down to target.
+            final IntList arcs = query.arcs;
+            for (int v = meeting; v != source; v = arcFrom[query.forward.parents[v]]) {
+                arcs.add(query.forward.parents[v]);
+            }
+            // The upward arcs were collected from the meeting vertex back, reverse them.
+            for (int i = 0, j = arcs.size - 1; i < j; i++, j--) {
+                final int arc = arcs.values[i];
+                arcs.values[i] = arcs.values[j];
+                arcs.values[j] = arc;
+            }
+            for (int v = meeting; v != target; v = arcTo[query.backward.parents[v]]) {
+                arcs.add(query.backward.parents[v]);
+            }
+            final LinkedList<Graphs.Link> route = new LinkedList<>();
+            double totalCost = 0;
+            for (int i = 0; i < arcs.size; i++) {
+                totalCost = unpack(arcs.values[i], route, totalCost, query.pending);
+            }
+            return route;
+        } finally {
+            query.reset();
+        }
+    }
+
+    /**
+     * Append the original edges of an arc to route.
+     * @param arc Arc to unpack.
+     * @param route Route to append to.
+     * @param totalCost Costs of route so far.
+     * @param pending Empty stack of arcs to unpack, empty again afterwards.
+     * @return Costs of route after appending.
+     */
+    private double unpack(final int arc, final LinkedList<Graphs.Link> route, double totalCost, final IntList pending) {
+        // Iterative in-order walk over the shortcut tree, shortcuts can be nested deeply.
+        pending.add(arc);
+        while (pending.size > 0) {
+            final int a = pending.values[--pending.size];
+            if (arcEdge[a] >= 0) {
+                totalCost += arcWeight[a];
+                route.addLast(new Graphs.Link(index.edge(arcFrom[a], arcEdge[a]), totalCost));
+            } else {
+                pending.add(arcSecond[a]);
+                pending.add(arcFirst[a]);
+            }
+        }
+        return totalCost;
+    }
+
+    /**
+     * Add an arc, growing the arc arrays if needed.
+     * @return Id of the new arc.
+     */
+    private int addArc(final int from, final int to, final double weight, final int edge, final int first, final int second) {
+        if (arcCount == arcFrom.length) {
+            final int capacity = arcFrom.length * 2;
+            arcFrom = Arrays.copyOf(arcFrom, capacity);
+            arcTo = Arrays.copyOf(arcTo, capacity);
+            arcWeight = Arrays.copyOf(arcWeight, capacity);
+            arcEdge = Arrays.copyOf(arcEdge, capacity);
+            arcFirst = Arrays.copyOf(arcFirst, capacity);
+            arcSecond = Arrays.copyOf(arcSecond, capacity);
+        }
+        arcFrom[arcCount] = from;
+        arcTo[arcCount] = to;
+        arcWeight[arcCount] = weight;
+        arcEdge[arcCount] = edge;
+        arcFirst[arcCount] = first;
+        arcSecond[arcCount] = second;
+        return arcCount++;
+    }
+
+    /**
+     * State of the preprocessing. Only used during construction.
+     */
+    private class Contraction {
+
+        /** Outgoing arcs of each vertex in the remaining graph (contracted neighbours are skipped lazily). */
+        private final IntList[] out;
+
+        /** Incoming arcs of each vertex in the remaining graph (contracted neighbours are skipped lazily). */
+        private final IntList[] in;
+
+        /** True, if vertex has been contracted. */
+        private final boolean[] contracted;
+
+        /** Number of contracted neighbours of each vertex, spreads the contraction evenly over the graph. */
+        private final int[] contractedNeighbours;
+
+        /** Witness search distances. */
+        private final double[] witnessDistances;
+
+        /** Vertexes with a witness distance set, for resetting. */
+        private final IntList touched = new IntList();
+
+        /** True for the vertexes the current witness search has to reach. */
+        private final boolean[] witnessTargets;
+
+        /** Witness search queue. */
+        private final IndexedHeap witnessHeap;
+
+        /** Shortcuts found by {@link #shortcuts(int, boolean)}: from, to, first arc, second arc. */
+        private final IntList found = new IntList();
+
+        /**
+         * @param n Number of vertexes.
+         */
+        private Contraction(final int n) {
+            this.out = new IntList[n];
+            this.in = new IntList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new IntList();
+                in[v] = new IntList();
+            }
+            this.contracted = new boolean[n];
+            this.contractedNeighbours = new int[n];
+            this.witnessTargets = new boolean[n];
+            this.witnessDistances = new double[n];
+            Arrays.fill(witnessDistances, Double.POSITIVE_INFINITY);
+            this.witnessHeap = new IndexedHeap(n);
+        }
+
+        /**
+         * @param arc Arc to add to the remaining graph.
+         */
+        private void link(final int arc) {
+            out[arcFrom[arc]].add(arc);
+            in[arcTo[arc]].add(arc);
+        }
+
+        /**
+         * Contract all vertexes, least important first.
+         * @return Rank of each vertex.
+         */
+        private int[] contractAll() {
+            final int n = out.length;
+            final IndexedHeap order = new IndexedHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.insertOrDecrease(v, priority(v));
+            }
+            final int[] result = new int[n];
+            int next = 0;
+            while (!order.isEmpty()) {
+                final int v = order.poll();
+                // Priorities change while neighbours get contracted, they are only updated lazily here.
+                final double priority = priority(v);
+                if (!order.isEmpty() && priority > order.peekKey()) {
+                    order.insertOrDecrease(v, priority);
+                    continue;
+                }
+                contract(v);
+                result[v] = next++;
+            }
+            return result;
+        }
+
+        /**
+         * @param v Vertex not contracted yet.
+         * @return Importance of v, the vertex with the lowest one is contracted next.
+         */
+        private double priority(final int v) {
+            final int shortcuts = shortcuts(v, false);
+            final int removed = in[v].size + out[v].size;
+            return 2 * (shortcuts - removed) + contractedNeighbours[v];
+        }
+
+        /**
+         * Remove v from the remaining graph, adding the needed shortcuts.
+         * @param v Vertex to contract.
+         */
+        private void contract(final int v) {
+            shortcuts(v, true);
+            for (int i = 0; i < found.size; i += 4) {
+                addShortcut(found.values[i], found.values[i + 1], found.values[i + 2], found.values[i + 3]);
+            }
+            contracted[v] = true;
+            // The remaining graph no longer contains v, so its arcs are dropped from the lists of the neighbours.
+            for (int i = 0; i < in[v].size; i++) {
+                final int a = in[v].values[i];
+                contractedNeighbours[arcFrom[a]]++;
+                out[arcFrom[a]].remove(a);
+            }
+            for (int i = 0; i < out[v].size; i++) {
+                final int a = out[v].values[i];
+                contractedNeighbours[arcTo[a]]++;
+                in[arcTo[a]].remove(a);
+            }
+        }
+
+        /**
+         * Add a shortcut from u to w to the remaining graph.
+         * A more expensive parallel arc is dropped, the remaining graph only needs the cheapest one.
+         * @param u Start vertex.
+         * @param w End vertex.
+         * @param a1 Replaced arc from u to the contracted vertex.
+         * @param a2 Replaced arc from the contracted vertex to w.
+         */
+        private void addShortcut(final int u, final int w, final int a1, final int a2) {
+            final double weight = arcWeight[a1] + arcWeight[a2];
+            for (int i = 0; i < out[u].size; i++) {
+                final int a = out[u].values[i];
+                if (arcTo[a] == w) {
+                    if (arcWeight[a] <= weight) return;
+                    out[u].remove(a);
+                    in[w].remove(a);
+                    break;
+                }
+            }
+            link(addArc(u, w, weight, -1, a1, a2));
+        }
+
+        /**
+         * Find the shortcuts needed when contracting v.
+         * @param v Vertex to contract.
+         * @param record True, if the shortcuts should be stored in {@link #found}.
+         * @return Number of needed shortcuts.
+         */
+        private int shortcuts(final int v, final boolean record) {
+            found.size = 0;
+            int count = 0;
+            contracted[v] = true; // Witness paths must not lead through v.
+            for (int i = 0; i < in[v].size; i++) {
+                final int a1 = in[v].values[i];
+                final int u = arcFrom[a1];
+                if (contracted[u]) continue;
+                double maxCost = Double.NEGATIVE_INFINITY;
+                int targets = 0;
+                for (int j = 0; j < out[v].size; j++) {
+                    final int a2 = out[v].values[j];
+                    final int w = arcTo[a2];
+                    if (contracted[w] || w == u) continue;
+                    maxCost = Math.max(maxCost, arcWeight[a1] + arcWeight[a2]);
+                    if (!witnessTargets[w]) {
+                        witnessTargets[w] = true;
+                        targets++;
+                    }
+                }
+                if (targets == 0) continue; // No path through v starts at u.
+                witnessSearch(u, maxCost, targets, record ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+                for (int j = 0; j < out[v].size; j++) {
+                    final int a2 = out[v].values[j];
+                    final int w = arcTo[a2];
+                    if (contracted[w] || w == u) continue;
+                    witnessTargets[w] = false;
+                    if (witnessDistances[w] > arcWeight[a1] + arcWeight[a2]) {
+                        count++;
+                        if (record) {
+                            found.add(u);
+                            found.add(w);
+                            found.add(a1);
+                            found.add(a2);
+                        }
+                        // Later pairs from u to w can use this shortcut as witness.
+                        if (witnessDistances[w] == Double.POSITIVE_INFINITY) touched.add(w);
+                        witnessDistances[w] = arcWeight[a1] + arcWeight[a2];
+                    }
+                }
+                resetWitness();
+            }
+            contracted[v] = false;
+            return count;
+        }
+
+        /**
+         * Dijkstra from u in the remaining graph, stopping as soon as all {@link #witnessTargets} are settled,
+         * at maxCost or after settleLimit vertexes.
+         * @param u Start vertex.
+         * @param maxCost Costs not worth searching beyond.
+         * @param targets Number of witness targets.
+         * @param settleLimit Maximum number of vertexes to settle.
+         */
+        private void witnessSearch(final int u, final double maxCost, int targets, final int settleLimit) {
+            witnessDistances[u] = 0;
+            touched.add(u);
+            witnessHeap.insertOrDecrease(u, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && witnessHeap.peekKey() <= maxCost && settled++ < settleLimit) {
+                final int x = witnessHeap.poll();
+                if (witnessTargets[x] && --targets == 0) break;
+                for (int i = 0; i < out[x].size; i++) {
+                    final int a = out[x].values[i];
+                    final int y = arcTo[a];
+                    if (contracted[y]) continue;
+                    final double cost = witnessDistances[x] + arcWeight[a];
+                    if (cost < witnessDistances[y]) {
+                        if (witnessDistances[y] == Double.POSITIVE_INFINITY) touched.add(y);
+                        witnessDistances[y] = cost;
+                        witnessHeap.insertOrDecrease(y, cost);
+                    }
+                }
+            }
+            witnessHeap.clear();
+        }
+
+        /**
+         * Forget the distances of the last witness search.
+         */
+        private void resetWitness() {
+            for (int i = 0; i < touched.size; i++) {
+                witnessDistances[touched.values[i]] = Double.POSITIVE_INFINITY;
+            }
+            touched.size = 0;
+        }
+    }
+
+    /**
+     * Buffers of one query direction.
+     */
+    private static class Direction {
+
+        /** Distance from the root of this direction. */
+        private final double[] distances;
+
+        /** Arc used to reach each vertex. */
+        private final int[] parents;
+
+        /** Open vertexes. */
+        private final IndexedHeap heap;
+
+        /** Vertexes with a distance set, for resetting. */
+        private final IntList touched = new IntList();
+
+        /**
+         * @param n Number of vertexes.
+         */
+        private Direction(final int n) {
+            this.distances = new double[n];
+            this.parents = new int[n];
+            this.heap = new IndexedHeap(n);
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * @param v Vertex reached.
+         * @param distance Distance to v.
+         * @param parent Arc used.
+         */
+        private void label(final int v, final double distance, final int parent) {
+            if (distances[v] == Double.POSITIVE_INFINITY) touched.add(v);
+            distances[v] = distance;
+            parents[v] = parent;
+            heap.insertOrDecrease(v, distance);
+        }
+
+        /**
+         * Forget everything of the last query, in the number of touched vertexes.
+         */
+        private void reset() {
+            for (int i = 0; i < touched.size; i++) {
+                distances[touched.values[i]] = Double.POSITIVE_INFINITY;
+            }
+            touched.size = 0;
+            heap.clear();
+        }
+    }
+
+    /**
+     * Buffers of a query, reused by the queries of a thread.
+     */
+    private class Query {
+
+        /** Search upwards from the source. */
+        private final Direction forward;
+
+        /** Search upwards (against the arcs) from the target. */
+        private final Direction backward;
+
+        /** Arcs of the found path. */
+        private final IntList arcs = new IntList();
+
+        /** Stack of arcs to unpack. */
+        private final IntList pending = new IntList(64);
+
+        /**
+         * @param n Number of vertexes.
+         */
+        private Query(final int n) {
+            this.forward = new Direction(n);
+            this.backward = new Direction(n);
+        }
+
+        /**
+         * Run the bidirectional upward search.
+         * @param source Source vertex id.
+         * @param target Target vertex id.
+         * @return Vertex id where the shortest path has its most important vertex. -1, if there is no path.
+         */
+        private int run(final int source, final int target) {
+            forward.label(source, 0, -1);
+            backward.label(target, 0, -1);
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+            while (!forward.heap.isEmpty() || !backward.heap.isEmpty()) {
+                final boolean isForward = backward.heap.isEmpty()
+                        || (!forward.heap.isEmpty() && forward.heap.peekKey() <= backward.heap.peekKey());
+                final Direction current = isForward ? forward : backward;
+                final Direction other = isForward ? backward : forward;
+                if (current.heap.peekKey() >= best) {
+                    // Nothing cheaper can come from this direction anymore.
+                    current.heap.clear();
+                    continue;
+                }
+                final int u = current.heap.poll();
+                final double du = current.distances[u];
+                if (du + other.distances[u] < best) {
+                    best = du + other.distances[u];
+                    meeting = u;
+                }
+                final int[] offsets = isForward ? upOffsets : downOffsets;
+                final int[] arcs = isForward ? upArcs : downArcs;
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    final int a = arcs[i];
+                    final int v = isForward ? arcTo[a] : arcFrom[a];
+                    final double dv = du + arcWeight[a];
+                    if (dv < current.distances[v]) current.label(v, dv, a);
+                }
+            }
+            return meeting;
+        }
+
+        /**
+         * Forget everything of the last query.
+         */
+        private void reset() {
+            forward.reset();
+            backward.reset();
+            arcs.clear();
+            pending.clear();
+        }
+    }
+
+}
@@ -0,0 +1,522 @@
+package com.hambbe.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable graph in compressed sparse row (CSR) layout.
+ *
+ * The outgoing edges of vertex <tt>i</tt> are stored at the positions <tt>offsets[i]</tt> (inclusive)
+ * to <tt>offsets[i + 1]</tt> (exclusive) of the parallel arrays {@link #targets} and {@link #weights}.
+ * Compared to {@link UnweightedGraph} there are no list nodes and no edge objects kept in memory,
+ * edges are handed out as light weight handles when iterating.
+ *
+ * A CsrGraph is a frozen snapshot: all modifying methods throw an {@link UnsupportedOperationException}.
+ *
+ * @param <V> Type of value in vertex.
+ * @param <E> Type for edges.
+ */
+public class CsrGraph<V, E> implements Graph<V, E>, IndexedGraph {
+
+    /** Vertex handles, indexed by vertex index. */
+    private final CsrVertex[] vertexes;
+
+    /** Values of the vertexes, indexed by vertex index. */
+    private final Object[] values;
+
+    /** Start of the outgoing edges for each vertex. Has one extra element holding the edge count. */
+    final int[] offsets;
+
+    /** Target vertex index for each edge. */
+    final int[] targets;
+
+    /** Weight for each edge. */
+    final double[] weights;
+
+    /** Values of the edges. Null, if the source graph had no edge values. */
+    private final Object[] edgeValues;
+
+    /** Incoming edges, built on first use. */
+    private volatile ReverseIndex reverse;
+
+    /**
+     * Take a snapshot of a graph.
+     * Vertex indexes are assigned in the iteration order of {@link Graph#getVertexes()},
+     * edges keep the iteration order of {@link Vertex#getEdges()}.
+     *
+     * @param source Graph to copy.
+     */
+    public CsrGraph(final Graph<V, E> source) {
+        if (source == null) throw new IllegalArgumentException("source can't be null");
+        final List<Vertex> sourceVertexes = new ArrayList<>(source.getVertexCount());
+        final HashMap<Vertex, Integer> index = new HashMap<>();
+        for (Vertex vertex : source.getVertexes()) {
+            index.put(vertex, sourceVertexes.size());
+            sourceVertexes.add(vertex);
+        }
+        final int n = sourceVertexes.size();
+        this.values = new Object[n];
+        this.offsets = new int[n + 1];
+        int edgeCount = 0;
+        for (int i = 0; i < n; i++) {
+            final Vertex vertex = sourceVertexes.get(i);
+            this.values[i] = source.getValue(vertex);
+            this.offsets[i] = edgeCount;
+            edgeCount += source.degree(vertex);
+        }
+        this.offsets[n] = edgeCount;
+        this.targets = new int[edgeCount];
+        this.weights = new double[edgeCount];
+        Object[] edgeValues = null;
+        int e = 0;
+        for (Vertex vertex : sourceVertexes) {
+            for (Edge edge : vertex.getEdges()) {
+                this.targets[e] = index.get(edge.getTo());
+                this.weights[e] = edge.getWeight();
+                final E edgeValue = source.getEdgeValue(edge);
+                if (edgeValue != null) {
+                    if (edgeValues == null) edgeValues = new Object[edgeCount];
+                    edgeValues[e] = edgeValue;
+                }
+                e++;
+            }
+        }
+        this.edgeValues = edgeValues;
+        this.vertexes = createVertexes(n);
+    }
+
+    /**
+     * Create a graph directly from its CSR arrays. The arrays are not copied.
+     *
+     * @param values Vertex values, indexed by vertex index.
+     * @param offsets Edge offsets, length must be <tt>values.length + 1</tt>.
+     * @param targets Target vertex index for each edge.
+     * @param weights Weight for each edge.
+     * @param edgeValues Value for each edge, may be null.
+     */
+    CsrGraph(final Object[] values, final int[] offsets, final int[] targets, final double[] weights, final Object[] edgeValues) {
+        assert offsets.length == values.length + 1 : "offsets must have one element more than values.";
+        assert targets.length == weights.length : "targets and weights must have the same length.";
+        this.values = values;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeValues = edgeValues;
+        this.vertexes = createVertexes(values.length);
+    }
+
+    /**
+     * Take a snapshot of a graph.
+     *
+     * @param source Graph to copy.
+     * @param <V> Type of value in vertex.
+     * @param <E> Type for edges.
+     * @return Immutable CSR copy of source.
+     */
+    public static <V, E> CsrGraph<V, E> of(final Graph<V, E> source) {
+        return new CsrGraph<>(source);
+    }
+
+    /**
+     * @param n Number of vertexes.
+     * @return Vertex handles for the indexes 0 to n - 1.
+     */
+    @SuppressWarnings("unchecked")
+    private CsrVertex[] createVertexes(final int n) {
+        final CsrVertex[] result = new CsrGraph.CsrVertex[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = new CsrVertex(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of edges in the graph.
+     */
+    public int getEdgeCount() {
+        return this.targets.length;
+    }
+
+    /**
+     * @return This graph, it is immutable already.
+     */
+    @Override
+    public Graph<V, E> snapshot() {
+        return this;
+    }
+
+    /**
+     * @param index Vertex index.
+     * @return Vertex with the given index.
+     */
+    @Override
+    public Vertex getVertex(final int index) {
+        return this.vertexes[index];
+    }
+
+    /**
+     * @param vertex Vertex of this graph.
+     * @return Index of the vertex.
+     */
+    @Override
+    public int indexOf(final Vertex vertex) {
+        return toCsrVertex(vertex).index;
+    }
+
+    /**
+     * @param from Vertex index the edge starts at.
+     * @param edge Edge index.
+     * @return Edge handle for the given edge index.
+     */
+    @Override
+    public Edge edgeAt(final int from, final int edge) {
+        return new CsrEdge(this.vertexes[from], edge);
+    }
+
+    /**
+     * @return Index of the incoming edges. Built on first call.
+     */
+    private ReverseIndex reverse() {
+        ReverseIndex result = reverse;
+        if (result == null) {
+            synchronized (this) {
+                result = reverse;
+                if (result == null) {
+                    result = new ReverseIndex();
+                    reverse = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check if vertex is element of this graph and cast it. Throws an {@link IllegalArgumentException} if not.
+     * @param pVertex Vertex to check
+     * @return Checked vertex.
+     */
+    private CsrVertex toCsrVertex(final Vertex pVertex) {
+        if (pVertex == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pVertex instanceof CsrGraph.CsrVertex)) throw new IllegalArgumentException("Supplied Vertex is not a CsrVertex");
+        final CsrVertex vertex = (CsrVertex) pVertex;
+        if (vertex.graph() != this) throw new IllegalArgumentException("Supplied CsrVertex not part of CsrGraph");
+        return vertex;
+    }
+
+    /**
+     * Check if edge is element of this graph and cast it. Throws an {@link IllegalArgumentException} if not.
+     * @param pEdge Edge to check
+     * @return Checked edge.
+     */
+    private CsrEdge toCsrEdge(final Edge pEdge) {
+        if (pEdge == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pEdge instanceof CsrGraph.CsrEdge)) throw new IllegalArgumentException("Supplied Edge is not a CsrEdge");
+        final CsrEdge edge = (CsrEdge) pEdge;
+        if (edge.from.graph() != this) throw new IllegalArgumentException("Supplied CsrEdge not part of CsrGraph");
+        return edge;
+    }
+
+    @Override
+    public Edge connect(final Vertex from, final Vertex to, final E edgeValue) {
+        throw new UnsupportedOperationException("CsrGraph is immutable.");
+    }
+
+    @Override
+    public void disconnect(final Edge edge) {
+        throw new UnsupportedOperationException("CsrGraph is immutable.");
+    }
+
+    @Override
+    public boolean disconnect(final Vertex from, final Vertex to) {
+        throw new UnsupportedOperationException("CsrGraph is immutable.");
+    }
+
+    @Override
+    public Vertex addVertex(final V value) {
+        throw new UnsupportedOperationException("CsrGraph is immutable.");
+    }
+
+    @Override
+    public void removeVertex(final Vertex vertex) {
+        throw new UnsupportedOperationException("CsrGraph is immutable.");
+    }
+
+    @Override
+    public void setValue(final Vertex vertex, final V newValue) {
+        throw new UnsupportedOperationException("CsrGraph is immutable.");
+    }
+
+    @Override
+    public boolean adjacent(final Vertex pFrom, final Vertex pTo) {
+        final CsrVertex from = toCsrVertex(pFrom);
+        final int to = toCsrVertex(pTo).index;
+        for (int e = offsets[from.index]; e < offsets[from.index + 1]; e++) {
+            if (targets[e] == to) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<Vertex> neighbors(final Vertex pFrom) {
+        final CsrVertex from = toCsrVertex(pFrom);
+        final List<Vertex> result = new ArrayList<>(offsets[from.index + 1] - offsets[from.index]);
+        for (int e = offsets[from.index]; e < offsets[from.index + 1]; e++) {
+            result.add(vertexes[targets[e]]);
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(final Vertex vertex) {
+        return (V) values[toCsrVertex(vertex).index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E getEdgeValue(final Edge edge) {
+        final int index = toCsrEdge(edge).index;
+        return (edgeValues == null) ? null : (E) edgeValues[index];
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexes.length;
+    }
+
+    @Override
+    public int degree(final Vertex pVertex) {
+        final CsrVertex vertex = toCsrVertex(pVertex);
+        return offsets[vertex.index + 1] - offsets[vertex.index];
+    }
+
+    @Override
+    public Iterable<? extends Vertex> getVertexes() {
+        return Arrays.asList(vertexes);
+    }
+
+    @Override
+    public Iterable<? extends Edge> getEdges() {
+        return () -> new EdgeIterator(0, 0, targets.length);
+    }
+
+    /**
+     * Iterates over the edges in the range <tt>[edge, end)</tt>, keeping track of the vertex they start at.
+     */
+    private class EdgeIterator implements Iterator<Edge> {
+
+        /** Vertex index the next edge starts at. */
+        private int from;
+
+        /** Next edge index. */
+        private int edge;
+
+        /** Edge index to stop at. */
+        private final int end;
+
+        /**
+         * @param from Field value.
+         * @param edge Field value.
+         * @param end Field value.
+         */
+        private EdgeIterator(final int from, final int edge, final int end) {
+            this.from = from;
+            this.edge = edge;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return edge < end;
+        }
+
+        @Override
+        public Edge next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            while (offsets[from + 1] <= edge) from++;
+            return new CsrEdge(vertexes[from], edge++);
+        }
+    }
+
+    /**
+     * Incoming edges in CSR layout: The edges pointing to vertex <tt>i</tt> are found at the positions
+     * <tt>offsets[i]</tt> to <tt>offsets[i + 1] - 1</tt> of {@link #sources} and {@link #edges}.
+     */
+    private class ReverseIndex {
+
+        /** Start of the incoming edges for each vertex. Has one extra element holding the edge count. */
+        private final int[] offsets = new int[vertexes.length + 1];
+
+        /** Vertex index each incoming edge starts at. */
+        private final int[] sources = new int[targets.length];
+
+        /** Edge index of each incoming edge. */
+        private final int[] edges = new int[targets.length];
+
+        /**
+         * Build the index from the outgoing edges.
+         */
+        private ReverseIndex() {
+            for (int target : targets) {
+                offsets[target + 1]++;
+            }
+            for (int i = 0; i < vertexes.length; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            final int[] next = Arrays.copyOf(offsets, vertexes.length);
+            for (int from = 0; from < vertexes.length; from++) {
+                for (int e = CsrGraph.this.offsets[from]; e < CsrGraph.this.offsets[from + 1]; e++) {
+                    final int pos = next[targets[e]]++;
+                    sources[pos] = from;
+                    edges[pos] = e;
+                }
+            }
+        }
+
+        /**
+         * @param vertex Vertex index.
+         * @return Incoming edges of vertex.
+         */
+        private Iterator<Edge> incoming(final int vertex) {
+            return new Iterator<Edge>() {
+                private int pos = offsets[vertex];
+
+                @Override
+                public boolean hasNext() {
+                    return pos < offsets[vertex + 1];
+                }
+
+                @Override
+                public Edge next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    final int current = pos++;
+                    return new CsrEdge(vertexes[sources[current]], edges[current]);
+                }
+            };
+        }
+    }
+
+    /**
+     * Vertex of a CSR graph. Only knows its index, everything else is stored in the graph arrays.
+     */
+    protected class CsrVertex implements IndexedVertex {
+
+        /** Index of this vertex. */
+        protected final int index;
+
+        /** Helper variable for marking the vertex with extra info (like visited). */
+        protected byte marked = 0;
+
+        /**
+         * @param index Field value.
+         */
+        protected CsrVertex(final int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return Graph this vertex belongs to.
+         */
+        protected CsrGraph<V, E> graph() {
+            return CsrGraph.this;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public Iterable<? extends Edge> getEdges() {
+            return () -> new EdgeIterator(index, offsets[index], offsets[index + 1]);
+        }
+
+        @Override
+        public Iterable<? extends Edge> getIncomingEdges() {
+            return () -> reverse().incoming(index);
+        }
+
+        @Override
+        public boolean isMarked() {
+            return this.marked != 0;
+        }
+
+        @Override
+        public byte getMarkedValue() {
+            return this.marked;
+        }
+
+        @Override
+        public void demark() {
+            this.marked = 0;
+        }
+
+        @Override
+        public void mark() {
+            this.marked = 1;
+        }
+
+        @Override
+        public String toString() {
+            return "CsrVertex(" + index + ")";
+        }
+    }
+
+    /**
+     * Edge handle of a CSR graph. Handles are created on demand, two handles for the same edge are equal.
+     */
+    protected class CsrEdge implements Edge {
+
+        /** Vertex the edge starts at. */
+        protected final CsrVertex from;
+
+        /** Index of the edge in the CSR arrays. */
+        protected final int index;
+
+        /**
+         * @param from Field value.
+         * @param index Field value.
+         */
+        protected CsrEdge(final CsrVertex from, final int index) {
+            this.from = from;
+            this.index = index;
+        }
+
+        @Override
+        public Vertex getFrom() {
+            return from;
+        }
+
+        @Override
+        public Vertex getTo() {
+            return vertexes[targets[index]];
+        }
+
+        @Override
+        public double getWeight() {
+            return weights[index];
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof CsrGraph.CsrEdge)) return false;
+            final CsrEdge other = (CsrEdge) obj;
+            return other.index == this.index && other.from.graph() == this.from.graph();
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "CsrEdge(" + from.index + " -> " + targets[index] + ", " + weights[index] + ")";
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.hambbe.graph;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dijkstra implementation on primitive arrays.
+ *
+ * The engine indexes the graph once ({@link GraphIndex}) and then answers any number of queries.
+ * Distances and predecessors are kept in arrays indexed by vertex id and the open vertexes in an {@link IndexedHeap}
+ * with decrease-key, so relaxing an edge allocates nothing and the queue never holds more than |V| entries.
+ * {@link Graphs#dijkstra(Graph, Vertex)} in contrast allocates a {@link Graphs.Step} per relaxation.
+ *
+ * The engine works on the state of the graph at construction time.
+ *
+ * Rules to work:
+ * <ul>
+ * <li>All step costs have to be positive.
+ * </ul>
+ */
+public class DijkstraEngine {
+
+    /** Indexed graph. */
+    private final GraphIndex index;
+
+    /**
+     * @param graph Graph to search in.
+     */
+    public DijkstraEngine(final Graph<?, ?> graph) {
+        this.index = GraphIndex.of(graph);
+    }
+
+    /**
+     * Find the shortest paths from <tt>from</tt> to all vertexes.
+     * @param from Start vertex.
+     * @return Shortest path tree rooted at from.
+     */
+    public ShortestPathTree shortestPaths(final Vertex from) {
+        return shortestPaths(from, newWorkspace());
+    }
+
+    /**
+     * Find the shortest paths from <tt>from</tt> to all vertexes without allocating arrays.
+     * @param from Start vertex.
+     * @param workspace Arrays and heap to search with, from {@link #newWorkspace()}.
+     * @return Shortest path tree rooted at from. Only valid until the workspace is used again.
+     */
+    ShortestPathTree shortestPaths(final Vertex from, final Workspace workspace) {
+        final ShortestPathTree tree = newTree(index.indexOf(from), workspace);
+        search(tree, -1, workspace.heap);
+        return tree;
+    }
+
+    /**
+     * @return Arrays and heap for one search at a time, for threads running many searches.
+     */
+    Workspace newWorkspace() {
+        return new Workspace(index.size());
+    }
+
+    /**
+     * Find the shortest path from <tt>from</tt> to <tt>to</tt>. Stops as soon as <tt>to</tt> is settled.
+     * @param from Start vertex.
+     * @param to Goal vertex.
+     * @return Route to item, if exists. Empty, if to == from. Null, otherwise.
+     */
+    public List<Graphs.Link> shortestPath(final Vertex from, final Vertex to) {
+        final int target = index.indexOf(to);
+        final Workspace workspace = newWorkspace();
+        final ShortestPathTree tree = newTree(index.indexOf(from), workspace);
+        search(tree, target, workspace.heap);
+        return tree.route(target);
+    }
+
+    /**
+     * @param source Source vertex id.
+     * @param workspace Arrays of the tree.
+     * @return Tree with all vertexes unreachable but the source.
+     */
+    private ShortestPathTree newTree(final int source, final Workspace workspace) {
+        Arrays.fill(workspace.distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(workspace.predVertex, -1);
+        Arrays.fill(workspace.predEdge, -1);
+        workspace.distances[source] = 0;
+        workspace.heap.clear();
+        return new ShortestPathTree(index, source, workspace.distances, workspace.predVertex, workspace.predEdge);
+    }
+
+    /**
+     * Run dijkstra and write the result into tree.
+     * @param tree Initialized tree.
+     * @param target Vertex id to stop at. -1 to search all reachable vertexes.
+     * @param heap Empty heap for all vertex ids.
+     */
+    private void search(final ShortestPathTree tree, final int target, final IndexedHeap heap) {
+        final IntBuffer offsets = index.offsets;
+        final IntBuffer targets = index.targets;
+        final DoubleBuffer weights = index.weights;
+        final double[] distances = tree.distances;
+        final SearchListener listener = Graphs.getSearchListener().searchStarted("dijkstraEngine");
+        heap.insertOrDecrease(tree.source, 0);
+        listener.stepsQueued(1, 1);
+        while (!heap.isEmpty()) {
+            final int u = heap.poll();
+            if (u == target) {
+                listener.searchFinished(true);
+                return;
+            }
+            listener.vertexesSettled(1);
+            final double du = distances[u];
+            for (int e = offsets.get(u); e < offsets.get(u + 1); e++) {
+                final int v = targets.get(e);
+                final double dv = du + weights.get(e);
+                if (dv < distances[v]) {
+                    distances[v] = dv;
+                    tree.predVertex[v] = u;
+                    tree.predEdge[v] = e;
+                    heap.insertOrDecrease(v, dv);
+                    listener.stepsQueued(1, heap.size());
+                }
+            }
+        }
+        listener.searchFinished(target < 0);
+    }
+
+    /**
+     * Distance and predecessor arrays and heap of one search.
+     */
+    static final class Workspace {
+
+        /** Distance of each vertex id. */
+        private final double[] distances;
+
+        /** Predecessor vertex id of each vertex id. */
+        private final int[] predVertex;
+
+        /** Predecessor edge of each vertex id. */
+        private final int[] predEdge;
+
+        /** Open vertex ids. */
+        private final IndexedHeap heap;
+
+        /**
+         * @param n Number of vertexes.
+         */
+        private Workspace(final int n) {
+            this.distances = new double[n];
+            this.predVertex = new int[n];
+            this.predEdge = new int[n];
+            this.heap = new IndexedHeap(n);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.hambbe.graph;
 
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 /***
  *
@@ -8,29 +9,101 @@ import java.util.function.Function;
  * For the generic edge, a edgeToWeight function is needed in the constructor.
  * This function helps calculating distances from vertex to vertex for several algorithms.
  *
+ * Optionally the weight of each edge is calculated once when the edge is connected and kept in the edge.
+ * Searches then don't call the function at all. If the values of edges change afterwards,
+ * the weights have to be updated with {@link #reweigh(Edge)} or {@link #reweighAll()}.
+ *
  * @param <V> Type for vertexes.
  * @param <E> Type for edges.
  */
 public class DirectedGraph<V, E> extends UnweightedGraph<V, E> {
 
-    /** User defined function for getting weight of a generic edge. */
+    /** User defined function for getting weight of a generic edge. Boxed view of {@link #weightOf}, kept for subclasses. */
     protected final Function<E, Double> edgeToWeight;
 
+    /** User defined function for getting weight of a generic edge, without boxing. */
+    private final ToDoubleFunction<E> weightOf;
+
+    /** True, if edges keep their weight instead of calling {@link #weightOf} on every access. */
+    protected final boolean cacheWeights;
+
     /**
      * @param edgeToWeight Field value.
      */
     public DirectedGraph(final Function<E, Double> edgeToWeight) {
+        this(edgeToWeight, true);
+    }
+
+    /**
+     * @param edgeToWeight Field value.
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     */
+    public DirectedGraph(final Function<E, Double> edgeToWeight, final boolean trackIncoming) {
+        this(unboxed(edgeToWeight), trackIncoming, false);
+    }
+
+    /**
+     * @param edgeToWeight Field value.
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     * @param cacheWeights True, if the weight of an edge should be calculated once, when it gets connected.
+     */
+    public DirectedGraph(final ToDoubleFunction<E> edgeToWeight, final boolean trackIncoming, final boolean cacheWeights) {
+        this(edgeToWeight, trackIncoming, cacheWeights, Storage.LINKED);
+    }
+
+    /**
+     * @param edgeToWeight Field value.
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     * @param cacheWeights True, if the weight of an edge should be calculated once, when it gets connected.
+     * @param storage How vertexes and edges are stored.
+     */
+    public DirectedGraph(final ToDoubleFunction<E> edgeToWeight, final boolean trackIncoming, final boolean cacheWeights, final Storage storage) {
+        super(trackIncoming, storage);
         if (edgeToWeight == null) throw new IllegalArgumentException("edgeToWeight can't be null");
-        this.edgeToWeight = edgeToWeight;
+        this.weightOf = edgeToWeight;
+        this.edgeToWeight = edgeToWeight::applyAsDouble;
+        this.cacheWeights = cacheWeights;
+    }
+
+    /**
+     * @param edgeToWeight Function to adapt. May be null.
+     * @return edgeToWeight as {@link ToDoubleFunction}. Null, if edgeToWeight is null.
+     */
+    private static <E> ToDoubleFunction<E> unboxed(final Function<E, Double> edgeToWeight) {
+        return (edgeToWeight == null) ? null : edgeToWeight::apply;
+    }
+
+    /**
+     * Calculate the weight of edge again, after its value changed.
+     * Only needed, if the graph caches weights.
+     * @param edge Edge to update.
+     */
+    public void reweigh(final Edge edge) {
+        checkMembership(edge);
+        ((GenericEdge) edge).reweigh();
     }
 
+    /**
+     * Calculate the weights of all edges again.
+     * Only needed, if the graph caches weights.
+     */
+    public void reweighAll() {
+        if (!cacheWeights) return;
+        for (VertexImpl vertex : this.vertexes) {
+            if (vertex == null) continue;
+            for (UnweightedEdge edge : vertex.edges) {
+                ((GenericEdge) edge).reweigh();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * With cached weights {@link #weightOf} is called here, when connecting in bulk from several threads at once.
+     */
     @Override
-    public Edge connect(final Vertex pFrom, final Vertex pTo, final E edgeValue) {
-        checkMembership(pFrom, pTo);
-        final VertexImpl from = (VertexImpl) pFrom;
-        UnweightedEdge e = new GenericEdge(edgeValue, from, (VertexImpl) pTo, this);
-        from.connect(e);
-        return e;
+    protected UnweightedEdge createEdge(final VertexImpl from, final VertexImpl to, final E edgeValue) {
+        return new GenericEdge(edgeValue, from, to, this);
     }
 
     @Override
@@ -48,6 +121,9 @@ public class DirectedGraph<V, E> extends UnweightedGraph<V, E> {
         /** value of edge. */
         protected final E value;
 
+        /** Cached weight of edge. Only used, if {@link #cacheWeights} is true. */
+        protected double weight;
+
         /**
          * @param value Field value.
          * @param from Field value.
@@ -57,11 +133,19 @@ public class DirectedGraph<V, E> extends UnweightedGraph<V, E> {
         protected GenericEdge(E value, VertexImpl from, VertexImpl to, DirectedGraph graph) {
             super(from, to, graph);
             this.value = value;
+            if (cacheWeights) this.weight = weightOf.applyAsDouble(value);
+        }
+
+        /**
+         * Update the cached weight from the value.
+         */
+        protected void reweigh() {
+            if (cacheWeights) this.weight = weightOf.applyAsDouble(this.value);
         }
 
         @Override
         public double getWeight() {
-            return edgeToWeight.apply(this.value);
+            return cacheWeights ? this.weight : weightOf.applyAsDouble(this.value);
         }
     }
 
@@ -0,0 +1,99 @@
+package com.hambbe.graph;
+
+/**
+ *
+ * UnweightedGraph with value type <tt>double</tt> as edge weight.
+ *
+ * It is more memory efficient than a {@link DirectedGraph} with <tt>Double</tt> edges, because it uses a value type
+ * for its edge weights and needs no function to get them.
+ *
+ * @param <V> Type of value in vertex
+ *
+ * @see IntGraph
+ */
+public class DoubleGraph<V> extends UnweightedGraph<V, Double> {
+
+    /**
+     * Graph keeping incoming edges.
+     */
+    public DoubleGraph() {
+        super();
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     */
+    public DoubleGraph(final boolean trackIncoming) {
+        super(trackIncoming);
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     * @param storage How vertexes and edges are stored.
+     */
+    public DoubleGraph(final boolean trackIncoming, final Storage storage) {
+        super(trackIncoming, storage);
+    }
+
+    @Override
+    protected UnweightedEdge createEdge(final VertexImpl from, final VertexImpl to, final Double edgeValue) {
+        return new DoubleEdge(edgeValue, from, to, this);
+    }
+
+    /**
+     * Connect two vertexes without boxing the weight.
+     * @param pFrom Vertex the edge starts at.
+     * @param pTo Vertex the edge points to.
+     * @param weight Weight of the edge.
+     * @return New edge.
+     */
+    public Edge connect(final Vertex pFrom, final Vertex pTo, final double weight) {
+        return connectEdge(pFrom, pTo, (i, from, to) -> new DoubleEdge(weight, from, to, this));
+    }
+
+    /**
+     * Connect many vertexes at once without boxing the weights.
+     * @param vertexes Vertexes of this graph, the edges refer to them by position.
+     * @param from Position in vertexes each edge starts at.
+     * @param to Position in vertexes each edge points to.
+     * @param weights Weight of each edge.
+     * @see #connectAll(Vertex[], int[], int[], java.util.function.IntFunction)
+     */
+    public void connectAll(final Vertex[] vertexes, final int[] from, final int[] to, final double[] weights) {
+        if (weights == null || weights.length != from.length) throw new IllegalArgumentException("weights must have the length of from");
+        connectAll(vertexes, from, to, (i, f, t) -> new DoubleEdge(weights[i], f, t, this));
+    }
+
+    @Override
+    public Double getEdgeValue(Edge pEdge) {
+        checkMembership(pEdge);
+        DoubleEdge edge = (DoubleEdge) pEdge;
+        return edge.weight;
+    }
+
+    /**
+     * Edge implementation with value type <tt>double</tt> as weight.
+     */
+    protected class DoubleEdge extends UnweightedEdge {
+
+        /** Edge weight. */
+        protected final double weight;
+
+        /**
+         * @param weight Field value.
+         * @param from Field value.
+         * @param to Field value.
+         * @param graph Field value.
+         */
+        protected DoubleEdge(final double weight, final VertexImpl from, final VertexImpl to, final DoubleGraph<V> graph) {
+            super(from, to, graph);
+            this.weight = weight;
+        }
+
+        @Override
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+}
@@ -0,0 +1,383 @@
+package com.hambbe.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Shortest paths from one source kept up to date under changes of an {@link ObservableGraph}.
+ *
+ * The distances and the shortest path tree are computed once and then repaired by every change, at costs proportional
+ * to the vertexes whose distance changes instead of the whole graph (Ramalingam and Reps):
+ * <ul>
+ * <li>An edge u -&gt; v with <tt>d(u) + w &lt; d(v)</tt> starts a Dijkstra search at v, relaxing only strict
+ * improvements, so it stops at the border of the improved region.
+ * <li>Removing the tree edge of v detaches the subtree of v. Only its vertexes may get longer paths:
+ * each one is seeded with its best incoming edge from outside the subtree and a Dijkstra search restricted to the
+ * subtree settles the rest. Vertexes it doesn't reach are unreachable now.
+ * <li>Removing an edge outside the tree changes no distance.
+ * <li>Removing a vertex detaches the subtree of its children the same way.
+ * </ul>
+ * This keeps one tree instead of all shortest path edges, so a removal repairs the whole subtree even if
+ * a vertex in it has a second path of the same length.
+ *
+ * State is kept in arrays by {@link IndexedVertex#index()}, other vertexes are numbered on first sight.
+ * Listener calls and queries are synchronized, queries must not overlap changes of the graph made elsewhere.
+ *
+ * Rules to work:
+ * <ul>
+ * <li>All changes have to be made through the observed graph.
+ * <li>All step costs have to be positive.
+ * <li>Vertexes should keep their incoming edges, otherwise every removal on the tree scans the graph.
+ * </ul>
+ */
+public class DynamicShortestPaths implements GraphListener, AutoCloseable {
+
+    /** Observed graph. */
+    private final ObservableGraph<?, ?> graph;
+
+    /** Vertex the paths start from. */
+    private final Vertex source;
+
+    /** Numbers of vertexes not implementing {@link IndexedVertex}. */
+    private final HashMap<Vertex, Integer> ids = new HashMap<>();
+
+    /** Next number for vertexes not implementing {@link IndexedVertex}. */
+    private int nextId = 0;
+
+    /** Vertexes by id, known for all reached vertexes. */
+    private Vertex[] vertexes = new Vertex[0];
+
+    /** Distances from the source by id. */
+    private double[] distances = new double[0];
+
+    /** Tree edges by id, null for the source and unreached vertexes. */
+    private Edge[] predEdges = new Edge[0];
+
+    /** Tree parents by id, -1 for none. */
+    private int[] parents = new int[0];
+
+    /** First tree child by id, -1 for none. */
+    private int[] firstChildren = new int[0];
+
+    /** Next tree sibling by id, -1 for none. */
+    private int[] nextSiblings = new int[0];
+
+    /** Previous tree sibling by id, -1 for none. */
+    private int[] previousSiblings = new int[0];
+
+    /** Vertexes of the current repair are stamped with its epoch. */
+    private int[] stamps = new int[0];
+
+    /** Epoch of the current repair. */
+    private int epoch = 0;
+
+    /** Number of distances repaired since construction. */
+    private long repaired = 0;
+
+    /**
+     * Compute the shortest paths from the source and keep them up to date until {@link #close()}.
+     * @param graph Graph to observe.
+     * @param source Vertex the paths start from.
+     */
+    public DynamicShortestPaths(final ObservableGraph<?, ?> graph, final Vertex source) {
+        if (source == null) throw new IllegalArgumentException("source can't be null");
+        this.graph = graph;
+        this.source = source;
+        final int id = id(source);
+        vertexes[id] = source;
+        distances[id] = 0;
+        final PriorityQueue<Step> queue = new PriorityQueue<>();
+        queue.add(new Step(id, 0));
+        improve(queue);
+        repaired = 0;
+        graph.addListener(this);
+    }
+
+    /**
+     * @return Vertex the paths start from.
+     */
+    public Vertex getSource() {
+        return source;
+    }
+
+    /**
+     * @param vertex Vertex to get the distance of.
+     * @return Distance from the source, infinite if not reachable.
+     */
+    public synchronized double distanceTo(final Vertex vertex) {
+        final int id = find(vertex);
+        return (id < 0) ? Double.POSITIVE_INFINITY : distances[id];
+    }
+
+    /**
+     * @param vertex Vertex to check.
+     * @return True, if the vertex is reachable from the source.
+     */
+    public boolean hasPathTo(final Vertex vertex) {
+        return distanceTo(vertex) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param vertex Vertex to get the route to.
+     * @return Route to the vertex, if exists. Empty, if vertex == source. Null, otherwise.
+     */
+    public synchronized List<Graphs.Link> pathTo(final Vertex vertex) {
+        int id = find(vertex);
+        if (id < 0 || distances[id] == Double.POSITIVE_INFINITY) return null;
+        final LinkedList<Graphs.Link> route = new LinkedList<>();
+        while (predEdges[id] != null) {
+            route.addFirst(new Graphs.Link(predEdges[id], distances[id]));
+            id = parents[id];
+        }
+        return route;
+    }
+
+    /**
+     * @return Number of distances recomputed by changes since construction.
+     */
+    public synchronized long getRepairedCount() {
+        return repaired;
+    }
+
+    /**
+     * Stop observing the graph. The paths are kept as they are.
+     */
+    @Override
+    public void close() {
+        graph.removeListener(this);
+    }
+
+    @Override
+    public synchronized void edgeAdded(final Edge edge) {
+        final int from = find(edge.getFrom());
+        if (from < 0 || distances[from] == Double.POSITIVE_INFINITY) return;
+        final double distance = distances[from] + edge.getWeight();
+        final Vertex to = edge.getTo();
+        final int id = id(to);
+        if (distance >= distances[id]) return;
+        vertexes[id] = to;
+        distances[id] = distance;
+        predEdges[id] = edge;
+        link(id, from);
+        repaired++;
+        final PriorityQueue<Step> queue = new PriorityQueue<>();
+        queue.add(new Step(id, distance));
+        improve(queue);
+    }
+
+    @Override
+    public synchronized void edgeRemoved(final Vertex from, final Vertex to, final Edge edge) {
+        final int id = find(to);
+        if (id >= 0 && predEdges[id] != null && predEdges[id].equals(edge)) repair(id, false);
+    }
+
+    @Override
+    public synchronized void vertexRemoved(final Vertex vertex, final List<Edge> edges) {
+        final int id = find(vertex);
+        if (id >= 0 && distances[id] < Double.POSITIVE_INFINITY) repair(id, true);
+        if (!(vertex instanceof IndexedVertex)) ids.remove(vertex);
+    }
+
+    /**
+     * Dijkstra search from the queued vertexes, following only strict improvements.
+     * @param queue Vertexes with improved distances.
+     */
+    private void improve(final PriorityQueue<Step> queue) {
+        while (!queue.isEmpty()) {
+            final Step step = queue.poll();
+            if (step.distance > distances[step.id]) continue;
+            for (Edge edge : vertexes[step.id].getEdges()) {
+                final double distance = step.distance + edge.getWeight();
+                final Vertex to = edge.getTo();
+                final int id = id(to);
+                if (distance >= distances[id]) continue;
+                vertexes[id] = to;
+                distances[id] = distance;
+                predEdges[id] = edge;
+                link(id, step.id);
+                repaired++;
+                queue.add(new Step(id, distance));
+            }
+        }
+    }
+
+    /**
+     * Recompute the distances of a detached subtree.
+     * @param root Root of the subtree.
+     * @param removed True, if the root itself was removed from the graph.
+     */
+    private void repair(final int root, final boolean removed) {
+        epoch++;
+        final IntList affected = new IntList();
+        final IntList stack = new IntList();
+        stack.add(root);
+        while (stack.size > 0) {
+            final int id = stack.values[--stack.size];
+            affected.add(id);
+            stamps[id] = epoch;
+            for (int child = firstChildren[id]; child >= 0; child = nextSiblings[child]) stack.add(child);
+        }
+        for (int i = 0; i < affected.size; i++) {
+            final int id = affected.values[i];
+            unlink(id);
+            firstChildren[id] = -1;
+            distances[id] = Double.POSITIVE_INFINITY;
+            predEdges[id] = null;
+        }
+        if (removed) {
+            vertexes[root] = null;
+            stamps[root] = 0;
+        }
+
+        // Best edge from outside the subtree.
+        final PriorityQueue<Step> queue = new PriorityQueue<>();
+        for (int i = removed ? 1 : 0; i < affected.size; i++) {
+            final int id = affected.values[i];
+            for (Edge edge : graph.incomingEdges(vertexes[id])) {
+                final int from = find(edge.getFrom());
+                if (from < 0 || stamps[from] == epoch) continue;
+                final double distance = distances[from] + edge.getWeight();
+                if (distance < distances[id]) {
+                    distances[id] = distance;
+                    predEdges[id] = edge;
+                }
+            }
+            if (predEdges[id] != null) queue.add(new Step(id, distances[id]));
+        }
+
+        // Dijkstra inside the subtree, settled vertexes leave it.
+        while (!queue.isEmpty()) {
+            final Step step = queue.poll();
+            if (stamps[step.id] != epoch || step.distance > distances[step.id]) continue;
+            stamps[step.id] = 0;
+            link(step.id, find(predEdges[step.id].getFrom()));
+            for (Edge edge : vertexes[step.id].getEdges()) {
+                final int id = find(edge.getTo());
+                if (id < 0 || stamps[id] != epoch) continue;
+                final double distance = step.distance + edge.getWeight();
+                if (distance < distances[id]) {
+                    distances[id] = distance;
+                    predEdges[id] = edge;
+                    queue.add(new Step(id, distance));
+                }
+            }
+        }
+        repaired += affected.size;
+    }
+
+    /**
+     * Make a vertex the first child of another.
+     * @param child Id of the child.
+     * @param parent Id of the parent.
+     */
+    private void link(final int child, final int parent) {
+        unlink(child);
+        parents[child] = parent;
+        previousSiblings[child] = -1;
+        nextSiblings[child] = firstChildren[parent];
+        if (firstChildren[parent] >= 0) previousSiblings[firstChildren[parent]] = child;
+        firstChildren[parent] = child;
+    }
+
+    /**
+     * Detach a vertex from its parent, keeping its children.
+     * @param child Id of the child.
+     */
+    private void unlink(final int child) {
+        final int parent = parents[child];
+        if (parent < 0) return;
+        if (previousSiblings[child] >= 0) {
+            nextSiblings[previousSiblings[child]] = nextSiblings[child];
+        } else {
+            firstChildren[parent] = nextSiblings[child];
+        }
+        if (nextSiblings[child] >= 0) previousSiblings[nextSiblings[child]] = previousSiblings[child];
+        parents[child] = -1;
+        nextSiblings[child] = -1;
+        previousSiblings[child] = -1;
+    }
+
+    /**
+     * @param vertex Vertex to look up.
+     * @return Id of the vertex, -1 if never seen.
+     */
+    private int find(final Vertex vertex) {
+        final int id;
+        if (vertex instanceof IndexedVertex) {
+            id = ((IndexedVertex) vertex).index();
+        } else {
+            final Integer known = ids.get(vertex);
+            id = (known == null) ? -1 : known;
+        }
+        return (id < distances.length) ? id : -1;
+    }
+
+    /**
+     * @param vertex Vertex to look up.
+     * @return Id of the vertex, numbered and with room in all arrays.
+     */
+    private int id(final Vertex vertex) {
+        final int id;
+        if (vertex instanceof IndexedVertex) {
+            id = ((IndexedVertex) vertex).index();
+        } else {
+            final Integer known = ids.get(vertex);
+            if (known != null) {
+                id = known;
+            } else {
+                id = nextId++;
+                ids.put(vertex, id);
+            }
+        }
+        if (id >= distances.length) grow(id + 1);
+        return id;
+    }
+
+    /**
+     * @param minimum Minimum number of ids.
+     */
+    private void grow(final int minimum) {
+        final int old = distances.length;
+        final int length = Math.max(minimum, 2 * old);
+        vertexes = Arrays.copyOf(vertexes, length);
+        distances = Arrays.copyOf(distances, length);
+        predEdges = Arrays.copyOf(predEdges, length);
+        parents = Arrays.copyOf(parents, length);
+        firstChildren = Arrays.copyOf(firstChildren, length);
+        nextSiblings = Arrays.copyOf(nextSiblings, length);
+        previousSiblings = Arrays.copyOf(previousSiblings, length);
+        stamps = Arrays.copyOf(stamps, length);
+        Arrays.fill(distances, old, length, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, old, length, -1);
+        Arrays.fill(firstChildren, old, length, -1);
+        Arrays.fill(nextSiblings, old, length, -1);
+        Arrays.fill(previousSiblings, old, length, -1);
+    }
+
+    /**
+     * Queued vertex with its distance at the time.
+     */
+    protected static class Step implements Comparable<Step> {
+        /** Id of the vertex. */
+        private final int id;
+        /** Distance when queued. */
+        private final double distance;
+
+        /**
+         * @param id Field value.
+         * @param distance Field value.
+         */
+        protected Step(final int id, final double distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(final Step other) {
+            return Double.compare(distance, other.distance);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.hambbe.graph;
 
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Interface for graph implementation.
@@ -116,4 +118,30 @@ public interface Graph<V, E> {
      */
     Iterable<? extends Edge> getEdges();
 
+    /**
+     * Stream of all vertexes, which may be split for parallel processing.
+     * @return Stream of vertexes.
+     */
+    default Stream<Vertex> vertexStream() {
+        return StreamSupport.stream(getVertexes().spliterator(), false).map(Vertex.class::cast);
+    }
+
+    /**
+     * Stream of all edges, split by the vertexes they start at.
+     * @return Stream of edges.
+     */
+    default Stream<Edge> edgeStream() {
+        return vertexStream().flatMap(v -> StreamSupport.stream(v.getEdges().spliterator(), false).map(Edge.class::cast));
+    }
+
+    /**
+     * Consistent, immutable view of the graph, for long running queries while the graph changes.
+     * A snapshot may have vertexes of its own, this default copies the whole graph into a {@link CsrGraph}.
+     * Graphs supporting versions share their structure with the snapshot instead, see {@link ConcurrentGraph#snapshot()}.
+     * @return Snapshot of the graph.
+     */
+    default Graph<V, E> snapshot() {
+        return CsrGraph.of(this);
+    }
+
 }
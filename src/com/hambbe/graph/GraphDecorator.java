@@ -1,6 +1,7 @@
 package com.hambbe.graph;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * General abstract class for all graph decorators.
@@ -86,8 +87,27 @@ public abstract class GraphDecorator<V, E> implements Graph<V, E> {
         return graph.getEdges();
     }
 
+    @Override
+    public Stream<Vertex> vertexStream() {
+        return graph.vertexStream();
+    }
+
+    @Override
+    public Stream<Edge> edgeStream() {
+        return graph.edgeStream();
+    }
+
     @Override
     public int degree(Vertex vertex) {
         return graph.degree(vertex);
     }
+
+    /**
+     * Snapshot of the decorated graph, so graphs supporting versions are not copied.
+     * @return Snapshot of the decorated graph.
+     */
+    @Override
+    public Graph<V, E> snapshot() {
+        return graph.snapshot();
+    }
 }
@@ -0,0 +1,218 @@
+package com.hambbe.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file format for graphs in CSR layout, loaded by memory mapping.
+ *
+ * Layout (little endian):
+ * <ul>
+ * <li>Header of {@value #HEADER_SIZE} bytes: magic, version, vertex count n, edge count m,
+ * position of the value offsets, position of the values (both 0, if the file has no values).
+ * <li>Offsets: n + 1 ints. The edges of vertex <tt>i</tt> are <tt>offsets[i]</tt> to <tt>offsets[i + 1] - 1</tt>.
+ * <li>Targets: m ints, padded to a multiple of 8 bytes.
+ * <li>Weights: m doubles.
+ * <li>Value offsets: n + 1 ints, relative to the start of the values.
+ * <li>Values: per vertex a byte telling if the value is present (1) or null (0), followed by the bytes of the
+ * {@link VertexCodec}.
+ * </ul>
+ * Each section is mapped on its own, so a section may have up to 2 GB.
+ */
+public final class GraphFile {
+
+    /** First int of every graph file. */
+    private static final int MAGIC = 0x48475246;
+
+    /** Version of the format. */
+    private static final int VERSION = 1;
+
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 32;
+
+    /** Size of the write buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Only static methods.
+     */
+    private GraphFile() {
+    }
+
+    /**
+     * Write a graph without vertex values. Edge values are never written.
+     * @param graph Graph to write.
+     * @param file File to create or overwrite.
+     * @throws IOException If writing fails.
+     */
+    public static void write(final Graph<?, ?> graph, final Path file) throws IOException {
+        write(graph, file, null);
+    }
+
+    /**
+     * Write a graph. Vertex indexes follow the iteration order of {@link Graph#getVertexes()}.
+     * Edge values are never written.
+     * @param graph Graph to write.
+     * @param file File to create or overwrite.
+     * @param codec Codec for the vertex values. Null, to write no values.
+     * @param <V> Type of value in vertex.
+     * @throws IOException If writing fails.
+     */
+    public static <V> void write(final Graph<V, ?> graph, final Path file, final VertexCodec<? super V> codec) throws IOException {
+        final GraphIndex index = GraphIndex.of(graph);
+        final int n = index.size();
+        final int m = index.edgeCount();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(HEADER_SIZE);
+            for (int i = 0; i <= n; i++) {
+                putInt(channel, buffer, index.offsets.get(i));
+            }
+            for (int e = 0; e < m; e++) {
+                putInt(channel, buffer, index.targets.get(e));
+            }
+            if ((n + 1 + m) % 2 == 1) putInt(channel, buffer, 0); // header has 8 bytes, pad weights to 8 bytes
+            for (int e = 0; e < m; e++) {
+                if (buffer.remaining() < 8) flush(channel, buffer);
+                buffer.putDouble(index.weights.get(e));
+            }
+            long valueOffsetsPosition = 0;
+            long valuesPosition = 0;
+            if (codec != null) {
+                flush(channel, buffer);
+                valueOffsetsPosition = channel.position();
+                valuesPosition = valueOffsetsPosition + 4L * (n + 1);
+                // Stream the values behind the space of their offsets, the offsets are known afterwards only.
+                channel.position(valuesPosition);
+                final DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+                final int[] valueOffsets = new int[n + 1];
+                for (int i = 0; i < n; i++) {
+                    valueOffsets[i] = out.size();
+                    final V value = graph.getValue(index.vertex(i));
+                    out.writeBoolean(value != null);
+                    if (value != null) codec.encode(value, out);
+                }
+                // Not closed, that would close the channel.
+                out.flush();
+                // The counter of DataOutputStream stops at Integer.MAX_VALUE.
+                if (out.size() == Integer.MAX_VALUE) throw new IOException("Vertex values too big for a graph file");
+                valueOffsets[n] = out.size();
+                channel.position(valueOffsetsPosition);
+                for (int offset : valueOffsets) {
+                    putInt(channel, buffer, offset);
+                }
+            }
+            flush(channel, buffer);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putLong(valueOffsetsPosition).putLong(valuesPosition);
+            buffer.flip();
+            channel.write(buffer, 0);
+        }
+    }
+
+    /**
+     * @param channel Channel to flush to, if buffer is full.
+     * @param buffer Write buffer.
+     * @param value Value to write.
+     * @throws IOException If writing fails.
+     */
+    private static void putInt(final FileChannel channel, final ByteBuffer buffer, final int value) throws IOException {
+        if (buffer.remaining() < 4) flush(channel, buffer);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Write the content of buffer and clear it.
+     * @param channel Channel to write to.
+     * @param buffer Write buffer.
+     * @throws IOException If writing fails.
+     */
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Map a graph file without reading its vertex values.
+     * @param file File written by {@link #write(Graph, Path)}.
+     * @param <V> Type of value in vertex.
+     * @param <E> Type for edges.
+     * @return Read only graph on top of the file. Vertex values are null.
+     * @throws IOException If the file can't be mapped or is no graph file.
+     */
+    public static <V, E> MappedGraph<V, E> map(final Path file) throws IOException {
+        return map(file, null);
+    }
+
+    /**
+     * Map a graph file. The file is not read, the operating system loads its pages when they are used.
+     * @param file File written by {@link #write(Graph, Path, VertexCodec)}.
+     * @param codec Codec for the vertex values. Null, to ignore the values.
+     * @param <V> Type of value in vertex.
+     * @param <E> Type for edges.
+     * @return Read only graph on top of the file.
+     * @throws IOException If the file can't be mapped or is no graph file.
+     */
+    public static <V, E> MappedGraph<V, E> map(final Path file, final VertexCodec<V> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw new IOException("Not a graph file: " + file);
+            final ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new IOException("Not a graph file: " + file);
+            final int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported graph file version " + version + ": " + file);
+            final int n = header.getInt();
+            final int m = header.getInt();
+            final long valueOffsetsPosition = header.getLong();
+            final long valuesPosition = header.getLong();
+
+            final long offsetsPosition = HEADER_SIZE;
+            final long targetsPosition = offsetsPosition + 4L * (n + 1);
+            long weightsPosition = targetsPosition + 4L * m;
+            if (weightsPosition % 8 != 0) weightsPosition += 4;
+            final long end = weightsPosition + 8L * m;
+            if (channel.size() < end) throw new IOException("Graph file is truncated: " + file);
+
+            ByteBuffer values = null;
+            ByteBuffer valueOffsets = null;
+            if (codec != null && valuesPosition != 0) {
+                valueOffsets = map(channel, valueOffsetsPosition, 4L * (n + 1));
+                values = map(channel, valuesPosition, channel.size() - valuesPosition);
+            }
+            return new MappedGraph<>(
+                    map(channel, offsetsPosition, 4L * (n + 1)).asIntBuffer(),
+                    map(channel, targetsPosition, 4L * m).asIntBuffer(),
+                    map(channel, weightsPosition, 8L * m).asDoubleBuffer(),
+                    (valueOffsets == null) ? null : valueOffsets.asIntBuffer(),
+                    values,
+                    codec);
+        }
+    }
+
+    /**
+     * Map a section of the file read only. The mapping stays valid after the channel is closed.
+     * @param channel Channel of the file.
+     * @param position Start of the section.
+     * @param size Size of the section in bytes.
+     * @return Little endian buffer of the section.
+     * @throws IOException If mapping fails.
+     */
+    private static MappedByteBuffer map(final FileChannel channel, final long position, final long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("Graph file section too big to map: " + size + " bytes");
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+}
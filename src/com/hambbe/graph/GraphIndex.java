@@ -0,0 +1,184 @@
+package com.hambbe.graph;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+
+/**
+ * Int indexed copy of a graph topology for the primitive search engines.
+ *
+ * Vertexes get dense ids <tt>0 .. size() - 1</tt>, the outgoing edges of vertex <tt>i</tt> are found at
+ * the positions <tt>offsets.get(i)</tt> to <tt>offsets.get(i + 1) - 1</tt> of {@link #targets} and {@link #weights}.
+ * Heap arrays are wrapped into buffers, so the engines read heap and mapped indexes the same way. Only absolute
+ * gets are used, the buffers are shared by concurrent searches.
+ * If the graph is a {@link CsrGraph} its arrays are shared instead of copied, a {@link MappedGraph} shares its
+ * mapped buffers, so searches read the file pages directly, an {@link OffHeapGraph} is copied
+ * from its records once per modification and a {@link ConcurrentGraph} (or one of its snapshots) from one consistent read of each adjacency. They map ids to vertexes themselves ({@link IndexedGraph}).
+ *
+ * The index is a snapshot, later changes to the graph are not reflected.
+ */
+final class GraphIndex {
+
+    /** Start of the outgoing edges for each vertex. Has one extra element holding the edge count. */
+    final IntBuffer offsets;
+
+    /** Target vertex id for each edge. */
+    final IntBuffer targets;
+
+    /** Weight for each edge. */
+    final DoubleBuffer weights;
+
+    /** Vertexes by id. Null, if backed by {@link #indexed}. */
+    private final Vertex[] vertexes;
+
+    /** Original edges by edge id. Null, if {@link #indexed} maps the edge ids. */
+    private final Edge[] edges;
+
+    /** Vertex ids. Null, if backed by {@link #indexed}. */
+    private final HashMap<Vertex, Integer> ids;
+
+    /** Graph mapping the ids. Null, if built from another graph. */
+    private final IndexedGraph indexed;
+
+    /** Edge id in {@link #indexed} for each edge. Null, if the ids are the positions in {@link #targets}. */
+    private final int[] edgeIds;
+
+    /**
+     * @param indexed Graph mapping the ids.
+     * @param offsets Field value.
+     * @param targets Field value.
+     * @param weights Field value.
+     */
+    private GraphIndex(final IndexedGraph indexed, final int[] offsets, final int[] targets, final double[] weights) {
+        this(indexed, offsets, targets, weights, null, null);
+    }
+
+    /**
+     * @param indexed Graph mapping the ids.
+     * @param offsets Field value.
+     * @param targets Field value.
+     * @param weights Field value.
+     * @param edgeIds Field value.
+     * @param edges Field value. Null, if indexed maps the edge ids.
+     */
+    GraphIndex(final IndexedGraph indexed, final int[] offsets, final int[] targets, final double[] weights,
+               final int[] edgeIds, final Edge[] edges) {
+        this(indexed, IntBuffer.wrap(offsets), IntBuffer.wrap(targets), DoubleBuffer.wrap(weights), edgeIds, edges);
+    }
+
+    /**
+     * @param indexed Graph mapping the ids.
+     * @param offsets Field value.
+     * @param targets Field value.
+     * @param weights Field value.
+     * @param edgeIds Field value.
+     * @param edges Field value. Null, if indexed maps the edge ids.
+     */
+    GraphIndex(final IndexedGraph indexed, final IntBuffer offsets, final IntBuffer targets, final DoubleBuffer weights,
+               final int[] edgeIds, final Edge[] edges) {
+        this.indexed = indexed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeIds = edgeIds;
+        this.vertexes = null;
+        this.edges = edges;
+        this.ids = null;
+    }
+
+    /**
+     * @param graph Graph to copy topology from.
+     */
+    private GraphIndex(final Graph<?, ?> graph) {
+        this.indexed = null;
+        this.edgeIds = null;
+        final int n = graph.getVertexCount();
+        this.vertexes = new Vertex[n];
+        this.ids = new HashMap<>(n * 2);
+        final int[] offsetArray = new int[n + 1];
+        int i = 0;
+        int edgeCount = 0;
+        for (Vertex vertex : graph.getVertexes()) {
+            this.vertexes[i] = vertex;
+            this.ids.put(vertex, i);
+            offsetArray[i++] = edgeCount;
+            edgeCount += graph.degree(vertex);
+        }
+        offsetArray[n] = edgeCount;
+        final int[] targetArray = new int[edgeCount];
+        final double[] weightArray = new double[edgeCount];
+        this.edges = new Edge[edgeCount];
+        int e = 0;
+        for (Vertex vertex : this.vertexes) {
+            for (Edge edge : vertex.getEdges()) {
+                targetArray[e] = this.ids.get(edge.getTo());
+                weightArray[e] = edge.getWeight();
+                this.edges[e++] = edge;
+            }
+        }
+        this.offsets = IntBuffer.wrap(offsetArray);
+        this.targets = IntBuffer.wrap(targetArray);
+        this.weights = DoubleBuffer.wrap(weightArray);
+    }
+
+    /**
+     * @param graph Graph to index.
+     * @return Index of graph.
+     */
+    static GraphIndex of(final Graph<?, ?> graph) {
+        if (graph == null) throw new IllegalArgumentException("graph can't be null");
+        if (graph instanceof CsrGraph) {
+            final CsrGraph<?, ?> csr = (CsrGraph<?, ?>) graph;
+            return new GraphIndex(csr, csr.offsets, csr.targets, csr.weights);
+        }
+        if (graph instanceof MappedGraph) return ((MappedGraph<?, ?>) graph).index();
+        if (graph instanceof OffHeapGraph) return ((OffHeapGraph<?>) graph).index();
+        if (graph instanceof ConcurrentGraph) return ((ConcurrentGraph<?, ?>) graph).index();
+        if (graph instanceof ConcurrentGraph.Snapshot) return ((ConcurrentGraph<?, ?>.Snapshot) graph).index();
+        return new GraphIndex(graph);
+    }
+
+    /**
+     * @return Number of vertexes.
+     */
+    int size() {
+        return offsets.capacity() - 1;
+    }
+
+    /**
+     * @return Number of edges.
+     */
+    int edgeCount() {
+        return targets.capacity();
+    }
+
+    /**
+     * @param vertex Vertex of the indexed graph.
+     * @return Id of vertex. Throws an {@link IllegalArgumentException} if vertex is not part of the index.
+     */
+    int indexOf(final Vertex vertex) {
+        if (indexed != null) return indexed.indexOf(vertex);
+        final Integer id = (vertex == null) ? null : ids.get(vertex);
+        if (id == null) throw new IllegalArgumentException("Supplied Vertex not part of the indexed graph");
+        return id;
+    }
+
+    /**
+     * @param id Vertex id.
+     * @return Vertex with the given id.
+     */
+    Vertex vertex(final int id) {
+        return (indexed != null) ? indexed.getVertex(id) : vertexes[id];
+    }
+
+    /**
+     * @param from Id of the vertex the edge starts at.
+     * @param edge Edge id.
+     * @return Edge of the indexed graph.
+     */
+    Edge edge(final int from, final int edge) {
+        if (edges != null) return edges[edge];
+        return indexed.edgeAt(from, (edgeIds == null) ? edge : edgeIds[edge]);
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.hambbe.graph;
+
+import java.util.List;
+
+/**
+ * Listener for the changes made through an {@link ObservableGraph}.
+ * All methods are called after the change, on the thread making it. They do nothing by default.
+ */
+public interface GraphListener {
+
+    /**
+     * @param vertex Added vertex.
+     */
+    default void vertexAdded(Vertex vertex) {
+    }
+
+    /**
+     * @param vertex Removed vertex.
+     * @param edges Edges from and to the vertex removed with it.
+     */
+    default void vertexRemoved(Vertex vertex, List<Edge> edges) {
+    }
+
+    /**
+     * @param edge Added edge.
+     */
+    default void edgeAdded(Edge edge) {
+    }
+
+    /**
+     * The edge is removed already, so its ends are passed along.
+     * @param from Vertex the edge started from.
+     * @param to Vertex the edge ended at.
+     * @param edge Removed edge.
+     */
+    default void edgeRemoved(Vertex from, Vertex to, Edge edge) {
+    }
+
+    /**
+     * @param vertex Vertex with a new value.
+     */
+    default void valueChanged(Vertex vertex) {
+    }
+}
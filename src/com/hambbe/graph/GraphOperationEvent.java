@@ -0,0 +1,44 @@
+package com.hambbe.graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of an {@link InstrumentedGraph} operation.
+ * Only loaded, if the graph was created with events enabled.
+ */
+@Name("com.hambbe.graph.GraphOperation")
+@Label("Graph Operation")
+@Category("Graph")
+@Description("Call of a Graph method through an InstrumentedGraph")
+final class GraphOperationEvent extends Event {
+
+    /** Name of the called method. */
+    @Label("Operation")
+    String operation;
+
+    /**
+     * Start timing a call, the duration of the event is the latency.
+     * @return Started event.
+     */
+    static GraphOperationEvent start() {
+        final GraphOperationEvent event = new GraphOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commit the event, if the recording wants it.
+     * @param operation Name of the called method.
+     */
+    void finish(final String operation) {
+        end();
+        if (!shouldCommit()) return;
+        this.operation = operation;
+        commit();
+    }
+
+}
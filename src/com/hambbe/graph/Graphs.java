@@ -5,13 +5,36 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Contains implementations for known graph search algorithms.
- * Is not Thread save.
+ *
+ * The searches keep their visited state in a {@link SearchContext} of the calling thread instead of marking the vertexes,
+ * so any number of threads can search the same graph at the same time, as long as nobody modifies it.
+ * All searches report to the installed {@link SearchListener}.
  */
 public class Graphs {
 
+    /** Listener of all searches. */
+    private static volatile SearchListener searchListener = SearchListener.NONE;
+
+    /**
+     * Install a listener for all searches of all threads.
+     * @param listener Listener to install. {@link SearchListener#NONE} to remove it.
+     */
+    public static void setSearchListener(final SearchListener listener) {
+        if (listener == null) throw new IllegalArgumentException("listener can't be null, use SearchListener.NONE");
+        searchListener = listener;
+    }
+
+    /**
+     * @return Installed listener. {@link SearchListener#NONE}, if there is none.
+     */
+    public static SearchListener getSearchListener() {
+        return searchListener;
+    }
+
     /**
      * Helper function for different graph search implementations.
      * Uses helper class {@link com.hambbe.graph.Graphs.Step} for finding path,
@@ -27,25 +50,65 @@ public class Graphs {
      * @return Route of vertexes, if exists. Empty, if to == from. Null, otherwise.
      */
     protected static <V, E> List<Link> graphSearch(final Graph<V, E> graph, final Vertex from, final PriorityQueue<Step> pq, final Vertex to) {
-        if (from == to) return new LinkedList<>(); // nothing must be do, to reach to.
-        // Add init values (neighbours of from).
-        from.getEdges().forEach(e -> pq.add(new Step(null, e, e.getWeight())));
+        return graphSearch(graph, from, pq, to, null, "dijkstra");
+    }
+
+    /**
+     * Helper function for graph searches which order their steps by a computed priority.
+     * The priority of every step is calculated once, when the step is created, and the queue only compares
+     * {@link Step#priority}.
+     *
+     * @param graph Graph to search in.
+     * @param from Vertex we are starting at.
+     * @param to Vertex we are looking for.
+     * @param priority Calculates the priority of a new step. Lowest priority gets searched first.
+     * @param algorithm Name of the search for the {@link SearchListener}.
+     * @return Route of vertexes, if exists. Empty, if to == from. Null, otherwise.
+     */
+    private static <V, E> List<Link> graphSearch(final Graph<V, E> graph, final Vertex from, final Vertex to, final StepPriority priority, final String algorithm) {
+        final PriorityQueue<Step> pq = new PriorityQueue<>((p1, p2) -> Double.compare(p1.priority, p2.priority));
+        return graphSearch(graph, from, pq, to, priority, algorithm);
+    }
+
+    /**
+     * @param priority Calculates {@link Step#priority} of new steps. Null, if pq doesn't need it.
+     * @param algorithm Name of the search for the {@link SearchListener}.
+     * @see #graphSearch(Graph, Vertex, PriorityQueue, Vertex)
+     */
+    private static <V, E> List<Link> graphSearch(final Graph<V, E> graph, final Vertex from, final PriorityQueue<Step> pq, final Vertex to, final StepPriority priority, final String algorithm) {
+        if (from.equals(to)) return new LinkedList<>(); // nothing must be do, to reach to.
+        final SearchListener listener = searchListener.searchStarted(algorithm);
+        final SearchContext context = SearchContext.acquire();
         Step result = null;
-        while (!pq.isEmpty() && result == null) {
-            // Get best candidate for search.
-            final Step currentStep = pq.poll();
-            final Vertex next = currentStep.edge.getTo();
-            if (next.isMarked()) continue;
-            if (next == to) {
-                result = currentStep;
-            } else {
-                next.mark();
-                // add children of currentStep to PriorityQueue.
-                next.getEdges().forEach(e -> pq.add(new Step(currentStep, e, e.getWeight())));
+        try {
+            // Add init values (neighbours of from).
+            listener.vertexesSettled(1);
+            from.getEdges().forEach(e -> {
+                pq.add(step(null, e, priority, context));
+                listener.stepsQueued(1, pq.size());
+            });
+            while (!pq.isEmpty() && result == null) {
+                // Get best candidate for search.
+                final Step currentStep = pq.poll();
+                final Vertex next = currentStep.edge.getTo();
+                if (context.isVisited(next)) continue;
+                if (next.equals(to)) {
+                    result = currentStep;
+                } else {
+                    context.visit(next);
+                    listener.vertexesSettled(1);
+                    // add children of currentStep to PriorityQueue.
+                    next.getEdges().forEach(e -> {
+                        pq.add(step(currentStep, e, priority, context));
+                        listener.stepsQueued(1, pq.size());
+                    });
+                }
             }
+        } finally {
+            // Clean up - Only the context of this thread was used, so there are no markings on the vertexes.
+            context.release();
+            listener.searchFinished(result != null);
         }
-        // Clean up - Delete marking on vertexes.
-        graph.getVertexes().forEach(Vertex::demark);
         if (result == null) return null; // Nothing found.
 
         // Build route between start and to item
@@ -57,6 +120,20 @@ public class Graphs {
         return route;
     }
 
+    /**
+     * Create the next step of a search and calculate its priority.
+     * @param prev Previous step.
+     * @param edge Edge of the step.
+     * @param priority Priority of the step. Null, if the step is ordered by its costs only.
+     * @param context Context of the running search.
+     * @return New step.
+     */
+    private static Step step(final Step prev, final Edge edge, final StepPriority priority, final SearchContext context) {
+        if (priority == null) return new Step(prev, edge, edge.getWeight());
+        final double totalCost = ((prev == null) ? 0 : prev.totalCost) + edge.getWeight();
+        return new Step(prev, edge, edge.getWeight(), priority.of(edge, totalCost, context));
+    }
+
     /**
      * Greedy Best-first search algorithm implementation.
      *
@@ -70,10 +147,24 @@ public class Graphs {
      * @return Route to item, if exists. Null, otherwise.
      */
     public static <V, E> List<Link> bestFirstSearch(final Graph<V, E> graph, final Vertex from, final Vertex to, final Function<V, Double> heuristic) {
-        final Function<Step, Double> greedy = (p) -> heuristic.apply(graph.getValue(p.getFrom()));
-        final PriorityQueue<Step> pq = new PriorityQueue<>(
-                (p1, p2) -> Double.compare(greedy.apply(p1), greedy.apply(p2)));
-        return graphSearch(graph, from, pq, to);
+        return bestFirstSearchDouble(graph, from, to, heuristic::apply);
+    }
+
+    /**
+     * Greedy Best-first search algorithm with a heuristic returning primitive values.
+     *
+     * The heuristic is called at most once per vertex and search.
+     *
+     * @param graph Graph to search in.
+     * @param from Start item.
+     * @param to Goal item.
+     * @param heuristic Heuristic function for prioritizing items.
+     * @return Route to item, if exists. Null, otherwise.
+     * @see #bestFirstSearch(Graph, Vertex, Vertex, Function)
+     */
+    public static <V, E> List<Link> bestFirstSearchDouble(final Graph<V, E> graph, final Vertex from, final Vertex to, final ToDoubleFunction<V> heuristic) {
+        final ToDoubleFunction<Vertex> estimate = v -> heuristic.applyAsDouble(graph.getValue(v));
+        return graphSearch(graph, from, to, (edge, totalCost, context) -> context.heuristic(edge.getFrom(), estimate), "bestFirstSearch");
     }
 
     /**
@@ -85,6 +176,7 @@ public class Graphs {
      * Rules to work:
      * <ul>
      * <li>All step costs have to be positive.
+     * <li>The vertexes have to support {@link Vertex#getIncomingEdges()}.
      * </ul>
      *
      * @param graph Graph to search in.
@@ -93,10 +185,29 @@ public class Graphs {
      * @return Route to item, if exists. Null, otherwise.
      */
     public static <V, E> List<Link> dijkstra(final Graph<V, E> graph, final Vertex from, final Vertex to) {
-        final PriorityQueue<Step> pq = new PriorityQueue<>((p1, p2) -> Double.compare(p1.totalCost, p2.totalCost));
+        return dijkstra(graph, from, to, costQueue());
+    }
+
+    /**
+     * {@link #dijkstra(Graph, Vertex, Vertex)} with a queue of the caller, for threads running many searches.
+     * @param graph Graph to search in.
+     * @param from Start item.
+     * @param to Goal item.
+     * @param pq Queue from {@link #costQueue()}, cleared before the search.
+     * @return Route to item, if exists. Null, otherwise.
+     */
+    static <V, E> List<Link> dijkstra(final Graph<V, E> graph, final Vertex from, final Vertex to, final PriorityQueue<Step> pq) {
+        pq.clear();
         return graphSearch(graph, from, pq, to);
     }
 
+    /**
+     * @return Empty queue of steps ordered by total costs.
+     */
+    static PriorityQueue<Step> costQueue() {
+        return new PriorityQueue<>((p1, p2) -> Double.compare(p1.totalCost, p2.totalCost));
+    }
+
     /**
      *
      * @param graph Graph to search in.
@@ -111,11 +222,16 @@ public class Graphs {
         final HashMap<Vertex, Step> shortestPaths = new HashMap<>();
         final PriorityQueue<Step> pq = new PriorityQueue<>((p1, p2) -> Double.compare(p1.totalCost, p2.totalCost));
 
+        final SearchListener listener = searchListener.searchStarted("dijkstraAll");
         final Step init = new Step(null, null, 0);
         shortestPaths.put(pFrom, init);
 
         // add neighbours from pFrom
-        pFrom.getEdges().forEach(e -> pq.add(new Step(init, e, e.getWeight())));
+        listener.vertexesSettled(1);
+        pFrom.getEdges().forEach(e -> {
+            pq.add(new Step(init, e, e.getWeight()));
+            listener.stepsQueued(1, pq.size());
+        });
 
         // Search all shortest paths and store them into V.
         while (!pq.isEmpty()) {
@@ -126,14 +242,21 @@ public class Graphs {
             if (oldStep == null || currentStep.totalCost < oldStep.totalCost) {
                 // override oldStep with currentStep.
                 shortestPaths.put(currentStepTo, currentStep);
+                listener.vertexesSettled(1);
                 // add children of currentStep to PriorityQueue.
-                currentStepTo.getEdges().forEach(e -> pq.add(new Step(currentStep, e, e.getWeight())));
+                currentStepTo.getEdges().forEach(e -> {
+                    pq.add(new Step(currentStep, e, e.getWeight()));
+                    listener.stepsQueued(1, pq.size());
+                });
             }
         }
+        listener.searchFinished(true);
 
         // Prepare result.
         HashMap<Vertex, LinkedList<Link>> result = new HashMap<>();
         graph.getVertexes().forEach(vertex -> {
+            // Skip if the vertex is unreachable from the given start item
+            if (!shortestPaths.containsKey(vertex)) return;
             // Build route between start and vertex
             LinkedList<Link> route = new LinkedList<>();
             for (Step step = shortestPaths.get(vertex); step.prev != null; step = step.prev) {
@@ -144,6 +267,152 @@ public class Graphs {
         return result;
     }
 
+    /**
+     * Dijkstra from one vertex to all vertexes, without building the routes.
+     *
+     * @param graph Graph to search in.
+     * @param pFrom Vertex to search from.
+     * @param <V> Type of vertex in graph
+     * @param <E> Type of edges in graph.
+     * @return Distances and lazy routes to all vertexes. Same paths as {@link #dijkstra(Graph, Vertex)}.
+     */
+    public static <V, E> ShortestPathTree dijkstraTree(final Graph<V, E> graph, final Vertex pFrom) {
+        return new DijkstraEngine(graph).shortestPaths(pFrom);
+    }
+
+    /**
+     * Bidirectional Dijkstra algorithm implementation.
+     *
+     * Searches forward from <tt>from</tt> over {@link Vertex#getEdges()} and backward from <tt>to</tt> over
+     * {@link Vertex#getIncomingEdges()}, always expanding the direction with the cheaper candidate.
+     * Whenever an edge reaches a vertex already labeled by the other direction, the connected path is a candidate.
+     * The search stops as soon as the cheapest open candidates of both directions together cost at least as much as
+     * the best connected path, which is then optimal.
+     * On graphs spreading out in all directions (like road networks) this settles far fewer vertexes than
+     * {@link #dijkstra(Graph, Vertex, Vertex)}.
+     *
+     * Rules to work:
+     * <ul>
+     * <li>All step costs have to be positive.
+     * </ul>
+     *
+     * @param graph Graph to search in.
+     * @param from Start item.
+     * @param to Goal item.
+     * @param <V> Value type of vertex in graph.
+     * @param <E> Value type of edge in graph.
+     * @return Route to item, if exists. Empty, if to == from. Null, otherwise.
+     */
+    public static <V, E> List<Link> bidirectionalDijkstra(final Graph<V, E> graph, final Vertex from, final Vertex to) {
+        if (from.equals(to)) return new LinkedList<>(); // nothing must be do, to reach to.
+        final SearchListener listener = searchListener.searchStarted("bidirectionalDijkstra");
+        final Frontier forward = new Frontier(from, true);
+        final Frontier backward = new Frontier(to, false);
+        double best = Double.POSITIVE_INFINITY;
+        Vertex meeting = null;
+        while (!forward.queue.isEmpty() && !backward.queue.isEmpty()) {
+            final double forwardMin = forward.queue.peek().step.totalCost;
+            final double backwardMin = backward.queue.peek().step.totalCost;
+            // No open path can be cheaper than the best connected one anymore.
+            if (forwardMin + backwardMin >= best) break;
+            final Frontier current = (forwardMin <= backwardMin) ? forward : backward;
+            final Frontier other = (current == forward) ? backward : forward;
+            final Candidate candidate = current.queue.poll();
+            // Skip outdated candidates, the vertex was reached cheaper in the meantime.
+            if (current.steps.get(candidate.vertex) != candidate.step) continue;
+            listener.vertexesSettled(1);
+            for (Edge e : current.edgesOf(candidate.vertex)) {
+                final Vertex next = current.forward ? e.getTo() : e.getFrom();
+                final double cost = candidate.step.totalCost + e.getWeight();
+                final Step old = current.steps.get(next);
+                if (old == null || cost < old.totalCost) {
+                    final Step step = new Step(candidate.step, e, e.getWeight());
+                    current.steps.put(next, step);
+                    current.queue.add(new Candidate(next, step));
+                    listener.stepsQueued(1, forward.queue.size() + backward.queue.size());
+                }
+                final Step otherStep = other.steps.get(next);
+                if (otherStep != null && cost + otherStep.totalCost < best) {
+                    best = cost + otherStep.totalCost;
+                    meeting = next;
+                }
+            }
+        }
+        listener.searchFinished(meeting != null);
+        if (meeting == null) return null; // Nothing found.
+
+        // Build route: forward steps up to the meeting vertex, then the backward steps from there to the goal.
+        final LinkedList<Edge> edges = new LinkedList<>();
+        for (Step step = forward.steps.get(meeting); step.edge != null; step = step.prev) {
+            edges.addFirst(step.edge);
+        }
+        for (Step step = backward.steps.get(meeting); step.edge != null; step = step.prev) {
+            edges.addLast(step.edge);
+        }
+        final LinkedList<Link> route = new LinkedList<>();
+        double totalCost = 0;
+        for (Edge edge : edges) {
+            totalCost += edge.getWeight();
+            route.addLast(new Link(edge, totalCost));
+        }
+        return route;
+    }
+
+    /**
+     * One search direction of {@link #bidirectionalDijkstra(Graph, Vertex, Vertex)}.
+     */
+    private static class Frontier {
+
+        /** True, if searching along the edges. False, if searching against them. */
+        private final boolean forward;
+
+        /** Best known step per labeled vertex. Steps of the backward direction point towards the goal. */
+        private final HashMap<Vertex, Step> steps = new HashMap<>();
+
+        /** Open candidates, cheapest first. */
+        private final PriorityQueue<Candidate> queue = new PriorityQueue<>((c1, c2) -> Double.compare(c1.step.totalCost, c2.step.totalCost));
+
+        /**
+         * @param root Vertex to start at.
+         * @param forward Field value.
+         */
+        private Frontier(final Vertex root, final boolean forward) {
+            this.forward = forward;
+            final Step init = new Step(null, null, 0);
+            steps.put(root, init);
+            queue.add(new Candidate(root, init));
+        }
+
+        /**
+         * @param vertex Vertex to expand.
+         * @return Edges to follow in this direction.
+         */
+        private Iterable<? extends Edge> edgesOf(final Vertex vertex) {
+            return forward ? vertex.getEdges() : vertex.getIncomingEdges();
+        }
+    }
+
+    /**
+     * Queue entry of {@link Frontier}: A step together with the vertex it reaches.
+     */
+    private static class Candidate {
+
+        /** Reached vertex. */
+        private final Vertex vertex;
+
+        /** Step reaching vertex. */
+        private final Step step;
+
+        /**
+         * @param vertex Field value.
+         * @param step Field value.
+         */
+        private Candidate(final Vertex vertex, final Step step) {
+            this.vertex = vertex;
+            this.step = step;
+        }
+    }
+
     /**
      * A* search algorithm implementation.
      *
@@ -164,12 +433,25 @@ public class Graphs {
      * @return Route to item, if exists. Null, otherwise.
      */
     public static <V, E> List<Link> aStar(final Graph<V, E> graph, final Vertex from, final Vertex to, final Function<V, Double> heuristic) {
-        final Function<Step, Double> assumedTotalCost = (p) ->
-                p.totalCost
-                + ((p.getFrom() == null) ? 0 : heuristic.apply(graph.getValue(p.getFrom())));
-        final PriorityQueue<Step> pq = new PriorityQueue<>(
-                (p1, p2) -> Double.compare(assumedTotalCost.apply(p1), assumedTotalCost.apply(p2)));
-        return graphSearch(graph, from, pq, to);
+        return aStarDouble(graph, from, to, heuristic::apply);
+    }
+
+    /**
+     * A* search algorithm with a heuristic returning primitive values.
+     *
+     * The heuristic is called at most once per vertex and search, the assumed total cost of a step
+     * is calculated when the step is queued.
+     *
+     * @param graph Graph to search in.
+     * @param from Start item.
+     * @param to Goal item.
+     * @param heuristic Heuristic function for helping to prioritize items.
+     * @return Route to item, if exists. Null, otherwise.
+     * @see #aStar(Graph, Vertex, Vertex, Function)
+     */
+    public static <V, E> List<Link> aStarDouble(final Graph<V, E> graph, final Vertex from, final Vertex to, final ToDoubleFunction<V> heuristic) {
+        final ToDoubleFunction<Vertex> estimate = v -> heuristic.applyAsDouble(graph.getValue(v));
+        return graphSearch(graph, from, to, (edge, totalCost, context) -> totalCost + context.heuristic(edge.getFrom(), estimate), "aStar");
     }
 
 
@@ -190,24 +472,15 @@ public class Graphs {
      * @return Route to item, if exists and there was no cycle with negative edges on the way. Null, otherwise.
      */
     public static <V, E> List<Link> bellmanFord(final Graph<V, E> graph, final Vertex pFrom, final Vertex pTo) {
-        HashMap<Vertex, Step> V = bellmanFordSearch(graph, pFrom);
+        final ShortestPathTree tree = new BellmanFordEngine(graph).shortestPaths(pFrom);
 
         // Return null if the bellman-ford algorithm wasn't successful
-        if (V == null) {
-            return null;
-        }
-
-        // Return null if the goal is unreachable from the given start item
-        if (V.get(pTo).totalCost == Double.MAX_VALUE) {
+        if (tree.hasNegativeCycle()) {
             return null;
         }
 
-        // Build route between start and goal item
-        LinkedList<Link> route = new LinkedList<>();
-        for (Step curr = V.get(pTo); curr.prev != null; curr = curr.prev) {
-            route.addFirst(new Link(curr.edge, curr.totalCost));
-        }
-        return route;
+        // Null if the goal is unreachable from the given start item
+        return tree.route(tree.index.indexOf(pTo));
     }
 
     /**
@@ -217,6 +490,7 @@ public class Graphs {
      * Other then the Dijkstra algorithm, Bellman Ford also works with negative
      * edge values. The trade-off is a runtime complexity of O(|V|*|E|).
      * The algorithm fails if there is a cycle with negative total values has been found.
+     * Use {@link BellmanFordEngine} to get the cycle.
      *
      * @param graph The graph
      * @param pFrom Starting vertex
@@ -225,65 +499,72 @@ public class Graphs {
      * @return List routes to all reachable items, if there was no cycle with negative edges on the way. Null, otherwise.
      */
     public static <V, K> HashMap<Vertex, LinkedList<Link>> bellmanFord(final Graph<V, K> graph, final Vertex pFrom) {
-        HashMap<Vertex, Step> V = bellmanFordSearch(graph, pFrom);
+        final ShortestPathTree tree = new BellmanFordEngine(graph).shortestPaths(pFrom);
 
         // Return null if the bellman-ford algorithm wasn't successful
-        if (V == null) {
+        if (tree.hasNegativeCycle()) {
             return null;
         }
 
-        HashMap<Vertex, LinkedList<Link>> routes = new HashMap<>();
-
-        for (Vertex vertex : graph.getVertexes()) {
-            // Skip if the goal is unreachable from the given start item
-            if (V.get(vertex).totalCost == Double.MAX_VALUE || vertex.equals(pFrom)) {
-                continue;
-            }
+        final HashMap<Vertex, LinkedList<Link>> routes = tree.toRoutes();
+        routes.remove(pFrom);
+        return routes;
+    }
 
-            // Build route between start and goal item
-            LinkedList<Link> route = new LinkedList<>();
-            for (Step curr = V.get(vertex); curr.prev != null; curr = curr.prev) {
-                route.addFirst(new Link(curr.edge, curr.totalCost));
-            }
-            routes.put(vertex, route);
-        }
+    /**
+     * Bellman Ford from one vertex to all vertexes, without building the routes.
+     *
+     * @param graph The graph
+     * @param pFrom Starting vertex
+     * @param <V> Generic vertex type
+     * @param <K> Generic edge type
+     * @return Distances and lazy routes to all vertexes, or the negative cycle found.
+     * @see BellmanFordEngine
+     */
+    public static <V, K> ShortestPathTree bellmanFordTree(final Graph<V, K> graph, final Vertex pFrom) {
+        return new BellmanFordEngine(graph).shortestPaths(pFrom);
+    }
 
-        return routes;
+    /**
+     * Parallel dijkstra replacement (delta-stepping) on the common fork join pool.
+     *
+     * Rules to work:
+     * <ul>
+     * <li>All step costs have to be positive.
+     * </ul>
+     *
+     * @param graph Graph to search in.
+     * @param pFrom Vertex to search from.
+     * @param <V> Type of vertex in graph
+     * @param <E> Type of edges in graph.
+     * @return Same as {@link #dijkstra(Graph, Vertex)}.
+     * @see ParallelShortestPaths#deltaStepping(Vertex)
+     */
+    public static <V, E> HashMap<Vertex, LinkedList<Link>> parallelDijkstra(final Graph<V, E> graph, final Vertex pFrom) {
+        return new ParallelShortestPaths(graph).deltaStepping(pFrom).toRoutes();
     }
 
     /**
+     * Parallel Bellman Ford on the common fork join pool.
+     *
      * @param graph The graph
      * @param pFrom Starting vertex
      * @param <V> Generic vertex type
-     * @param <E> Generic edge type
-     * @return HashMap with all shortest paths from pFrom to all vertexes in the graph. Vertex is the key to get to the path.
+     * @param <K> Generic edge type
+     * @return Same as {@link #bellmanFord(Graph, Vertex)}.
+     * @see ParallelShortestPaths#bellmanFord(Vertex)
      */
-    private static <V, E> HashMap<Vertex, Step> bellmanFordSearch(final Graph<V, E> graph, final Vertex pFrom) {
-        HashMap<Vertex, Step> V = new HashMap<>();
-        graph.getVertexes().forEach(v -> V.put(v, new Step(null, null, (pFrom == v) ? 0 : Double.MAX_VALUE)));
-
-        for (int i = 0; i < graph.getVertexCount() - 1; i++) {
-            for (Vertex vertex : graph.getVertexes()) {
-                for (Edge e : vertex.getEdges()) {
-                    Step u = V.get(vertex);
-                    Step v = V.get(e.getTo());
-                    if (u.totalCost + e.getWeight() < v.totalCost) {
-                        V.put(e.getTo(), new Step(u, e, e.getWeight()));
-                    }
-                }
-            }
-        }
+    public static <V, K> HashMap<Vertex, LinkedList<Link>> parallelBellmanFord(final Graph<V, K> graph, final Vertex pFrom) {
+        final ShortestPathTree tree = new ParallelShortestPaths(graph).bellmanFord(pFrom);
 
-        for (Vertex vertex : graph.getVertexes()) {
-            for (Edge e : vertex.getEdges()) {
-                Step u = V.get(vertex);
-                Step v = V.get(e.getTo());
-                if (u.totalCost + e.getWeight() < v.totalCost) {
-                    return null;
-                }
-            }
+        // Return null if the bellman-ford algorithm wasn't successful
+        if (tree.hasNegativeCycle()) {
+            return null;
         }
-        return V;
+
+        final HashMap<Vertex, LinkedList<Link>> routes = tree.toRoutes();
+        routes.remove(pFrom);
+        return routes;
     }
 
     /**
@@ -345,6 +626,21 @@ public class Graphs {
 
     }
 
+    /**
+     * Calculates the priority of a new {@link Step}.
+     */
+    @FunctionalInterface
+    private interface StepPriority {
+
+        /**
+         * @param edge Edge of the new step.
+         * @param totalCost Total costs including the new step.
+         * @param context Context of the running search, for caching per vertex values.
+         * @return Priority of the step.
+         */
+        double of(Edge edge, double totalCost, SearchContext context);
+    }
+
     /**
      * Helper class for several graph searches.
      */
@@ -359,6 +655,9 @@ public class Graphs {
         /** Total costs including current step. */
         public final double totalCost;
 
+        /** Priority in the queue of searches ordering by more than the costs. */
+        public final double priority;
+
         /**
          * @param prev Previous path.
          * @param edge Current edge.
@@ -368,6 +667,20 @@ public class Graphs {
             this.prev = prev;
             this.edge = edge;
             this.totalCost = ((prev == null) ? 0 : prev.totalCost) + cost;
+            this.priority = this.totalCost;
+        }
+
+        /**
+         * @param prev Previous path.
+         * @param edge Current edge.
+         * @param cost Cost of this step.
+         * @param priority Priority in the queue, computed before the step is created.
+         */
+        public Step(final Step prev, final Edge edge, final double cost, final double priority) {
+            this.prev = prev;
+            this.edge = edge;
+            this.totalCost = ((prev == null) ? 0 : prev.totalCost) + cost;
+            this.priority = priority;
         }
 
         public Vertex getFrom() {
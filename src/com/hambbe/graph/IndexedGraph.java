@@ -0,0 +1,28 @@
+package com.hambbe.graph;
+
+/**
+ * Graph with dense vertex indexes and edges addressed by position, like the CSR layout.
+ * {@link GraphIndex} uses it to map ids back to vertexes and edges without keeping a map.
+ */
+interface IndexedGraph {
+
+    /**
+     * @param vertex Vertex of this graph.
+     * @return Index of the vertex. Throws an {@link IllegalArgumentException} if vertex is not part of the graph.
+     */
+    int indexOf(Vertex vertex);
+
+    /**
+     * @param index Vertex index.
+     * @return Vertex with the given index.
+     */
+    Vertex getVertex(int index);
+
+    /**
+     * @param from Vertex index the edge starts at.
+     * @param edge Edge index.
+     * @return Edge handle for the given edge index.
+     */
+    Edge edgeAt(int from, int edge);
+
+}
@@ -0,0 +1,146 @@
+package com.hambbe.graph;
+
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min heap over the int ids <tt>0 .. capacity - 1</tt> with primitive double keys.
+ *
+ * Other than {@link java.util.PriorityQueue} every id is at most once in the heap and its key can be decreased
+ * in place, so no objects are allocated after construction.
+ */
+final class IndexedHeap {
+
+    /** Number of children per node. 4 keeps the tree flat and the children in one cache line. */
+    private static final int ARITY = 4;
+
+    /** Ids in heap order. */
+    private final int[] heap;
+
+    /** Position of each id in {@link #heap}. -1, if id is not in the heap. */
+    private final int[] position;
+
+    /** Key of each id. */
+    private final double[] keys;
+
+    /** Number of ids in the heap. */
+    private int size = 0;
+
+    /**
+     * @param capacity Number of ids.
+     */
+    IndexedHeap(final int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(this.position, -1);
+    }
+
+    /**
+     * @return True, if heap has no ids. False, otherwise.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Number of ids in the heap.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param id Id to check.
+     * @return True, if id is in the heap. False, otherwise.
+     */
+    boolean contains(final int id) {
+        return position[id] >= 0;
+    }
+
+    /**
+     * Insert id or decrease its key, if it is already in the heap with a higher key.
+     * @param id Id to insert.
+     * @param key New key.
+     */
+    void insertOrDecrease(final int id, final double key) {
+        int pos = position[id];
+        if (pos < 0) {
+            pos = size++;
+        } else if (key >= keys[id]) {
+            return;
+        }
+        keys[id] = key;
+        siftUp(id, pos);
+    }
+
+    /**
+     * @return Key of the minimum. Heap must not be empty.
+     */
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Remove the id with the smallest key. Heap must not be empty.
+     * @return Id with the smallest key.
+     */
+    int poll() {
+        final int min = heap[0];
+        position[min] = -1;
+        final int last = heap[--size];
+        if (size > 0) siftDown(last, 0);
+        return min;
+    }
+
+    /**
+     * Remove all ids. Runs in the number of ids still in the heap.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * @param id Id to place.
+     * @param pos Free position to start at.
+     */
+    private void siftUp(final int id, int pos) {
+        final double key = keys[id];
+        while (pos > 0) {
+            final int parentPos = (pos - 1) / ARITY;
+            final int parent = heap[parentPos];
+            if (keys[parent] <= key) break;
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+
+    /**
+     * @param id Id to place.
+     * @param pos Free position to start at.
+     */
+    private void siftDown(final int id, int pos) {
+        final double key = keys[id];
+        while (true) {
+            final int first = pos * ARITY + 1;
+            if (first >= size) break;
+            final int end = Math.min(first + ARITY, size);
+            int best = first;
+            for (int c = first + 1; c < end; c++) {
+                if (keys[heap[c]] < keys[heap[best]]) best = c;
+            }
+            if (keys[heap[best]] >= key) break;
+            heap[pos] = heap[best];
+            position[heap[pos]] = pos;
+            pos = best;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.hambbe.graph;
+
+/**
+ * Vertex which has a small, non negative int id, unique within its graph.
+ * Search algorithms use the id to keep per vertex state in arrays instead of hash maps or the vertex itself.
+ */
+interface IndexedVertex extends Vertex {
+
+    /**
+     * @return Id of the vertex. Ids are dense, so they are bounded by the number of vertexes ever added to the graph.
+     */
+    int index();
+
+}
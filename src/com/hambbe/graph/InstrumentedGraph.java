@@ -0,0 +1,288 @@
+package com.hambbe.graph;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decorator recording a {@link LatencyHistogram} for every {@link Graph} method.
+ *
+ * {@link #metrics()} takes a snapshot of all histograms. With events enabled, every call is committed as a
+ * {@link GraphOperationEvent} to a running flight recording as well (needs a JVM with JFR, like 8u272 or 11).
+ * The event begins before and ends after the call, so its duration is the latency.
+ * Only the call is timed: iterating the result of {@link #getVertexes()} or {@link #getEdges()} is not.
+ *
+ * @param <V> Type of value in vertex.
+ * @param <E> Type for edges.
+ */
+public class InstrumentedGraph<V, E> extends GraphDecorator<V, E> {
+
+    /**
+     * Timed methods.
+     */
+    public enum Operation {
+        /** {@link Graph#connect(Vertex, Vertex, Object)}. */
+        CONNECT,
+        /** {@link Graph#disconnect(Edge)}. */
+        DISCONNECT_EDGE,
+        /** {@link Graph#disconnect(Vertex, Vertex)}. */
+        DISCONNECT,
+        /** {@link Graph#addVertex(Object)}. */
+        ADD_VERTEX,
+        /** {@link Graph#adjacent(Vertex, Vertex)}. */
+        ADJACENT,
+        /** {@link Graph#neighbors(Vertex)}. */
+        NEIGHBORS,
+        /** {@link Graph#removeVertex(Vertex)}. */
+        REMOVE_VERTEX,
+        /** {@link Graph#getValue(Vertex)}. */
+        GET_VALUE,
+        /** {@link Graph#setValue(Vertex, Object)}. */
+        SET_VALUE,
+        /** {@link Graph#getEdgeValue(Edge)}. */
+        GET_EDGE_VALUE,
+        /** {@link Graph#getVertexCount()}. */
+        GET_VERTEX_COUNT,
+        /** {@link Graph#degree(Vertex)}. */
+        DEGREE,
+        /** {@link Graph#getVertexes()}. */
+        GET_VERTEXES,
+        /** {@link Graph#getEdges()}. */
+        GET_EDGES,
+        /** {@link Graph#snapshot()}. */
+        SNAPSHOT
+    }
+
+    /** Histogram by operation ordinal. */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+
+    /** True, if calls are committed as flight recorder events. */
+    private final boolean events;
+
+    /**
+     * @param graph Graph to decorate.
+     */
+    public InstrumentedGraph(final Graph<V, E> graph) {
+        this(graph, false);
+    }
+
+    /**
+     * @param graph Graph to decorate.
+     * @param events True, to commit every call as {@link GraphOperationEvent} to a running flight recording.
+     */
+    public InstrumentedGraph(final Graph<V, E> graph, final boolean events) {
+        super(graph);
+        this.events = events;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @param operation Timed method.
+     * @return Live histogram of the method.
+     */
+    public LatencyHistogram histogram(final Operation operation) {
+        return histograms[operation.ordinal()];
+    }
+
+    /**
+     * @return Snapshot of the histograms of all methods.
+     */
+    public Map<Operation, LatencyHistogram.Snapshot> metrics() {
+        final EnumMap<Operation, LatencyHistogram.Snapshot> result = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            result.put(operation, histograms[operation.ordinal()].snapshot());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return Started event, or null without events.
+     */
+    private GraphOperationEvent start() {
+        return events ? GraphOperationEvent.start() : null;
+    }
+
+    /**
+     * Record a finished call.
+     * @param operation Called method.
+     * @param event Event from {@link #start()}.
+     * @param start {@link System#nanoTime()} before the call.
+     */
+    private void record(final Operation operation, final GraphOperationEvent event, final long start) {
+        histograms[operation.ordinal()].record(System.nanoTime() - start);
+        if (event != null) event.finish(operation.name());
+    }
+
+    @Override
+    public Edge connect(final Vertex from, final Vertex to, final E edgeValue) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.connect(from, to, edgeValue);
+        } finally {
+            record(Operation.CONNECT, event, start);
+        }
+    }
+
+    @Override
+    public void disconnect(final Edge edge) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            graph.disconnect(edge);
+        } finally {
+            record(Operation.DISCONNECT_EDGE, event, start);
+        }
+    }
+
+    @Override
+    public boolean disconnect(final Vertex from, final Vertex to) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.disconnect(from, to);
+        } finally {
+            record(Operation.DISCONNECT, event, start);
+        }
+    }
+
+    @Override
+    public Vertex addVertex(final V value) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.addVertex(value);
+        } finally {
+            record(Operation.ADD_VERTEX, event, start);
+        }
+    }
+
+    @Override
+    public boolean adjacent(final Vertex from, final Vertex to) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.adjacent(from, to);
+        } finally {
+            record(Operation.ADJACENT, event, start);
+        }
+    }
+
+    @Override
+    public List<Vertex> neighbors(final Vertex from) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.neighbors(from);
+        } finally {
+            record(Operation.NEIGHBORS, event, start);
+        }
+    }
+
+    @Override
+    public void removeVertex(final Vertex vertex) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            graph.removeVertex(vertex);
+        } finally {
+            record(Operation.REMOVE_VERTEX, event, start);
+        }
+    }
+
+    @Override
+    public V getValue(final Vertex vertex) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.getValue(vertex);
+        } finally {
+            record(Operation.GET_VALUE, event, start);
+        }
+    }
+
+    @Override
+    public void setValue(final Vertex vertex, final V newValue) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            graph.setValue(vertex, newValue);
+        } finally {
+            record(Operation.SET_VALUE, event, start);
+        }
+    }
+
+    @Override
+    public E getEdgeValue(final Edge edge) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.getEdgeValue(edge);
+        } finally {
+            record(Operation.GET_EDGE_VALUE, event, start);
+        }
+    }
+
+    @Override
+    public int getVertexCount() {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.getVertexCount();
+        } finally {
+            record(Operation.GET_VERTEX_COUNT, event, start);
+        }
+    }
+
+    @Override
+    public int degree(final Vertex vertex) {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.degree(vertex);
+        } finally {
+            record(Operation.DEGREE, event, start);
+        }
+    }
+
+    @Override
+    public Iterable<? extends Vertex> getVertexes() {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.getVertexes();
+        } finally {
+            record(Operation.GET_VERTEXES, event, start);
+        }
+    }
+
+    @Override
+    public Iterable<? extends Edge> getEdges() {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.getEdges();
+        } finally {
+            record(Operation.GET_EDGES, event, start);
+        }
+    }
+
+    /**
+     * Snapshot of the decorated graph, the instrumentation doesn't change the structure.
+     * @return Snapshot of the decorated graph.
+     */
+    @Override
+    public Graph<V, E> snapshot() {
+        final GraphOperationEvent event = start();
+        final long start = System.nanoTime();
+        try {
+            return graph.snapshot();
+        } finally {
+            record(Operation.SNAPSHOT, event, start);
+        }
+    }
+
+}
@@ -15,13 +15,55 @@ package com.hambbe.graph;
  */
 public class IntGraph<V> extends UnweightedGraph<V, Integer> {
 
+    /**
+     * Graph keeping incoming edges.
+     */
+    public IntGraph() {
+        super();
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     */
+    public IntGraph(final boolean trackIncoming) {
+        super(trackIncoming);
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     * @param storage How vertexes and edges are stored.
+     */
+    public IntGraph(final boolean trackIncoming, final Storage storage) {
+        super(trackIncoming, storage);
+    }
+
     @Override
-    public Edge connect(final Vertex pFrom, final Vertex pTo, final Integer edgeValue) {
-        checkMembership(pFrom, pTo);
-        final VertexImpl from = (VertexImpl) pFrom;
-        IntEdge edge = new IntEdge(edgeValue, from, (VertexImpl) pTo, this);
-        from.connect(edge);
-        return edge;
+    protected UnweightedEdge createEdge(final VertexImpl from, final VertexImpl to, final Integer edgeValue) {
+        return new IntEdge(edgeValue, from, to, this);
+    }
+
+    /**
+     * Connect two vertexes without boxing the weight.
+     * @param pFrom Vertex the edge starts at.
+     * @param pTo Vertex the edge points to.
+     * @param weight Weight of the edge.
+     * @return New edge.
+     */
+    public Edge connect(final Vertex pFrom, final Vertex pTo, final int weight) {
+        return connectEdge(pFrom, pTo, (i, from, to) -> new IntEdge(weight, from, to, this));
+    }
+
+    /**
+     * Connect many vertexes at once without boxing the weights.
+     * @param vertexes Vertexes of this graph, the edges refer to them by position.
+     * @param from Position in vertexes each edge starts at.
+     * @param to Position in vertexes each edge points to.
+     * @param weights Weight of each edge.
+     * @see #connectAll(Vertex[], int[], int[], java.util.function.IntFunction)
+     */
+    public void connectAll(final Vertex[] vertexes, final int[] from, final int[] to, final int[] weights) {
+        if (weights == null || weights.length != from.length) throw new IllegalArgumentException("weights must have the length of from");
+        connectAll(vertexes, from, to, (i, f, t) -> new IntEdge(weights[i], f, t, this));
     }
 
     @Override
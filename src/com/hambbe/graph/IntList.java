@@ -0,0 +1,68 @@
+package com.hambbe.graph;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints for the primitive search engines.
+ * The fields are accessed directly in the hot loops.
+ */
+final class IntList {
+
+    /** Elements, only the first {@link #size} are used. */
+    int[] values;
+
+    /** Number of elements. */
+    int size = 0;
+
+    /**
+     * Empty list.
+     */
+    IntList() {
+        this(4);
+    }
+
+    /**
+     * @param capacity Initial capacity.
+     */
+    IntList(final int capacity) {
+        this.values = new int[Math.max(capacity, 4)];
+    }
+
+    /**
+     * @param value Element to append.
+     */
+    void add(final int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    /**
+     * @param other Elements to append.
+     */
+    void addAll(final IntList other) {
+        if (size + other.size > values.length) values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Remove an element by moving the last element into its place.
+     * @param value Element to remove.
+     */
+    void remove(final int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                values[i] = values[--size];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove all elements, keeping the capacity.
+     */
+    void clear() {
+        size = 0;
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.hambbe.graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of latencies in nanoseconds.
+ *
+ * Values below 16 get a bucket each, above every power of two is split into 8 buckets,
+ * so percentiles are exact up to 1/8 of the value. Recording costs three atomic updates (count, total and max)
+ * and never allocates.
+ */
+public class LatencyHistogram {
+
+    /** Values below get a bucket each. */
+    private static final int LINEAR = 16;
+
+    /** Buckets per power of two, as bits. */
+    private static final int SUB_BITS = 3;
+
+    /** Number of buckets, enough for {@link Long#MAX_VALUE}. */
+    private static final int BUCKETS = LINEAR + (63 - 4) * (1 << SUB_BITS);
+
+    /** Number of values per bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Sum of all values. */
+    private final LongAdder total = new LongAdder();
+
+    /** Largest value. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos Latency to record. Negative values are recorded as 0.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return Copy of the current state. Values recorded while copying may be missing.
+     */
+    public Snapshot snapshot() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, total.sum(), max.get());
+    }
+
+    /**
+     * @param value Non negative value.
+     * @return Bucket of the value.
+     */
+    static int bucket(final long value) {
+        if (value < LINEAR) return (int) value;
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+        return LINEAR + ((exponent - 4) << SUB_BITS) + sub;
+    }
+
+    /**
+     * @param bucket Bucket.
+     * @return Largest value of the bucket.
+     */
+    static long upperBound(final int bucket) {
+        if (bucket < LINEAR) return bucket;
+        final int exponent = ((bucket - LINEAR) >>> SUB_BITS) + 4;
+        final long sub = (bucket - LINEAR) & ((1 << SUB_BITS) - 1);
+        final long next = ((1L << SUB_BITS) + sub + 1) << (exponent - SUB_BITS);
+        return (next <= 0) ? Long.MAX_VALUE : next - 1;
+    }
+
+    /**
+     * Immutable state of a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+
+        /** Number of values per bucket. */
+        private final long[] counts;
+
+        /** Number of values. */
+        private final long count;
+
+        /** Sum of all values. */
+        private final long total;
+
+        /** Largest value. */
+        private final long max;
+
+        /**
+         * @param counts Field value.
+         * @param total Field value.
+         * @param max Field value.
+         */
+        private Snapshot(final long[] counts, final long total, final long max) {
+            this.counts = counts;
+            long sum = 0;
+            for (long c : counts) {
+                sum += c;
+            }
+            this.count = sum;
+            this.total = total;
+            this.max = max;
+        }
+
+        /**
+         * @return Number of recorded values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return Sum of all recorded values in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return total;
+        }
+
+        /**
+         * @return Mean value in nanoseconds. 0, if nothing was recorded.
+         */
+        public double getMean() {
+            return (count == 0) ? 0 : total / (double) count;
+        }
+
+        /**
+         * @return Largest recorded value in nanoseconds.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @param percentile Percentile between 0 and 100.
+         * @return Value in nanoseconds not exceeded by the given percentage of the recorded values,
+         *         rounded up to the end of its bucket. 0, if nothing was recorded.
+         */
+        public long getPercentile(final double percentile) {
+            if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("percentile must be between 0 and 100");
+            if (count == 0) return 0;
+            final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + Math.round(getMean()) + "ns, p50=" + getPercentile(50) + "ns, p99="
+                   + getPercentile(99) + "ns, max=" + max + "ns";
+        }
+    }
+
+}
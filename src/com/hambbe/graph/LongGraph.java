@@ -0,0 +1,118 @@
+package com.hambbe.graph;
+
+/**
+ *
+ * UnweightedGraph with value type <tt>long</tt> as edge weight.
+ *
+ * It is more memory efficient than a {@link DirectedGraph} with <tt>Long</tt> edges, because it uses a value type
+ * for its edge weights and needs no function to get them.
+ * The searches read the weights as <tt>double</tt>, which holds every integer up to 2<sup>53</sup> exactly.
+ * Weights beyond &plusmn;2<sup>53</sup> are rejected, so no weight is silently rounded.
+ *
+ * @param <V> Type of value in vertex
+ *
+ * @see IntGraph
+ */
+public class LongGraph<V> extends UnweightedGraph<V, Long> {
+
+    /**
+     * Graph keeping incoming edges.
+     */
+    public LongGraph() {
+        super();
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     */
+    public LongGraph(final boolean trackIncoming) {
+        super(trackIncoming);
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     * @param storage How vertexes and edges are stored.
+     */
+    public LongGraph(final boolean trackIncoming, final Storage storage) {
+        super(trackIncoming, storage);
+    }
+
+    /** Largest weight a double holds exactly, 2<sup>53</sup>. */
+    public static final long MAX_WEIGHT = 1L << 53;
+
+    @Override
+    protected UnweightedEdge createEdge(final VertexImpl from, final VertexImpl to, final Long edgeValue) {
+        return new LongEdge(checkWeight(edgeValue), from, to, this);
+    }
+
+    /**
+     * Connect two vertexes without boxing the weight.
+     * @param pFrom Vertex the edge starts at.
+     * @param pTo Vertex the edge points to.
+     * @param weight Weight of the edge.
+     * @return New edge.
+     */
+    public Edge connect(final Vertex pFrom, final Vertex pTo, final long weight) {
+        checkWeight(weight);
+        return connectEdge(pFrom, pTo, (i, from, to) -> new LongEdge(weight, from, to, this));
+    }
+
+    /**
+     * Connect many vertexes at once without boxing the weights.
+     * @param vertexes Vertexes of this graph, the edges refer to them by position.
+     * @param from Position in vertexes each edge starts at.
+     * @param to Position in vertexes each edge points to.
+     * @param weights Weight of each edge.
+     * @see #connectAll(Vertex[], int[], int[], java.util.function.IntFunction)
+     */
+    public void connectAll(final Vertex[] vertexes, final int[] from, final int[] to, final long[] weights) {
+        if (weights == null || weights.length != from.length) throw new IllegalArgumentException("weights must have the length of from");
+        for (long weight : weights) {
+            checkWeight(weight);
+        }
+        connectAll(vertexes, from, to, (i, f, t) -> new LongEdge(weights[i], f, t, this));
+    }
+
+    /**
+     * @param weight Weight of a new edge.
+     * @return The weight.
+     * @throws IllegalArgumentException If the weight is beyond &plusmn;{@link #MAX_WEIGHT}.
+     */
+    private static long checkWeight(final long weight) {
+        if (weight > MAX_WEIGHT || weight < -MAX_WEIGHT) throw new IllegalArgumentException("Weight " + weight + " is not exact as double");
+        return weight;
+    }
+
+    @Override
+    public Long getEdgeValue(Edge pEdge) {
+        checkMembership(pEdge);
+        LongEdge edge = (LongEdge) pEdge;
+        return edge.weight;
+    }
+
+    /**
+     * Edge implementation with value type <tt>long</tt> as weight.
+     */
+    protected class LongEdge extends UnweightedEdge {
+
+        /** Edge weight. */
+        protected final long weight;
+
+        /**
+         * @param weight Field value.
+         * @param from Field value.
+         * @param to Field value.
+         * @param graph Field value.
+         */
+        protected LongEdge(final long weight, final VertexImpl from, final VertexImpl to, final LongGraph<V> graph) {
+            super(from, to, graph);
+            this.weight = weight;
+        }
+
+        @Override
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+}
@@ -0,0 +1,500 @@
+package com.hambbe.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only graph in CSR layout on top of buffers mapped from a {@link GraphFile}.
+ *
+ * Nothing is copied or decoded when the graph is opened: offsets, targets and weights are read from the buffers,
+ * vertex values are decoded by the {@link VertexCodec} whenever they are asked for.
+ * Vertexes and edges are light weight handles created on demand, two handles of the same vertex or edge are equal.
+ * Since the pages belong to the file, several processes mapping the same file share them in the page cache.
+ *
+ * All modifying methods throw an {@link UnsupportedOperationException}. Edges have no values.
+ *
+ * @param <V> Type of value in vertex.
+ * @param <E> Type for edges.
+ */
+public class MappedGraph<V, E> implements Graph<V, E>, IndexedGraph {
+
+    /** Start of the outgoing edges for each vertex. Has one extra element holding the edge count. */
+    private final IntBuffer offsets;
+
+    /** Target vertex index for each edge. */
+    private final IntBuffer targets;
+
+    /** Weight for each edge. */
+    private final DoubleBuffer weights;
+
+    /** Start of the value bytes of each vertex in {@link #values}. Has one extra element holding the end. Null, if there are no values. */
+    private final IntBuffer valueOffsets;
+
+    /** Encoded vertex values. Null, if there are no values. */
+    private final ByteBuffer values;
+
+    /** Decodes the vertex values. */
+    private final VertexCodec<V> codec;
+
+    /** Number of vertexes. */
+    private final int vertexCount;
+
+    /** Marks of the vertexes, created on first mark. */
+    private volatile byte[] marks;
+
+    /** Incoming edges, built on first use. */
+    private volatile int[][] reverse;
+
+    /** Index for the primitive search engines, built on first use. */
+    private volatile GraphIndex index;
+
+    /**
+     * @param offsets Field value.
+     * @param targets Field value.
+     * @param weights Field value.
+     * @param valueOffsets Field value.
+     * @param values Field value.
+     * @param codec Field value.
+     */
+    MappedGraph(final IntBuffer offsets, final IntBuffer targets, final DoubleBuffer weights,
+                final IntBuffer valueOffsets, final ByteBuffer values, final VertexCodec<V> codec) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.valueOffsets = valueOffsets;
+        this.values = values;
+        this.codec = codec;
+        this.vertexCount = offsets.capacity() - 1;
+    }
+
+    /**
+     * @return Number of edges in the graph.
+     */
+    public int getEdgeCount() {
+        return targets.capacity();
+    }
+
+    /**
+     * @return This graph, it is immutable already.
+     */
+    @Override
+    public Graph<V, E> snapshot() {
+        return this;
+    }
+
+    @Override
+    public Vertex getVertex(final int index) {
+        if (index < 0 || index >= vertexCount) throw new IndexOutOfBoundsException("No vertex " + index);
+        return new MappedVertex(index);
+    }
+
+    @Override
+    public int indexOf(final Vertex vertex) {
+        return toMappedVertex(vertex).index;
+    }
+
+    @Override
+    public Edge edgeAt(final int from, final int edge) {
+        return new MappedEdge(from, edge);
+    }
+
+    /**
+     * The index wraps the mapped buffers, nothing is copied onto the heap. It is created on the first call and
+     * shared by all later searches.
+     * @return Index of this graph.
+     */
+    GraphIndex index() {
+        GraphIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new GraphIndex(this, offsets, targets, weights, null, null);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Marks of the vertexes. Created on first call.
+     */
+    private byte[] marks() {
+        byte[] result = marks;
+        if (result == null) {
+            synchronized (this) {
+                result = marks;
+                if (result == null) {
+                    result = new byte[vertexCount];
+                    marks = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check if vertex is element of this graph and cast it. Throws an {@link IllegalArgumentException} if not.
+     * @param pVertex Vertex to check
+     * @return Checked vertex.
+     */
+    private MappedVertex toMappedVertex(final Vertex pVertex) {
+        if (pVertex == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pVertex instanceof MappedGraph.MappedVertex)) throw new IllegalArgumentException("Supplied Vertex is not a MappedVertex");
+        final MappedVertex vertex = (MappedVertex) pVertex;
+        if (vertex.graph() != this) throw new IllegalArgumentException("Supplied MappedVertex not part of MappedGraph");
+        return vertex;
+    }
+
+    /**
+     * Check if edge is element of this graph and cast it. Throws an {@link IllegalArgumentException} if not.
+     * @param pEdge Edge to check
+     * @return Checked edge.
+     */
+    private MappedEdge toMappedEdge(final Edge pEdge) {
+        if (pEdge == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pEdge instanceof MappedGraph.MappedEdge)) throw new IllegalArgumentException("Supplied Edge is not a MappedEdge");
+        final MappedEdge edge = (MappedEdge) pEdge;
+        if (edge.graph() != this) throw new IllegalArgumentException("Supplied MappedEdge not part of MappedGraph");
+        return edge;
+    }
+
+    /**
+     * @return Index of the incoming edges: start per vertex, source vertex and edge index per incoming edge. Built on first call.
+     */
+    private int[][] reverse() {
+        int[][] result = reverse;
+        if (result == null) {
+            synchronized (this) {
+                result = reverse;
+                if (result == null) {
+                    final int m = getEdgeCount();
+                    final int[] start = new int[vertexCount + 1];
+                    final int[] sources = new int[m];
+                    final int[] edges = new int[m];
+                    for (int e = 0; e < m; e++) {
+                        start[targets.get(e) + 1]++;
+                    }
+                    for (int i = 0; i < vertexCount; i++) {
+                        start[i + 1] += start[i];
+                    }
+                    final int[] next = new int[vertexCount];
+                    System.arraycopy(start, 0, next, 0, vertexCount);
+                    for (int from = 0; from < vertexCount; from++) {
+                        for (int e = offsets.get(from); e < offsets.get(from + 1); e++) {
+                            final int pos = next[targets.get(e)]++;
+                            sources[pos] = from;
+                            edges[pos] = e;
+                        }
+                    }
+                    result = new int[][] { start, sources, edges };
+                    reverse = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Edge connect(final Vertex from, final Vertex to, final E edgeValue) {
+        throw new UnsupportedOperationException("MappedGraph is read only.");
+    }
+
+    @Override
+    public void disconnect(final Edge edge) {
+        throw new UnsupportedOperationException("MappedGraph is read only.");
+    }
+
+    @Override
+    public boolean disconnect(final Vertex from, final Vertex to) {
+        throw new UnsupportedOperationException("MappedGraph is read only.");
+    }
+
+    @Override
+    public Vertex addVertex(final V value) {
+        throw new UnsupportedOperationException("MappedGraph is read only.");
+    }
+
+    @Override
+    public void removeVertex(final Vertex vertex) {
+        throw new UnsupportedOperationException("MappedGraph is read only.");
+    }
+
+    @Override
+    public void setValue(final Vertex vertex, final V newValue) {
+        throw new UnsupportedOperationException("MappedGraph is read only.");
+    }
+
+    @Override
+    public boolean adjacent(final Vertex pFrom, final Vertex pTo) {
+        final int from = toMappedVertex(pFrom).index;
+        final int to = toMappedVertex(pTo).index;
+        for (int e = offsets.get(from); e < offsets.get(from + 1); e++) {
+            if (targets.get(e) == to) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<Vertex> neighbors(final Vertex pFrom) {
+        final int from = toMappedVertex(pFrom).index;
+        final List<Vertex> result = new ArrayList<>(offsets.get(from + 1) - offsets.get(from));
+        for (int e = offsets.get(from); e < offsets.get(from + 1); e++) {
+            result.add(new MappedVertex(targets.get(e)));
+        }
+        return result;
+    }
+
+    /**
+     * Decode the value of a vertex. Each call decodes again.
+     * @param vertex Vertex of this graph.
+     * @return Value of vertex. Null, if the file has no values.
+     */
+    @Override
+    public V getValue(final Vertex vertex) {
+        final int index = toMappedVertex(vertex).index;
+        if (values == null) return null;
+        final int start = valueOffsets.get(index);
+        final int end = valueOffsets.get(index + 1);
+        // First byte tells, if the value is null.
+        if (values.get(start) == 0) return null;
+        final ByteBuffer bytes = values.duplicate();
+        bytes.limit(end).position(start + 1);
+        return codec.decode(bytes.slice());
+    }
+
+    @Override
+    public E getEdgeValue(final Edge edge) {
+        toMappedEdge(edge);
+        return null;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public int degree(final Vertex pVertex) {
+        final int vertex = toMappedVertex(pVertex).index;
+        return offsets.get(vertex + 1) - offsets.get(vertex);
+    }
+
+    @Override
+    public Iterable<? extends Vertex> getVertexes() {
+        return new AbstractList<Vertex>() {
+            @Override
+            public Vertex get(final int index) {
+                return getVertex(index);
+            }
+
+            @Override
+            public int size() {
+                return vertexCount;
+            }
+        };
+    }
+
+    @Override
+    public Iterable<? extends Edge> getEdges() {
+        return () -> new EdgeIterator(0, 0, getEdgeCount());
+    }
+
+    /**
+     * Iterates over the edges in the range <tt>[edge, end)</tt>, keeping track of the vertex they start at.
+     */
+    private class EdgeIterator implements Iterator<Edge> {
+
+        /** Vertex index the next edge starts at. */
+        private int from;
+
+        /** Next edge index. */
+        private int edge;
+
+        /** Edge index to stop at. */
+        private final int end;
+
+        /**
+         * @param from Field value.
+         * @param edge Field value.
+         * @param end Field value.
+         */
+        private EdgeIterator(final int from, final int edge, final int end) {
+            this.from = from;
+            this.edge = edge;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return edge < end;
+        }
+
+        @Override
+        public Edge next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            while (offsets.get(from + 1) <= edge) from++;
+            return new MappedEdge(from, edge++);
+        }
+    }
+
+    /**
+     * Vertex handle of a mapped graph. Only knows its index.
+     */
+    protected class MappedVertex implements IndexedVertex {
+
+        /** Index of this vertex. */
+        protected final int index;
+
+        /**
+         * @param index Field value.
+         */
+        protected MappedVertex(final int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return Graph this vertex belongs to.
+         */
+        protected MappedGraph<V, E> graph() {
+            return MappedGraph.this;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public Iterable<? extends Edge> getEdges() {
+            return () -> new EdgeIterator(index, offsets.get(index), offsets.get(index + 1));
+        }
+
+        @Override
+        public Iterable<? extends Edge> getIncomingEdges() {
+            return () -> new Iterator<Edge>() {
+                private final int[][] reverse = reverse();
+                private int pos = reverse[0][index];
+
+                @Override
+                public boolean hasNext() {
+                    return pos < reverse[0][index + 1];
+                }
+
+                @Override
+                public Edge next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    final int current = pos++;
+                    return new MappedEdge(reverse[1][current], reverse[2][current]);
+                }
+            };
+        }
+
+        @Override
+        public boolean isMarked() {
+            return getMarkedValue() != 0;
+        }
+
+        @Override
+        public byte getMarkedValue() {
+            final byte[] current = marks;
+            return (current == null) ? 0 : current[index];
+        }
+
+        @Override
+        public void demark() {
+            final byte[] current = marks;
+            if (current != null) current[index] = 0;
+        }
+
+        @Override
+        public void mark() {
+            marks()[index] = 1;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof MappedGraph.MappedVertex)) return false;
+            final MappedVertex other = (MappedVertex) obj;
+            return other.index == this.index && other.graph() == this.graph();
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "MappedVertex(" + index + ")";
+        }
+    }
+
+    /**
+     * Edge handle of a mapped graph. Handles are created on demand, two handles for the same edge are equal.
+     */
+    protected class MappedEdge implements Edge {
+
+        /** Index of the vertex the edge starts at. */
+        protected final int from;
+
+        /** Index of the edge in the buffers. */
+        protected final int index;
+
+        /**
+         * @param from Field value.
+         * @param index Field value.
+         */
+        protected MappedEdge(final int from, final int index) {
+            this.from = from;
+            this.index = index;
+        }
+
+        /**
+         * @return Graph this edge belongs to.
+         */
+        protected MappedGraph<V, E> graph() {
+            return MappedGraph.this;
+        }
+
+        @Override
+        public Vertex getFrom() {
+            return new MappedVertex(from);
+        }
+
+        @Override
+        public Vertex getTo() {
+            return new MappedVertex(targets.get(index));
+        }
+
+        @Override
+        public double getWeight() {
+            return weights.get(index);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof MappedGraph.MappedEdge)) return false;
+            final MappedEdge other = (MappedEdge) obj;
+            return other.index == this.index && other.graph() == this.graph();
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "MappedEdge(" + from + " -> " + targets.get(index) + ", " + weights.get(index) + ")";
+        }
+    }
+
+}
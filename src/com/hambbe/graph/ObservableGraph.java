@@ -0,0 +1,178 @@
+package com.hambbe.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Decorator telling {@link GraphListener}s about every change made through it.
+ *
+ * Changes of edges cost O(1) on top of the decorated graph, {@link #disconnect(Vertex, Vertex)} looks at the edges
+ * of <tt>from</tt> to report the removed ones. Decorated graphs returning no edge from
+ * {@link #connect(Vertex, Vertex, Object)}, like the {@link UndirectedGraph}, have to be compared before and after
+ * each change of edges instead, which costs O(degree) of both vertexes.
+ *
+ * @param <V> Type of value in vertex.
+ * @param <E> Type for edges.
+ */
+public class ObservableGraph<V, E> extends GraphDecorator<V, E> {
+
+    /** Listeners in order of registration. */
+    private final List<GraphListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** True, if the edges between two vertexes are compared before and after a change. */
+    private final boolean compareEdges;
+
+    /**
+     * Compares the edges of {@link UndirectedGraph}s, all other graphs have to return the edge from connect.
+     * @param graph Graph to decorate.
+     */
+    public ObservableGraph(final Graph<V, E> graph) {
+        this(graph, graph instanceof UndirectedGraph);
+    }
+
+    /**
+     * @param graph Graph to decorate.
+     * @param compareEdges True, if connect of the graph returns no edge. The edges between the two vertexes are
+     * compared before and after each change of edges then.
+     */
+    public ObservableGraph(final Graph<V, E> graph, final boolean compareEdges) {
+        super(graph);
+        this.compareEdges = compareEdges;
+    }
+
+    /**
+     * @param listener Listener to tell about all following changes.
+     */
+    public void addListener(final GraphListener listener) {
+        if (listener == null) throw new IllegalArgumentException("listener can't be null");
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener Listener to remove.
+     * @return True, if the listener was registered.
+     */
+    public boolean removeListener(final GraphListener listener) {
+        return listeners.remove(listener);
+    }
+
+    @Override
+    public Edge connect(final Vertex from, final Vertex to, final E edgeValue) {
+        if (listeners.isEmpty()) return graph.connect(from, to, edgeValue);
+        if (!compareEdges) {
+            final Edge edge = graph.connect(from, to, edgeValue);
+            if (edge == null) throw new IllegalStateException("Decorated graph returned no edge, construct with compareEdges");
+            for (GraphListener listener : listeners) listener.edgeAdded(edge);
+            return edge;
+        }
+        final Set<Edge> before = edgesBetween(from, to);
+        final Edge edge = graph.connect(from, to, edgeValue);
+        for (Edge added : edgesBetween(from, to)) {
+            if (before.contains(added)) continue;
+            for (GraphListener listener : listeners) listener.edgeAdded(added);
+        }
+        return edge;
+    }
+
+    @Override
+    public void disconnect(final Edge edge) {
+        final Vertex from = edge.getFrom();
+        final Vertex to = edge.getTo();
+        graph.disconnect(edge);
+        for (GraphListener listener : listeners) listener.edgeRemoved(from, to, edge);
+    }
+
+    @Override
+    public boolean disconnect(final Vertex from, final Vertex to) {
+        if (listeners.isEmpty()) return graph.disconnect(from, to);
+        if (!compareEdges) {
+            final List<Edge> removed = new ArrayList<>();
+            for (Edge edge : from.getEdges()) {
+                if (edge.getTo().equals(to)) removed.add(edge);
+            }
+            final boolean result = graph.disconnect(from, to);
+            if (result) {
+                for (Edge edge : removed) {
+                    for (GraphListener listener : listeners) listener.edgeRemoved(from, to, edge);
+                }
+            }
+            return result;
+        }
+        final Set<Edge> before = edgesBetween(from, to);
+        final boolean result = graph.disconnect(from, to);
+        before.removeAll(edgesBetween(from, to));
+        for (Edge edge : before) {
+            for (GraphListener listener : listeners) listener.edgeRemoved(edge.getFrom(), edge.getTo(), edge);
+        }
+        return result;
+    }
+
+    @Override
+    public Vertex addVertex(final V value) {
+        final Vertex vertex = graph.addVertex(value);
+        for (GraphListener listener : listeners) listener.vertexAdded(vertex);
+        return vertex;
+    }
+
+    @Override
+    public void removeVertex(final Vertex vertex) {
+        if (listeners.isEmpty()) {
+            graph.removeVertex(vertex);
+            return;
+        }
+        final List<Edge> edges = new ArrayList<>();
+        for (Edge edge : vertex.getEdges()) edges.add(edge);
+        for (Edge edge : incomingEdges(vertex)) {
+            // Loops are outgoing edges already.
+            if (!edge.getFrom().equals(vertex)) edges.add(edge);
+        }
+        graph.removeVertex(vertex);
+        for (GraphListener listener : listeners) listener.vertexRemoved(vertex, edges);
+    }
+
+    @Override
+    public void setValue(final Vertex vertex, final V newValue) {
+        graph.setValue(vertex, newValue);
+        for (GraphListener listener : listeners) listener.valueChanged(vertex);
+    }
+
+    /**
+     * @param vertex Vertex of this graph.
+     * @return Edges pointing to the vertex. Found by scanning all edges, if the vertex doesn't know them.
+     */
+    Iterable<? extends Edge> incomingEdges(final Vertex vertex) {
+        try {
+            return vertex.getIncomingEdges();
+        } catch (UnsupportedOperationException e) {
+            final List<Edge> result = new ArrayList<>();
+            for (Vertex other : graph.getVertexes()) {
+                for (Edge edge : other.getEdges()) {
+                    if (edge.getTo().equals(vertex)) result.add(edge);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @param a One vertex.
+     * @param b Other vertex.
+     * @return Edges from a to b and from b to a, by identity.
+     */
+    private static Set<Edge> edgesBetween(final Vertex a, final Vertex b) {
+        final Set<Edge> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Edge edge : a.getEdges()) {
+            if (edge.getTo().equals(b)) result.add(edge);
+        }
+        if (!a.equals(b)) {
+            for (Edge edge : b.getEdges()) {
+                if (edge.getTo().equals(a)) result.add(edge);
+            }
+        }
+        return result;
+    }
+}
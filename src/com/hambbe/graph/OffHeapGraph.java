@@ -0,0 +1,794 @@
+package com.hambbe.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Directed graph whose topology and weights live outside the Java heap.
+ *
+ * Vertexes and edges are fixed size records in direct {@link ByteBuffer}s, allocated in segments of
+ * {@link Records#SEGMENT_SIZE} records. Every vertex record holds the first and last edge of its outgoing and
+ * incoming edge lists, every edge record its end points, the next edges in both lists, its weight and generation.
+ * The only heap objects per vertex are the values, so the garbage collector sees a few arrays and buffers
+ * instead of millions of vertexes, edges and list nodes.
+ *
+ * Vertexes and edges are light weight handles created on demand, two handles of the same vertex or edge are equal.
+ * The edge value is the weight. Removed vertexes leave an empty record, so vertex ids stay stable.
+ * Records of removed edges are reused by later connects. Every reuse increments the generation of the record,
+ * which edge handles carry along, so a handle of a removed edge is rejected even after its record was reused.
+ *
+ * {@link #getVertexes()} and {@link #getEdges()} are read only live views, which fail fast on modification.
+ *
+ * The primitive search engines work on a CSR copy of the topology ({@link GraphIndex}), built on the first search
+ * and kept until the next modification. It costs 4 bytes per vertex and 16 bytes per edge on the heap.
+ *
+ * @param <V> Type of value in vertex.
+ */
+public class OffHeapGraph<V> implements Graph<V, Double>, IndexedGraph {
+
+    /** Marks no vertex or edge. */
+    private static final int NONE = -1;
+
+    /** Vertex record: first outgoing edge. */
+    private static final int FIRST_OUT = 0;
+
+    /** Vertex record: last outgoing edge. */
+    private static final int LAST_OUT = 4;
+
+    /** Vertex record: first incoming edge. */
+    private static final int FIRST_IN = 8;
+
+    /** Vertex record: last incoming edge. */
+    private static final int LAST_IN = 12;
+
+    /** Vertex record: number of outgoing edges. */
+    private static final int DEGREE = 16;
+
+    /** Vertex record: marked value. */
+    private static final int MARK = 20;
+
+    /** Vertex record: 1, if the vertex is part of the graph. */
+    private static final int ALIVE = 21;
+
+    /** Size of a vertex record in bytes. */
+    private static final int VERTEX_SIZE = 24;
+
+    /** Edge record: vertex the edge starts at, {@link #NONE} for free records. */
+    private static final int FROM = 0;
+
+    /** Edge record: vertex the edge points to. */
+    private static final int TO = 4;
+
+    /** Edge record: next outgoing edge of the start vertex, next free record for free records. */
+    private static final int NEXT_OUT = 8;
+
+    /** Edge record: next incoming edge of the target vertex. */
+    private static final int NEXT_IN = 12;
+
+    /** Edge record: weight. */
+    private static final int WEIGHT = 16;
+
+    /** Edge record: generation, incremented every time the record is freed. */
+    private static final int GENERATION = 24;
+
+    /** Size of an edge record in bytes, padded to keep the weights aligned. */
+    private static final int EDGE_SIZE = 32;
+
+    /** Vertex records by id. */
+    private final Records vertexRecords = new Records(VERTEX_SIZE);
+
+    /** Edge records by id. */
+    private final Records edgeRecords = new Records(EDGE_SIZE);
+
+    /** Values of the vertexes by id. */
+    private Object[] values = new Object[16];
+
+    /** Number of vertex ids handed out. */
+    private int vertexIds = 0;
+
+    /** Number of vertexes in the graph. */
+    private int vertexCount = 0;
+
+    /** Number of edge records used so far, including free ones. */
+    private int edgeIds = 0;
+
+    /** Number of edges in the graph. */
+    private int edgeCount = 0;
+
+    /** First free edge record. */
+    private int freeEdge = NONE;
+
+    /** Number of modifications, checked by the live views. */
+    protected int modCount = 0;
+
+    /** Index for the search engines. Null, if not built yet or changed weights. */
+    private GraphIndex index;
+
+    /** {@link #modCount} the {@link #index} was built at. */
+    private int indexModCount;
+
+    /**
+     * @return Number of edges in the graph.
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return Bytes allocated outside the heap.
+     */
+    public long offHeapBytes() {
+        return vertexRecords.bytes() + edgeRecords.bytes();
+    }
+
+    @Override
+    public Vertex addVertex(final V value) {
+        final int id = vertexIds++;
+        vertexRecords.ensureCapacity(vertexIds);
+        if (id == values.length) values = Arrays.copyOf(values, values.length * 2);
+        values[id] = value;
+        vertexRecords.putInt(id, FIRST_OUT, NONE);
+        vertexRecords.putInt(id, LAST_OUT, NONE);
+        vertexRecords.putInt(id, FIRST_IN, NONE);
+        vertexRecords.putInt(id, LAST_IN, NONE);
+        vertexRecords.putInt(id, DEGREE, 0);
+        vertexRecords.putByte(id, MARK, (byte) 0);
+        vertexRecords.putByte(id, ALIVE, (byte) 1);
+        vertexCount++;
+        modCount++;
+        return new OffHeapVertex(id);
+    }
+
+    @Override
+    public Edge connect(final Vertex from, final Vertex to, final Double weight) {
+        if (weight == null) throw new IllegalArgumentException("weight can't be null");
+        return connect(from, to, weight.doubleValue());
+    }
+
+    /**
+     * Connect two vertexes without boxing the weight.
+     * @param pFrom Vertex the edge starts at.
+     * @param pTo Vertex the edge points to.
+     * @param weight Weight of the edge.
+     * @return New edge.
+     */
+    public Edge connect(final Vertex pFrom, final Vertex pTo, final double weight) {
+        final int from = toId(pFrom);
+        final int to = toId(pTo);
+        final int edge;
+        if (freeEdge != NONE) {
+            edge = freeEdge;
+            freeEdge = edgeRecords.getInt(edge, NEXT_OUT);
+        } else {
+            edge = edgeIds++;
+            edgeRecords.ensureCapacity(edgeIds);
+            edgeRecords.putInt(edge, GENERATION, 0);
+        }
+        edgeRecords.putInt(edge, FROM, from);
+        edgeRecords.putInt(edge, TO, to);
+        edgeRecords.putInt(edge, NEXT_OUT, NONE);
+        edgeRecords.putInt(edge, NEXT_IN, NONE);
+        edgeRecords.putDouble(edge, WEIGHT, weight);
+        append(from, FIRST_OUT, LAST_OUT, NEXT_OUT, edge);
+        append(to, FIRST_IN, LAST_IN, NEXT_IN, edge);
+        vertexRecords.putInt(from, DEGREE, vertexRecords.getInt(from, DEGREE) + 1);
+        edgeCount++;
+        modCount++;
+        return edgeHandle(edge);
+    }
+
+    /**
+     * @param edge Id of a used edge record.
+     * @return Handle of the edge in the current generation of its record.
+     */
+    private OffHeapEdge edgeHandle(final int edge) {
+        return new OffHeapEdge(edge, edgeRecords.getInt(edge, GENERATION));
+    }
+
+    /**
+     * Append an edge to a list of a vertex.
+     * @param vertex Vertex id.
+     * @param first Field of the first edge of the list.
+     * @param last Field of the last edge of the list.
+     * @param next Field of the next edge of the list.
+     * @param edge Edge id.
+     */
+    private void append(final int vertex, final int first, final int last, final int next, final int edge) {
+        final int tail = vertexRecords.getInt(vertex, last);
+        if (tail == NONE) {
+            vertexRecords.putInt(vertex, first, edge);
+        } else {
+            edgeRecords.putInt(tail, next, edge);
+        }
+        vertexRecords.putInt(vertex, last, edge);
+    }
+
+    /**
+     * Remove an edge from a list of a vertex.
+     * @param vertex Vertex id.
+     * @param first Field of the first edge of the list.
+     * @param last Field of the last edge of the list.
+     * @param next Field of the next edge of the list.
+     * @param edge Edge id.
+     */
+    private void unlink(final int vertex, final int first, final int last, final int next, final int edge) {
+        int previous = NONE;
+        int current = vertexRecords.getInt(vertex, first);
+        while (current != edge) {
+            previous = current;
+            current = edgeRecords.getInt(current, next);
+        }
+        final int following = edgeRecords.getInt(edge, next);
+        if (previous == NONE) {
+            vertexRecords.putInt(vertex, first, following);
+        } else {
+            edgeRecords.putInt(previous, next, following);
+        }
+        if (following == NONE) vertexRecords.putInt(vertex, last, previous);
+    }
+
+    /**
+     * Remove an edge from both lists and free its record.
+     * @param edge Edge id.
+     */
+    private void remove(final int edge) {
+        final int from = edgeRecords.getInt(edge, FROM);
+        unlink(from, FIRST_OUT, LAST_OUT, NEXT_OUT, edge);
+        unlink(edgeRecords.getInt(edge, TO), FIRST_IN, LAST_IN, NEXT_IN, edge);
+        vertexRecords.putInt(from, DEGREE, vertexRecords.getInt(from, DEGREE) - 1);
+        edgeRecords.putInt(edge, FROM, NONE);
+        edgeRecords.putInt(edge, GENERATION, edgeRecords.getInt(edge, GENERATION) + 1);
+        edgeRecords.putInt(edge, NEXT_OUT, freeEdge);
+        freeEdge = edge;
+        edgeCount--;
+        modCount++;
+    }
+
+    @Override
+    public void disconnect(final Edge edge) {
+        remove(toEdgeId(edge));
+    }
+
+    @Override
+    public boolean disconnect(final Vertex pFrom, final Vertex pTo) {
+        if (pFrom == null || pTo == null) return false;
+        final int from = toId(pFrom);
+        final int to = toId(pTo);
+        boolean removed = false;
+        int edge = vertexRecords.getInt(from, FIRST_OUT);
+        while (edge != NONE) {
+            final int next = edgeRecords.getInt(edge, NEXT_OUT);
+            if (edgeRecords.getInt(edge, TO) == to) {
+                remove(edge);
+                removed = true;
+            }
+            edge = next;
+        }
+        return removed;
+    }
+
+    @Override
+    public void removeVertex(final Vertex vertex) {
+        final int id = toId(vertex);
+        for (int edge = vertexRecords.getInt(id, FIRST_OUT); edge != NONE; edge = vertexRecords.getInt(id, FIRST_OUT)) {
+            remove(edge);
+        }
+        for (int edge = vertexRecords.getInt(id, FIRST_IN); edge != NONE; edge = vertexRecords.getInt(id, FIRST_IN)) {
+            remove(edge);
+        }
+        vertexRecords.putByte(id, ALIVE, (byte) 0);
+        values[id] = null;
+        vertexCount--;
+        modCount++;
+    }
+
+    @Override
+    public boolean adjacent(final Vertex pFrom, final Vertex pTo) {
+        final int from = toId(pFrom);
+        final int to = toId(pTo);
+        for (int edge = vertexRecords.getInt(from, FIRST_OUT); edge != NONE; edge = edgeRecords.getInt(edge, NEXT_OUT)) {
+            if (edgeRecords.getInt(edge, TO) == to) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<Vertex> neighbors(final Vertex pFrom) {
+        final int from = toId(pFrom);
+        final List<Vertex> result = new ArrayList<>(vertexRecords.getInt(from, DEGREE));
+        for (int edge = vertexRecords.getInt(from, FIRST_OUT); edge != NONE; edge = edgeRecords.getInt(edge, NEXT_OUT)) {
+            result.add(new OffHeapVertex(edgeRecords.getInt(edge, TO)));
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(final Vertex vertex) {
+        return (V) values[toId(vertex)];
+    }
+
+    @Override
+    public void setValue(final Vertex vertex, final V newValue) {
+        values[toId(vertex)] = newValue;
+    }
+
+    /**
+     * @param edge Edge of this graph.
+     * @return Weight of edge.
+     */
+    @Override
+    public Double getEdgeValue(final Edge edge) {
+        return edgeRecords.getDouble(toEdgeId(edge), WEIGHT);
+    }
+
+    /**
+     * Change the weight of an edge.
+     * @param edge Edge of this graph.
+     * @param weight New weight.
+     */
+    public void setWeight(final Edge edge, final double weight) {
+        edgeRecords.putDouble(toEdgeId(edge), WEIGHT, weight);
+        // Not a structural change for the views, but the index copied the weight.
+        index = null;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public int degree(final Vertex vertex) {
+        return vertexRecords.getInt(toId(vertex), DEGREE);
+    }
+
+    @Override
+    public Iterable<? extends Vertex> getVertexes() {
+        return () -> new Iterator<Vertex>() {
+            private final int expectedModCount = modCount;
+            private int next = advance(0);
+
+            private int advance(final int from) {
+                int id = from;
+                while (id < vertexIds && vertexRecords.getByte(id, ALIVE) == 0) id++;
+                return id;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < vertexIds;
+            }
+
+            @Override
+            public Vertex next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                final Vertex vertex = new OffHeapVertex(next);
+                next = advance(next + 1);
+                return vertex;
+            }
+        };
+    }
+
+    @Override
+    public Iterable<? extends Edge> getEdges() {
+        return () -> new Iterator<Edge>() {
+            private final int expectedModCount = modCount;
+            private int vertex = 0;
+            private int edge = NONE;
+
+            {
+                advance();
+            }
+
+            private void advance() {
+                while (edge == NONE && vertex < vertexIds) {
+                    if (vertexRecords.getByte(vertex, ALIVE) != 0) edge = vertexRecords.getInt(vertex, FIRST_OUT);
+                    vertex++;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return edge != NONE;
+            }
+
+            @Override
+            public Edge next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                final Edge result = edgeHandle(edge);
+                edge = edgeRecords.getInt(edge, NEXT_OUT);
+                advance();
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public Vertex getVertex(final int index) {
+        if (index < 0 || index >= vertexIds) throw new IndexOutOfBoundsException("No vertex " + index);
+        return new OffHeapVertex(index);
+    }
+
+    @Override
+    public int indexOf(final Vertex vertex) {
+        return toId(vertex);
+    }
+
+    /**
+     * @param from Id of the vertex the edge starts at.
+     * @param edge Id of the edge record.
+     * @return Edge handle.
+     */
+    @Override
+    public Edge edgeAt(final int from, final int edge) {
+        return edgeHandle(edge);
+    }
+
+    /**
+     * Index for the primitive search engines, copied into CSR arrays once per modification.
+     * Vertex ids are kept, removed vertexes have no edges.
+     * @return Index of this graph.
+     */
+    GraphIndex index() {
+        if (index == null || indexModCount != modCount) {
+            index = buildIndex();
+            indexModCount = modCount;
+        }
+        return index;
+    }
+
+    /**
+     * Copy the topology into CSR arrays.
+     * @return New index of this graph.
+     */
+    private GraphIndex buildIndex() {
+        final int n = vertexIds;
+        final int[] offsets = new int[n + 1];
+        final int[] targets = new int[edgeCount];
+        final double[] weights = new double[edgeCount];
+        final int[] ids = new int[edgeCount];
+        int position = 0;
+        for (int vertex = 0; vertex < n; vertex++) {
+            offsets[vertex] = position;
+            if (vertexRecords.getByte(vertex, ALIVE) == 0) continue;
+            for (int edge = vertexRecords.getInt(vertex, FIRST_OUT); edge != NONE; edge = edgeRecords.getInt(edge, NEXT_OUT)) {
+                targets[position] = edgeRecords.getInt(edge, TO);
+                weights[position] = edgeRecords.getDouble(edge, WEIGHT);
+                ids[position++] = edge;
+            }
+        }
+        offsets[n] = position;
+        return new GraphIndex(this, offsets, targets, weights, ids, null);
+    }
+
+    /**
+     * Check if vertex is element of this graph. Throws an {@link IllegalArgumentException} if not.
+     * @param pVertex Vertex to check
+     * @return Id of the vertex.
+     */
+    private int toId(final Vertex pVertex) {
+        if (pVertex == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pVertex instanceof OffHeapGraph.OffHeapVertex)) throw new IllegalArgumentException("Supplied Vertex is not an OffHeapVertex");
+        final OffHeapVertex vertex = (OffHeapVertex) pVertex;
+        if (vertex.graph() != this || vertexRecords.getByte(vertex.index, ALIVE) == 0) {
+            throw new IllegalArgumentException("Supplied OffHeapVertex not part of OffHeapGraph");
+        }
+        return vertex.index;
+    }
+
+    /**
+     * Check if edge is element of this graph. Throws an {@link IllegalArgumentException} if not,
+     * also for handles of removed edges whose record was reused.
+     * @param pEdge Edge to check
+     * @return Id of the edge record.
+     */
+    private int toEdgeId(final Edge pEdge) {
+        if (pEdge == null) throw new IllegalArgumentException("Null is not a member of this graph.");
+        if (!(pEdge instanceof OffHeapGraph.OffHeapEdge)) throw new IllegalArgumentException("Supplied Edge is not an OffHeapEdge");
+        final OffHeapEdge edge = (OffHeapEdge) pEdge;
+        if (edge.graph() != this || edgeRecords.getInt(edge.index, FROM) == NONE
+                || edgeRecords.getInt(edge.index, GENERATION) != edge.generation) {
+            throw new IllegalArgumentException("Supplied OffHeapEdge not part of OffHeapGraph");
+        }
+        return edge.index;
+    }
+
+    /**
+     * Fixed size records in direct buffers. Records never move, new segments are added when needed.
+     */
+    private static final class Records {
+
+        /** Records per segment, power of two. */
+        private static final int SEGMENT_SIZE = 1 << 16;
+
+        /** Bits of the position within a segment. */
+        private static final int SEGMENT_SHIFT = 16;
+
+        /** Size of a record in bytes. */
+        private final int recordSize;
+
+        /** Segments holding {@link #SEGMENT_SIZE} records each. */
+        private ByteBuffer[] segments = new ByteBuffer[0];
+
+        /**
+         * @param recordSize Field value.
+         */
+        private Records(final int recordSize) {
+            this.recordSize = recordSize;
+        }
+
+        /**
+         * @param capacity Number of records needed.
+         */
+        private void ensureCapacity(final int capacity) {
+            final int needed = (capacity + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT;
+            if (needed <= segments.length) return;
+            final int old = segments.length;
+            segments = Arrays.copyOf(segments, needed);
+            for (int i = old; i < needed; i++) {
+                segments[i] = ByteBuffer.allocateDirect(SEGMENT_SIZE * recordSize).order(ByteOrder.nativeOrder());
+            }
+        }
+
+        /**
+         * @return Allocated bytes.
+         */
+        private long bytes() {
+            return (long) segments.length * SEGMENT_SIZE * recordSize;
+        }
+
+        /**
+         * @param record Record id.
+         * @return Segment of the record.
+         */
+        private ByteBuffer segment(final int record) {
+            return segments[record >>> SEGMENT_SHIFT];
+        }
+
+        /**
+         * @param record Record id.
+         * @param field Offset of the field in the record.
+         * @return Position of the field in its segment.
+         */
+        private int position(final int record, final int field) {
+            return (record & (SEGMENT_SIZE - 1)) * recordSize + field;
+        }
+
+        /**
+         * @param record Record id.
+         * @param field Offset of the field in the record.
+         * @return Int field of a record.
+         */
+        private int getInt(final int record, final int field) {
+            return segment(record).getInt(position(record, field));
+        }
+
+        /**
+         * @param record Record id.
+         * @param field Offset of the field in the record.
+         * @param value New value.
+         */
+        private void putInt(final int record, final int field, final int value) {
+            segment(record).putInt(position(record, field), value);
+        }
+
+        /**
+         * @param record Record id.
+         * @param field Offset of the field in the record.
+         * @return Byte field of a record.
+         */
+        private byte getByte(final int record, final int field) {
+            return segment(record).get(position(record, field));
+        }
+
+        /**
+         * @param record Record id.
+         * @param field Offset of the field in the record.
+         * @param value New value.
+         */
+        private void putByte(final int record, final int field, final byte value) {
+            segment(record).put(position(record, field), value);
+        }
+
+        /**
+         * @param record Record id.
+         * @param field Offset of the field in the record.
+         * @return Double field of a record.
+         */
+        private double getDouble(final int record, final int field) {
+            return segment(record).getDouble(position(record, field));
+        }
+
+        /**
+         * @param record Record id.
+         * @param field Offset of the field in the record.
+         * @param value New value.
+         */
+        private void putDouble(final int record, final int field, final double value) {
+            segment(record).putDouble(position(record, field), value);
+        }
+    }
+
+    /**
+     * Vertex handle of an off heap graph. Only knows its id.
+     */
+    protected class OffHeapVertex implements IndexedVertex {
+
+        /** Id of this vertex. */
+        protected final int index;
+
+        /**
+         * @param index Field value.
+         */
+        protected OffHeapVertex(final int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return Graph this vertex belongs to.
+         */
+        protected OffHeapGraph<V> graph() {
+            return OffHeapGraph.this;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public Iterable<? extends Edge> getEdges() {
+            return () -> new EdgeListIterator(vertexRecords.getInt(index, FIRST_OUT), NEXT_OUT);
+        }
+
+        @Override
+        public Iterable<? extends Edge> getIncomingEdges() {
+            return () -> new EdgeListIterator(vertexRecords.getInt(index, FIRST_IN), NEXT_IN);
+        }
+
+        @Override
+        public boolean isMarked() {
+            return getMarkedValue() != 0;
+        }
+
+        @Override
+        public byte getMarkedValue() {
+            return vertexRecords.getByte(index, MARK);
+        }
+
+        @Override
+        public void demark() {
+            vertexRecords.putByte(index, MARK, (byte) 0);
+        }
+
+        @Override
+        public void mark() {
+            vertexRecords.putByte(index, MARK, (byte) 1);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof OffHeapGraph.OffHeapVertex)) return false;
+            final OffHeapVertex other = (OffHeapVertex) obj;
+            return other.index == this.index && other.graph() == this.graph();
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "OffHeapVertex(" + index + ")";
+        }
+    }
+
+    /**
+     * Iterates over an edge list, failing fast on modification.
+     */
+    private class EdgeListIterator implements Iterator<Edge> {
+
+        /** Modifications when the iteration started. */
+        private final int expectedModCount = modCount;
+
+        /** Field of the next edge of the list. */
+        private final int next;
+
+        /** Next edge id. */
+        private int edge;
+
+        /**
+         * @param edge Field value.
+         * @param next Field value.
+         */
+        private EdgeListIterator(final int edge, final int next) {
+            this.edge = edge;
+            this.next = next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return edge != NONE;
+        }
+
+        @Override
+        public Edge next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            final Edge result = edgeHandle(edge);
+            edge = edgeRecords.getInt(edge, next);
+            return result;
+        }
+    }
+
+    /**
+     * Edge handle of an off heap graph. Only knows the id and generation of its record.
+     */
+    protected class OffHeapEdge implements Edge {
+
+        /** Id of the edge record. */
+        protected final int index;
+
+        /** Generation of the record when the handle was created. */
+        protected final int generation;
+
+        /**
+         * @param index Field value.
+         * @param generation Field value.
+         */
+        protected OffHeapEdge(final int index, final int generation) {
+            this.index = index;
+            this.generation = generation;
+        }
+
+        /**
+         * @return Graph this edge belongs to.
+         */
+        protected OffHeapGraph<V> graph() {
+            return OffHeapGraph.this;
+        }
+
+        @Override
+        public Vertex getFrom() {
+            return new OffHeapVertex(edgeRecords.getInt(index, FROM));
+        }
+
+        @Override
+        public Vertex getTo() {
+            return new OffHeapVertex(edgeRecords.getInt(index, TO));
+        }
+
+        @Override
+        public double getWeight() {
+            return edgeRecords.getDouble(index, WEIGHT);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof OffHeapGraph.OffHeapEdge)) return false;
+            final OffHeapEdge other = (OffHeapEdge) obj;
+            return other.index == this.index && other.generation == this.generation && other.graph() == this.graph();
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "OffHeapEdge(" + edgeRecords.getInt(index, FROM) + " -> " + edgeRecords.getInt(index, TO) + ", " + getWeight() + ")";
+        }
+    }
+
+}
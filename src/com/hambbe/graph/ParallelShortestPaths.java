@@ -0,0 +1,331 @@
+package com.hambbe.graph;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Single source shortest paths using all cores of a {@link ForkJoinPool}.
+ *
+ * Both searches work in rounds: the vertexes of the current frontier are split into chunks and the outgoing edges
+ * of each chunk are relaxed by a fork join task. Distances and predecessors live in arrays indexed by vertex id
+ * (see {@link GraphIndex}), every update of a vertex happens under one of {@link #LOCK_STRIPES} striped locks,
+ * so distance and predecessor always fit together. The vertexes improved by a round form the next frontier.
+ * <ul>
+ * <li>{@link #deltaStepping(Vertex)} for non negative weights keeps the vertexes in buckets of width delta.
+ * The smallest bucket is relaxed along light edges (weight &lt;= delta) until it is empty, then its vertexes
+ * are relaxed along heavy edges once.
+ * <li>{@link #bellmanFord(Vertex)} for signed weights relaxes the edges of all improved vertexes each round,
+ * until a round changes nothing. A negative cycle is reported like {@link BellmanFordEngine} does.
+ * </ul>
+ *
+ * The searches work on the state of the graph at construction time.
+ */
+public class ParallelShortestPaths {
+
+    /** Number of locks guarding the distances. Power of two. */
+    private static final int LOCK_STRIPES = 1024;
+
+    /** Frontiers up to this size are relaxed by one task. */
+    private static final int LEAF_SIZE = 256;
+
+    /** Indexed graph. */
+    private final GraphIndex index;
+
+    /** Pool running the relaxations. */
+    private final ForkJoinPool pool;
+
+    /** Striped locks, lock of vertex v is <tt>locks[v &amp; (LOCK_STRIPES - 1)]</tt>. */
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * Searches on the common fork join pool.
+     * @param graph Graph to search in.
+     */
+    public ParallelShortestPaths(final Graph<?, ?> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph Graph to search in.
+     * @param pool Pool to run the relaxations on.
+     */
+    public ParallelShortestPaths(final Graph<?, ?> graph, final ForkJoinPool pool) {
+        if (pool == null) throw new IllegalArgumentException("pool can't be null");
+        this.index = GraphIndex.of(graph);
+        this.pool = pool;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Delta-stepping with delta = largest weight / average out degree.
+     * @param from Start vertex.
+     * @return Shortest path tree rooted at from.
+     * @see #deltaStepping(Vertex, double)
+     */
+    public ShortestPathTree deltaStepping(final Vertex from) {
+        final DoubleBuffer weights = index.weights;
+        final int edgeCount = index.edgeCount();
+        double max = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            max = Math.max(max, weights.get(e));
+        }
+        final double degree = Math.max(1.0, edgeCount / (double) Math.max(1, index.size()));
+        return deltaStepping(from, (max > 0) ? max / degree : 1);
+    }
+
+    /**
+     * Find the shortest paths from <tt>from</tt> to all vertexes with parallel delta-stepping.
+     *
+     * Rules to work:
+     * <ul>
+     * <li>All step costs have to be positive.
+     * </ul>
+     *
+     * @param from Start vertex.
+     * @param delta Width of a bucket. Small values give less work per round but more rounds.
+     * @return Shortest path tree rooted at from.
+     */
+    public ShortestPathTree deltaStepping(final Vertex from, final double delta) {
+        if (!(delta > 0)) throw new IllegalArgumentException("delta must be positive");
+        final int edgeCount = index.edgeCount();
+        for (int e = 0; e < edgeCount; e++) {
+            if (index.weights.get(e) < 0) throw new IllegalArgumentException("Delta-stepping needs non negative weights");
+        }
+        final ShortestPathTree tree = newTree(index.indexOf(from));
+        final double[] distances = tree.distances;
+        // Bucket i holds vertexes with distance in [i * delta, (i + 1) * delta). Entries are dropped lazily, when the
+        // distance of a vertex moved to an other bucket.
+        final TreeMap<Long, IntList> buckets = new TreeMap<>();
+        final SearchListener listener = Graphs.getSearchListener().searchStarted("deltaStepping");
+        final IntList first = new IntList();
+        first.add(tree.source);
+        buckets.put(0L, first);
+        listener.stepsQueued(1, 1);
+        final int[] stamps = new int[index.size()];
+        int round = 0;
+        while (!buckets.isEmpty()) {
+            final Map.Entry<Long, IntList> entry = buckets.pollFirstEntry();
+            final long bucket = entry.getKey();
+            final IntList settled = new IntList();
+            // Light edges can put vertexes back into the current bucket, repeat until it stays empty.
+            for (IntList content = entry.getValue(); content != null; content = buckets.remove(bucket)) {
+                round++;
+                final IntList frontier = new IntList(content.size);
+                for (int i = 0; i < content.size; i++) {
+                    final int v = content.values[i];
+                    if (stamps[v] != round && (long) (distances[v] / delta) == bucket) {
+                        stamps[v] = round;
+                        frontier.add(v);
+                    }
+                }
+                settled.addAll(frontier);
+                listener.vertexesSettled(frontier.size);
+                final IntList light = relax(tree, frontier, Double.NEGATIVE_INFINITY, delta);
+                listener.stepsQueued(light.size, light.size);
+                fill(buckets, light, distances, delta);
+            }
+            round++;
+            final IntList heavy = new IntList(settled.size);
+            for (int i = 0; i < settled.size; i++) {
+                final int v = settled.values[i];
+                if (stamps[v] != round) {
+                    stamps[v] = round;
+                    heavy.add(v);
+                }
+            }
+            final IntList improved = relax(tree, heavy, delta, Double.POSITIVE_INFINITY);
+            listener.stepsQueued(improved.size, improved.size);
+            fill(buckets, improved, distances, delta);
+        }
+        listener.searchFinished(true);
+        return tree;
+    }
+
+    /**
+     * Put improved vertexes into the bucket of their distance.
+     * @param buckets Buckets by number.
+     * @param improved Improved vertex ids.
+     * @param distances Distance by vertex id.
+     * @param delta Width of a bucket.
+     */
+    private static void fill(final TreeMap<Long, IntList> buckets, final IntList improved, final double[] distances, final double delta) {
+        for (int i = 0; i < improved.size; i++) {
+            final int v = improved.values[i];
+            buckets.computeIfAbsent((long) (distances[v] / delta), b -> new IntList()).add(v);
+        }
+    }
+
+    /**
+     * Find the shortest paths from <tt>from</tt> to all vertexes with a parallel Bellman Ford.
+     * Negative edge weights are allowed.
+     * @param from Start vertex.
+     * @return Shortest path tree rooted at from. Holds the negative cycle instead of paths, if one was found.
+     */
+    public ShortestPathTree bellmanFord(final Vertex from) {
+        final int n = index.size();
+        final ShortestPathTree tree = newTree(index.indexOf(from));
+        final int[] stamps = new int[n];
+        final SearchListener listener = Graphs.getSearchListener().searchStarted("parallelBellmanFord");
+        IntList frontier = new IntList();
+        frontier.add(tree.source);
+        listener.stepsQueued(1, 1);
+        int round = 0;
+        while (frontier.size > 0) {
+            round++;
+            if (round % n == 0) {
+                // Without negative cycle every shortest path is found after n - 1 rounds.
+                final List<Edge> cycle = BellmanFordEngine.findCycle(index, tree.predVertex, tree.predEdge);
+                if (cycle != null) {
+                    tree.negativeCycle = cycle;
+                    listener.searchFinished(false);
+                    return tree;
+                }
+            }
+            listener.vertexesSettled(frontier.size);
+            final IntList improved = relax(tree, frontier, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            frontier = new IntList(improved.size);
+            for (int i = 0; i < improved.size; i++) {
+                final int v = improved.values[i];
+                if (stamps[v] != round) {
+                    stamps[v] = round;
+                    frontier.add(v);
+                }
+            }
+            listener.stepsQueued(frontier.size, frontier.size);
+        }
+        listener.searchFinished(true);
+        return tree;
+    }
+
+    /**
+     * @param source Source vertex id.
+     * @return Tree with all vertexes unreachable but the source.
+     */
+    private ShortestPathTree newTree(final int source) {
+        final int n = index.size();
+        final double[] distances = new double[n];
+        final int[] predVertex = new int[n];
+        final int[] predEdge = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predVertex, -1);
+        Arrays.fill(predEdge, -1);
+        distances[source] = 0;
+        return new ShortestPathTree(index, source, distances, predVertex, predEdge);
+    }
+
+    /**
+     * Relax the edges of all frontier vertexes with a weight in (lower, upper].
+     * @param tree Tree to update.
+     * @param frontier Vertex ids to relax.
+     * @param lower Edges must weigh more.
+     * @param upper Edges must not weigh more.
+     * @return Improved vertex ids, may contain duplicates.
+     */
+    private IntList relax(final ShortestPathTree tree, final IntList frontier, final double lower, final double upper) {
+        if (frontier.size <= LEAF_SIZE) return relax(tree, frontier.values, 0, frontier.size, lower, upper);
+        return pool.invoke(new Relax(tree, frontier.values, 0, frontier.size, lower, upper));
+    }
+
+    /**
+     * Relax the edges of the frontier vertexes <tt>from .. to - 1</tt> with a weight in (lower, upper].
+     * @param tree Tree to update.
+     * @param frontier Vertex ids to relax.
+     * @param from First position in frontier.
+     * @param to Position after the last one in frontier.
+     * @param lower Edges must weigh more.
+     * @param upper Edges must not weigh more.
+     * @return Improved vertex ids, may contain duplicates.
+     */
+    private IntList relax(final ShortestPathTree tree, final int[] frontier, final int from, final int to, final double lower, final double upper) {
+        final IntBuffer offsets = index.offsets;
+        final IntBuffer targets = index.targets;
+        final DoubleBuffer weights = index.weights;
+        final double[] distances = tree.distances;
+        final IntList improved = new IntList();
+        for (int i = from; i < to; i++) {
+            final int u = frontier[i];
+            final double du;
+            synchronized (locks[u & (LOCK_STRIPES - 1)]) {
+                du = distances[u];
+            }
+            for (int e = offsets.get(u); e < offsets.get(u + 1); e++) {
+                final double w = weights.get(e);
+                if (w <= lower || w > upper) continue;
+                final int v = targets.get(e);
+                final double dv = du + w;
+                synchronized (locks[v & (LOCK_STRIPES - 1)]) {
+                    if (dv >= distances[v]) continue;
+                    distances[v] = dv;
+                    tree.predVertex[v] = u;
+                    tree.predEdge[v] = e;
+                }
+                improved.add(v);
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Relaxes a range of the frontier, splitting it in halves as long as it is bigger than {@link #LEAF_SIZE}.
+     */
+    private class Relax extends RecursiveTask<IntList> {
+
+        /** Version for serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** Tree to update. */
+        private final ShortestPathTree tree;
+
+        /** Vertex ids to relax. */
+        private final int[] frontier;
+
+        /** First position in frontier. */
+        private final int from;
+
+        /** Position after the last one in frontier. */
+        private final int to;
+
+        /** Edges must weigh more. */
+        private final double lower;
+
+        /** Edges must not weigh more. */
+        private final double upper;
+
+        /**
+         * @param tree Field value.
+         * @param frontier Field value.
+         * @param from Field value.
+         * @param to Field value.
+         * @param lower Field value.
+         * @param upper Field value.
+         */
+        private Relax(final ShortestPathTree tree, final int[] frontier, final int from, final int to, final double lower, final double upper) {
+            this.tree = tree;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from <= LEAF_SIZE) return relax(tree, frontier, from, to, lower, upper);
+            final int middle = (from + to) >>> 1;
+            final Relax left = new Relax(tree, frontier, from, middle, lower, upper);
+            left.fork();
+            final IntList result = new Relax(tree, frontier, middle, to, lower, upper).compute();
+            result.addAll(left.join());
+            return result;
+        }
+    }
+
+}
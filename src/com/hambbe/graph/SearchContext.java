@@ -0,0 +1,140 @@
+package com.hambbe.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Per thread visited state for graph searches.
+ *
+ * Instead of marking the vertexes themselves (which breaks as soon as two searches run on the same graph)
+ * every search acquires a context of its own thread. Visited vertexes are stamped with the epoch of the current
+ * search in an int array indexed by {@link IndexedVertex#index()}, so starting a new search is a simple increment
+ * and no clean up over all vertexes is needed. Vertexes without an id are kept in a hash set.
+ * Heuristic values are cached the same way, so informed searches evaluate the heuristic once per vertex.
+ */
+final class SearchContext {
+
+    /** Context of each thread. */
+    private static final ThreadLocal<SearchContext> CONTEXT = ThreadLocal.withInitial(SearchContext::new);
+
+    /** Epoch stamp of each vertex id. A vertex is visited, if its stamp equals {@link #epoch}. */
+    private int[] stamps = new int[64];
+
+    /** Epoch of the current search. */
+    private int epoch = 0;
+
+    /** Visited vertexes which are no {@link IndexedVertex}. */
+    private final HashSet<Vertex> visitedOthers = new HashSet<>();
+
+    /** Epoch stamp of each cached heuristic value. A value is valid, if its stamp equals {@link #epoch}. */
+    private int[] heuristicStamps = new int[0];
+
+    /** Cached heuristic value of each vertex id. */
+    private double[] heuristics = new double[0];
+
+    /** Cached heuristic values of vertexes which are no {@link IndexedVertex}. */
+    private final HashMap<Vertex, Double> heuristicOthers = new HashMap<>();
+
+    /** True, while a search uses this context. */
+    private boolean inUse = false;
+
+    /**
+     * Get a cleared context for a new search. Has to be given back with {@link #release()}.
+     * If the thread's context is already in use (a search started inside a search), a fresh one is created.
+     * @return Context for the new search.
+     */
+    static SearchContext acquire() {
+        SearchContext context = CONTEXT.get();
+        if (context.inUse) context = new SearchContext();
+        context.inUse = true;
+        context.nextEpoch();
+        return context;
+    }
+
+    /**
+     * Give the context back after the search.
+     */
+    void release() {
+        if (!visitedOthers.isEmpty()) visitedOthers.clear();
+        if (!heuristicOthers.isEmpty()) heuristicOthers.clear();
+        inUse = false;
+    }
+
+    /**
+     * Start a new epoch, which forgets all visited vertexes.
+     */
+    private void nextEpoch() {
+        if (++epoch == 0) {
+            // Overflow: Old stamps could collide with new epochs.
+            Arrays.fill(stamps, 0);
+            Arrays.fill(heuristicStamps, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * @param id Vertex id to make room for.
+     */
+    private void ensureCapacity(final int id) {
+        if (id >= stamps.length) {
+            stamps = Arrays.copyOf(stamps, Math.max(id + 1, stamps.length * 2));
+        }
+    }
+
+    /**
+     * @param vertex Vertex to check.
+     * @return True, if vertex was visited in the current search. False, otherwise.
+     */
+    boolean isVisited(final Vertex vertex) {
+        if (vertex instanceof IndexedVertex) {
+            final int id = ((IndexedVertex) vertex).index();
+            return id < stamps.length && stamps[id] == epoch;
+        }
+        return visitedOthers.contains(vertex);
+    }
+
+    /**
+     * Mark vertex as visited in the current search.
+     * @param vertex Vertex to mark.
+     */
+    void visit(final Vertex vertex) {
+        if (vertex instanceof IndexedVertex) {
+            final int id = ((IndexedVertex) vertex).index();
+            ensureCapacity(id);
+            stamps[id] = epoch;
+        } else {
+            visitedOthers.add(vertex);
+        }
+    }
+
+    /**
+     * Heuristic value of a vertex, calculated at most once per search.
+     * @param vertex Vertex to estimate. Null has the value 0.
+     * @param heuristic Calculates the value, if it isn't cached yet.
+     * @return Heuristic value of vertex.
+     */
+    double heuristic(final Vertex vertex, final ToDoubleFunction<Vertex> heuristic) {
+        if (vertex == null) return 0;
+        if (vertex instanceof IndexedVertex) {
+            final int id = ((IndexedVertex) vertex).index();
+            if (id < heuristicStamps.length && heuristicStamps[id] == epoch) return heuristics[id];
+            if (id >= heuristicStamps.length) {
+                final int length = Math.max(id + 1, Math.max(64, heuristicStamps.length * 2));
+                heuristicStamps = Arrays.copyOf(heuristicStamps, length);
+                heuristics = Arrays.copyOf(heuristics, length);
+            }
+            final double value = heuristic.applyAsDouble(vertex);
+            heuristicStamps[id] = epoch;
+            heuristics[id] = value;
+            return value;
+        }
+        final Double cached = heuristicOthers.get(vertex);
+        if (cached != null) return cached;
+        final double value = heuristic.applyAsDouble(vertex);
+        heuristicOthers.put(vertex, value);
+        return value;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.hambbe.graph;
+
+/**
+ * Hook into the searches of {@link Graphs} and the search engines, to see why a search is slow.
+ *
+ * Install a listener with {@link Graphs#setSearchListener(SearchListener)}. Every search calls
+ * {@link #searchStarted(String)} once and reports its events to the returned listener, which may keep
+ * the counters of this one search in plain fields, because a search reports from one thread only.
+ * By default {@link #NONE} is installed: its methods are empty, so the JIT removes the calls.
+ */
+public interface SearchListener {
+
+    /** Listener ignoring all events. */
+    SearchListener NONE = new SearchListener() { };
+
+    /**
+     * @param algorithm Name of the search algorithm, like <tt>dijkstra</tt> or <tt>bellmanFordEngine</tt>.
+     * @return Listener for the events of this search.
+     */
+    default SearchListener searchStarted(final String algorithm) {
+        return this;
+    }
+
+    /**
+     * Vertexes were settled (expanded), their outgoing edges are followed next.
+     * @param count Number of settled vertexes.
+     */
+    default void vertexesSettled(final int count) {
+    }
+
+    /**
+     * Steps were added to the queue of open candidates.
+     * @param count Number of added steps.
+     * @param queueSize Size of the queue afterwards.
+     */
+    default void stepsQueued(final int count, final int queueSize) {
+    }
+
+    /**
+     * @param found True, if the search reached its goal. Always true for searches without goal,
+     *              unless they found a negative cycle.
+     */
+    default void searchFinished(final boolean found) {
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.hambbe.graph;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SearchListener} summing the events of all searches. Safe to install for any number of searching threads:
+ * each search counts in its own recorder and adds its totals once, when it finishes.
+ */
+public class SearchStatistics implements SearchListener {
+
+    /** Number of finished searches. */
+    private final LongAdder searches = new LongAdder();
+
+    /** Number of settled vertexes. */
+    private final LongAdder settled = new LongAdder();
+
+    /** Number of queued steps. */
+    private final LongAdder queued = new LongAdder();
+
+    /** Largest queue of a single search. */
+    private final LongAccumulator peakQueueSize = new LongAccumulator(Math::max, 0);
+
+    @Override
+    public SearchListener searchStarted(final String algorithm) {
+        return new Recorder();
+    }
+
+    /**
+     * @return Number of finished searches.
+     */
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    /**
+     * @return Number of vertexes settled by all finished searches.
+     */
+    public long getSettled() {
+        return settled.sum();
+    }
+
+    /**
+     * @return Number of steps queued by all finished searches.
+     */
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    /**
+     * @return Largest queue of a single finished search.
+     */
+    public long getPeakQueueSize() {
+        return peakQueueSize.get();
+    }
+
+    /**
+     * Reset all counters.
+     */
+    public void reset() {
+        searches.reset();
+        settled.reset();
+        queued.reset();
+        peakQueueSize.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchStatistics(searches=" + getSearches() + ", settled=" + getSettled() + ", queued=" + getQueued()
+               + ", peakQueueSize=" + getPeakQueueSize() + ")";
+    }
+
+    /**
+     * Counters of one running search.
+     */
+    private final class Recorder implements SearchListener {
+
+        /** Settled vertexes. */
+        private long recordedSettled = 0;
+
+        /** Queued steps. */
+        private long recordedQueued = 0;
+
+        /** Largest queue. */
+        private int recordedPeak = 0;
+
+        @Override
+        public void vertexesSettled(final int count) {
+            recordedSettled += count;
+        }
+
+        @Override
+        public void stepsQueued(final int count, final int queueSize) {
+            recordedQueued += count;
+            if (queueSize > recordedPeak) recordedPeak = queueSize;
+        }
+
+        @Override
+        public void searchFinished(final boolean found) {
+            searches.increment();
+            settled.add(recordedSettled);
+            queued.add(recordedQueued);
+            peakQueueSize.accumulate(recordedPeak);
+        }
+    }
+
+}
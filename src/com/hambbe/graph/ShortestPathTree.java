@@ -0,0 +1,174 @@
+package com.hambbe.graph;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Result of a single source shortest path search of the primitive search engines.
+ *
+ * Only the distance and the predecessor edge of each vertex are stored.
+ * Routes in the form of {@link Graphs.Link} lists are built when asked for: {@link #pathTo(Vertex)} returns a view,
+ * which walks the predecessors on first access and creates each link only when it is read.
+ * Searches allowing negative edge weights may find a negative cycle instead, then the tree holds no paths.
+ */
+public class ShortestPathTree {
+
+    /** Index the ids refer to. */
+    final GraphIndex index;
+
+    /** Id of the source vertex. */
+    final int source;
+
+    /** Distance from the source for each vertex id. {@link Double#POSITIVE_INFINITY}, if not reachable. */
+    final double[] distances;
+
+    /** Predecessor vertex id for each vertex id. -1, if source or not reachable. */
+    final int[] predVertex;
+
+    /** Edge id used to reach each vertex id. -1, if source or not reachable. */
+    final int[] predEdge;
+
+    /** Negative cycle reachable from the source. Null, if there is none. */
+    List<Edge> negativeCycle = null;
+
+    /**
+     * @param index Field value.
+     * @param source Field value.
+     * @param distances Field value.
+     * @param predVertex Field value.
+     * @param predEdge Field value.
+     */
+    ShortestPathTree(final GraphIndex index, final int source, final double[] distances, final int[] predVertex, final int[] predEdge) {
+        this.index = index;
+        this.source = source;
+        this.distances = distances;
+        this.predVertex = predVertex;
+        this.predEdge = predEdge;
+    }
+
+    /**
+     * @return Vertex the search started at.
+     */
+    public Vertex getSource() {
+        return index.vertex(source);
+    }
+
+    /**
+     * @return True, if the search found a cycle with negative total costs reachable from the source.
+     */
+    public boolean hasNegativeCycle() {
+        return negativeCycle != null;
+    }
+
+    /**
+     * @return Edges of a cycle with negative total costs in walking order. Null, if there is none.
+     */
+    public List<Edge> getNegativeCycle() {
+        return (negativeCycle == null) ? null : Collections.unmodifiableList(negativeCycle);
+    }
+
+    /**
+     * @param to Goal vertex.
+     * @return Costs of the shortest path to <tt>to</tt>. {@link Double#POSITIVE_INFINITY}, if not reachable.
+     */
+    public double distanceTo(final Vertex to) {
+        return distances[index.indexOf(to)];
+    }
+
+    /**
+     * @param to Goal vertex.
+     * @return True, if there is a shortest path from the source to <tt>to</tt>.
+     */
+    public boolean hasPathTo(final Vertex to) {
+        return negativeCycle == null && distances[index.indexOf(to)] != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param to Goal vertex.
+     * @return Read only route to <tt>to</tt>, if reachable. Empty, if <tt>to</tt> is the source. Null, otherwise or if there is a negative cycle.
+     */
+    public List<Graphs.Link> pathTo(final Vertex to) {
+        final int id = index.indexOf(to);
+        if (distances[id] == Double.POSITIVE_INFINITY || negativeCycle != null) return null;
+        return new Path(id);
+    }
+
+    /**
+     * Build the routes to all reachable vertexes, in the same shape {@link Graphs#dijkstra(Graph, Vertex)} returns them.
+     * @return Routes by goal vertex. The source maps to an empty route, unreachable vertexes are missing.
+     */
+    public HashMap<Vertex, LinkedList<Graphs.Link>> toRoutes() {
+        final HashMap<Vertex, LinkedList<Graphs.Link>> result = new HashMap<>();
+        for (int v = 0; v < distances.length; v++) {
+            final LinkedList<Graphs.Link> route = route(v);
+            if (route != null) result.put(index.vertex(v), route);
+        }
+        return result;
+    }
+
+    /**
+     * @param to Goal vertex id.
+     * @return Route to <tt>to</tt>, if reachable. Empty, if <tt>to</tt> is the source. Null, otherwise.
+     */
+    LinkedList<Graphs.Link> route(final int to) {
+        if (distances[to] == Double.POSITIVE_INFINITY || negativeCycle != null) return null;
+        final LinkedList<Graphs.Link> route = new LinkedList<>();
+        for (int v = to; predEdge[v] >= 0; v = predVertex[v]) {
+            route.addFirst(new Graphs.Link(index.edge(predVertex[v], predEdge[v]), distances[v]));
+        }
+        return route;
+    }
+
+    /**
+     * Lazy route from the source to a vertex.
+     * The vertex ids of the route are collected on first access, links are created when read.
+     */
+    private class Path extends AbstractList<Graphs.Link> {
+
+        /** Goal vertex id. */
+        private final int to;
+
+        /** Vertex ids of the route without the source. Null, until first access. */
+        private int[] ids = null;
+
+        /**
+         * @param to Field value.
+         */
+        private Path(final int to) {
+            this.to = to;
+        }
+
+        /**
+         * @return Vertex ids of the route without the source.
+         */
+        private int[] ids() {
+            if (ids == null) {
+                int length = 0;
+                for (int v = to; predEdge[v] >= 0; v = predVertex[v]) {
+                    length++;
+                }
+                final int[] result = new int[length];
+                for (int v = to; predEdge[v] >= 0; v = predVertex[v]) {
+                    result[--length] = v;
+                }
+                ids = result;
+            }
+            return ids;
+        }
+
+        @Override
+        public Graphs.Link get(final int i) {
+            final int v = ids()[i];
+            return new Graphs.Link(index.edge(predVertex[v], predEdge[v]), distances[v]);
+        }
+
+        @Override
+        public int size() {
+            return ids().length;
+        }
+    }
+
+}
@@ -1,36 +1,229 @@
 package com.hambbe.graph;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * General implementation of a unweighted graph.
  *
+ * By default every vertex keeps a list of its incoming edges, so {@link #removeVertex(Vertex)}, {@link #inDegree(Vertex)}
+ * and {@link Vertex#getIncomingEdges()} only look at the edges of the vertex.
+ * Graphs which don't need those operations can save the memory by turning the incoming lists off at construction,
+ * the operations then scan the whole graph.
+ *
+ * Vertexes and edges are kept in linked lists by default. With {@link Storage#ARRAY} they are kept in array lists instead:
+ * a vertex is stored at the position of its id and leaves an empty slot when it gets removed, so removing is O(1)
+ * and ids stay stable, and the edges of a vertex lie next to each other in memory.
+ *
+ * {@link #getVertexes()} and {@link #getEdges()} are read only live views without copying.
+ * Changing the structure of the graph while iterating a view fails with a {@link ConcurrentModificationException},
+ * use {@link #vertexSnapshot()} and {@link #edgeSnapshot()} to iterate while changing the graph.
+ *
+ * Big graphs are loaded fastest with {@link #addVertexes(List)} and {@link #connectAll(Vertex[], int[], int[], IntFunction)},
+ * which check the arguments once, size the lists up front and build the edge lists in parallel.
+ *
  * @param <V> Type of value in vertex
  * @param <E> Type for edges.
  */
 public class UnweightedGraph<V, E> implements Graph<V, E> {
 
-    /** Vertexes of the graph. */
-    protected final LinkedList<VertexImpl> vertexes = new LinkedList<>();
+    /**
+     * How vertexes and edges of a graph are stored.
+     */
+    public enum Storage {
+        /** Linked lists. */
+        LINKED,
+        /** Array lists. Removed vertexes leave a null slot, so the position of a vertex always is its id. */
+        ARRAY
+    }
+
+    /**
+     * Vertexes of the graph. With {@link Storage#ARRAY} removed vertexes are null.
+     * This field was a <tt>LinkedList</tt> before the storage could be chosen. It is an <tt>ArrayList</tt> with
+     * {@link Storage#ARRAY}, so subclasses have to use the methods of {@link List} now.
+     */
+    protected final List<VertexImpl> vertexes;
+
+    /** Storage of {@link #vertexes} and of the edge lists. */
+    protected final Storage storage;
+
+    /** Number of vertexes in the graph. */
+    private int vertexCount = 0;
+
+    /** Number of structural changes. Views fail, if it changes while they are iterated. */
+    protected int modCount = 0;
+
+    /** Bulk connects with at least this many edges build the edge lists in parallel. */
+    private static final int PARALLEL_CONNECT_THRESHOLD = 1 << 15;
+
+    /** Id for the next added vertex. */
+    private int nextVertexId = 0;
+
+    /** True, if vertexes keep a list of their incoming edges. */
+    protected final boolean trackIncoming;
+
+    /**
+     * Graph keeping incoming edges.
+     */
+    public UnweightedGraph() {
+        this(true);
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     */
+    public UnweightedGraph(final boolean trackIncoming) {
+        this(trackIncoming, Storage.LINKED);
+    }
+
+    /**
+     * @param trackIncoming True, if vertexes should keep a list of their incoming edges.
+     * @param storage How vertexes and edges are stored.
+     */
+    public UnweightedGraph(final boolean trackIncoming, final Storage storage) {
+        if (storage == null) throw new IllegalArgumentException("storage can't be null");
+        this.trackIncoming = trackIncoming;
+        this.storage = storage;
+        this.vertexes = (storage == Storage.ARRAY) ? new ArrayList<>() : new LinkedList<>();
+    }
+
+    /**
+     * @param <T> Element type.
+     * @return New empty edge list for {@link #storage}.
+     */
+    private <T> List<T> newList() {
+        return (storage == Storage.ARRAY) ? new ArrayList<>(4) : new LinkedList<>();
+    }
 
     @Override
     public Vertex addVertex(final V value) {
-        VertexImpl v = new VertexImpl(value, this);
-        vertexes.addLast(v);
+        VertexImpl v = new VertexImpl(value, this, nextVertexId++);
+        vertexes.add(v);
+        vertexCount++;
+        modCount++;
         return v;
     }
 
     @Override
     public Iterable<? extends Vertex> getVertexes() {
-        return (Iterable<Vertex>)this.vertexes.clone();
+        return VertexIterator::new;
     }
 
     @Override
     public Iterable<? extends Edge> getEdges() {
-        return vertexes.stream().flatMap(v -> v.edges.stream()).collect(Collectors.toList());
+        return EdgeIterator::new;
+    }
+
+    @Override
+    public Stream<Vertex> vertexStream() {
+        return vertexes.stream().filter(Objects::nonNull).map(Vertex.class::cast);
+    }
+
+    @Override
+    public Stream<Edge> edgeStream() {
+        return vertexes.stream().filter(Objects::nonNull).flatMap(v -> v.edges.stream());
+    }
+
+    /**
+     * Copy of the vertexes, which stays unchanged when the graph changes.
+     * @return List of vertexes.
+     */
+    public List<Vertex> vertexSnapshot() {
+        final ArrayList<Vertex> result = new ArrayList<>(vertexCount);
+        for (VertexImpl vertex : this.vertexes) {
+            if (vertex != null) result.add(vertex);
+        }
+        return result;
+    }
+
+    /**
+     * Copy of the edges, which stays unchanged when the graph changes.
+     * @return List of edges.
+     */
+    public List<Edge> edgeSnapshot() {
+        return edgeStream().collect(Collectors.toList());
+    }
+
+    /**
+     * Read only iterator over the vertexes, failing on changes of the graph.
+     */
+    private class VertexIterator implements Iterator<Vertex> {
+
+        /** Modification count the iteration started with. */
+        private final int expectedModCount = modCount;
+
+        /** Position in {@link #vertexes}. */
+        private final Iterator<VertexImpl> position = vertexes.iterator();
+
+        /** Next vertex to return. Null, at the end. */
+        private VertexImpl next = advance();
+
+        /**
+         * @return Next vertex of {@link #position}, skipping removed vertexes. Null, at the end.
+         */
+        private VertexImpl advance() {
+            while (position.hasNext()) {
+                final VertexImpl vertex = position.next();
+                if (vertex != null) return vertex;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return next != null;
+        }
+
+        @Override
+        public Vertex next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            final VertexImpl result = next;
+            next = advance();
+            return result;
+        }
+    }
+
+    /**
+     * Read only iterator over the edges of all vertexes, failing on changes of the graph.
+     */
+    private class EdgeIterator implements Iterator<Edge> {
+
+        /** Modification count the iteration started with. */
+        private final int expectedModCount = modCount;
+
+        /** Vertexes, which edges are not iterated yet. */
+        private final VertexIterator vertexIterator = new VertexIterator();
+
+        /** Edges of the current vertex. */
+        private Iterator<UnweightedEdge> edges = null;
+
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            while (edges == null || !edges.hasNext()) {
+                if (!vertexIterator.hasNext()) return false;
+                edges = ((VertexImpl) vertexIterator.next()).edges.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Edge next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return edges.next();
+        }
     }
 
     /**
@@ -77,19 +270,189 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
 
     @Override
     public Edge connect(Vertex pFrom, Vertex pTo, E edgeValue) {
+        return connectEdge(pFrom, pTo, (i, from, to) -> createEdge(from, to, edgeValue));
+    }
+
+    /**
+     * Connect two vertexes with an edge created by factory. Used by the connect methods of subclasses
+     * taking primitive weights.
+     * @param pFrom Vertex the edge starts at.
+     * @param pTo Vertex the edge points to.
+     * @param factory Creates the edge, with position 0.
+     * @return New edge.
+     */
+    protected final Edge connectEdge(final Vertex pFrom, final Vertex pTo, final EdgeFactory<VertexImpl, ? extends UnweightedEdge> factory) {
         checkMembership(pFrom, pTo);
         final VertexImpl from = (VertexImpl) pFrom;
-        final VertexImpl to = (VertexImpl) pTo;
-        UnweightedEdge edge = new UnweightedEdge(from, to, this);
+        final UnweightedEdge edge = factory.create(0, from, (VertexImpl) pTo);
         from.connect(edge);
         return edge;
     }
 
+    /**
+     * Create an edge of the type of this graph. The edge is not connected yet.
+     * @param from Vertex the edge starts at.
+     * @param to Vertex the edge points to.
+     * @param edgeValue Value of the edge.
+     * @return New edge.
+     */
+    protected UnweightedEdge createEdge(final VertexImpl from, final VertexImpl to, final E edgeValue) {
+        return new UnweightedEdge(from, to, this);
+    }
+
+    /**
+     * Add many vertexes at once.
+     * @param values Values of the new vertexes.
+     * @return New vertexes in the order of values.
+     */
+    public Vertex[] addVertexes(final List<? extends V> values) {
+        if (values == null) throw new IllegalArgumentException("values can't be null");
+        if (storage == Storage.ARRAY) ((ArrayList<VertexImpl>) vertexes).ensureCapacity(vertexes.size() + values.size());
+        final Vertex[] result = new Vertex[values.size()];
+        int i = 0;
+        for (V value : values) {
+            final VertexImpl vertex = new VertexImpl(value, this, nextVertexId++);
+            vertexes.add(vertex);
+            result[i++] = vertex;
+        }
+        vertexCount += result.length;
+        modCount++;
+        return result;
+    }
+
+    /**
+     * Connect many vertexes at once. Edge <tt>i</tt> points from <tt>vertexes[from[i]]</tt> to <tt>vertexes[to[i]]</tt>.
+     *
+     * The vertexes and positions are checked once up front, every vertex may appear only once. The edges of a vertex are appended in the order of the
+     * arrays. Big batches are built on the common fork join pool, edgeValues must be thread safe then.
+     *
+     * @param vertexes Vertexes of this graph, the edges refer to them by position.
+     * @param from Position in vertexes each edge starts at.
+     * @param to Position in vertexes each edge points to.
+     * @param edgeValues Value of edge <tt>i</tt>. May be null, if all edges have the value null.
+     */
+    public void connectAll(final Vertex[] vertexes, final int[] from, final int[] to, final IntFunction<? extends E> edgeValues) {
+        connectAll(vertexes, from, to, (i, f, t) -> createEdge(f, t, (edgeValues == null) ? null : edgeValues.apply(i)));
+    }
+
+    /**
+     * Creates the edges of a bulk connect.
+     * @param <X> Vertex type, {@link VertexImpl}.
+     * @param <Y> Edge type, {@link UnweightedEdge}.
+     */
+    @FunctionalInterface
+    protected interface EdgeFactory<X, Y> {
+
+        /**
+         * @param i Position of the edge in the arrays of the bulk connect.
+         * @param from Vertex the edge starts at.
+         * @param to Vertex the edge points to.
+         * @return New edge, not connected yet.
+         */
+        Y create(int i, X from, X to);
+    }
+
+    /**
+     * Connect many vertexes at once with edges created by factory.
+     * @param pVertexes Vertexes of this graph, the edges refer to them by position.
+     * @param from Position in pVertexes each edge starts at.
+     * @param to Position in pVertexes each edge points to.
+     * @param factory Creates edge <tt>i</tt>.
+     * @see #connectAll(Vertex[], int[], int[], IntFunction)
+     */
+    protected final void connectAll(final Vertex[] pVertexes, final int[] from, final int[] to, final EdgeFactory<VertexImpl, UnweightedEdge> factory) {
+        if (pVertexes == null || from == null || to == null) throw new IllegalArgumentException("Null is not allowed.");
+        if (from.length != to.length) throw new IllegalArgumentException("from and to must have the same length");
+        checkMembership(pVertexes);
+        final int n = pVertexes.length;
+        @SuppressWarnings("unchecked")
+        final VertexImpl[] vertexes = (VertexImpl[]) new UnweightedGraph.VertexImpl[n];
+        final BitSet seen = new BitSet(n);
+        for (int v = 0; v < n; v++) {
+            vertexes[v] = (VertexImpl) pVertexes[v];
+            if (seen.get(vertexes[v].id)) throw new IllegalArgumentException("Vertex at position " + v + " appears twice");
+            seen.set(vertexes[v].id);
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] < 0 || from[i] >= n || to[i] < 0 || to[i] >= n) {
+                throw new IllegalArgumentException("Edge " + i + " refers to a vertex out of range");
+            }
+        }
+        final int m = from.length;
+        final boolean parallel = m >= PARALLEL_CONNECT_THRESHOLD;
+        @SuppressWarnings("unchecked")
+        final UnweightedEdge[] edges = (UnweightedEdge[]) new UnweightedGraph.UnweightedEdge[m];
+        // Every vertex is handled by one thread only, so its lists need no locking.
+        final int[] bySource = groupBy(from, n);
+        range(n, parallel).forEach(v -> {
+            final VertexImpl vertex = vertexes[v];
+            final int start = bySource[m + v];
+            final int end = bySource[m + v + 1];
+            if (vertex.edges instanceof ArrayList) ((ArrayList<UnweightedEdge>) vertex.edges).ensureCapacity(vertex.edges.size() + end - start);
+            for (int k = start; k < end; k++) {
+                final int i = bySource[k];
+                final UnweightedEdge edge = factory.create(i, vertex, vertexes[to[i]]);
+                edges[i] = edge;
+                vertex.edges.add(edge);
+            }
+        });
+        if (trackIncoming) {
+            final int[] byTarget = groupBy(to, n);
+            range(n, parallel).forEach(v -> {
+                final VertexImpl vertex = vertexes[v];
+                final int start = byTarget[m + v];
+                final int end = byTarget[m + v + 1];
+                if (vertex.incoming instanceof ArrayList) ((ArrayList<UnweightedEdge>) vertex.incoming).ensureCapacity(vertex.incoming.size() + end - start);
+                for (int k = start; k < end; k++) {
+                    vertex.incoming.add(edges[byTarget[k]]);
+                }
+            });
+        }
+        modCount++;
+    }
+
+    /**
+     * Counting sort of edge positions by vertex.
+     * @param keys Vertex position of each edge.
+     * @param n Number of vertexes.
+     * @return Array of length <tt>keys.length + n + 1</tt>: first the edge positions sorted by key (stable),
+     * then the start of each key in this order, with the edge count at the end.
+     */
+    private static int[] groupBy(final int[] keys, final int n) {
+        final int m = keys.length;
+        final int[] result = new int[m + n + 1];
+        final int[] next = new int[n + 1];
+        for (int key : keys) {
+            next[key + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            next[v + 1] += next[v];
+        }
+        // Offsets are shifted behind the sorted positions, but relative to the start of the array.
+        for (int v = 0; v <= n; v++) {
+            result[m + v] = next[v];
+        }
+        for (int i = 0; i < m; i++) {
+            result[next[keys[i]]++] = i;
+        }
+        return result;
+    }
+
+    /**
+     * @param n Exclusive end of the range.
+     * @param parallel True, to process the range in parallel.
+     * @return Stream of <tt>0 .. n - 1</tt>.
+     */
+    private static IntStream range(final int n, final boolean parallel) {
+        final IntStream range = IntStream.range(0, n);
+        return parallel ? range.parallel() : range;
+    }
+
     @Override
     public void disconnect(final Edge edge) {
         checkMembership(edge);
         final VertexImpl from = (VertexImpl) edge.getFrom();
-        from.edges.removeIf(e -> e == edge);
+        from.disconnect((UnweightedEdge) edge);
     }
 
     @Override
@@ -135,14 +498,45 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
     public void removeVertex(final Vertex pToRemove) {
         checkMembership(pToRemove);
         final VertexImpl toRemove = (VertexImpl) pToRemove;
-        for (VertexImpl vertex : this.vertexes) {
-            for (UnweightedEdge edge : vertex.edges) {
-                if (edge.getTo() == toRemove) {
-                    this.disconnect(edge);
-                }
+        if (trackIncoming) {
+            // Only the neighbours know edges of toRemove.
+            for (UnweightedEdge edge : toRemove.incoming) {
+                if (edge.from != toRemove) ((VertexImpl) edge.from).edges.remove(edge);
+            }
+            for (UnweightedEdge edge : toRemove.edges) {
+                if (edge.to != toRemove) ((VertexImpl) edge.to).incoming.remove(edge);
             }
+            toRemove.incoming.clear();
+        } else {
+            for (VertexImpl vertex : this.vertexes) {
+                if (vertex != null) vertex.disconnect(toRemove);
+            }
+        }
+        toRemove.edges.clear();
+        modCount++;
+        if (storage == Storage.ARRAY) {
+            if (vertexes.get(toRemove.id) != toRemove) return; // already removed
+            vertexes.set(toRemove.id, null);
+            vertexCount--;
+        } else if (vertexes.remove(toRemove)) {
+            vertexCount--;
+        }
+    }
+
+    /**
+     * In-degree represents the number of incoming edges to a vertex.
+     * @param vertex Vertex to get in-degree from.
+     * @return The in-degree
+     */
+    public int inDegree(final Vertex vertex) {
+        checkMembership(vertex);
+        final VertexImpl v = (VertexImpl) vertex;
+        if (trackIncoming) return v.incoming.size();
+        int count = 0;
+        for (Edge ignored : v.getIncomingEdges()) {
+            count++;
         }
-        vertexes.remove(toRemove);
+        return count;
     }
 
     @Override
@@ -195,14 +589,17 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
 
     @Override
     public int getVertexCount() {
-        return this.vertexes.size();
+        return this.vertexCount;
     }
 
-    protected class VertexImpl implements Vertex, Comparator<VertexImpl> {
+    protected class VertexImpl implements IndexedVertex, Comparator<VertexImpl> {
 
         /** Graph this vertex belongs to. */
         protected final UnweightedGraph graph;
 
+        /** Id of this vertex within {@link #graph}. */
+        protected final int id;
+
         /** Value of this vertex. */
         protected V value;
 
@@ -214,15 +611,20 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
         protected byte marked = 0;
 
         /** Edges outgoing form this vertex. */
-        protected LinkedList<UnweightedEdge> edges = new LinkedList<>();
+        protected List<UnweightedEdge> edges = newList();
+
+        /** Edges incoming to this vertex. Null, if the graph doesn't track incoming edges. */
+        protected List<UnweightedEdge> incoming = trackIncoming ? newList() : null;
 
         /**
          * @param value Field value.
          * @param graph Field value.
+         * @param id Field value.
          */
-        protected VertexImpl(V value, UnweightedGraph graph) {
+        protected VertexImpl(V value, UnweightedGraph graph, int id) {
             this.value = value;
             this.graph = graph;
+            this.id = id;
         }
 
         /**
@@ -231,7 +633,21 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
          */
         protected void connect(UnweightedEdge edge) {
             assert edge.from == this;
-            this.edges.addLast(edge);
+            this.edges.add(edge);
+            if (trackIncoming) ((VertexImpl) edge.to).incoming.add(edge);
+            modCount++;
+        }
+
+        /**
+         * Remove an edge starting at this vertex.
+         * @param edge Edge pointing from this vertex to a vertex of this graph.
+         */
+        protected void disconnect(UnweightedEdge edge) {
+            assert edge.from == this;
+            if (this.edges.removeIf(e -> e == edge)) {
+                if (trackIncoming) ((VertexImpl) edge.to).incoming.removeIf(e -> e == edge);
+                modCount++;
+            }
         }
 
         /**
@@ -240,7 +656,10 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
          * @return True, if something got deleted. False, otherwise.
          */
         protected boolean disconnect(VertexImpl vertex) {
-            return edges.removeIf(e -> e.to == vertex);
+            if (trackIncoming) vertex.incoming.removeIf(e -> e.from == this);
+            if (!edges.removeIf(e -> e.to == vertex)) return false;
+            modCount++;
+            return true;
         }
 
         @Override
@@ -248,6 +667,11 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
             return this.value.hashCode();
         }
 
+        @Override
+        public int index() {
+            return this.id;
+        }
+
         @Override
         public int compare(VertexImpl v1, VertexImpl v2) {
             return v2.edges.size() - v1.edges.size();
@@ -286,6 +710,13 @@ public class UnweightedGraph<V, E> implements Graph<V, E> {
             return edges;
         }
 
+        @Override
+        public Iterable<? extends Edge> getIncomingEdges() {
+            if (incoming != null) return incoming;
+            // Not tracked, search all edges.
+            return vertexes.stream().filter(Objects::nonNull).flatMap(v -> v.edges.stream()).filter(e -> e.to == this).collect(Collectors.toList());
+        }
+
     }
 
 }
@@ -11,6 +11,15 @@ public interface Vertex {
      */
     Iterable<? extends Edge> getEdges();
 
+    /**
+     * Graphs knowing the incoming edges of their vertexes override this, all graphs of this package do.
+     * @return All edges pointing to this vertex.
+     * @throws UnsupportedOperationException By default, if the vertex doesn't know its incoming edges.
+     */
+    default Iterable<? extends Edge> getIncomingEdges() {
+        throw new UnsupportedOperationException("Incoming edges are not supported by " + getClass().getName());
+    }
+
     /**
      * @return True, if vertex has been marked. False, otherwise.
      */
@@ -0,0 +1,58 @@
+package com.hambbe.graph;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts vertex values from and to bytes for {@link GraphFile}.
+ *
+ * @param <V> Type of value in vertex.
+ */
+public interface VertexCodec<V> {
+
+    /** Strings as UTF-8 bytes. */
+    VertexCodec<String> STRING = new VertexCodec<String>() {
+        @Override
+        public void encode(final String value, final DataOutput out) throws IOException {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(final ByteBuffer bytes) {
+            final byte[] result = new byte[bytes.remaining()];
+            bytes.get(result);
+            return new String(result, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Integers as 4 bytes. */
+    VertexCodec<Integer> INTEGER = new VertexCodec<Integer>() {
+        @Override
+        public void encode(final Integer value, final DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer decode(final ByteBuffer bytes) {
+            return bytes.getInt();
+        }
+    };
+
+    /**
+     * Write the bytes of a value.
+     * @param value Value to write. Never null, null values are stored by {@link GraphFile} itself.
+     * @param out Output to write to.
+     * @throws IOException If writing fails.
+     */
+    void encode(V value, DataOutput out) throws IOException;
+
+    /**
+     * Read a value.
+     * @param bytes Exactly the bytes written by {@link #encode(Object, DataOutput)}, in big endian order.
+     * @return Value.
+     */
+    V decode(ByteBuffer bytes);
+
+}
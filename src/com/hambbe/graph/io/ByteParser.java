@@ -0,0 +1,305 @@
+package com.hambbe.graph.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers from a text channel byte by byte.
+ *
+ * The channel is read into one fixed buffer, so memory stays bounded whatever the size of the input.
+ * Numbers are parsed directly from the bytes without creating strings. Fields are separated by blanks
+ * (space, tab and carriage return) and optionally by one separator character.
+ */
+final class ByteParser {
+
+    /** Size of the read buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Powers of ten which are exact doubles. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Channel to read from. */
+    private final ReadableByteChannel in;
+
+    /** Read buffer, backed by {@link #bytes}. */
+    private final ByteBuffer buffer;
+
+    /** Content of the buffer. */
+    private final byte[] bytes;
+
+    /** Separator between fields besides blanks. */
+    private final byte separator;
+
+    /** Position of the next byte in {@link #bytes}. */
+    private int position = 0;
+
+    /** End of the valid bytes in {@link #bytes}. */
+    private int limit = 0;
+
+    /** True, if the channel is exhausted. */
+    private boolean eof = false;
+
+    /** Number of the current line, starting at 1. */
+    private long line = 1;
+
+    /** Text of the current number, reused for the numbers {@link #parseDouble()} can't calculate itself. */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * @param in Field value.
+     * @param separator Field value. Use a blank, if fields are only separated by blanks.
+     */
+    ByteParser(final ReadableByteChannel in, final char separator) {
+        if (in == null) throw new IllegalArgumentException("in can't be null");
+        this.in = in;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+        this.separator = (byte) separator;
+    }
+
+    /**
+     * @return Next byte without consuming it. -1 at the end of the input.
+     * @throws IOException If reading fails.
+     */
+    int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return bytes[position];
+    }
+
+    /**
+     * Read the next chunk of the channel into the buffer.
+     * @return False at the end of the input.
+     * @throws IOException If reading fails.
+     */
+    private boolean fill() throws IOException {
+        while (!eof) {
+            buffer.clear();
+            final int read = in.read(buffer);
+            if (read < 0) {
+                eof = true;
+            } else if (read > 0) {
+                position = 0;
+                limit = read;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of the current line, for error messages.
+     */
+    long line() {
+        return line;
+    }
+
+    /**
+     * @return True at the end of the input.
+     * @throws IOException If reading fails.
+     */
+    boolean atEnd() throws IOException {
+        return peek() < 0;
+    }
+
+    /**
+     * Skip blanks and at most one separator.
+     * @return True, if there is another field on this line.
+     * @throws IOException If reading fails.
+     */
+    boolean nextField() throws IOException {
+        skipBlanks();
+        if (peek() == separator) {
+            position++;
+            skipBlanks();
+        }
+        final int next = peek();
+        return next >= 0 && next != '\n';
+    }
+
+    /**
+     * Skip spaces, tabs and carriage returns.
+     * @throws IOException If reading fails.
+     */
+    private void skipBlanks() throws IOException {
+        for (int next = peek(); next == ' ' || next == '\t' || next == '\r'; next = peek()) {
+            position++;
+        }
+    }
+
+    /**
+     * Skip the rest of the current line including the line break.
+     * @throws IOException If reading fails.
+     */
+    void skipLine() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) return;
+            for (int i = position; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    position = i + 1;
+                    line++;
+                    return;
+                }
+            }
+            position = limit;
+        }
+    }
+
+    /**
+     * Check that the current line has no more fields and skip its line break.
+     * @throws IOException If there are more fields or reading fails.
+     */
+    void endLine() throws IOException {
+        if (nextField()) throw error("Unexpected content");
+        skipLine();
+    }
+
+    /**
+     * Parse a field as int.
+     * @return Value of the field.
+     * @throws IOException If the field is no int or reading fails.
+     */
+    int parseInt() throws IOException {
+        final long value = parseLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw error("Number out of int range");
+        return (int) value;
+    }
+
+    /**
+     * Parse a field as long.
+     * @return Value of the field.
+     * @throws IOException If the field is no long or reading fails.
+     */
+    long parseLong() throws IOException {
+        skipBlanks();
+        final boolean negative = consume('-');
+        if (!negative) consume('+');
+        long value = 0;
+        int digits = 0;
+        for (int next = peek(); next >= '0' && next <= '9'; next = peek()) {
+            if (value > (Long.MAX_VALUE - 9) / 10) throw error("Number too big");
+            value = value * 10 + (next - '0');
+            digits++;
+            position++;
+        }
+        if (digits == 0) throw error("Number expected");
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a field as double. Decimals with a mantissa of up to 53 bits and small exponents are calculated from the
+     * bytes, all other numbers are handed to {@link Double#parseDouble(String)}. <tt>NaN</tt> and <tt>Infinity</tt>
+     * are read as written by {@link Double#toString(double)}.
+     * @return Value of the field.
+     * @throws IOException If the field is no number or reading fails.
+     */
+    double parseDouble() throws IOException {
+        skipBlanks();
+        text.setLength(0);
+        final boolean negative = consume('-');
+        if (!negative) consume('+');
+        if (peek() == 'N' || peek() == 'I') {
+            final String word = parseWord();
+            if (word.equals("NaN")) return Double.NaN;
+            if (word.equals("Infinity")) return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            throw error("Number expected");
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int significant = 0;
+        boolean truncated = false;
+        boolean fraction = false;
+        for (int next = peek(); (next >= '0' && next <= '9') || (next == '.' && !fraction); next = peek()) {
+            text.append((char) next);
+            position++;
+            if (next == '.') {
+                fraction = true;
+            } else if (significant < 18) {
+                mantissa = mantissa * 10 + (next - '0');
+                if (mantissa > 0) significant++;
+                if (fraction) exponent--;
+            } else {
+                truncated = true;
+            }
+        }
+        if (text.length() == (fraction ? 1 : 0)) throw error("Number expected");
+        final int next = peek();
+        if (next == 'e' || next == 'E') {
+            position++;
+            final long power = parseLong();
+            text.append('e').append(power);
+            exponent = (int) Math.max(-1000, Math.min(1000, exponent + power));
+        }
+        final double value;
+        if (mantissa == 0 && !truncated) {
+            value = 0.0;
+        } else if (truncated || mantissa > (1L << 53) || Math.abs(exponent) >= POWERS_OF_TEN.length) {
+            value = Double.parseDouble(text.toString());
+        } else if (exponent >= 0) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a field of a single byte, for line types, without creating a string.
+     * @return The byte. -1, if the field is empty or longer.
+     * @throws IOException If reading fails.
+     */
+    int parseType() throws IOException {
+        skipBlanks();
+        final int type = peek();
+        if (type <= ' ' || type == separator) return -1;
+        position++;
+        final int next = peek();
+        return (next > ' ' && next != separator) ? -1 : type;
+    }
+
+    /**
+     * Parse a field as word, for keywords.
+     * @return Bytes up to the next blank, separator or line break as ASCII string.
+     * @throws IOException If reading fails.
+     */
+    String parseWord() throws IOException {
+        skipBlanks();
+        final StringBuilder word = new StringBuilder();
+        for (int next = peek(); next > ' ' && next != separator; next = peek()) {
+            word.append((char) next);
+            position++;
+        }
+        return word.toString();
+    }
+
+    /**
+     * Consume the next byte, if it is expected.
+     * @param expected Byte to look for.
+     * @return True, if the byte was consumed.
+     * @throws IOException If reading fails.
+     */
+    private boolean consume(final char expected) throws IOException {
+        if (peek() != expected) return false;
+        position++;
+        return true;
+    }
+
+    /**
+     * @param message Description of the problem.
+     * @return Exception pointing to the current line.
+     */
+    IOException error(final String message) {
+        String context = "";
+        if (position < limit) {
+            int end = position;
+            while (end < limit && end - position < 20 && bytes[end] != '\n' && bytes[end] != '\r') end++;
+            context = ": '" + new String(bytes, position, end - position, StandardCharsets.US_ASCII) + "'";
+        }
+        return new IOException("Line " + line + ": " + message + context);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.hambbe.graph.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes text to a channel through one fixed buffer. Integers are formatted directly into the buffer.
+ */
+final class ByteWriter {
+
+    /** Size of the write buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Channel to write to. */
+    private final WritableByteChannel out;
+
+    /** Write buffer, backed by {@link #bytes}. */
+    private final ByteBuffer buffer;
+
+    /** Content of the buffer. */
+    private final byte[] bytes;
+
+    /** Digits of the number being formatted. */
+    private final byte[] digits = new byte[20];
+
+    /** Position of the next byte in {@link #bytes}. */
+    private int position = 0;
+
+    /**
+     * @param out Field value.
+     */
+    ByteWriter(final WritableByteChannel out) {
+        if (out == null) throw new IllegalArgumentException("out can't be null");
+        this.out = out;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * @param c ASCII character to write.
+     * @return This writer.
+     * @throws IOException If writing fails.
+     */
+    ByteWriter write(final char c) throws IOException {
+        if (position == bytes.length) flush();
+        bytes[position++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * @param text ASCII text to write.
+     * @return This writer.
+     * @throws IOException If writing fails.
+     */
+    ByteWriter write(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            write(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * @param value Number to write.
+     * @return This writer.
+     * @throws IOException If writing fails.
+     */
+    ByteWriter write(final long value) throws IOException {
+        if (value == Long.MIN_VALUE) return write(Long.toString(value));
+        if (bytes.length - position < digits.length + 1) flush();
+        if (value < 0) bytes[position++] = '-';
+        long rest = Math.abs(value);
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest > 0);
+        while (count > 0) {
+            bytes[position++] = digits[--count];
+        }
+        return this;
+    }
+
+    /**
+     * @param value Number to write. Integral values are written without fraction.
+     * @return This writer.
+     * @throws IOException If writing fails.
+     */
+    ByteWriter write(final double value) throws IOException {
+        if (value == (long) value && !(value == 0 && 1 / value < 0)) return write((long) value);
+        return write(Double.toString(value));
+    }
+
+    /**
+     * Write the content of the buffer to the channel.
+     * @throws IOException If writing fails.
+     */
+    void flush() throws IOException {
+        buffer.position(0).limit(position);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+        position = 0;
+    }
+
+}
@@ -0,0 +1,421 @@
+package com.hambbe.graph.io;
+
+import com.hambbe.graph.DoubleGraph;
+import com.hambbe.graph.IntGraph;
+import com.hambbe.graph.UnweightedGraph;
+import com.hambbe.graph.Vertex;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Streaming readers for directed graphs in text formats.
+ * <ul>
+ * <li>DIMACS shortest path format (<tt>.gr</tt>): comment lines <tt>c ...</tt>, one problem line <tt>p sp n m</tt>,
+ * then arc lines <tt>a from to weight</tt> with vertex ids <tt>1 .. n</tt> and int weights.
+ * <li>Edge lists as published by SNAP: comment lines starting with <tt>#</tt> or <tt>%</tt>, then one edge per line
+ * <tt>from to [weight]</tt> separated by blanks. Weights are ints, 1 if missing.
+ * <li>CSV: one edge per line <tt>from,to[,weight]</tt> with an optional header line. Weights are doubles, 1 if missing,
+ * and are read into a {@link DoubleGraph}.
+ * </ul>
+ * Vertex ids are longs and become the values of the vertexes. For edge lists and CSV the vertexes are created
+ * in the order their ids appear first, the ids don't have to be dense.
+ *
+ * The input is parsed from a fixed buffer without creating strings per line, edges are added in batches with
+ * the bulk connect of the graph. Besides the graph itself only the batch and, for sparse ids, a primitive map
+ * from id to vertex are kept, so files of several GB can be read.
+ */
+public final class GraphReader {
+
+    /** Minimal number of edges connected at once. */
+    private static final int BATCH_SIZE = 1 << 16;
+
+    /**
+     * Only static methods.
+     */
+    private GraphReader() {
+    }
+
+    /**
+     * Read a DIMACS file into a new graph with array storage.
+     * @param file File to read.
+     * @return New graph.
+     * @throws IOException If reading fails or the file is malformed.
+     */
+    public static IntGraph<Long> readDimacs(final Path file) throws IOException {
+        final IntGraph<Long> graph = new IntGraph<>(true, UnweightedGraph.Storage.ARRAY);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            readDimacs(in, graph);
+        }
+        return graph;
+    }
+
+    /**
+     * Read DIMACS into a graph. The graph gets one new vertex per vertex of the input.
+     * @param in Input to read. Not closed.
+     * @param graph Graph to add vertexes and edges to.
+     * @throws IOException If reading fails or the input is malformed.
+     */
+    public static void readDimacs(final ReadableByteChannel in, final IntGraph<Long> graph) throws IOException {
+        final ByteParser parser = new ByteParser(in, ' ');
+        final IntBatch batch = new IntBatch(graph, false);
+        boolean problem = false;
+        while (!parser.atEnd()) {
+            if (!parser.nextField()) {
+                parser.skipLine();
+                continue;
+            }
+            final int type = parser.parseType();
+            if (type == 'c') {
+                parser.skipLine();
+            } else if (type == 'p') {
+                if (problem) throw parser.error("Second problem line");
+                if (!parser.parseWord().equals("sp")) throw parser.error("Problem type sp expected");
+                final long n = parser.parseLong();
+                parser.parseLong();
+                if (n < 0 || n > Integer.MAX_VALUE - 8) throw parser.error("Invalid vertex count");
+                batch.addVertexes((int) n);
+                parser.endLine();
+                problem = true;
+            } else if (type == 'a') {
+                if (!problem) throw parser.error("Problem line expected before arcs");
+                final int from = batch.dense(parser, parser.parseLong() - 1);
+                final int to = batch.dense(parser, parser.parseLong() - 1);
+                batch.add(from, to, parser.parseInt());
+                parser.endLine();
+            } else {
+                throw parser.error("Unknown line type");
+            }
+        }
+        batch.flush();
+    }
+
+    /**
+     * Read an edge list into a new graph with array storage.
+     * @param file File to read.
+     * @return New graph.
+     * @throws IOException If reading fails or the file is malformed.
+     */
+    public static IntGraph<Long> readEdgeList(final Path file) throws IOException {
+        final IntGraph<Long> graph = new IntGraph<>(true, UnweightedGraph.Storage.ARRAY);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            readEdgeList(in, graph);
+        }
+        return graph;
+    }
+
+    /**
+     * Read an edge list into a graph. The graph gets one new vertex per id of the input.
+     * @param in Input to read. Not closed.
+     * @param graph Graph to add vertexes and edges to.
+     * @throws IOException If reading fails or the input is malformed.
+     */
+    public static void readEdgeList(final ReadableByteChannel in, final IntGraph<Long> graph) throws IOException {
+        final ByteParser parser = new ByteParser(in, ' ');
+        final IntBatch batch = new IntBatch(graph, true);
+        while (!parser.atEnd()) {
+            if (!parser.nextField() || parser.peek() == '#' || parser.peek() == '%') {
+                parser.skipLine();
+                continue;
+            }
+            final int from = batch.sparse(parser.parseLong());
+            if (!parser.nextField()) throw parser.error("Target vertex expected");
+            final int to = batch.sparse(parser.parseLong());
+            batch.add(from, to, parser.nextField() ? parser.parseInt() : 1);
+            parser.endLine();
+        }
+        batch.flush();
+    }
+
+    /**
+     * Read a CSV file into a new graph with array storage.
+     * @param file File to read.
+     * @return New graph.
+     * @throws IOException If reading fails or the file is malformed.
+     */
+    public static DoubleGraph<Long> readCsv(final Path file) throws IOException {
+        final DoubleGraph<Long> graph = new DoubleGraph<>(true, UnweightedGraph.Storage.ARRAY);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            readCsv(in, graph);
+        }
+        return graph;
+    }
+
+    /**
+     * Read CSV into a graph. The graph gets one new vertex per id of the input.
+     * @param in Input to read. Not closed.
+     * @param graph Graph to add vertexes and edges to.
+     * @throws IOException If reading fails or the input is malformed.
+     */
+    public static void readCsv(final ReadableByteChannel in, final DoubleGraph<Long> graph) throws IOException {
+        final ByteParser parser = new ByteParser(in, ',');
+        final DoubleBatch batch = new DoubleBatch(graph);
+        boolean first = true;
+        while (!parser.atEnd()) {
+            if (!parser.nextField()) {
+                parser.skipLine();
+                continue;
+            }
+            final int next = parser.peek();
+            if (first && next != '-' && next != '+' && (next < '0' || next > '9')) {
+                // Header line.
+                first = false;
+                parser.skipLine();
+                continue;
+            }
+            first = false;
+            final int from = batch.sparse(parser.parseLong());
+            if (!parser.nextField()) throw parser.error("Target vertex expected");
+            final int to = batch.sparse(parser.parseLong());
+            batch.add(from, to, parser.nextField() ? parser.parseDouble() : 1.0);
+            parser.endLine();
+        }
+        batch.flush();
+    }
+
+    /**
+     * Edges waiting to be connected together with the vertexes they refer to by position.
+     */
+    private abstract static class Batch {
+
+        /** Graph to fill. */
+        private final UnweightedGraph<Long, ?> graph;
+
+        /** Position by vertex id. Null, if the ids are dense. */
+        private final LongIntMap ids;
+
+        /** Vertexes by position. Only the first {@link #added} are part of the graph yet. */
+        private Vertex[] vertexes = new Vertex[16];
+
+        /** Number of vertexes in the graph. */
+        private int added = 0;
+
+        /** Ids of the vertexes to add before the next connect. */
+        private long[] pending = new long[16];
+
+        /** Number of pending ids. */
+        private int pendingCount = 0;
+
+        /** Source position of each edge. */
+        protected int[] from = new int[BATCH_SIZE];
+
+        /** Target position of each edge. */
+        protected int[] to = new int[BATCH_SIZE];
+
+        /** Number of edges. */
+        protected int size = 0;
+
+        /**
+         * @param graph Field value.
+         * @param sparse True, if ids are mapped to positions by a map.
+         */
+        protected Batch(final UnweightedGraph<Long, ?> graph, final boolean sparse) {
+            if (graph == null) throw new IllegalArgumentException("graph can't be null");
+            this.graph = graph;
+            this.ids = sparse ? new LongIntMap() : null;
+        }
+
+        /**
+         * Add the vertexes <tt>1 .. n</tt> for dense ids.
+         * @param n Number of vertexes.
+         */
+        void addVertexes(final int n) {
+            if (n > pending.length) pending = new long[n];
+            for (int i = 0; i < n; i++) {
+                pending[i] = i + 1;
+            }
+            pendingCount = n;
+            addPending();
+        }
+
+        /**
+         * @param parser Parser for the error message.
+         * @param position Position of a vertex added by {@link #addVertexes(int)}.
+         * @return Position.
+         * @throws IOException If there is no vertex at position.
+         */
+        int dense(final ByteParser parser, final long position) throws IOException {
+            if (position < 0 || position >= added) throw parser.error("Vertex id out of range");
+            return (int) position;
+        }
+
+        /**
+         * @param id Vertex id.
+         * @return Position of the vertex, new vertexes get the next free position.
+         */
+        int sparse(final long id) {
+            int position = ids.get(id);
+            if (position == LongIntMap.MISSING) {
+                position = added + pendingCount;
+                ids.put(id, position);
+                if (pendingCount == pending.length) pending = Arrays.copyOf(pending, pendingCount * 2);
+                pending[pendingCount++] = id;
+            }
+            return position;
+        }
+
+        /**
+         * Add the pending vertexes to the graph.
+         */
+        private void addPending() {
+            if (pendingCount == 0) return;
+            // The ids are only boxed as the values of the new vertexes.
+            final long[] values = pending;
+            final int count = pendingCount;
+            final Vertex[] created = graph.addVertexes(new AbstractList<Long>() {
+                @Override
+                public Long get(final int index) {
+                    return values[index];
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            });
+            if (added + created.length > vertexes.length) {
+                vertexes = Arrays.copyOf(vertexes, Math.max(added + created.length, vertexes.length * 2));
+            }
+            System.arraycopy(created, 0, vertexes, added, created.length);
+            added += created.length;
+            pendingCount = 0;
+        }
+
+        /**
+         * Make room for one more edge. The batch grows up to the number of vertexes, because every connect
+         * costs time linear in the number of vertexes, and is connected when it is full.
+         */
+        protected void reserve() {
+            if (size < from.length) return;
+            final int vertexCount = added + pendingCount;
+            if (from.length < vertexCount) {
+                final int capacity = Math.min(vertexCount, from.length * 2);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                grow(capacity);
+            } else {
+                flush();
+            }
+        }
+
+        /**
+         * Connect all edges of the batch and empty it.
+         */
+        void flush() {
+            addPending();
+            if (size == 0) return;
+            final Vertex[] all = Arrays.copyOf(vertexes, added);
+            if (size == from.length) {
+                connect(all, from, to, size);
+            } else {
+                connect(all, Arrays.copyOf(from, size), Arrays.copyOf(to, size), size);
+            }
+            size = 0;
+        }
+
+        /**
+         * Grow the weights.
+         * @param capacity New capacity.
+         */
+        protected abstract void grow(int capacity);
+
+        /**
+         * @param vertexes All vertexes by position.
+         * @param from Source position of each edge, exactly size elements.
+         * @param to Target position of each edge, exactly size elements.
+         * @param size Number of edges.
+         */
+        protected abstract void connect(Vertex[] vertexes, int[] from, int[] to, int size);
+    }
+
+    /**
+     * Batch for an {@link IntGraph}.
+     */
+    private static final class IntBatch extends Batch {
+
+        /** Graph to fill. */
+        private final IntGraph<Long> graph;
+
+        /** Weight of each edge. */
+        private int[] weights = new int[BATCH_SIZE];
+
+        /**
+         * @param graph Field value.
+         * @param sparse True, if ids are mapped to positions by a map.
+         */
+        private IntBatch(final IntGraph<Long> graph, final boolean sparse) {
+            super(graph, sparse);
+            this.graph = graph;
+        }
+
+        /**
+         * @param from Source position.
+         * @param to Target position.
+         * @param weight Weight of the edge.
+         */
+        void add(final int from, final int to, final int weight) {
+            reserve();
+            this.from[size] = from;
+            this.to[size] = to;
+            this.weights[size++] = weight;
+        }
+
+        @Override
+        protected void grow(final int capacity) {
+            weights = Arrays.copyOf(weights, capacity);
+        }
+
+        @Override
+        protected void connect(final Vertex[] vertexes, final int[] from, final int[] to, final int size) {
+            graph.connectAll(vertexes, from, to, (size == weights.length) ? weights : Arrays.copyOf(weights, size));
+        }
+    }
+
+    /**
+     * Batch for a {@link DoubleGraph}.
+     */
+    private static final class DoubleBatch extends Batch {
+
+        /** Graph to fill. */
+        private final DoubleGraph<Long> graph;
+
+        /** Weight of each edge. */
+        private double[] weights = new double[BATCH_SIZE];
+
+        /**
+         * @param graph Field value.
+         */
+        private DoubleBatch(final DoubleGraph<Long> graph) {
+            super(graph, true);
+            this.graph = graph;
+        }
+
+        /**
+         * @param from Source position.
+         * @param to Target position.
+         * @param weight Weight of the edge.
+         */
+        void add(final int from, final int to, final double weight) {
+            reserve();
+            this.from[size] = from;
+            this.to[size] = to;
+            this.weights[size++] = weight;
+        }
+
+        @Override
+        protected void grow(final int capacity) {
+            weights = Arrays.copyOf(weights, capacity);
+        }
+
+        @Override
+        protected void connect(final Vertex[] vertexes, final int[] from, final int[] to, final int size) {
+            graph.connectAll(vertexes, from, to, (size == weights.length) ? weights : Arrays.copyOf(weights, size));
+        }
+    }
+
+}
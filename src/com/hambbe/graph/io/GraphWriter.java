@@ -0,0 +1,185 @@
+package com.hambbe.graph.io;
+
+import com.hambbe.graph.Edge;
+import com.hambbe.graph.Graph;
+import com.hambbe.graph.Vertex;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Streaming writers for the text formats of {@link GraphReader}.
+ *
+ * Edges are written vertex by vertex in the iteration order of the graph. Vertexes are written either as their
+ * position in {@link Graph#getVertexes()} or as an id taken from their value, so a graph read by {@link GraphReader}
+ * is written with its original ids by passing <tt>Long::longValue</tt>. Only integral weights are written as
+ * integers without creating strings.
+ */
+public final class GraphWriter {
+
+    /**
+     * Only static methods.
+     */
+    private GraphWriter() {
+    }
+
+    /**
+     * Write a graph in DIMACS shortest path format. Vertex <tt>i</tt> in iteration order gets the id <tt>i + 1</tt>.
+     * @param graph Graph to write, all weights must be integral and in int range.
+     * @param file File to create or overwrite.
+     * @throws IOException If writing fails.
+     */
+    public static void writeDimacs(final Graph<?, ?> graph, final Path file) throws IOException {
+        try (FileChannel out = open(file)) {
+            writeDimacs(graph, out);
+        }
+    }
+
+    /**
+     * Write a graph in DIMACS shortest path format. Vertex <tt>i</tt> in iteration order gets the id <tt>i + 1</tt>.
+     * @param graph Graph to write, all weights must be integral and in int range.
+     * @param out Output to write to. Not closed.
+     * @throws IOException If writing fails.
+     */
+    public static void writeDimacs(final Graph<?, ?> graph, final WritableByteChannel out) throws IOException {
+        final HashMap<Vertex, Integer> positions = positions(graph);
+        long edgeCount = 0;
+        for (Vertex vertex : graph.getVertexes()) {
+            edgeCount += graph.degree(vertex);
+        }
+        final ByteWriter writer = new ByteWriter(out);
+        writer.write("p sp ").write(graph.getVertexCount()).write(' ').write(edgeCount).write('\n');
+        for (Vertex vertex : graph.getVertexes()) {
+            final long from = positions.get(vertex) + 1;
+            for (Edge edge : vertex.getEdges()) {
+                writer.write("a ").write(from).write(' ').write(positions.get(edge.getTo()) + 1L).write(' ');
+                writer.write(integral(edge)).write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write a graph as edge list, one edge per line with tab separated fields.
+     * @param graph Graph to write.
+     * @param file File to create or overwrite.
+     * @param ids Id of each vertex by its value. Null, to use the positions of the vertexes.
+     * @param weights True, to write the weights as third field. All weights must be integral and in int range then.
+     * @param <V> Type of value in vertex.
+     * @throws IOException If writing fails.
+     */
+    public static <V> void writeEdgeList(final Graph<V, ?> graph, final Path file, final ToLongFunction<? super V> ids, final boolean weights) throws IOException {
+        try (FileChannel out = open(file)) {
+            writeEdgeList(graph, out, ids, weights);
+        }
+    }
+
+    /**
+     * Write a graph as edge list, one edge per line with tab separated fields.
+     * @param graph Graph to write.
+     * @param out Output to write to. Not closed.
+     * @param ids Id of each vertex by its value. Null, to use the positions of the vertexes.
+     * @param weights True, to write the weights as third field. All weights must be integral and in int range then.
+     * @param <V> Type of value in vertex.
+     * @throws IOException If writing fails.
+     */
+    public static <V> void writeEdgeList(final Graph<V, ?> graph, final WritableByteChannel out, final ToLongFunction<? super V> ids, final boolean weights) throws IOException {
+        final HashMap<Vertex, Integer> positions = (ids == null) ? positions(graph) : null;
+        final ByteWriter writer = new ByteWriter(out);
+        for (Vertex vertex : graph.getVertexes()) {
+            final long from = id(graph, vertex, ids, positions);
+            for (Edge edge : vertex.getEdges()) {
+                writer.write(from).write('\t').write(id(graph, edge.getTo(), ids, positions));
+                if (weights) writer.write('\t').write(integral(edge));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write a graph as CSV with the header <tt>from,to,weight</tt>.
+     * @param graph Graph to write.
+     * @param file File to create or overwrite.
+     * @param ids Id of each vertex by its value. Null, to use the positions of the vertexes.
+     * @param <V> Type of value in vertex.
+     * @throws IOException If writing fails.
+     */
+    public static <V> void writeCsv(final Graph<V, ?> graph, final Path file, final ToLongFunction<? super V> ids) throws IOException {
+        try (FileChannel out = open(file)) {
+            writeCsv(graph, out, ids);
+        }
+    }
+
+    /**
+     * Write a graph as CSV with the header <tt>from,to,weight</tt>.
+     * @param graph Graph to write.
+     * @param out Output to write to. Not closed.
+     * @param ids Id of each vertex by its value. Null, to use the positions of the vertexes.
+     * @param <V> Type of value in vertex.
+     * @throws IOException If writing fails.
+     */
+    public static <V> void writeCsv(final Graph<V, ?> graph, final WritableByteChannel out, final ToLongFunction<? super V> ids) throws IOException {
+        final HashMap<Vertex, Integer> positions = (ids == null) ? positions(graph) : null;
+        final ByteWriter writer = new ByteWriter(out);
+        writer.write("from,to,weight\n");
+        for (Vertex vertex : graph.getVertexes()) {
+            final long from = id(graph, vertex, ids, positions);
+            for (Edge edge : vertex.getEdges()) {
+                writer.write(from).write(',').write(id(graph, edge.getTo(), ids, positions)).write(',');
+                writer.write(edge.getWeight()).write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * @param file File to open.
+     * @return Channel writing the file from the start.
+     * @throws IOException If opening fails.
+     */
+    private static FileChannel open(final Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * @param graph Graph to number.
+     * @return Position of each vertex in iteration order.
+     */
+    private static HashMap<Vertex, Integer> positions(final Graph<?, ?> graph) {
+        final HashMap<Vertex, Integer> positions = new HashMap<>(graph.getVertexCount() * 2);
+        for (Vertex vertex : graph.getVertexes()) {
+            positions.put(vertex, positions.size());
+        }
+        return positions;
+    }
+
+    /**
+     * @param graph Graph of vertex.
+     * @param vertex Vertex to identify.
+     * @param ids Id of each vertex by its value. Null, to use positions.
+     * @param positions Positions of the vertexes, if ids is null.
+     * @param <V> Type of value in vertex.
+     * @return Id of vertex.
+     */
+    private static <V> long id(final Graph<V, ?> graph, final Vertex vertex, final ToLongFunction<? super V> ids, final HashMap<Vertex, Integer> positions) {
+        return (ids == null) ? positions.get(vertex) : ids.applyAsLong(graph.getValue(vertex));
+    }
+
+    /**
+     * @param edge Edge with integral weight in int range, as {@link GraphReader} reads it.
+     * @return Weight of edge.
+     */
+    private static int integral(final Edge edge) {
+        final double weight = edge.getWeight();
+        if (weight != Math.rint(weight) || Double.isInfinite(weight)) throw new IllegalArgumentException("Weight " + weight + " is not integral");
+        if (weight < Integer.MIN_VALUE || weight > Integer.MAX_VALUE) throw new IllegalArgumentException("Weight " + weight + " is out of int range");
+        return (int) weight;
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.hambbe.graph.io;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to non negative int values with open addressing, so lookups allocate nothing.
+ * Used to give the vertex ids of a file positions.
+ */
+final class LongIntMap {
+
+    /** Returned by {@link #get(long)} for missing keys. */
+    static final int MISSING = -1;
+
+    /** Keys by slot. */
+    private long[] keys;
+
+    /** Values by slot, {@link #MISSING} for empty slots. */
+    private int[] values;
+
+    /** Number of entries. */
+    private int size = 0;
+
+    /**
+     * Empty map.
+     */
+    LongIntMap() {
+        keys = new long[16];
+        values = new int[16];
+        Arrays.fill(values, MISSING);
+    }
+
+    /**
+     * @return Number of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key Key to look for.
+     * @return Value of key. {@link #MISSING}, if the key has no value.
+     */
+    int get(final long key) {
+        final int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != MISSING; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot];
+        }
+        return MISSING;
+    }
+
+    /**
+     * @param key Key to set.
+     * @param value New non negative value of key.
+     */
+    void put(final long key, final int value) {
+        if (value < 0) throw new IllegalArgumentException("value must not be negative");
+        if (2 * (size + 1) > keys.length) grow();
+        final int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != MISSING) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Double the number of slots.
+     */
+    private void grow() {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(values, MISSING);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != MISSING) put(oldKeys[slot], oldValues[slot]);
+        }
+    }
+
+    /**
+     * @param key Key to hash.
+     * @return Mixed bits of key, so ascending ids spread over the slots.
+     */
+    private static int hash(final long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -4,12 +4,18 @@ import com.hambbe.graph.data.TestData;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.StreamSupport;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test {@link UnweightedGraph} methods.
@@ -122,4 +128,196 @@ public class AbstractGraphTest {
         }
         assertEquals("Iterating twice over the same List with different outcome!", firstIteration, secondIteration);
     }
+
+    @Test
+    public void testIncomingEdges() {
+        IntGraph<String> graph = new IntGraph<>();
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, 1);
+        graph.connect(c, b, 1);
+        graph.connect(b, c, 1);
+
+        assertEquals(2, StreamSupport.stream(b.getIncomingEdges().spliterator(), false).count());
+        graph.disconnect(ab);
+        assertEquals(1, StreamSupport.stream(b.getIncomingEdges().spliterator(), false).count());
+        graph.removeVertex(c);
+        assertEquals(0, StreamSupport.stream(b.getIncomingEdges().spliterator(), false).count());
+        assertEquals(0, graph.degree(b));
+    }
+
+    @Test
+    public void testRemoveVertex() {
+        for (UnweightedGraph.Storage storage : UnweightedGraph.Storage.values()) {
+            for (boolean trackIncoming : new boolean[] { true, false }) {
+                IntGraph<String> graph = new IntGraph<>(trackIncoming, storage);
+                Vertex a = graph.addVertex("A");
+                Vertex b = graph.addVertex("B");
+                Vertex c = graph.addVertex("C");
+                graph.connect(a, b, 1);
+                graph.connect(b, c, 1);
+                graph.connect(c, a, 1);
+                graph.connect(b, b, 1);
+
+                assertEquals(2, graph.inDegree(b));
+                graph.removeVertex(b);
+                assertEquals(2, graph.getVertexCount());
+                assertEquals(0, graph.degree(a));
+                assertEquals(0, graph.inDegree(c));
+                assertEquals(1, graph.inDegree(a));
+                assertFalse(graph.getEdges().iterator().next().getTo() == b);
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveVertexWhileOthersPointToIt() {
+        // Used to fail with a ConcurrentModificationException, removing edges while iterating them.
+        for (UnweightedGraph.Storage storage : UnweightedGraph.Storage.values()) {
+            for (boolean trackIncoming : new boolean[] { true, false }) {
+                DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue, trackIncoming, false, storage);
+                Vertex a = graph.addVertex("A");
+                Vertex b = graph.addVertex("B");
+                Vertex c = graph.addVertex("C");
+                graph.connect(a, b, 1);
+                graph.connect(a, c, 2);
+                graph.connect(a, b, 3);
+                graph.connect(c, b, 4);
+                graph.connect(a, b, 5);
+
+                graph.removeVertex(b);
+                assertEquals(1, graph.degree(a));
+                assertEquals(0, graph.degree(c));
+                assertEquals(c, a.getEdges().iterator().next().getTo());
+            }
+        }
+    }
+
+    @Test
+    public void testArrayStorage() {
+        IntGraph<String> graph = new IntGraph<>(true, UnweightedGraph.Storage.ARRAY);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        graph.connect(a, b, 1);
+        graph.connect(a, c, 2);
+        graph.removeVertex(b);
+        graph.removeVertex(b);
+        assertEquals(2, graph.getVertexCount());
+        Vertex d = graph.addVertex("D");
+        graph.connect(c, d, 3);
+
+        StringBuilder values = new StringBuilder();
+        for (Vertex vertex : graph.getVertexes()) {
+            values.append(graph.getValue(vertex));
+        }
+        assertEquals("ACD", values.toString());
+        assertEquals(3, ((IndexedVertex) d).index());
+        assertEquals(2, ((IndexedVertex) c).index());
+        assertEquals(1, graph.degree(a));
+        assertEquals(5.0, Graphs.dijkstra(graph, a, d).get(1).getTotalCost(), 0.0);
+    }
+
+    @Test
+    public void testLiveViews() {
+        IntGraph<String> graph = TestData.ABCintGraph(3);
+        Iterable<? extends Vertex> vertexes = graph.getVertexes();
+        long vertexCount = StreamSupport.stream(vertexes.spliterator(), false).count();
+        assertEquals(graph.getVertexCount(), vertexCount);
+        assertEquals(vertexCount, graph.vertexStream().parallel().count());
+        long edgeCount = StreamSupport.stream(graph.getEdges().spliterator(), false).count();
+        assertEquals(edgeCount, graph.edgeStream().parallel().count());
+        assertEquals(edgeCount, graph.edgeSnapshot().size());
+
+        // Snapshots can be used while changing the graph.
+        for (Vertex vertex : graph.vertexSnapshot()) {
+            if (graph.getValue(vertex).length() == 3) graph.removeVertex(vertex);
+        }
+        // Views see the change.
+        assertEquals(graph.getVertexCount(), StreamSupport.stream(vertexes.spliterator(), false).count());
+
+        Iterator<? extends Vertex> iterator = vertexes.iterator();
+        iterator.next();
+        graph.addVertex("New");
+        try {
+            iterator.next();
+            fail("Expected: ConcurrentModificationException");
+        } catch (ConcurrentModificationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBulkLoad() {
+        final int n = 2000;
+        final int m = 50000;
+        final Random random = new Random(16);
+        final int[] from = new int[m];
+        final int[] to = new int[m];
+        final int[] weights = new int[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = random.nextInt(n);
+            weights[i] = random.nextInt(100);
+        }
+        final List<Integer> values = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            values.add(v);
+        }
+        for (UnweightedGraph.Storage storage : UnweightedGraph.Storage.values()) {
+            IntGraph<Integer> expected = new IntGraph<>(true, storage);
+            List<Vertex> expectedVertexes = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                expectedVertexes.add(expected.addVertex(v));
+            }
+            for (int i = 0; i < m; i++) {
+                expected.connect(expectedVertexes.get(from[i]), expectedVertexes.get(to[i]), weights[i]);
+            }
+
+            IntGraph<Integer> graph = new IntGraph<>(true, storage);
+            Vertex[] vertexes = graph.addVertexes(values);
+            graph.connectAll(vertexes, from, to, weights);
+            assertEquals(n, graph.getVertexCount());
+            for (int v = 0; v < n; v++) {
+                assertEquals(expected.degree(expectedVertexes.get(v)), graph.degree(vertexes[v]));
+                assertEquals(expected.inDegree(expectedVertexes.get(v)), graph.inDegree(vertexes[v]));
+                Iterator<? extends Edge> expectedEdges = expectedVertexes.get(v).getEdges().iterator();
+                for (Edge edge : vertexes[v].getEdges()) {
+                    Edge expectedEdge = expectedEdges.next();
+                    assertEquals(expected.getEdgeValue(expectedEdge), graph.getEdgeValue(edge));
+                    assertEquals(expected.getValue(expectedEdge.getTo()), graph.getValue(edge.getTo()));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkLoadOutOfRange() {
+        IntGraph<String> graph = new IntGraph<>();
+        Vertex[] vertexes = graph.addVertexes(Arrays.asList("A", "B"));
+        graph.connectAll(vertexes, new int[] { 0 }, new int[] { 2 }, new int[] { 1 });
+    }
+
+    @Test
+    public void testBulkLoadDuplicateVertex() {
+        IntGraph<String> graph = new IntGraph<>();
+        Vertex[] added = graph.addVertexes(Arrays.asList("A", "B"));
+        // The same vertex at two positions, in a batch big enough to be built in parallel.
+        Vertex[] vertexes = { added[0], added[1], added[0] };
+        final int m = 1 << 16;
+        final int[] from = new int[m];
+        final int[] to = new int[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = (i % 2 == 0) ? 0 : 2;
+            to[i] = 1;
+        }
+        try {
+            graph.connectAll(vertexes, from, to, new int[m]);
+            fail("Duplicate vertex accepted");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, graph.degree(added[0]));
+            assertEquals(0, graph.inDegree(added[1]));
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package com.hambbe.graph;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link CachingGraph}.
+ */
+public class CachingGraphTest {
+
+    private static double costs(List<Graphs.Link> route) {
+        if (route == null) return Double.POSITIVE_INFINITY;
+        return route.isEmpty() ? 0 : route.get(route.size() - 1).getTotalCost();
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        CachingGraph<String, Integer> graph = new CachingGraph<>(new DirectedGraph<>(Integer::doubleValue), 1 << 20);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        graph.connect(a, b, 1);
+        graph.connect(b, c, 1);
+
+        List<Graphs.Link> route = graph.dijkstra(a, c);
+        assertEquals(2.0, costs(route), 0.0);
+        assertSame(route, graph.dijkstra(a, c));
+        assertNull(graph.dijkstra(c, a));
+        assertNull(graph.dijkstra(c, a));
+        assertEquals(2, graph.getHits());
+        assertEquals(2, graph.getMisses());
+        assertEquals(2, graph.getCachedCount());
+        assertTrue(graph.getSizeInBytes() > 0);
+
+        ShortestPathTree tree = graph.dijkstraTree(a);
+        assertSame(tree, graph.dijkstraTree(a));
+        // Routes from a cached tree source are answered by the tree.
+        assertEquals(1.0, costs(graph.dijkstra(a, b)), 0.0);
+        assertEquals(4, graph.getHits());
+    }
+
+    @Test
+    public void testPreciseInvalidation() {
+        CachingGraph<String, Integer> graph = new CachingGraph<>(new DirectedGraph<>(Integer::doubleValue), 1 << 20);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Vertex d = graph.addVertex("D");
+        Vertex e = graph.addVertex("E");
+        graph.connect(a, b, 1);
+        Edge bc = graph.connect(b, c, 1);
+        graph.connect(d, e, 1);
+        graph.dijkstra(a, c);
+        graph.dijkstra(d, e);
+        graph.dijkstraTree(a);
+
+        // Too expensive to shorten anything.
+        graph.connect(a, c, 5);
+        // Not reachable from a.
+        graph.connect(e, d, 1);
+        assertEquals(3, graph.getCachedCount());
+        assertEquals(0, graph.getInvalidations());
+
+        // Vertexes hash by value: the route is keyed anew, the tree indexing a by hash is dropped.
+        graph.setValue(a, "F");
+        assertEquals(2, graph.getCachedCount());
+        assertEquals(1, graph.getInvalidations());
+        assertEquals(2.0, costs(graph.dijkstra(a, c)), 0.0);
+        assertEquals(2, graph.getCachedCount());
+
+        // Shortcut: drops the route from a, but not the route from d.
+        graph.connect(a, c, 1);
+        assertEquals(1, graph.getCachedCount());
+        assertEquals(2, graph.getInvalidations());
+        assertEquals(1.0, costs(graph.dijkstra(a, c)), 0.0);
+
+        // Removing an unused edge keeps the route.
+        graph.disconnect(bc);
+        assertEquals(2, graph.getCachedCount());
+        graph.disconnect(a, c);
+        assertNull(graph.dijkstra(a, c));
+
+        graph.removeVertex(e);
+        assertEquals(1, graph.getCachedCount());
+        assertNull(graph.dijkstra(d, e));
+    }
+
+    @Test
+    public void testEviction() {
+        CachingGraph<Integer, Integer> graph = new CachingGraph<>(new DirectedGraph<>(Integer::doubleValue), 2000);
+        Vertex[] vertexes = new Vertex[10];
+        for (int i = 0; i < vertexes.length; i++) {
+            vertexes[i] = graph.addVertex(i);
+            if (i > 0) graph.connect(vertexes[i - 1], vertexes[i], 1);
+        }
+        for (int i = 1; i < vertexes.length; i++) {
+            graph.dijkstra(vertexes[0], vertexes[i]);
+            // Keep the first route recently used.
+            graph.dijkstra(vertexes[0], vertexes[1]);
+            assertTrue(graph.getSizeInBytes() <= 2000);
+        }
+        assertTrue(graph.getEvictions() > 0);
+        long misses = graph.getMisses();
+        graph.dijkstra(vertexes[0], vertexes[1]);
+        assertEquals(misses, graph.getMisses());
+    }
+
+    @Test
+    public void testSameResultsAsUncached() {
+        Random random = new Random(11);
+        int n = 60;
+        DirectedGraph<Integer, Integer> reference = new DirectedGraph<>(Integer::doubleValue);
+        CachingGraph<Integer, Integer> graph = new CachingGraph<>(new DirectedGraph<>(Integer::doubleValue), 1 << 16);
+        Vertex[] referenceVertexes = new Vertex[n];
+        Vertex[] vertexes = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            referenceVertexes[i] = reference.addVertex(i);
+            vertexes[i] = graph.addVertex(i);
+        }
+        // Edges connected by both, at the same positions.
+        List<Edge> referenceEdges = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        // Vertexes hash by value, so every value is new.
+        int values = n;
+        for (int step = 0; step < 5000; step++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            switch (random.nextInt(10)) {
+                case 0:
+                case 1:
+                    int weight = 1 + random.nextInt(10);
+                    referenceEdges.add(reference.connect(referenceVertexes[from], referenceVertexes[to], weight));
+                    edges.add(graph.connect(vertexes[from], vertexes[to], weight));
+                    break;
+                case 2:
+                    assertEquals(reference.disconnect(referenceVertexes[from], referenceVertexes[to]), graph.disconnect(vertexes[from], vertexes[to]));
+                    for (int i = edges.size() - 1; i >= 0; i--) {
+                        if (edges.get(i).getFrom() == vertexes[from] && edges.get(i).getTo() == vertexes[to]) {
+                            referenceEdges.remove(i);
+                            edges.remove(i);
+                        }
+                    }
+                    break;
+                case 3:
+                    if (edges.isEmpty()) break;
+                    int edge = random.nextInt(edges.size());
+                    reference.disconnect(referenceEdges.remove(edge));
+                    graph.disconnect(edges.remove(edge));
+                    break;
+                case 4:
+                    // Replace a vertex by a new one, after a tree of another vertex is cached.
+                    graph.dijkstraTree(vertexes[to]);
+                    for (int i = edges.size() - 1; i >= 0; i--) {
+                        if (edges.get(i).getFrom() == vertexes[from] || edges.get(i).getTo() == vertexes[from]) {
+                            referenceEdges.remove(i);
+                            edges.remove(i);
+                        }
+                    }
+                    reference.removeVertex(referenceVertexes[from]);
+                    graph.removeVertex(vertexes[from]);
+                    referenceVertexes[from] = reference.addVertex(values);
+                    vertexes[from] = graph.addVertex(values++);
+                    if (from != to) assertEquals(Double.POSITIVE_INFINITY, graph.dijkstraTree(vertexes[to]).distanceTo(vertexes[from]), 0.0);
+                    break;
+                case 5:
+                    reference.setValue(referenceVertexes[from], values);
+                    graph.setValue(vertexes[from], values++);
+                    break;
+                case 6:
+                    double distance = Graphs.dijkstraTree(reference, referenceVertexes[from]).distanceTo(referenceVertexes[to]);
+                    assertEquals(distance, graph.dijkstraTree(vertexes[from]).distanceTo(vertexes[to]), 0.0);
+                    break;
+                default:
+                    // Few pairs, so most queries hit.
+                    from %= 8;
+                    to %= 8;
+                    assertEquals(costs(Graphs.dijkstra(reference, referenceVertexes[from], referenceVertexes[to])),
+                                 costs(graph.dijkstra(vertexes[from], vertexes[to])), 0.0);
+            }
+        }
+        assertTrue(graph.getHits() > 0);
+        assertTrue(graph.getInvalidations() > 0);
+    }
+
+}
@@ -0,0 +1,418 @@
+package com.hambbe.graph;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link ConcurrentGraph}.
+ */
+public class ConcurrentGraphTest {
+
+    @Test
+    public void testConnect() {
+        ConcurrentGraph<String, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, 2);
+        graph.connect(a, c, 3);
+        graph.connect(c, a, 4);
+
+        assertEquals("B", graph.getValue(b));
+        assertEquals(2, graph.degree(a));
+        assertTrue(graph.adjacent(a, b));
+        assertFalse(graph.adjacent(b, a));
+        assertEquals(2, (int) graph.getEdgeValue(ab));
+        assertEquals(2.0, ab.getWeight(), 0.0);
+        assertEquals(c, graph.neighbors(a).get(1));
+        assertEquals(c, a.getIncomingEdges().iterator().next().getFrom());
+
+        graph.disconnect(ab);
+        assertFalse(graph.adjacent(a, b));
+        assertFalse(b.getIncomingEdges().iterator().hasNext());
+        assertTrue(graph.disconnect(a, c));
+        assertFalse(graph.disconnect(a, c));
+
+        graph.setValue(b, "D");
+        assertEquals("D", graph.getValue(b));
+    }
+
+    @Test
+    public void testRemove() {
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex(1);
+        Vertex b = graph.addVertex(2);
+        Vertex c = graph.addVertex(3);
+        graph.connect(a, b, 1);
+        graph.connect(b, c, 1);
+        graph.connect(c, b, 1);
+        graph.connect(b, b, 1);
+
+        graph.removeVertex(b);
+        assertEquals(2, graph.getVertexCount());
+        assertEquals(0, graph.degree(a));
+        assertFalse(c.getIncomingEdges().iterator().hasNext());
+        int edges = 0;
+        for (Edge ignored : graph.getEdges()) {
+            edges++;
+        }
+        assertEquals(0, edges);
+        Iterator<? extends Vertex> vertexes = graph.getVertexes().iterator();
+        assertEquals(a, vertexes.next());
+        assertEquals(c, vertexes.next());
+        assertFalse(vertexes.hasNext());
+    }
+
+    @Test
+    public void testEdgeAt() {
+        ConcurrentGraph<String, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, 1);
+        Edge ac = graph.connect(a, c, 2);
+        int from = graph.indexOf(a);
+        assertSame(ab, graph.edgeAt(from, 0));
+        assertSame(ac, graph.edgeAt(from, 1));
+        assertEquals(2, (int) graph.getEdgeValue(graph.edgeAt(from, 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConnectRemovedVertex() {
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex(1);
+        Vertex b = graph.addVertex(2);
+        graph.removeVertex(a);
+        graph.connect(a, b, 1);
+    }
+
+    @Test
+    public void testIterateWhileModifying() {
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex(1);
+        Vertex b = graph.addVertex(2);
+        graph.connect(a, b, 1);
+        for (Vertex vertex : graph.getVertexes()) {
+            graph.addVertex(3);
+        }
+        for (Edge edge : a.getEdges()) {
+            graph.connect(a, a, 1);
+        }
+        assertEquals(4, graph.getVertexCount());
+        assertEquals(2, graph.degree(a));
+    }
+
+    @Test
+    public void testSameShortestPathsAsDirectedGraph() {
+        Random random = new Random(5);
+        int n = 300;
+        DirectedGraph<Integer, Integer> reference = new DirectedGraph<>(Integer::doubleValue);
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex[] referenceVertexes = new Vertex[n];
+        Vertex[] vertexes = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            referenceVertexes[i] = reference.addVertex(i);
+            vertexes[i] = graph.addVertex(i);
+        }
+        for (int i = 0; i < 4 * n; i++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            int weight = 1 + random.nextInt(20);
+            reference.connect(referenceVertexes[from], referenceVertexes[to], weight);
+            graph.connect(vertexes[from], vertexes[to], weight);
+        }
+        reference.removeVertex(referenceVertexes[3]);
+        graph.removeVertex(vertexes[3]);
+
+        ShortestPathTree expected = new DijkstraEngine(reference).shortestPaths(referenceVertexes[0]);
+        ShortestPathTree tree = new DijkstraEngine(graph).shortestPaths(vertexes[0]);
+        for (int i = 0; i < n; i++) {
+            if (i == 3) continue;
+            assertEquals(expected.distanceTo(referenceVertexes[i]), tree.distanceTo(vertexes[i]), 0.0);
+        }
+    }
+
+    @Test
+    public void testConcurrentReadersAndWriters() throws InterruptedException {
+        final ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        final int n = 500;
+        final Vertex[] vertexes = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            vertexes[i] = graph.addVertex(i);
+        }
+        // A ring that is never touched, so every vertex stays reachable.
+        for (int i = 0; i < n; i++) {
+            graph.connect(vertexes[i], vertexes[(i + 1) % n], 1000);
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(6);
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            final long seed = t;
+            threads.add(new Thread(() -> {
+                try {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 3000; i++) {
+                        Vertex from = vertexes[random.nextInt(n)];
+                        Vertex to = vertexes[random.nextInt(n)];
+                        Edge edge = graph.connect(from, to, 1 + random.nextInt(10));
+                        if (random.nextBoolean()) graph.disconnect(edge);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        for (int t = 0; t < 3; t++) {
+            final long seed = 10 + t;
+            threads.add(new Thread(() -> {
+                try {
+                    Random random = new Random(seed);
+                    while (running.get()) {
+                        Vertex from = vertexes[random.nextInt(n)];
+                        Vertex to = vertexes[random.nextInt(n)];
+                        if (from == to) continue;
+                        List<Graphs.Link> route = Graphs.dijkstra(graph, from, to);
+                        if (route == null) throw new AssertionError("No route from " + from + " to " + to);
+                        for (Edge edge : graph.getEdges()) {
+                            edge.getWeight();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (int t = 0; t < 3; t++) {
+            threads.get(t).join();
+        }
+        running.set(false);
+        done.await();
+        assertNull(failure.get());
+
+        // Incoming and outgoing edges agree after all writers are done.
+        int out = 0;
+        int in = 0;
+        for (Vertex vertex : graph.getVertexes()) {
+            out += graph.degree(vertex);
+            for (Edge edge : vertex.getIncomingEdges()) {
+                assertTrue(graph.adjacent(edge.getFrom(), vertex));
+                in++;
+            }
+        }
+        assertEquals(out, in);
+    }
+
+    @Test
+    public void testSnapshot() {
+        ConcurrentGraph<String, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, 1);
+        graph.connect(b, c, 1);
+
+        ConcurrentGraph<String, Integer>.Snapshot snapshot = graph.snapshot();
+        graph.disconnect(ab);
+        graph.connect(a, c, 5);
+        graph.setValue(a, "D");
+        graph.removeVertex(b);
+        Vertex e = graph.addVertex("E");
+
+        assertEquals(3, snapshot.getVertexCount());
+        Vertex sa = snapshot.vertexOf(a);
+        Vertex sc = snapshot.vertexOf(c);
+        assertEquals("A", snapshot.getValue(sa));
+        assertEquals(1, snapshot.degree(sa));
+        assertTrue(snapshot.adjacent(sa, snapshot.vertexOf(b)));
+        assertFalse(snapshot.adjacent(sa, sc));
+        List<Graphs.Link> route = Graphs.dijkstra(snapshot, sa, sc);
+        assertEquals(2, route.size());
+        assertEquals(sc, route.get(1).getEdge().getTo());
+        assertEquals(2.0, Graphs.bellmanFordTree(snapshot, sa).distanceTo(sc), 0.0);
+        assertSame(snapshot, snapshot.snapshot());
+
+        // The live graph moved on.
+        assertEquals("D", graph.getValue(a));
+        assertEquals(5.0, Graphs.dijkstraTree(graph, a).distanceTo(c), 0.0);
+        assertEquals(3, graph.getVertexCount());
+        try {
+            snapshot.vertexOf(e);
+            throw new AssertionError("E was added after the snapshot");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        snapshot.close();
+    }
+
+    @Test
+    public void testSnapshotReleasesVersions() {
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        ConcurrentGraph<Integer, Integer>.ConcurrentVertex a = (ConcurrentGraph<Integer, Integer>.ConcurrentVertex) graph.addVertex(1);
+        Vertex b = graph.addVertex(2);
+
+        ConcurrentGraph<Integer, Integer>.Snapshot snapshot = graph.snapshot();
+        graph.connect(a, b, 1);
+        graph.connect(a, b, 2);
+        assertEquals(1, graph.openSnapshots());
+        assertNotNull(a.state.previous);
+        assertEquals(0, snapshot.degree(snapshot.vertexOf(a)));
+
+        snapshot.close();
+        snapshot.close();
+        assertEquals(0, graph.openSnapshots());
+        graph.connect(a, b, 3);
+        assertNull(a.state.previous);
+
+        // Snapshots collected without being closed are released from the reference queue.
+        ConcurrentGraph<Integer, Integer>.Snapshot collected = graph.snapshot();
+        graph.connect(a, b, 4);
+        assertNotNull(a.state.previous);
+        assertEquals(1, graph.openSnapshots());
+        graph.collected(collected);
+        assertEquals(0, graph.openSnapshots());
+        graph.connect(a, b, 5);
+        assertNull(a.state.previous);
+        // Closing after the release has no effect.
+        collected.close();
+        assertEquals(0, graph.openSnapshots());
+    }
+
+    @Test
+    public void testVersionChainBounded() {
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        Vertex hub = graph.addVertex(0);
+        Vertex other = graph.addVertex(1);
+        for (int i = 0; i < 50; i++) {
+            graph.connect(hub, graph.addVertex(i + 2), i);
+        }
+
+        ConcurrentGraph<Integer, Integer>.Snapshot snapshot = graph.snapshot();
+        for (int i = 0; i < 10000; i++) {
+            graph.disconnect(graph.connect(hub, other, i));
+        }
+        // Live state and the state the snapshot reads.
+        assertEquals(2, graph.chainLength(hub));
+        assertEquals(50, snapshot.degree(snapshot.vertexOf(hub)));
+
+        // Versions released in between are cut out as well.
+        List<ConcurrentGraph<Integer, Integer>.Snapshot> open = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ConcurrentGraph<Integer, Integer>.Snapshot next = graph.snapshot();
+            graph.connect(hub, other, i);
+            assertTrue(graph.chainLength(hub) <= graph.openSnapshots() + 1);
+            if (i % 10 == 0) {
+                open.add(next);
+            } else {
+                next.close();
+            }
+        }
+        assertEquals(50, snapshot.degree(snapshot.vertexOf(hub)));
+        for (int i = 0; i < open.size(); i++) {
+            assertEquals(50 + 10 * i, open.get(i).degree(open.get(i).vertexOf(hub)));
+        }
+    }
+
+    @Test
+    public void testDecoratedSnapshot() {
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        graph.addVertex(1);
+        Graph<Integer, Integer> snapshot = new ObservableGraph<>(graph).snapshot();
+        assertTrue(snapshot instanceof ConcurrentGraph.Snapshot);
+        assertEquals(1, graph.openSnapshots());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+        ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        graph.addVertex(1);
+        graph.snapshot().addVertex(2);
+    }
+
+    @Test
+    public void testDefaultSnapshot() {
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex(1);
+        Vertex b = graph.addVertex(2);
+        graph.connect(a, b, 3);
+        Graph<Integer, Integer> snapshot = graph.snapshot();
+        graph.connect(b, a, 4);
+        assertNotSame(graph, snapshot);
+        int edges = 0;
+        for (Edge ignored : snapshot.getEdges()) {
+            edges++;
+        }
+        assertEquals(1, edges);
+        assertSame(snapshot, snapshot.snapshot());
+    }
+
+    @Test
+    public void testSnapshotWhileWriting() throws InterruptedException {
+        final ConcurrentGraph<Integer, Integer> graph = new ConcurrentGraph<>(Integer::doubleValue);
+        final int n = 200;
+        final Vertex[] vertexes = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            vertexes[i] = graph.addVertex(i);
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                Random random = new Random(1);
+                for (int i = 0; i < 20000; i++) {
+                    Edge edge = graph.connect(vertexes[random.nextInt(n)], vertexes[random.nextInt(n)], 1);
+                    if (random.nextInt(3) == 0) graph.disconnect(edge);
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            try (ConcurrentGraph<Integer, Integer>.Snapshot snapshot = graph.snapshot()) {
+                int out = 0;
+                int in = 0;
+                for (Vertex vertex : snapshot.getVertexes()) {
+                    out += snapshot.degree(vertex);
+                    for (Edge ignored : vertex.getIncomingEdges()) {
+                        in++;
+                    }
+                }
+                // Every write is either completely visible or not at all.
+                assertEquals(out, in);
+                int edges = 0;
+                for (Edge ignored : snapshot.getEdges()) {
+                    edges++;
+                }
+                assertEquals(out, edges);
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(0, graph.openSnapshots());
+    }
+
+}
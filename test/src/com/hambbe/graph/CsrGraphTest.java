@@ -0,0 +1,65 @@
+package com.hambbe.graph;
+
+import com.hambbe.graph.data.TestData;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link CsrGraph} against the graph it was built from.
+ */
+public class CsrGraphTest {
+
+    @Test
+    public void testSameStructure() {
+        IntGraph<String> graph = TestData.ABCintGraph(2);
+        CsrGraph<String, Integer> csr = CsrGraph.of(graph);
+
+        assertEquals(graph.getVertexCount(), csr.getVertexCount());
+        Iterator<? extends Vertex> csrVertexes = csr.getVertexes().iterator();
+        for (Vertex vertex : graph.getVertexes()) {
+            Vertex csrVertex = csrVertexes.next();
+            assertEquals(graph.getValue(vertex), csr.getValue(csrVertex));
+            assertEquals(graph.degree(vertex), csr.degree(csrVertex));
+        }
+
+        int edgeCount = 0;
+        for (Edge edge : csr.getEdges()) {
+            assertEquals(1, (int) csr.getEdgeValue(edge));
+            assertTrue(csr.adjacent(edge.getFrom(), edge.getTo()));
+            edgeCount++;
+        }
+        assertEquals(csr.getEdgeCount(), edgeCount);
+    }
+
+    @Test
+    public void testDijkstra() {
+        DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        graph.connect(a, b, 1);
+        graph.connect(b, c, 1);
+        graph.connect(a, c, 5);
+
+        CsrGraph<String, Integer> csr = CsrGraph.of(graph);
+        List<Graphs.Link> route = Graphs.dijkstra(csr, csr.getVertex(0), csr.getVertex(2));
+        assertNotNull(route);
+        assertEquals(2, route.size());
+        assertEquals(2.0, route.get(1).getTotalCost(), 0.0);
+        assertEquals(1, (int) csr.getEdgeValue(route.get(0).getEdge()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        CsrGraph<String, Integer> csr = CsrGraph.of(TestData.ABCintGraph(1));
+        csr.addVertex("Z");
+    }
+
+}
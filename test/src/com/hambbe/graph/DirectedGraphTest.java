@@ -0,0 +1,98 @@
+package com.hambbe.graph;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Test the weights of {@link DirectedGraph}.
+ */
+public class DirectedGraphTest {
+
+    /** Edge value with a changeable cost. */
+    private static class Cost {
+        double value;
+
+        Cost(double value) {
+            this.value = value;
+        }
+    }
+
+    @Test
+    public void testCachedWeights() {
+        final int[] calls = { 0 };
+        DirectedGraph<String, Cost> graph = new DirectedGraph<>(c -> {
+            calls[0]++;
+            return c.value;
+        }, true, true);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, new Cost(1));
+        graph.connect(b, c, new Cost(1));
+        Edge ac = graph.connect(a, c, new Cost(5));
+        assertEquals(3, calls[0]);
+
+        List<Graphs.Link> route = Graphs.dijkstra(graph, a, c);
+        assertNotNull(route);
+        assertEquals(2, route.size());
+        assertEquals(3, calls[0]);
+
+        // Changed values are only seen after reweighing.
+        graph.getEdgeValue(ab).value = 10;
+        assertEquals(1.0, ab.getWeight(), 0.0);
+        graph.reweigh(ab);
+        assertEquals(10.0, ab.getWeight(), 0.0);
+        route = Graphs.dijkstra(graph, a, c);
+        assertEquals(1, route.size());
+        assertEquals(ac, route.get(0).getEdge());
+
+        graph.getEdgeValue(ac).value = 20;
+        graph.reweighAll();
+        assertEquals(20.0, ac.getWeight(), 0.0);
+    }
+
+    @Test
+    public void testUncachedWeights() {
+        DirectedGraph<String, Cost> graph = new DirectedGraph<>(c -> c.value, true, false);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Edge ab = graph.connect(a, b, new Cost(1));
+        graph.getEdgeValue(ab).value = 4;
+        assertEquals(4.0, ab.getWeight(), 0.0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIncomingEdgesOptional() {
+        // Vertexes written before incoming edges existed still compile.
+        Vertex vertex = new Vertex() {
+            @Override
+            public Iterable<? extends Edge> getEdges() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public boolean isMarked() {
+                return false;
+            }
+
+            @Override
+            public byte getMarkedValue() {
+                return 0;
+            }
+
+            @Override
+            public void demark() {
+            }
+
+            @Override
+            public void mark() {
+            }
+        };
+        vertex.getIncomingEdges();
+    }
+}
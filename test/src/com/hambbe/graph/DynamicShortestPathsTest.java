@@ -0,0 +1,198 @@
+package com.hambbe.graph;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link DynamicShortestPaths} and {@link ObservableGraph}.
+ */
+public class DynamicShortestPathsTest {
+
+    private static double costs(List<Graphs.Link> route) {
+        if (route == null) return Double.POSITIVE_INFINITY;
+        return route.isEmpty() ? 0 : route.get(route.size() - 1).getTotalCost();
+    }
+
+    private static void assertSameDistances(Graph<String, Integer> graph, DynamicShortestPaths paths) {
+        ShortestPathTree tree = Graphs.dijkstraTree(graph, paths.getSource());
+        for (Vertex vertex : graph.getVertexes()) {
+            assertEquals(tree.distanceTo(vertex), paths.distanceTo(vertex), 0.0);
+            assertEquals(tree.distanceTo(vertex), costs(paths.pathTo(vertex)), 0.0);
+        }
+    }
+
+    @Test
+    public void testRepairsOnlyTheChange() {
+        ObservableGraph<String, Integer> graph = new ObservableGraph<>(new DirectedGraph<>(Integer::doubleValue));
+        Vertex s = graph.addVertex("S");
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Vertex d = graph.addVertex("D");
+        Edge sa = graph.connect(s, a, 1);
+        graph.connect(a, b, 1);
+        graph.connect(s, c, 5);
+        graph.connect(c, d, 1);
+
+        DynamicShortestPaths paths = new DynamicShortestPaths(graph, s);
+        assertEquals(2.0, paths.distanceTo(b), 0.0);
+        assertEquals(6.0, paths.distanceTo(d), 0.0);
+        assertEquals(0, paths.pathTo(s).size());
+
+        // Not shorter: nothing to repair.
+        graph.connect(s, b, 3);
+        assertEquals(0, paths.getRepairedCount());
+
+        // Shortcut to c improves c and d only.
+        graph.connect(a, c, 1);
+        assertEquals(2.0, paths.distanceTo(c), 0.0);
+        assertEquals(3.0, paths.distanceTo(d), 0.0);
+        assertEquals(2, paths.getRepairedCount());
+
+        // The tree edge of a carries a, b, c and d. b falls back to s -> b, c to s -> c.
+        graph.disconnect(sa);
+        assertFalse(paths.hasPathTo(a));
+        assertNull(paths.pathTo(a));
+        assertEquals(3.0, paths.distanceTo(b), 0.0);
+        assertEquals(5.0, paths.distanceTo(c), 0.0);
+        assertEquals(6.0, paths.distanceTo(d), 0.0);
+        assertEquals(6, paths.getRepairedCount());
+        assertSameDistances(graph, paths);
+
+        // After closing changes are not observed anymore.
+        paths.close();
+        graph.connect(s, d, 1);
+        assertEquals(6.0, paths.distanceTo(d), 0.0);
+    }
+
+    @Test
+    public void testRemoveVertex() {
+        ObservableGraph<String, Integer> graph = new ObservableGraph<>(new DirectedGraph<>(Integer::doubleValue));
+        Vertex s = graph.addVertex("S");
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        graph.connect(s, a, 1);
+        graph.connect(a, b, 1);
+        graph.connect(b, c, 1);
+        graph.connect(s, c, 10);
+
+        DynamicShortestPaths paths = new DynamicShortestPaths(graph, s);
+        assertEquals(3.0, paths.distanceTo(c), 0.0);
+        graph.removeVertex(a);
+        assertFalse(paths.hasPathTo(b));
+        assertEquals(10.0, paths.distanceTo(c), 0.0);
+        assertSameDistances(graph, paths);
+
+        Vertex e = graph.addVertex("E");
+        graph.connect(s, e, 1);
+        graph.connect(e, b, 1);
+        assertEquals(2.0, paths.distanceTo(b), 0.0);
+        assertEquals(3.0, paths.distanceTo(c), 0.0);
+
+        graph.removeVertex(s);
+        for (Vertex vertex : graph.getVertexes()) assertFalse(paths.hasPathTo(vertex));
+    }
+
+    @Test
+    public void testUndirected() {
+        ObservableGraph<String, Integer> graph = new ObservableGraph<>(new UndirectedGraph<>(Integer::doubleValue));
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        graph.connect(a, b, 2);
+
+        List<Edge> added = new ArrayList<>();
+        graph.addListener(new GraphListener() {
+            @Override
+            public void edgeAdded(Edge edge) {
+                added.add(edge);
+            }
+        });
+        DynamicShortestPaths paths = new DynamicShortestPaths(graph, c);
+        assertFalse(paths.hasPathTo(a));
+
+        // Both directions are reported, although connect returns no edge.
+        graph.connect(c, b, 1);
+        assertEquals(2, added.size());
+        assertEquals(1.0, paths.distanceTo(b), 0.0);
+        assertEquals(3.0, paths.distanceTo(a), 0.0);
+
+        assertTrue(graph.disconnect(b, c));
+        assertFalse(paths.hasPathTo(a));
+        assertFalse(paths.hasPathTo(b));
+    }
+
+    @Test
+    public void testDirectedEvents() {
+        ObservableGraph<String, Integer> graph = new ObservableGraph<>(new DirectedGraph<>(Integer::doubleValue));
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        List<Edge> added = new ArrayList<>();
+        List<Edge> removed = new ArrayList<>();
+        graph.addListener(new GraphListener() {
+            @Override
+            public void edgeAdded(Edge edge) {
+                added.add(edge);
+            }
+
+            @Override
+            public void edgeRemoved(Vertex from, Vertex to, Edge edge) {
+                removed.add(edge);
+            }
+        });
+        Edge first = graph.connect(a, b, 1);
+        Edge second = graph.connect(a, b, 2);
+        graph.connect(b, a, 3);
+        assertEquals(3, added.size());
+        assertSame(first, added.get(0));
+
+        // Parallel edges are reported one by one, the reverse edge stays.
+        assertTrue(graph.disconnect(a, b));
+        assertEquals(2, removed.size());
+        assertTrue(removed.contains(first) && removed.contains(second));
+        assertFalse(graph.disconnect(a, b));
+        assertEquals(2, removed.size());
+    }
+
+    @Test
+    public void testRandomChanges() {
+        Random random = new Random(42);
+        ObservableGraph<String, Integer> graph = new ObservableGraph<>(new DirectedGraph<>(Integer::doubleValue));
+        List<Vertex> vertexes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) vertexes.add(graph.addVertex("v" + i));
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            edges.add(graph.connect(vertexes.get(random.nextInt(60)), vertexes.get(random.nextInt(60)), 1 + random.nextInt(9)));
+        }
+        Vertex source = vertexes.remove(0);
+        DynamicShortestPaths paths = new DynamicShortestPaths(graph, source);
+        assertSameDistances(graph, paths);
+
+        int names = 60;
+        for (int step = 0; step < 400; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                Vertex from = random.nextInt(5) == 0 ? source : vertexes.get(random.nextInt(vertexes.size()));
+                edges.add(graph.connect(from, vertexes.get(random.nextInt(vertexes.size())), 1 + random.nextInt(9)));
+            } else if (operation < 9 && !edges.isEmpty()) {
+                graph.disconnect(edges.remove(random.nextInt(edges.size())));
+            } else if (vertexes.size() > 10) {
+                Vertex removed = vertexes.remove(random.nextInt(vertexes.size()));
+                edges.removeIf(edge -> edge.getFrom() == removed || edge.getTo() == removed);
+                graph.removeVertex(removed);
+                vertexes.add(graph.addVertex("v" + names++));
+            }
+            assertSameDistances(graph, paths);
+        }
+    }
+}
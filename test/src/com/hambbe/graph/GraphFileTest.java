@@ -0,0 +1,155 @@
+package com.hambbe.graph;
+
+import com.hambbe.graph.data.TestData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test writing graphs with {@link GraphFile} and mapping them back.
+ */
+public class GraphFileTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("graph", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testSameStructure() throws IOException {
+        IntGraph<String> graph = TestData.ABCintGraph(2);
+        GraphFile.write(graph, file, VertexCodec.STRING);
+        MappedGraph<String, Integer> mapped = GraphFile.map(file, VertexCodec.STRING);
+
+        assertEquals(graph.getVertexCount(), mapped.getVertexCount());
+        Iterator<? extends Vertex> mappedVertexes = mapped.getVertexes().iterator();
+        int edgeCount = 0;
+        for (Vertex vertex : graph.getVertexes()) {
+            Vertex mappedVertex = mappedVertexes.next();
+            assertEquals(graph.getValue(vertex), mapped.getValue(mappedVertex));
+            assertEquals(graph.degree(vertex), mapped.degree(mappedVertex));
+            edgeCount += graph.degree(vertex);
+        }
+        assertEquals(edgeCount, mapped.getEdgeCount());
+
+        for (Edge edge : mapped.getEdges()) {
+            assertEquals(1.0, edge.getWeight(), 0.0);
+            assertTrue(mapped.adjacent(edge.getFrom(), edge.getTo()));
+            assertNull(mapped.getEdgeValue(edge));
+        }
+    }
+
+    @Test
+    public void testValues() throws IOException {
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex(42);
+        Vertex b = graph.addVertex(7);
+        graph.connect(a, b, 3);
+        GraphFile.write(graph, file, VertexCodec.INTEGER);
+
+        MappedGraph<Integer, Integer> mapped = GraphFile.map(file, VertexCodec.INTEGER);
+        assertEquals(42, (int) mapped.getValue(mapped.getVertex(0)));
+        assertEquals(7, (int) mapped.getValue(mapped.getVertex(1)));
+
+        MappedGraph<Integer, Integer> withoutValues = GraphFile.map(file);
+        assertNull(withoutValues.getValue(withoutValues.getVertex(0)));
+        assertEquals(1, withoutValues.getEdgeCount());
+
+        // All values of a graph mapped without codec are null.
+        Path copy = Files.createTempFile("graph", ".bin");
+        try {
+            GraphFile.write(withoutValues, copy, VertexCodec.INTEGER);
+            MappedGraph<Integer, Integer> nulls = GraphFile.map(copy, VertexCodec.INTEGER);
+            assertNull(nulls.getValue(nulls.getVertex(0)));
+            assertNull(nulls.getValue(nulls.getVertex(1)));
+            assertEquals(3.0, nulls.getEdges().iterator().next().getWeight(), 0.0);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    @Test
+    public void testDijkstra() throws IOException {
+        DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue, true);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        graph.connect(a, b, 1);
+        graph.connect(b, c, 1);
+        graph.connect(a, c, 5);
+        GraphFile.write(graph, file);
+
+        MappedGraph<String, Integer> mapped = GraphFile.map(file);
+        List<Graphs.Link> route = Graphs.dijkstra(mapped, mapped.getVertex(0), mapped.getVertex(2));
+        assertNotNull(route);
+        assertEquals(2, route.size());
+        assertEquals(2.0, route.get(1).getTotalCost(), 0.0);
+
+        ShortestPathTree tree = new DijkstraEngine(mapped).shortestPaths(mapped.getVertex(0));
+        assertEquals(2.0, tree.distanceTo(mapped.getVertex(2)), 0.0);
+
+        Iterator<? extends Edge> incoming = mapped.getVertex(2).getIncomingEdges().iterator();
+        assertEquals(mapped.getVertex(0), incoming.next().getFrom());
+        assertEquals(mapped.getVertex(1), incoming.next().getFrom());
+
+        // The index is created once and reads the mapped pages, nothing is copied onto the heap.
+        assertSame(GraphIndex.of(mapped), GraphIndex.of(mapped));
+        assertTrue(GraphIndex.of(mapped).targets.isDirect());
+        assertTrue(GraphIndex.of(mapped).weights.isDirect());
+    }
+
+    @Test
+    public void testManyValues() throws IOException {
+        // More value bytes than one write buffer holds.
+        DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex previous = graph.addVertex("vertex 0");
+        for (int i = 1; i < 20000; i++) {
+            Vertex vertex = graph.addVertex("vertex " + i);
+            graph.connect(previous, vertex, i);
+            previous = vertex;
+        }
+        GraphFile.write(graph, file, VertexCodec.STRING);
+
+        MappedGraph<String, Integer> mapped = GraphFile.map(file, VertexCodec.STRING);
+        assertEquals(19999, mapped.getEdgeCount());
+        for (int i = 0; i < 20000; i++) {
+            assertEquals("vertex " + i, mapped.getValue(mapped.getVertex(i)));
+        }
+        assertEquals(19999.0 * 20000 / 2, new DijkstraEngine(mapped).shortestPaths(mapped.getVertex(0))
+                .distanceTo(mapped.getVertex(19999)), 0.0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNoGraphFile() throws IOException {
+        Files.write(file, new byte[64]);
+        GraphFile.map(file);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() throws IOException {
+        GraphFile.write(TestData.ABCintGraph(1), file);
+        MappedGraph<String, Integer> mapped = GraphFile.map(file);
+        mapped.addVertex("D");
+    }
+
+}
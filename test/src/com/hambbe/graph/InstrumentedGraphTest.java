@@ -0,0 +1,158 @@
+package com.hambbe.graph;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link InstrumentedGraph}, {@link LatencyHistogram} and the {@link SearchListener} of the searches.
+ */
+public class InstrumentedGraphTest {
+
+    @After
+    public void removeListener() {
+        Graphs.setSearchListener(SearchListener.NONE);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 100, 1000, 123456789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value <= LatencyHistogram.upperBound(bucket));
+            assertTrue(bucket == 0 || value > LatencyHistogram.upperBound(bucket - 1));
+            // At most 1/8 too big.
+            assertTrue(LatencyHistogram.upperBound(bucket) - value <= value / 8);
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000000, snapshot.getMax());
+        assertEquals(500500.0, snapshot.getMean(), 0.0);
+        long median = snapshot.getPercentile(50);
+        assertTrue(median >= 500000 && median <= 500000 * 9 / 8);
+        assertEquals(1000000, snapshot.getPercentile(100));
+        assertEquals(0, new LatencyHistogram().snapshot().getPercentile(99));
+    }
+
+    @Test
+    public void testMetrics() {
+        InstrumentedGraph<String, Integer> graph = new InstrumentedGraph<>(new DirectedGraph<>(Integer::doubleValue), true);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        graph.connect(a, b, 1);
+        graph.adjacent(a, b);
+        graph.adjacent(b, a);
+        graph.getValue(a);
+        Graph<String, Integer> snapshot = graph.snapshot();
+        assertEquals(2, snapshot.getVertexCount());
+
+        Map<InstrumentedGraph.Operation, LatencyHistogram.Snapshot> metrics = graph.metrics();
+        assertEquals(InstrumentedGraph.Operation.values().length, metrics.size());
+        assertEquals(2, metrics.get(InstrumentedGraph.Operation.ADD_VERTEX).getCount());
+        assertEquals(1, metrics.get(InstrumentedGraph.Operation.CONNECT).getCount());
+        assertEquals(2, metrics.get(InstrumentedGraph.Operation.ADJACENT).getCount());
+        assertEquals(1, metrics.get(InstrumentedGraph.Operation.SNAPSHOT).getCount());
+        assertEquals(0, metrics.get(InstrumentedGraph.Operation.REMOVE_VERTEX).getCount());
+        assertTrue(metrics.get(InstrumentedGraph.Operation.ADJACENT).getTotalNanos() > 0);
+
+        // Failing calls are timed as well.
+        try {
+            graph.degree(null);
+        } catch (RuntimeException expected) {
+            // expected
+        }
+        assertEquals(1, graph.histogram(InstrumentedGraph.Operation.DEGREE).snapshot().getCount());
+    }
+
+    @Test
+    public void testEvents() throws IOException {
+        InstrumentedGraph<String, Integer> graph = new InstrumentedGraph<>(new DirectedGraph<String, Integer>(Integer::doubleValue) {
+            @Override
+            public Vertex addVertex(final String value) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.addVertex(value);
+            }
+        }, true);
+        Path file = Files.createTempFile("graph", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hambbe.graph.GraphOperation").withoutThreshold();
+            recording.start();
+            Vertex a = graph.addVertex("A");
+            graph.degree(a);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            events.sort((e1, e2) -> e1.getStartTime().compareTo(e2.getStartTime()));
+            assertEquals(2, events.size());
+            assertEquals("ADD_VERTEX", events.get(0).getString("operation"));
+            // The event spans the call, not only the time after it.
+            assertTrue(events.get(0).getDuration().compareTo(Duration.ofMillis(20)) >= 0);
+            assertEquals("DEGREE", events.get(1).getString("operation"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSearchStatistics() {
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex[] vertexes = new Vertex[5];
+        for (int i = 0; i < vertexes.length; i++) {
+            vertexes[i] = graph.addVertex(i);
+            if (i > 0) graph.connect(vertexes[i - 1], vertexes[i], 1);
+        }
+        SearchStatistics statistics = new SearchStatistics();
+        Graphs.setSearchListener(statistics);
+        assertSame(statistics, Graphs.getSearchListener());
+
+        List<Graphs.Link> route = Graphs.dijkstra(graph, vertexes[0], vertexes[4]);
+        assertNotNull(route);
+        assertEquals(1, statistics.getSearches());
+        // Every vertex but the goal is expanded, each queues the step to the next one.
+        assertEquals(4, statistics.getSettled());
+        assertEquals(4, statistics.getQueued());
+        assertEquals(1, statistics.getPeakQueueSize());
+
+        statistics.reset();
+        Graphs.dijkstraTree(graph, vertexes[0]);
+        Graphs.bellmanFordTree(graph, vertexes[0]);
+        Graphs.bidirectionalDijkstra(graph, vertexes[0], vertexes[4]);
+        Graphs.aStarDouble(graph, vertexes[0], vertexes[4], v -> 0);
+        Graphs.dijkstra(graph, vertexes[0]);
+        Graphs.parallelDijkstra(graph, vertexes[0]);
+        Graphs.parallelBellmanFord(graph, vertexes[0]);
+        assertEquals(7, statistics.getSearches());
+        assertTrue(statistics.getSettled() >= 6 * 4);
+
+        Graphs.setSearchListener(SearchListener.NONE);
+        Graphs.dijkstra(graph, vertexes[0], vertexes[4]);
+        assertEquals(7, statistics.getSearches());
+    }
+
+}
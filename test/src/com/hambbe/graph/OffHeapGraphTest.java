@@ -0,0 +1,194 @@
+package com.hambbe.graph;
+
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test {@link OffHeapGraph}.
+ */
+public class OffHeapGraphTest {
+
+    @Test
+    public void testConnect() {
+        OffHeapGraph<String> graph = new OffHeapGraph<>();
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, 1.5);
+        graph.connect(a, c, 2.0);
+        graph.connect(c, a, 3.0);
+
+        assertEquals("B", graph.getValue(b));
+        assertEquals(2, graph.degree(a));
+        assertEquals(3, graph.getEdgeCount());
+        assertTrue(graph.adjacent(a, b));
+        assertFalse(graph.adjacent(b, a));
+        assertEquals(1.5, graph.getEdgeValue(ab), 0.0);
+        assertEquals(ab, a.getEdges().iterator().next());
+        assertEquals(a, ab.getFrom());
+        assertEquals(c, graph.neighbors(a).get(1));
+
+        Iterator<? extends Edge> incoming = a.getIncomingEdges().iterator();
+        assertEquals(c, incoming.next().getFrom());
+        assertFalse(incoming.hasNext());
+
+        a.mark();
+        assertTrue(graph.getVertex(0).isMarked());
+        a.demark();
+        assertFalse(a.isMarked());
+    }
+
+    @Test
+    public void testRemove() {
+        OffHeapGraph<Integer> graph = new OffHeapGraph<>();
+        Vertex a = graph.addVertex(1);
+        Vertex b = graph.addVertex(2);
+        Vertex c = graph.addVertex(3);
+        graph.connect(a, b, 1.0);
+        Edge bc = graph.connect(b, c, 1.0);
+        graph.connect(c, b, 1.0);
+        graph.connect(a, c, 1.0);
+
+        graph.disconnect(bc);
+        assertFalse(graph.adjacent(b, c));
+        assertEquals(0, graph.degree(b));
+
+        graph.removeVertex(b);
+        assertEquals(2, graph.getVertexCount());
+        assertEquals(1, graph.getEdgeCount());
+        assertEquals(0, graph.degree(c));
+        assertFalse(c.getIncomingEdges().iterator().next().getFrom().equals(b));
+
+        // Freed records are reused.
+        Vertex d = graph.addVertex(4);
+        graph.connect(d, a, 1.0);
+        graph.connect(d, c, 1.0);
+        assertEquals(3, graph.getEdgeCount());
+        int edges = 0;
+        for (Edge ignored : graph.getEdges()) {
+            edges++;
+        }
+        assertEquals(3, edges);
+        assertTrue(graph.disconnect(d, c));
+        assertFalse(graph.disconnect(d, c));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemovedVertex() {
+        OffHeapGraph<Integer> graph = new OffHeapGraph<>();
+        Vertex a = graph.addVertex(1);
+        graph.removeVertex(a);
+        graph.degree(a);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testFailFast() {
+        OffHeapGraph<Integer> graph = new OffHeapGraph<>();
+        graph.addVertex(1);
+        graph.addVertex(2);
+        for (Vertex vertex : graph.getVertexes()) {
+            graph.addVertex(3);
+        }
+    }
+
+    @Test
+    public void testStaleEdgeHandle() {
+        OffHeapGraph<String> graph = new OffHeapGraph<>();
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Edge stale = graph.connect(a, b, 1.0);
+        graph.disconnect(stale);
+        // The new edge reuses the record of the removed one.
+        Edge reused = graph.connect(b, a, 2.0);
+        assertFalse(stale.equals(reused));
+        try {
+            graph.disconnect(stale);
+            fail("Stale handle accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            graph.setWeight(stale, 3.0);
+            fail("Stale handle accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        assertEquals(2.0, graph.getEdgeValue(reused), 0.0);
+        assertEquals(reused, b.getEdges().iterator().next());
+        graph.disconnect(reused);
+        assertEquals(0, graph.getEdgeCount());
+    }
+
+    @Test
+    public void testIndexKeptUntilModified() {
+        OffHeapGraph<String> graph = new OffHeapGraph<>();
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Edge ab = graph.connect(a, b, 1.0);
+        GraphIndex index = graph.index();
+        assertSame(index, graph.index());
+        assertEquals(1.0, Graphs.bellmanFord(graph, a).get(b).getLast().getTotalCost(), 0.0);
+        assertSame(index, graph.index());
+
+        graph.setWeight(ab, 4.0);
+        assertNotSame(index, graph.index());
+        assertEquals(4.0, Graphs.bellmanFord(graph, a).get(b).getLast().getTotalCost(), 0.0);
+        index = graph.index();
+        Vertex c = graph.addVertex("C");
+        graph.connect(a, c, 1.0);
+        graph.connect(c, b, 1.0);
+        assertNotSame(index, graph.index());
+        assertEquals(2.0, Graphs.bellmanFord(graph, a).get(b).getLast().getTotalCost(), 0.0);
+    }
+
+    @Test
+    public void testSameShortestPathsAsIntGraph() {
+        Random random = new Random(3);
+        int n = 200;
+        IntGraph<Integer> reference = new IntGraph<>();
+        OffHeapGraph<Integer> graph = new OffHeapGraph<>();
+        Vertex[] referenceVertexes = new Vertex[n];
+        Vertex[] vertexes = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            referenceVertexes[i] = reference.addVertex(i);
+            vertexes[i] = graph.addVertex(i);
+        }
+        for (int i = 0; i < 5 * n; i++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            int weight = 1 + random.nextInt(20);
+            reference.connect(referenceVertexes[from], referenceVertexes[to], weight);
+            graph.connect(vertexes[from], vertexes[to], weight);
+        }
+        graph.removeVertex(vertexes[7]);
+        reference.removeVertex(referenceVertexes[7]);
+
+        ShortestPathTree expected = new DijkstraEngine(reference).shortestPaths(referenceVertexes[0]);
+        ShortestPathTree tree = new DijkstraEngine(graph).shortestPaths(vertexes[0]);
+        for (int i = 0; i < n; i++) {
+            if (i == 7) continue;
+            assertEquals(expected.distanceTo(referenceVertexes[i]), tree.distanceTo(vertexes[i]), 0.0);
+            List<Graphs.Link> route = Graphs.dijkstra(graph, vertexes[0], vertexes[i]);
+            if (tree.hasPathTo(vertexes[i]) && i != 0) {
+                assertNotNull(route);
+                assertEquals(tree.distanceTo(vertexes[i]), route.get(route.size() - 1).getTotalCost(), 0.0);
+                assertEquals(vertexes[i], route.get(route.size() - 1).getEdge().getTo());
+                List<Graphs.Link> path = tree.pathTo(vertexes[i]);
+                assertEquals(vertexes[i], path.get(path.size() - 1).getEdge().getTo());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.hambbe.graph;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Test {@link DoubleGraph}, {@link LongGraph} and the primitive connect of {@link IntGraph}.
+ */
+public class PrimitiveGraphTest {
+
+    @Test
+    public void testDoubleGraph() {
+        DoubleGraph<String> graph = new DoubleGraph<>();
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, 0.25);
+        graph.connect(b, c, Double.valueOf(0.5));
+        graph.connect(a, c, 1.0);
+
+        assertEquals(0.25, graph.getEdgeValue(ab), 0.0);
+        List<Graphs.Link> route = Graphs.dijkstra(graph, a, c);
+        assertNotNull(route);
+        assertEquals(2, route.size());
+        assertEquals(0.75, route.get(1).getTotalCost(), 0.0);
+    }
+
+    @Test
+    public void testLongGraph() {
+        LongGraph<String> graph = new LongGraph<>(false, UnweightedGraph.Storage.ARRAY);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Edge ab = graph.connect(a, b, 3_000_000_000L);
+        graph.connect(b, c, 1);
+        graph.connect(a, c, 4_000_000_000L);
+
+        assertEquals(3_000_000_000L, (long) graph.getEdgeValue(ab));
+        ShortestPathTree tree = new DijkstraEngine(graph).shortestPaths(a);
+        assertEquals(3_000_000_001.0, tree.distanceTo(c), 0.0);
+    }
+
+    @Test
+    public void testLongGraphWeightRange() {
+        LongGraph<String> graph = new LongGraph<>();
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        graph.connect(a, b, LongGraph.MAX_WEIGHT);
+        graph.connect(a, b, -LongGraph.MAX_WEIGHT);
+        for (long weight : new long[] { LongGraph.MAX_WEIGHT + 1, -LongGraph.MAX_WEIGHT - 1, Long.MAX_VALUE }) {
+            try {
+                graph.connect(a, b, weight);
+                fail("Weight " + weight + " accepted");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+            try {
+                graph.connect(a, b, Long.valueOf(weight));
+                fail("Weight " + weight + " accepted");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+            try {
+                graph.connectAll(new Vertex[] { a, b }, new int[] { 0 }, new int[] { 1 }, new long[] { weight });
+                fail("Weight " + weight + " accepted");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+        assertEquals(2, graph.degree(a));
+    }
+
+    @Test
+    public void testIntGraph() {
+        IntGraph<String> graph = new IntGraph<>();
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Edge ab = graph.connect(a, b, 5);
+        graph.connect(b, a, Integer.valueOf(6));
+        assertEquals(5, (int) graph.getEdgeValue(ab));
+        assertEquals(5.0, ab.getWeight(), 0.0);
+        assertEquals(1, graph.degree(b));
+    }
+
+    @Test
+    public void testBulkLoad() {
+        DoubleGraph<Integer> graph = new DoubleGraph<>();
+        Vertex[] vertexes = graph.addVertexes(Arrays.asList(0, 1, 2));
+        graph.connectAll(vertexes, new int[] { 0, 1, 0 }, new int[] { 1, 2, 2 }, new double[] { 0.5, 0.5, 1.5 });
+        assertEquals(2, graph.degree(vertexes[0]));
+        assertEquals(1.0, new DijkstraEngine(graph).shortestPaths(vertexes[0]).distanceTo(vertexes[2]), 0.0);
+
+        LongGraph<Integer> longGraph = new LongGraph<>();
+        Vertex[] longVertexes = longGraph.addVertexes(Arrays.asList(0, 1));
+        longGraph.connectAll(longVertexes, new int[] { 0 }, new int[] { 1 }, new long[] { 7 });
+        assertEquals(7L, (long) longGraph.getEdgeValue(longVertexes[0].getEdges().iterator().next()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkLoadWeightLength() {
+        DoubleGraph<Integer> graph = new DoubleGraph<>();
+        Vertex[] vertexes = graph.addVertexes(Arrays.asList(0, 1));
+        graph.connectAll(vertexes, new int[] { 0 }, new int[] { 1 }, new double[0]);
+    }
+
+}
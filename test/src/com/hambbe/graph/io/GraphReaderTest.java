@@ -0,0 +1,188 @@
+package com.hambbe.graph.io;
+
+import com.hambbe.graph.DoubleGraph;
+import com.hambbe.graph.Edge;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.IntGraph;
+import com.hambbe.graph.Vertex;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Test reading and writing graphs with {@link GraphReader} and {@link GraphWriter}.
+ */
+public class GraphReaderTest {
+
+    private static ReadableByteChannel input(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static Map<Long, Vertex> byId(IntGraph<Long> graph) {
+        Map<Long, Vertex> result = new HashMap<>();
+        for (Vertex vertex : graph.getVertexes()) {
+            result.put(graph.getValue(vertex), vertex);
+        }
+        return result;
+    }
+
+    @Test
+    public void testDimacs() throws IOException {
+        IntGraph<Long> graph = new IntGraph<>();
+        GraphReader.readDimacs(input("c road network\np sp 3 3\na 1 2 4\r\na 2 3 5\n\na 1 3 10\n"), graph);
+        assertEquals(3, graph.getVertexCount());
+        Map<Long, Vertex> vertexes = byId(graph);
+        List<Graphs.Link> route = Graphs.dijkstra(graph, vertexes.get(1L), vertexes.get(3L));
+        assertNotNull(route);
+        assertEquals(9.0, route.get(route.size() - 1).getTotalCost(), 0.0);
+    }
+
+    @Test
+    public void testEdgeList() throws IOException {
+        IntGraph<Long> graph = new IntGraph<>();
+        GraphReader.readEdgeList(input("# Directed graph\n# FromNodeId\tToNodeId\n1000000007\t5\n5\t42 3\n% other comment\n42 1000000007"), graph);
+        assertEquals(3, graph.getVertexCount());
+        Map<Long, Vertex> vertexes = byId(graph);
+        assertEquals(1, graph.degree(vertexes.get(5L)));
+        assertEquals(3, (int) graph.getEdgeValue(vertexes.get(5L).getEdges().iterator().next()));
+        assertEquals(1, (int) graph.getEdgeValue(vertexes.get(42L).getEdges().iterator().next()));
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        DoubleGraph<Long> graph = new DoubleGraph<>();
+        GraphReader.readCsv(input("source, target, weight\n1,2,0.25\n2, 3 ,1.5e1\n3,1\n"), graph);
+        assertEquals(3, graph.getVertexCount());
+        double sum = 0;
+        for (Edge edge : graph.getEdges()) {
+            sum += edge.getWeight();
+        }
+        assertEquals(16.25, sum, 0.0);
+    }
+
+    @Test
+    public void testLargeEdgeList() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int n = 50000;
+        for (int i = 0; i < n; i++) {
+            text.append(i * 7L).append('\t').append(((i + 1) % n) * 7L).append('\n');
+            text.append(i * 7L).append('\t').append(((i + 2) % n) * 7L).append('\t').append(3).append('\n');
+        }
+        IntGraph<Long> graph = new IntGraph<>(false);
+        GraphReader.readEdgeList(input(text.toString()), graph);
+        assertEquals(n, graph.getVertexCount());
+        for (Vertex vertex : graph.getVertexes()) {
+            assertEquals(2, graph.degree(vertex));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GraphWriter.writeEdgeList(graph, Channels.newChannel(bytes), Long::longValue, true);
+        IntGraph<Long> copy = new IntGraph<>(false);
+        GraphReader.readEdgeList(input(bytes.toString("US-ASCII")), copy);
+        assertEquals(n, copy.getVertexCount());
+        Map<Long, Vertex> vertexes = byId(copy);
+        for (Vertex vertex : graph.getVertexes()) {
+            Vertex other = vertexes.get(graph.getValue(vertex));
+            assertEquals(graph.degree(vertex), copy.degree(other));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        IntGraph<Long> graph = new IntGraph<>();
+        GraphReader.readDimacs(input("p sp 4 4\na 1 2 1\na 2 3 2\na 3 4 3\na 4 1 4\n"), graph);
+
+        ByteArrayOutputStream dimacs = new ByteArrayOutputStream();
+        GraphWriter.writeDimacs(graph, Channels.newChannel(dimacs));
+        assertEquals("p sp 4 4\na 1 2 1\na 2 3 2\na 3 4 3\na 4 1 4\n", dimacs.toString("US-ASCII"));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        GraphWriter.writeCsv(graph, Channels.newChannel(csv), Long::longValue);
+        assertEquals("from,to,weight\n1,2,1\n2,3,2\n3,4,3\n4,1,4\n", csv.toString("US-ASCII"));
+
+        DoubleGraph<Long> copy = new DoubleGraph<>();
+        GraphReader.readCsv(input(csv.toString("US-ASCII")), copy);
+        assertEquals(4, copy.getVertexCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testVertexOutOfRange() throws IOException {
+        GraphReader.readDimacs(input("p sp 2 1\na 1 3 1\n"), new IntGraph<>());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownLineType() throws IOException {
+        GraphReader.readDimacs(input("p sp 2 1\narc 1 2 1\n"), new IntGraph<>());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedLine() throws IOException {
+        GraphReader.readEdgeList(input("1 2\n3 x\n"), new IntGraph<>());
+    }
+
+    @Test
+    public void testCsvRoundTripSpecialWeights() throws IOException {
+        DoubleGraph<Long> graph = new DoubleGraph<>();
+        Vertex[] vertexes = graph.addVertexes(Arrays.asList(1L, 2L, 3L, 4L));
+        graph.connect(vertexes[0], vertexes[1], Double.NaN);
+        graph.connect(vertexes[1], vertexes[2], Double.POSITIVE_INFINITY);
+        graph.connect(vertexes[2], vertexes[3], Double.NEGATIVE_INFINITY);
+        graph.connect(vertexes[3], vertexes[0], 1e300);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        GraphWriter.writeCsv(graph, Channels.newChannel(csv), Long::longValue);
+        DoubleGraph<Long> copy = new DoubleGraph<>();
+        GraphReader.readCsv(input(csv.toString("US-ASCII")), copy);
+        Map<Long, Vertex> byId = new HashMap<>();
+        for (Vertex vertex : copy.getVertexes()) {
+            byId.put(copy.getValue(vertex), vertex);
+        }
+        for (Vertex vertex : graph.getVertexes()) {
+            Edge edge = vertex.getEdges().iterator().next();
+            Edge other = byId.get(graph.getValue(vertex)).getEdges().iterator().next();
+            assertEquals(edge.getWeight(), other.getWeight(), 0.0);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCsvUnknownWord() throws IOException {
+        GraphReader.readCsv(input("1,2,Inf\n"), new DoubleGraph<>());
+    }
+
+    @Test
+    public void testDimacsRoundTripIntRange() throws IOException {
+        IntGraph<Long> graph = new IntGraph<>();
+        GraphReader.readDimacs(input("p sp 2 2\na 1 2 2147483647\na 2 1 -2147483648\n"), graph);
+        ByteArrayOutputStream dimacs = new ByteArrayOutputStream();
+        GraphWriter.writeDimacs(graph, Channels.newChannel(dimacs));
+        assertEquals("p sp 2 2\na 1 2 2147483647\na 2 1 -2147483648\n", dimacs.toString("US-ASCII"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDimacsNeedsIntWeights() throws IOException {
+        DoubleGraph<Long> graph = new DoubleGraph<>();
+        GraphReader.readCsv(input("1,2,4294967296\n"), graph);
+        GraphWriter.writeDimacs(graph, Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDimacsNeedsIntegralWeights() throws IOException {
+        DoubleGraph<Long> graph = new DoubleGraph<>();
+        GraphReader.readCsv(input("1,2,0.5\n"), graph);
+        GraphWriter.writeDimacs(graph, Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+}
@@ -7,9 +7,13 @@ import com.hambbe.graph.data.TestData;
 
 import org.junit.Test;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -69,4 +73,32 @@ public class AStarTest {
         assertNull("Expected: No route found, Actual: route found.", route);
     }
 
+    @Test
+    public void testHeuristicOncePerVertex() {
+        final String toValue = "ACBX";
+        final Function<String, Double> optimal = TestData.ABCGraphOptimalHeuristic(toValue);
+        final Map<String, Integer> calls = new HashMap<>();
+        final ToDoubleFunction<String> heuristic = value -> {
+            calls.merge(value, 1, Integer::sum);
+            return optimal.apply(value);
+        };
+        IntGraph<String> graph = TestData.ABCintGraph(4);
+        Vertex from = null;
+        Vertex to = null;
+        for (Vertex vertex : graph.getVertexes()) {
+            if (graph.getValue(vertex).equals("A"))
+                from = vertex;
+            if (graph.getValue(vertex).equals(toValue))
+                to = vertex;
+        }
+
+        List<Graphs.Link> route = Graphs.aStarDouble(graph, from, to, heuristic);
+        assertNotNull(route);
+        assertEquals(toValue.length() - 1, route.size());
+        assertTrue(!calls.isEmpty());
+        for (Map.Entry<String, Integer> entry : calls.entrySet()) {
+            assertEquals("Heuristic of " + entry.getKey() + " calculated more than once.", 1, (int) entry.getValue());
+        }
+    }
+
 }
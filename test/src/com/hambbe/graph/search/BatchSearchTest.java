@@ -0,0 +1,107 @@
+package com.hambbe.graph.search;
+
+import com.hambbe.graph.BatchSearch;
+import com.hambbe.graph.DijkstraEngine;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.IntGraph;
+import com.hambbe.graph.ShortestPathTree;
+import com.hambbe.graph.Vertex;
+import com.hambbe.graph.data.TestData;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchSearchTest {
+
+    @Test
+    public void testDijkstra() {
+        IntGraph<String> graph = TestData.ABCintGraph(3);
+        List<Vertex> vertexes = new ArrayList<>();
+        graph.getVertexes().forEach(vertexes::add);
+
+        Map<String, Vertex> byValue = new HashMap<>();
+        for (Vertex vertex : vertexes) {
+            byValue.put(graph.getValue(vertex), vertex);
+        }
+
+        // Mostly queries from a prefix of the goal, so routes of different lengths, some unreachable.
+        Random random = new Random(4);
+        List<BatchSearch.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Vertex to = vertexes.get(random.nextInt(vertexes.size()));
+            String word = graph.getValue(to);
+            Vertex from = (i % 5 == 0) ? vertexes.get(random.nextInt(vertexes.size())) : byValue.get(word.substring(0, 1 + random.nextInt(word.length())));
+            queries.add(new BatchSearch.Query(from, to));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<List<Graphs.Link>> routes = new BatchSearch(executor, 4).dijkstra(graph, queries);
+            assertEquals(queries.size(), routes.size());
+            for (int i = 0; i < queries.size(); i++) {
+                BatchSearch.Query query = queries.get(i);
+                List<Graphs.Link> expected = Graphs.dijkstra(graph, query.getFrom(), query.getTo());
+                List<Graphs.Link> route = routes.get(i);
+                if (expected == null) {
+                    assertNull(route);
+                } else if (expected.isEmpty()) {
+                    assertTrue(route.isEmpty());
+                } else {
+                    // Same endpoints and costs as the query at the same position.
+                    assertEquals(query.getFrom(), route.get(0).getFrom());
+                    assertEquals(query.getTo(), route.get(route.size() - 1).getTo());
+                    assertEquals(expected.get(expected.size() - 1).getTotalCost(), route.get(route.size() - 1).getTotalCost(), 0.0);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDijkstraAll() {
+        IntGraph<String> graph = TestData.ABCintGraph(2);
+        List<Vertex> sources = new ArrayList<>();
+        for (Vertex vertex : graph.getVertexes()) {
+            if (graph.getValue(vertex).length() == 1) sources.add(vertex);
+        }
+
+        List<HashMap<Vertex, LinkedList<Graphs.Link>>> routes = new BatchSearch().dijkstraAll(graph, sources);
+        assertEquals(sources.size(), routes.size());
+        for (int i = 0; i < sources.size(); i++) {
+            // Source itself and its 26 children.
+            assertEquals(27, routes.get(i).size());
+            assertEquals(0, routes.get(i).get(sources.get(i)).size());
+        }
+
+        // One thread: the chunks reuse their arrays for several sources.
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<HashMap<Vertex, LinkedList<Graphs.Link>>> reused = new BatchSearch(executor, 1).dijkstraAll(graph, sources);
+            for (int i = 0; i < sources.size(); i++) {
+                ShortestPathTree expected = new DijkstraEngine(graph).shortestPaths(sources.get(i));
+                assertEquals(27, reused.get(i).size());
+                for (Map.Entry<Vertex, LinkedList<Graphs.Link>> entry : reused.get(i).entrySet()) {
+                    LinkedList<Graphs.Link> route = entry.getValue();
+                    double costs = route.isEmpty() ? 0 : route.getLast().getTotalCost();
+                    assertEquals(expected.distanceTo(entry.getKey()), costs, 0.0);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
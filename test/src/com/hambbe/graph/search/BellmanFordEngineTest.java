@@ -0,0 +1,109 @@
+package com.hambbe.graph.search;
+
+import com.hambbe.graph.BellmanFordEngine;
+import com.hambbe.graph.DijkstraEngine;
+import com.hambbe.graph.DirectedGraph;
+import com.hambbe.graph.Edge;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.ShortestPathTree;
+import com.hambbe.graph.Vertex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BellmanFordEngineTest {
+
+    @Test
+    public void testNegativeEdges() {
+        DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Vertex d = graph.addVertex("D");
+        graph.connect(a, b, 4);
+        graph.connect(a, c, 2);
+        graph.connect(b, d, -3);
+        graph.connect(c, d, 1);
+
+        ShortestPathTree tree = new BellmanFordEngine(graph).shortestPaths(a);
+        assertFalse(tree.hasNegativeCycle());
+        assertNull(tree.getNegativeCycle());
+        assertEquals(1.0, tree.distanceTo(d), 0.0);
+        List<Graphs.Link> route = tree.pathTo(d);
+        assertNotNull(route);
+        assertEquals(2, route.size());
+        assertSame(b, route.get(0).getEdge().getTo());
+    }
+
+    @Test
+    public void testNegativeCycle() {
+        DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        Vertex d = graph.addVertex("D");
+        graph.connect(a, b, 1);
+        graph.connect(b, c, 1);
+        graph.connect(c, d, -1);
+        graph.connect(d, b, -1);
+
+        ShortestPathTree tree = new BellmanFordEngine(graph).shortestPaths(a);
+        assertTrue(tree.hasNegativeCycle());
+        List<Edge> cycle = tree.getNegativeCycle();
+        assertEquals(3, cycle.size());
+        double costs = 0;
+        for (int i = 0; i < cycle.size(); i++) {
+            Edge edge = cycle.get(i);
+            assertSame(edge.getTo(), cycle.get((i + 1) % cycle.size()).getFrom());
+            costs += edge.getWeight();
+        }
+        assertTrue(costs < 0);
+        assertNull(tree.pathTo(c));
+        assertNull(Graphs.bellmanFord(graph, a, c));
+    }
+
+    @Test
+    public void testUnreachableNegativeCycle() {
+        DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex a = graph.addVertex("A");
+        Vertex b = graph.addVertex("B");
+        Vertex c = graph.addVertex("C");
+        graph.connect(b, c, -1);
+        graph.connect(c, b, -1);
+
+        ShortestPathTree tree = new BellmanFordEngine(graph).shortestPaths(a);
+        assertFalse(tree.hasNegativeCycle());
+        assertNull(tree.pathTo(b));
+        assertTrue(tree.pathTo(a).isEmpty());
+    }
+
+    @Test
+    public void testSameAsDijkstra() {
+        final Random random = new Random(11);
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        List<Vertex> vertexes = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            vertexes.add(graph.addVertex(i));
+        }
+        for (int i = 0; i < 1500; i++) {
+            graph.connect(vertexes.get(random.nextInt(300)), vertexes.get(random.nextInt(300)), 1 + random.nextInt(20));
+        }
+        ShortestPathTree bellmanFord = new BellmanFordEngine(graph).shortestPaths(vertexes.get(0));
+        ShortestPathTree dijkstra = new DijkstraEngine(graph).shortestPaths(vertexes.get(0));
+        assertFalse(bellmanFord.hasNegativeCycle());
+        for (Vertex vertex : vertexes) {
+            assertEquals(dijkstra.distanceTo(vertex), bellmanFord.distanceTo(vertex), 0.0);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.hambbe.graph.search;
+
+import com.hambbe.graph.CsrGraph;
+import com.hambbe.graph.DirectedGraph;
+import com.hambbe.graph.Graph;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.IntGraph;
+import com.hambbe.graph.Vertex;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BidirectionalDijkstraTest {
+
+    @Test
+    public void testBidirectionalDijkstra() {
+        DirectedGraph<String, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+
+        Vertex H = graph.addVertex("Hambbe");
+        Vertex I = graph.addVertex("ist");
+        Vertex J = graph.addVertex("Jaja");
+        Vertex D = graph.addVertex("der");
+        Vertex E = graph.addVertex("Wie bitte?");
+        Vertex W = graph.addVertex("wahre");
+        Vertex K = graph.addVertex("Koenig");
+
+        graph.connect(H,I,1);
+        graph.connect(I,D,1);
+        graph.connect(D,W,3);
+        graph.connect(W,K,1);
+        graph.connect(H,J,1);
+        graph.connect(J,K,7);
+        graph.connect(I,E,6);
+        graph.connect(E,K,1);
+
+        List<Graphs.Link> route = Graphs.bidirectionalDijkstra(graph, H, K);
+
+        assertNotNull(route);
+        String result = graph.getValue(route.get(0).getFrom()) + " " + route.stream().map(s -> graph.getValue(s.getTo())).reduce((s, a) -> s + " " + a).get();
+        assertEquals("Hambbe ist der wahre Koenig", result);
+        assertEquals(6.0, route.get(route.size() - 1).getTotalCost(), 0.0);
+
+        graph.disconnect(W, K);
+        graph.disconnect(J, K);
+        graph.disconnect(E, K);
+        assertNull(Graphs.bidirectionalDijkstra(graph, H, K));
+    }
+
+    @Test
+    public void testSameCostsAsDijkstra() {
+        Random random = new Random(3);
+        IntGraph<Integer> graph = new IntGraph<>();
+        Vertex[] vertexes = new Vertex[200];
+        for (int i = 0; i < vertexes.length; i++) {
+            vertexes[i] = graph.addVertex(i);
+        }
+        for (int i = 0; i < 600; i++) {
+            graph.connect(vertexes[random.nextInt(200)], vertexes[random.nextInt(200)], 1 + random.nextInt(20));
+        }
+        assertSameCosts(graph, vertexes, random);
+
+        CsrGraph<Integer, Integer> csr = CsrGraph.of(graph);
+        Vertex[] csrVertexes = new Vertex[vertexes.length];
+        for (int i = 0; i < csrVertexes.length; i++) {
+            csrVertexes[i] = csr.getVertex(i);
+        }
+        assertSameCosts(csr, csrVertexes, random);
+    }
+
+    private static void assertSameCosts(Graph<Integer, Integer> graph, Vertex[] vertexes, Random random) {
+        for (int i = 0; i < 100; i++) {
+            Vertex from = vertexes[random.nextInt(vertexes.length)];
+            Vertex to = vertexes[random.nextInt(vertexes.length)];
+            List<Graphs.Link> expected = Graphs.dijkstra(graph, from, to);
+            List<Graphs.Link> actual = Graphs.bidirectionalDijkstra(graph, from, to);
+            if (expected == null) {
+                assertNull(actual);
+            } else if (expected.isEmpty()) {
+                assertEquals(0, actual.size());
+            } else {
+                assertEquals(expected.get(expected.size() - 1).getTotalCost(), actual.get(actual.size() - 1).getTotalCost(), 0.0);
+                assertSame(from, actual.get(0).getFrom());
+                assertSame(to, actual.get(actual.size() - 1).getTo());
+                for (int k = 1; k < actual.size(); k++) {
+                    assertSame(actual.get(k - 1).getTo(), actual.get(k).getFrom());
+                }
+            }
+        }
+    }
+
+}
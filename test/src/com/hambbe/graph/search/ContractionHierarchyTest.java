@@ -0,0 +1,75 @@
+package com.hambbe.graph.search;
+
+import com.hambbe.graph.ContractionHierarchy;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.IntGraph;
+import com.hambbe.graph.Vertex;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContractionHierarchyTest {
+
+    @Test
+    public void testSameCostsAsDijkstra() {
+        Random random = new Random(11);
+        IntGraph<Integer> graph = new IntGraph<>();
+        Vertex[] vertexes = new Vertex[400];
+        for (int i = 0; i < vertexes.length; i++) {
+            vertexes[i] = graph.addVertex(i);
+        }
+        // Grid with random weights plus some random long distance edges.
+        for (int i = 0; i < vertexes.length; i++) {
+            if (i % 20 != 19) {
+                graph.connect(vertexes[i], vertexes[i + 1], 1 + random.nextInt(10));
+                graph.connect(vertexes[i + 1], vertexes[i], 1 + random.nextInt(10));
+            }
+            if (i + 20 < vertexes.length) {
+                graph.connect(vertexes[i], vertexes[i + 20], 1 + random.nextInt(10));
+                graph.connect(vertexes[i + 20], vertexes[i], 1 + random.nextInt(10));
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            graph.connect(vertexes[random.nextInt(400)], vertexes[random.nextInt(400)], 5 + random.nextInt(50));
+        }
+        Vertex unreachable = graph.addVertex(-1);
+
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph);
+        assertTrue(hierarchy.getShortcutCount() > 0);
+
+        for (int i = 0; i < 300; i++) {
+            Vertex from = vertexes[random.nextInt(vertexes.length)];
+            Vertex to = vertexes[random.nextInt(vertexes.length)];
+            List<Graphs.Link> expected = Graphs.dijkstra(graph, from, to);
+            List<Graphs.Link> actual = hierarchy.shortestPath(from, to);
+            if (expected.isEmpty()) {
+                assertEquals(0, actual.size());
+                continue;
+            }
+            double cost = expected.get(expected.size() - 1).getTotalCost();
+            assertEquals(cost, hierarchy.distance(from, to), 0.0);
+            assertEquals(cost, actual.get(actual.size() - 1).getTotalCost(), 0.0);
+            // Route consists of original, connected edges.
+            assertSame(from, actual.get(0).getFrom());
+            assertSame(to, actual.get(actual.size() - 1).getTo());
+            double sum = 0;
+            for (int k = 0; k < actual.size(); k++) {
+                if (k > 0) assertSame(actual.get(k - 1).getTo(), actual.get(k).getFrom());
+                assertTrue(graph.getEdgeValue(actual.get(k).getEdge()) != null);
+                sum += actual.get(k).getCost();
+            }
+            assertEquals(cost, sum, 0.0);
+        }
+
+        assertNull(hierarchy.shortestPath(vertexes[0], unreachable));
+        assertEquals(Double.POSITIVE_INFINITY, hierarchy.distance(unreachable, vertexes[0]), 0.0);
+    }
+
+}
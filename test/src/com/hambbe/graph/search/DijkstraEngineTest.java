@@ -0,0 +1,121 @@
+package com.hambbe.graph.search;
+
+import com.hambbe.graph.CsrGraph;
+import com.hambbe.graph.DijkstraEngine;
+import com.hambbe.graph.DirectedGraph;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.ShortestPathTree;
+import com.hambbe.graph.Vertex;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DijkstraEngineTest {
+
+    private DirectedGraph<String, Integer> graph;
+    private Vertex H, I, J, D, E, W, K;
+
+    private void setUp() {
+        graph = new DirectedGraph<>(Integer::doubleValue);
+        H = graph.addVertex("Hambbe");
+        I = graph.addVertex("ist");
+        J = graph.addVertex("Jaja");
+        D = graph.addVertex("der");
+        E = graph.addVertex("Wie bitte?");
+        W = graph.addVertex("wahre");
+        K = graph.addVertex("Koenig");
+
+        graph.connect(H,I,1);
+        graph.connect(I,D,1);
+        graph.connect(D,W,3);
+        graph.connect(W,K,1);
+        graph.connect(H,J,1);
+        graph.connect(J,K,7);
+        graph.connect(I,E,6);
+        graph.connect(E,K,1);
+    }
+
+    @Test
+    public void testShortestPath() {
+        setUp();
+        List<Graphs.Link> route = new DijkstraEngine(graph).shortestPath(H, K);
+
+        assertNotNull(route);
+        String result = graph.getValue(route.get(0).getFrom()) + " " + route.stream().map(s -> graph.getValue(s.getTo())).reduce((s, a) -> s + " " + a).get();
+        assertEquals("Hambbe ist der wahre Koenig", result);
+        assertEquals(6.0, route.get(route.size() - 1).getTotalCost(), 0.0);
+        // Links point to the edges of the original graph.
+        assertEquals(1, (int) graph.getEdgeValue(route.get(0).getEdge()));
+    }
+
+    @Test
+    public void testNoPath() {
+        setUp();
+        Vertex X = graph.addVertex("unreachable");
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        assertEquals(Double.POSITIVE_INFINITY, engine.shortestPaths(H).distanceTo(X), 0.0);
+        assertNull(engine.shortestPath(H, X));
+        assertTrue(engine.shortestPath(H, H).isEmpty());
+    }
+
+    @Test
+    public void testSameAsGraphs() {
+        setUp();
+        HashMap<Vertex, LinkedList<Graphs.Link>> expected = Graphs.dijkstra(graph, H);
+        ShortestPathTree tree = new DijkstraEngine(graph).shortestPaths(H);
+
+        assertSame(H, tree.getSource());
+        assertEquals(0.0, tree.distanceTo(H), 0.0);
+        assertEquals(expected.size(), tree.toRoutes().size());
+        for (Vertex vertex : expected.keySet()) {
+            LinkedList<Graphs.Link> route = expected.get(vertex);
+            double expectedCost = route.isEmpty() ? 0.0 : route.getLast().getTotalCost();
+            assertEquals(expectedCost, tree.distanceTo(vertex), 0.0000000001);
+            assertEquals(route.size(), tree.pathTo(vertex).size());
+        }
+    }
+
+    @Test
+    public void testCsrGraph() {
+        setUp();
+        CsrGraph<String, Integer> csr = CsrGraph.of(graph);
+        List<Graphs.Link> route = new DijkstraEngine(csr).shortestPath(csr.getVertex(0), csr.getVertex(6));
+        assertNotNull(route);
+        assertEquals(4, route.size());
+        assertEquals(6.0, route.get(3).getTotalCost(), 0.0);
+    }
+
+    @Test
+    public void testTree() {
+        setUp();
+        Vertex unreachable = graph.addVertex("unreachable");
+        ShortestPathTree tree = Graphs.dijkstraTree(graph, H);
+        assertTrue(tree.hasPathTo(K));
+        assertTrue(tree.hasPathTo(H));
+        assertFalse(tree.hasPathTo(unreachable));
+        assertNull(tree.pathTo(unreachable));
+        assertTrue(tree.pathTo(H).isEmpty());
+
+        List<Graphs.Link> path = tree.pathTo(K);
+        List<Graphs.Link> expected = Graphs.dijkstra(graph, H, K);
+        assertEquals(expected.size(), path.size());
+        int i = 0;
+        for (Graphs.Link link : path) {
+            assertSame(expected.get(i).getEdge(), link.getEdge());
+            assertEquals(expected.get(i).getTotalCost(), link.getTotalCost(), 0.0);
+            i++;
+        }
+        assertSame(H, path.get(0).getEdge().getFrom());
+        assertSame(K, path.get(path.size() - 1).getEdge().getTo());
+    }
+}
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -105,4 +106,24 @@ public class DijkstraTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void testDijkstraAllSkipsUnreachable() {
+        DirectedGraph<Test, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        Vertex A = graph.addVertex(new Test(1, "A"));
+        Vertex B = graph.addVertex(new Test(2, "B"));
+        Vertex C = graph.addVertex(new Test(3, "C"));
+        Vertex D = graph.addVertex(new Test(4, "D"));
+        graph.connect(A, B, 1);
+        // C and D only point to the reachable part, D is isolated.
+        graph.connect(C, B, 1);
+
+        // Used to fail with a NullPointerException for unreachable vertexes.
+        HashMap<Vertex, LinkedList<Graphs.Link>> routes = Graphs.dijkstra(graph, A);
+        assertEquals(2, routes.size());
+        assertTrue(routes.get(A).isEmpty());
+        assertEquals(1.0, routes.get(B).getLast().getTotalCost(), 0.0);
+        assertFalse(routes.containsKey(C));
+        assertFalse(routes.containsKey(D));
+    }
+}
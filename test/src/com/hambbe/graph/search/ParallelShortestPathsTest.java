@@ -0,0 +1,125 @@
+package com.hambbe.graph.search;
+
+import com.hambbe.graph.BellmanFordEngine;
+import com.hambbe.graph.DijkstraEngine;
+import com.hambbe.graph.DirectedGraph;
+import com.hambbe.graph.Edge;
+import com.hambbe.graph.Graphs;
+import com.hambbe.graph.ParallelShortestPaths;
+import com.hambbe.graph.ShortestPathTree;
+import com.hambbe.graph.Vertex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelShortestPathsTest {
+
+    /**
+     * Random graph with enough vertexes, so the relaxations are split into several tasks.
+     */
+    private static List<Vertex> randomGraph(final DirectedGraph<Integer, Integer> graph, final int size, final int minWeight) {
+        final Random random = new Random(12);
+        List<Vertex> vertexes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            vertexes.add(graph.addVertex(i));
+        }
+        for (int i = 0; i < size * 6; i++) {
+            graph.connect(vertexes.get(random.nextInt(size)), vertexes.get(random.nextInt(size)), minWeight + random.nextInt(50));
+        }
+        return vertexes;
+    }
+
+    @Test
+    public void testDeltaStepping() {
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        List<Vertex> vertexes = randomGraph(graph, 5000, 0);
+        ShortestPathTree expected = new DijkstraEngine(graph).shortestPaths(vertexes.get(0));
+        ParallelShortestPaths parallel = new ParallelShortestPaths(graph, new ForkJoinPool(4));
+        for (double delta : new double[] { 1, 10, 1000 }) {
+            ShortestPathTree tree = parallel.deltaStepping(vertexes.get(0), delta);
+            for (Vertex vertex : vertexes) {
+                assertEquals(expected.distanceTo(vertex), tree.distanceTo(vertex), 0.0);
+            }
+        }
+        ShortestPathTree tree = parallel.deltaStepping(vertexes.get(0));
+        for (Vertex vertex : vertexes) {
+            List<Graphs.Link> route = tree.pathTo(vertex);
+            if (route == null) {
+                assertEquals(Double.POSITIVE_INFINITY, expected.distanceTo(vertex), 0.0);
+            } else if (!route.isEmpty()) {
+                assertEquals(expected.distanceTo(vertex), route.get(route.size() - 1).getTotalCost(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelDijkstra() {
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        List<Vertex> vertexes = randomGraph(graph, 500, 1);
+        HashMap<Vertex, LinkedList<Graphs.Link>> expected = Graphs.dijkstra(graph, vertexes.get(0));
+        HashMap<Vertex, LinkedList<Graphs.Link>> routes = Graphs.parallelDijkstra(graph, vertexes.get(0));
+        assertEquals(expected.keySet(), routes.keySet());
+        for (Vertex vertex : expected.keySet()) {
+            if (expected.get(vertex).isEmpty()) {
+                assertTrue(routes.get(vertex).isEmpty());
+            } else {
+                assertEquals(expected.get(vertex).getLast().getTotalCost(), routes.get(vertex).getLast().getTotalCost(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testBellmanFord() {
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        List<Vertex> vertexes = randomGraph(graph, 3000, -5);
+        ShortestPathTree expected = new BellmanFordEngine(graph).shortestPaths(vertexes.get(0));
+        ShortestPathTree tree = new ParallelShortestPaths(graph, new ForkJoinPool(4)).bellmanFord(vertexes.get(0));
+        assertEquals(expected.hasNegativeCycle(), tree.hasNegativeCycle());
+        assertTrue(tree.hasNegativeCycle());
+        double costs = 0;
+        for (Edge edge : tree.getNegativeCycle()) {
+            costs += edge.getWeight();
+        }
+        assertTrue(costs < 0);
+        assertNull(Graphs.parallelBellmanFord(graph, vertexes.get(0)));
+    }
+
+    @Test
+    public void testBellmanFordNegativeEdges() {
+        DirectedGraph<Integer, Integer> graph = new DirectedGraph<>(Integer::doubleValue);
+        // Layered graph: negative edges but no cycles.
+        List<Vertex> vertexes = new ArrayList<>();
+        final Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            vertexes.add(graph.addVertex(i));
+        }
+        for (int i = 0; i < 12000; i++) {
+            int a = random.nextInt(2000);
+            int b = random.nextInt(2000);
+            if (a == b) continue;
+            graph.connect(vertexes.get(Math.min(a, b)), vertexes.get(Math.max(a, b)), random.nextInt(40) - 10);
+        }
+        ShortestPathTree expected = new BellmanFordEngine(graph).shortestPaths(vertexes.get(0));
+        ShortestPathTree tree = new ParallelShortestPaths(graph, new ForkJoinPool(4)).bellmanFord(vertexes.get(0));
+        assertFalse(tree.hasNegativeCycle());
+        for (Vertex vertex : vertexes) {
+            assertEquals(expected.distanceTo(vertex), tree.distanceTo(vertex), 0.0);
+        }
+        HashMap<Vertex, LinkedList<Graphs.Link>> routes = Graphs.parallelBellmanFord(graph, vertexes.get(0));
+        assertNotNull(routes);
+        assertEquals(Graphs.bellmanFord(graph, vertexes.get(0)).keySet(), routes.keySet());
+    }
+
+}